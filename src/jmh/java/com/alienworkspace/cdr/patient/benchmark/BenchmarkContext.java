@@ -0,0 +1,72 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.patient.PatientApplication;
+import com.alienworkspace.cdr.patient.service.client.DemographicFeignClient;
+import com.alienworkspace.cdr.patient.service.client.StubDemographicFeignClient;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.util.Arrays;
+
+/**
+ * Boots the application on the embedded {@code benchmark} profile for the benchmarks that need a database.
+ */
+final class BenchmarkContext {
+
+    static final int KNOWN_PERSONS = 100_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(PatientApplication.class, StubDemographicConfiguration.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.NONE)
+                .run(arguments(properties));
+    }
+
+    /**
+     * Boots the application with its web server and the real Feign clients, for the
+     * benchmarks that go through HTTP. Downstream services have to be pointed at with properties.
+     */
+    static ConfigurableApplicationContext startServer(String... properties) {
+        return new SpringApplicationBuilder(PatientApplication.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.SERVLET)
+                .run(arguments(properties));
+    }
+
+    /**
+     * Passes the properties as command line arguments, so they override the application configuration.
+     */
+    private static String[] arguments(String... properties) {
+        return Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    /**
+     * Replaces the demographic Feign client with an in-memory stub that knows the first
+     * {@value #KNOWN_PERSONS} persons.
+     */
+    static class StubDemographicConfiguration {
+
+        @Bean
+        static BeanPostProcessor stubDemographicFeignClient() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!DemographicFeignClient.class.getName().equals(beanName)) {
+                        return bean;
+                    }
+                    StubDemographicFeignClient stub = new StubDemographicFeignClient();
+                    for (long personId = 1; personId <= KNOWN_PERSONS; personId++) {
+                        stub.withPerson(personId);
+                    }
+                    return stub;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.PatientIdentifierType;
+import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.model.audit.AuditTrail;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fully populated entities shared by the benchmarks, so every mapped and compared field carries a value.
+ */
+final class BenchmarkFixtures {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private BenchmarkFixtures() {
+    }
+
+    static Patient patient(long patientId) {
+        Patient patient = audited(Patient.builder()
+                .patientId(patientId)
+                .allergies("Penicillin")
+                .build());
+        patient.setPerson(PersonDto.builder().personId(patientId).build());
+        return patient;
+    }
+
+    static PatientIdentifierType identifierType(int identifierTypeId) {
+        return audited(PatientIdentifierType.builder()
+                .patientIdentifierTypeId(identifierTypeId)
+                .name("National ID " + identifierTypeId)
+                .description("Benchmark identifier type")
+                .build());
+    }
+
+    static PatientIdentifier identifier(Patient patient, PatientIdentifierType identifierType) {
+        return audited(PatientIdentifier.builder()
+                .patientIdentifierId(patient.getPatientId())
+                .patient(patient)
+                .patientIdentifierType(identifierType)
+                .identifier("BM-" + patient.getPatientId())
+                .locationId(1)
+                .build());
+    }
+
+    static Program program(int programId) {
+        return audited(Program.builder()
+                .programId(programId)
+                .name("Program " + programId)
+                .programCode("PRG-" + programId)
+                .description("Benchmark program")
+                .active(true)
+                .build());
+    }
+
+    private static <T extends AuditTrail> T audited(T entity) {
+        entity.setCreatedBy(1L);
+        entity.setCreatedAt(CREATED_AT);
+        entity.setLastModifiedBy(1L);
+        entity.setLastModifiedAt(CREATED_AT.plusDays(1));
+        return entity;
+    }
+}
@@ -0,0 +1,165 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.patient.helpers.Constants;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request throughput of {@code GET /api/patients/{id}} while the demographic service answers slowly,
+ * with requests served on the Tomcat pool of platform threads or on virtual threads.
+ *
+ * <p>
+ * The demographic service is an HTTP stub that answers every person lookup after the given latency and
+ * the person cache is disabled, so every request makes a real Feign call through its circuit breaker.
+ * Each invocation keeps {@value #CONCURRENCY} requests in flight; the score is requests per second.
+ * On platform threads it cannot exceed the Tomcat pool size divided by the latency, unless the machine
+ * runs out of CPU first; lower {@code tomcatThreads} to see that limit on a small machine.
+ *
+ * <p>
+ * Virtual threads need a Java 21 runtime: {@code mvn -Pbenchmark,java21 test-compile exec:exec
+ * -Djmh.args="DownstreamLatencyBenchmark"}. On older runtimes the virtual thread runs are skipped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Dhttp.maxConnections=" + DownstreamLatencyBenchmark.CONCURRENCY)
+public class DownstreamLatencyBenchmark {
+
+    static final int CONCURRENCY = 400;
+
+    private static final int PATIENTS = 1_000;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"200"})
+    private int latencyMillis;
+
+    @Param({"200"})
+    private int tomcatThreads;
+
+    private HttpServer demographicService;
+    private ExecutorService demographicThreads;
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String patientsUrl;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need a Java 21 runtime");
+        }
+        demographicThreads = Executors.newCachedThreadPool();
+        demographicService = HttpServer.create(new InetSocketAddress("localhost", 0), CONCURRENCY);
+        demographicService.setExecutor(demographicThreads);
+        demographicService.createContext(Constants.DEMOGRAPHIC_BASE_URL + "/people/", exchange -> {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            byte[] body = ("{\"personId\":" + path[path.length - 2] + "}").getBytes(StandardCharsets.UTF_8);
+            sleep(latencyMillis);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        demographicService.start();
+
+        context = BenchmarkContext.startServer(
+                "spring.threads.virtual.enabled=" + virtualThreads,
+                "server.tomcat.threads.max=" + tomcatThreads,
+                "spring.cloud.openfeign.client.config.demographic.url=http://localhost:"
+                        + demographicService.getAddress().getPort(),
+                "cdr-application.demographic.cache.maximum-size=0",
+                "resilience4j.ratelimiter.instances.getPatient.limit-for-period=1000000",
+                "resilience4j.ratelimiter.instances.getPatient.limit-refresh-period=1s");
+        PatientRepository patientRepository = context.getBean(PatientRepository.class);
+        List<Patient> patients = new ArrayList<>(PATIENTS);
+        for (long patientId = 1; patientId <= PATIENTS; patientId++) {
+            patients.add(Patient.builder().patientId(patientId).allergies("None").build());
+        }
+        patientRepository.saveAll(patients);
+
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        patientsUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                + Constants.PATIENT_BASE_URL + "/";
+        HttpResponse<String> patient = client.send(HttpRequest.newBuilder(URI.create(patientsUrl + 1))
+                .header("X-cdr-correlation-id", "benchmark")
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (!isFound(patient)) {
+            tearDown();
+            throw new IllegalStateException("Patient could not be read through the demographic stub: "
+                    + patient.statusCode() + " " + patient.body());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        demographicService.stop(0);
+        demographicThreads.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public int getPatients() {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            long patientId = ThreadLocalRandom.current().nextLong(1, PATIENTS + 1);
+            responses.add(client.sendAsync(HttpRequest.newBuilder(URI.create(patientsUrl + patientId))
+                    .header("X-cdr-correlation-id", "benchmark")
+                    .build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        int found = 0;
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            if (isFound(response.join())) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static boolean isFound(HttpResponse<String> patient) {
+        return patient.statusCode() == 200 && patient.body().contains("\"person\":{");
+    }
+
+    private static void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
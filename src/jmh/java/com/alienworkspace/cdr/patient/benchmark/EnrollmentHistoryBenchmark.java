@@ -0,0 +1,159 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import com.alienworkspace.cdr.patient.service.ActiveEnrollment;
+import com.alienworkspace.cdr.patient.service.EnrollmentCursor;
+import com.alienworkspace.cdr.patient.service.MonthlyEnrollment;
+import com.alienworkspace.cdr.patient.service.ProgramService;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the point-in-time enrollment queries on a synthetic {@code patient_program} table of millions of
+ * rows: every patient goes through several enrollment episodes in each of a few programs, one after the
+ * other, and the last episode is still active for half of them.
+ *
+ * <p>
+ * Seeding takes a few minutes. The embedded database does not plan like MySQL, so check the index-only
+ * plans against MySQL:
+ * {@code -Djmh.args="EnrollmentHistoryBenchmark -jvmArgsAppend -Dspring.datasource.url=jdbc:mysql://..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EnrollmentHistoryBenchmark {
+
+    private static final int PROGRAMS = 4;
+    private static final int EPISODES = 10;
+    private static final int PATIENTS_PER_TRANSACTION = 500;
+    private static final LocalDate FIRST_ENROLLMENT = LocalDate.of(2010, 1, 1);
+    private static final LocalDate ON = LocalDate.of(2015, 6, 30);
+
+    @Param({"2000000"})
+    private int enrollments;
+
+    private ConfigurableApplicationContext context;
+    private ProgramService programService;
+    private int programId;
+    private String deepCursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "cdr-application.id-generation.allocation-size=1000",
+                "spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+                "spring.jpa.properties.hibernate.order_inserts=true");
+        programService = context.getBean(ProgramService.class);
+        programId = seed();
+        context.getBean(MetadataSnapshotHolder.class).rebuild();
+        deepCursor = new EnrollmentCursor(LocalDate.of(2014, 1, 1), 0).encode();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long countActiveEnrollments() {
+        return programService.countActiveEnrollments(programId, ON);
+    }
+
+    @Benchmark
+    public List<ActiveEnrollment> getFirstActivePage() {
+        return programService.getActiveEnrollments(programId, ON, null, 100);
+    }
+
+    @Benchmark
+    public List<ActiveEnrollment> getDeepActivePage() {
+        return programService.getActiveEnrollments(programId, ON, deepCursor, 100);
+    }
+
+    @Benchmark
+    public List<MonthlyEnrollment> getMonthlyEnrollments() {
+        return programService.getMonthlyEnrollments(programId, YearMonth.of(2014, 1), YearMonth.of(2015, 12));
+    }
+
+    /**
+     * Seeds the patients and their episodes a few hundred patients per transaction, so the persistence
+     * context stays small.
+     *
+     * @return the id of the program the benchmarks query
+     */
+    private int seed() {
+        TransactionTemplate transactionTemplate = context.getBean(TransactionTemplate.class);
+        PatientRepository patientRepository = context.getBean(PatientRepository.class);
+        PatientProgramRepository enrollmentRepository = context.getBean(PatientProgramRepository.class);
+        ProgramRepository programRepository = context.getBean(ProgramRepository.class);
+        List<Program> programs = new ArrayList<>(PROGRAMS);
+        for (int index = 1; index <= PROGRAMS; index++) {
+            programs.add(programRepository.save(Program.builder()
+                    .name("History Program " + index)
+                    .programCode("HP" + index)
+                    .active(true)
+                    .build()));
+        }
+        Random random = new Random(42);
+        int patients = enrollments / (PROGRAMS * EPISODES);
+        for (long from = 1; from <= patients; from += PATIENTS_PER_TRANSACTION) {
+            long to = Math.min(patients, from + PATIENTS_PER_TRANSACTION - 1);
+            long first = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<PatientProgram> episodes = new ArrayList<>();
+                for (long patientId = first; patientId <= to; patientId++) {
+                    Patient patient = patientRepository.save(Patient.builder().patientId(patientId).build());
+                    for (Program program : programs) {
+                        addEpisodes(episodes, patient, program, random);
+                    }
+                }
+                enrollmentRepository.saveAll(episodes);
+            });
+        }
+        return programs.get(0).getProgramId();
+    }
+
+    private static void addEpisodes(List<PatientProgram> episodes, Patient patient, Program program,
+                                    Random random) {
+        LocalDate dateEnrolled = FIRST_ENROLLMENT.plusDays(random.nextInt(365));
+        for (int episode = 1; episode <= EPISODES; episode++) {
+            LocalDate dateCompleted = dateEnrolled.plusDays(30 + random.nextInt(370));
+            boolean active = episode == EPISODES && random.nextBoolean();
+            episodes.add(PatientProgram.builder()
+                    .patient(patient)
+                    .program(program)
+                    .locationId(1 + random.nextInt(100))
+                    .dateEnrolled(dateEnrolled)
+                    .dateCompleted(active ? null : dateCompleted)
+                    .build());
+            dateEnrolled = dateCompleted.plusDays(random.nextInt(60));
+        }
+    }
+}
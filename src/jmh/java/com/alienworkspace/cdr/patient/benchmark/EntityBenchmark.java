@@ -0,0 +1,65 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.patient.model.Program;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the field by field {@link Program#equals(Object)} and {@link Program#hashCode()}, alone and
+ * when programs are collected into hash based sets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityBenchmark {
+
+    @Param({"100"})
+    private int programs;
+
+    private Program program;
+    private Program sameProgram;
+    private List<Program> programList;
+
+    @Setup
+    public void setUp() {
+        program = BenchmarkFixtures.program(1);
+        sameProgram = BenchmarkFixtures.program(1);
+        programList = new ArrayList<>(programs);
+        for (int programId = 1; programId <= programs; programId++) {
+            programList.add(BenchmarkFixtures.program(programId));
+        }
+    }
+
+    @Benchmark
+    public int programHashCode() {
+        return program.hashCode();
+    }
+
+    @Benchmark
+    public boolean programEquals() {
+        return program.equals(sameProgram);
+    }
+
+    @Benchmark
+    public Set<Program> programHashSet() {
+        return new HashSet<>(programList);
+    }
+}
@@ -0,0 +1,122 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.PatientIdentifierType;
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput of bulk program enrollments and identifier imports, for an allocation size of one
+ * (a sequence round trip per row, as with the old generators) against pooled blocks with JDBC batching.
+ *
+ * <p>
+ * The embedded database has no network round trips, so the difference only shows against MySQL:
+ * {@code -Djmh.args="InsertBenchmark -jvmArgsAppend -Dspring.datasource.url=jdbc:mysql://..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+
+    @Param({"1", "50"})
+    private int allocationSize;
+
+    @Param({"500"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private PatientProgramRepository enrollmentRepository;
+    private PatientIdentifierRepository identifierRepository;
+    private PatientIdentifierTypeRepository identifierTypeRepository;
+    private List<Patient> patients;
+    private Program program;
+    private LocalDate dateEnrolled;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "cdr-application.id-generation.allocation-size=" + allocationSize,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + Math.max(allocationSize, 1));
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        enrollmentRepository = context.getBean(PatientProgramRepository.class);
+        identifierRepository = context.getBean(PatientIdentifierRepository.class);
+        identifierTypeRepository = context.getBean(PatientIdentifierTypeRepository.class);
+        PatientRepository patientRepository = context.getBean(PatientRepository.class);
+        patients = new ArrayList<>(rows);
+        for (long patientId = 1; patientId <= rows; patientId++) {
+            patients.add(patientRepository.save(Patient.builder().patientId(patientId).build()));
+        }
+        program = context.getBean(ProgramRepository.class).save(Program.builder()
+                .name("Insert Benchmark Program")
+                .programCode("IBP")
+                .active(true)
+                .build());
+        dateEnrolled = LocalDate.of(2000, 1, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int enrollPatients() {
+        dateEnrolled = dateEnrolled.plusDays(1);
+        List<PatientProgram> enrollments = new ArrayList<>(rows);
+        for (Patient patient : patients) {
+            enrollments.add(PatientProgram.builder()
+                    .patient(patient)
+                    .program(program)
+                    .dateEnrolled(dateEnrolled)
+                    .build());
+        }
+        return transactionTemplate.execute(status -> enrollmentRepository.saveAll(enrollments).size());
+    }
+
+    @Benchmark
+    public int importIdentifiers() {
+        return transactionTemplate.execute(status -> {
+            PatientIdentifierType identifierType = identifierTypeRepository.save(PatientIdentifierType.builder()
+                    .name("Import " + System.nanoTime())
+                    .build());
+            List<PatientIdentifier> identifiers = new ArrayList<>(rows);
+            for (Patient patient : patients) {
+                identifiers.add(PatientIdentifier.builder()
+                        .patient(patient)
+                        .patientIdentifierType(identifierType)
+                        .identifier(identifierType.getName() + "-" + patient.getPatientId())
+                        .build());
+            }
+            return identifierRepository.saveAll(identifiers).size();
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.audit.AuditTrailMapper;
+import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierMapper;
+import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the entity to DTO mappers used on every patient response.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Patient patient;
+    private PatientIdentifier identifier;
+    private PatientDto patientDto;
+
+    @Setup
+    public void setUp() {
+        patient = BenchmarkFixtures.patient(1L);
+        identifier = BenchmarkFixtures.identifier(patient, BenchmarkFixtures.identifierType(1));
+        patientDto = PatientMapper.INSTANCE.toPatientDto(patient);
+    }
+
+    @Benchmark
+    public PatientDto patientToDto() {
+        return PatientMapper.INSTANCE.toPatientDto(patient);
+    }
+
+    @Benchmark
+    public Patient patientFromDto() {
+        return PatientMapper.INSTANCE.toPatient(patientDto);
+    }
+
+    @Benchmark
+    public PatientDto auditTrailToDto() {
+        AuditTrailMapper.mapToDto(patient, patientDto);
+        return patientDto;
+    }
+
+    @Benchmark
+    public PatientIdentifierDto identifierToDto() {
+        return PatientIdentifierMapper.INSTANCE.toPatientIdentifierDto(identifier);
+    }
+}
@@ -0,0 +1,123 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.PatientIdentifierType;
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import com.alienworkspace.cdr.patient.service.PatientListQuery;
+import com.alienworkspace.cdr.patient.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the patient service read paths against an embedded H2 database, with the demographic service
+ * replaced by an in-memory stub so only this service's own work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PatientServiceBenchmark {
+
+    private static final String CORRELATION_ID = "BENCHMARK";
+
+    @Param({"1000"})
+    private int patients;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private int programId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        patientService = context.getBean(PatientService.class);
+        programId = seed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PatientDto getPatient() {
+        return patientService.getPatient(randomPatientId(), CORRELATION_ID);
+    }
+
+    @Benchmark
+    public PatientDto getPatientByIdentifier() {
+        return patientService.getPatientByIdentifier("BM-" + randomPatientId());
+    }
+
+    @Benchmark
+    public List<PatientDto> getAllPatients() {
+        return patientService.getAllPatients();
+    }
+
+    @Benchmark
+    public List<PatientDto> getPatientsByProgram() {
+        return patientService.getPatientsByProgram(programId);
+    }
+
+    @Benchmark
+    public List<PatientDto> getPatientPage() {
+        return patientService.getPatientPage(PatientListQuery.all(), randomPatientId(), 100);
+    }
+
+    private long randomPatientId() {
+        return ThreadLocalRandom.current().nextLong(1, patients + 1);
+    }
+
+    private int seed() {
+        PatientRepository patientRepository = context.getBean(PatientRepository.class);
+        PatientIdentifierRepository identifierRepository = context.getBean(PatientIdentifierRepository.class);
+        PatientProgramRepository enrollmentRepository = context.getBean(PatientProgramRepository.class);
+        PatientIdentifierType identifierType = context.getBean(PatientIdentifierTypeRepository.class)
+                .save(PatientIdentifierType.builder().name("Benchmark ID").build());
+        Program program = context.getBean(ProgramRepository.class).save(Program.builder()
+                .name("Benchmark Program")
+                .programCode("BMP")
+                .active(true)
+                .build());
+        for (long patientId = 1; patientId <= patients; patientId++) {
+            Patient patient = patientRepository.save(Patient.builder().patientId(patientId).allergies("None").build());
+            identifierRepository.save(PatientIdentifier.builder()
+                    .patient(patient)
+                    .patientIdentifierType(identifierType)
+                    .identifier("BM-" + patientId)
+                    .build());
+            enrollmentRepository.save(PatientProgram.builder()
+                    .patient(patient)
+                    .program(program)
+                    .dateEnrolled(LocalDate.now())
+                    .build());
+        }
+        return program.getProgramId();
+    }
+}
@@ -0,0 +1,54 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Cost of writing patient listings as JSON with the same {@link ObjectMapper} setup Spring MVC uses.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int patients;
+
+    private ObjectMapper objectMapper;
+    private List<PatientDto> patientDtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        patientDtos = LongStream.rangeClosed(1, patients)
+                .mapToObj(BenchmarkFixtures::patient)
+                .map(PatientMapper.INSTANCE::toPatientDto)
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] writePatientList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patientDtos);
+    }
+}
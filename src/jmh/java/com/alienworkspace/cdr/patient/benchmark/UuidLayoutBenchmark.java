@@ -0,0 +1,110 @@
+package com.alienworkspace.cdr.patient.benchmark;
+
+import com.alienworkspace.cdr.patient.model.audit.TimeOrderedUuid;
+import com.alienworkspace.cdr.patient.model.audit.UuidBinaryConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput into a table with a unique {@code uuid} column, for random UUIDs stored as 36
+ * characters against time-ordered UUIDs stored as 16 bytes, on a table that already holds rows.
+ *
+ * <p>
+ * Runs against an embedded database by default. The index effects only fully show on InnoDB:
+ * {@code -Djmh.args="UuidLayoutBenchmark -jvmArgsAppend -Dbenchmark.jdbc.url=jdbc:mysql://..."}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidLayoutBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    /**
+     * Column layout and UUID flavour under test.
+     */
+    public enum Layout {
+        CHAR36_RANDOM("VARCHAR(36)"),
+        BINARY16_TIME_ORDERED("BINARY(16)");
+
+        private final String columnType;
+
+        Layout(String columnType) {
+            this.columnType = columnType;
+        }
+    }
+
+    @Param
+    private Layout layout;
+
+    @Param({"200000"})
+    private int existingRows;
+
+    private final UuidBinaryConverter converter = new UuidBinaryConverter();
+    private Connection connection;
+    private long nextId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(System.getProperty("benchmark.jdbc.url",
+                "jdbc:h2:mem:uuid_layout;MODE=MySQL;DB_CLOSE_DELAY=-1"),
+                System.getProperty("benchmark.jdbc.username", "sa"),
+                System.getProperty("benchmark.jdbc.password", ""));
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS uuid_layout");
+            statement.execute("CREATE TABLE uuid_layout (id BIGINT PRIMARY KEY, uuid " + layout.columnType
+                    + " NOT NULL UNIQUE)");
+        }
+        while (nextId < existingRows) {
+            insertBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE uuid_layout");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertBatch() throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO uuid_layout VALUES (?, ?)")) {
+            for (int row = 0; row < BATCH; row++) {
+                insert.setLong(1, ++nextId);
+                if (layout == Layout.CHAR36_RANDOM) {
+                    insert.setString(2, UUID.randomUUID().toString());
+                } else {
+                    insert.setBytes(2, converter.convertToDatabaseColumn(TimeOrderedUuid.generate().toString()));
+                }
+                insert.addBatch();
+            }
+            int inserted = insert.executeBatch().length;
+            connection.commit();
+            return inserted;
+        }
+    }
+}
@@ -1,9 +1,23 @@
 package com.alienworkspace.cdr.patient;
 
 import com.alienworkspace.cdr.patient.config.AppConfig;
+import com.alienworkspace.cdr.patient.config.BulkEnrollmentProperties;
+import com.alienworkspace.cdr.patient.config.BulkRegistrationProperties;
+import com.alienworkspace.cdr.patient.config.ChangeFeedProperties;
+import com.alienworkspace.cdr.patient.config.CohortIndexProperties;
+import com.alienworkspace.cdr.patient.config.DemographicClientProperties;
+import com.alienworkspace.cdr.patient.config.IdGenerationProperties;
+import com.alienworkspace.cdr.patient.config.IdentifierLookupProperties;
+import com.alienworkspace.cdr.patient.config.LocationTreeProperties;
+import com.alienworkspace.cdr.patient.config.OutboxProperties;
+import com.alienworkspace.cdr.patient.config.PagingProperties;
+import com.alienworkspace.cdr.patient.config.ProgramCounterProperties;
+import com.alienworkspace.cdr.patient.config.UuidMigrationProperties;
+import com.alienworkspace.cdr.patient.service.cache.MetadataChangedEvent;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.bus.jackson.RemoteApplicationEventScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 
 /**
@@ -18,8 +32,13 @@ import org.springframework.cloud.openfeign.EnableFeignClients;
  * <p>Author: Codeium Engineering Team</p>
  */
 @SpringBootApplication
-@EnableConfigurationProperties(value = {AppConfig.class})
+@EnableConfigurationProperties(value = {AppConfig.class, DemographicClientProperties.class, PagingProperties.class,
+    IdentifierLookupProperties.class, IdGenerationProperties.class, UuidMigrationProperties.class,
+    BulkRegistrationProperties.class, BulkEnrollmentProperties.class, LocationTreeProperties.class,
+    OutboxProperties.class, ChangeFeedProperties.class, ProgramCounterProperties.class,
+    CohortIndexProperties.class})
 @EnableFeignClients
+@RemoteApplicationEventScan(basePackageClasses = MetadataChangedEvent.class)
 public class PatientApplication {
 
     /**
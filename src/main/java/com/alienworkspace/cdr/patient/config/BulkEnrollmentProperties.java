@@ -0,0 +1,26 @@
+package com.alienworkspace.cdr.patient.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for enrolling many patients in a program in one request.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.bulk-enrollment")
+public class BulkEnrollmentProperties {
+
+    /**
+     * Number of patients checked and enrolled in one transaction.
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Maximum number of patients that can be enrolled in one request.
+     */
+    private int maxPatients = 50_000;
+}
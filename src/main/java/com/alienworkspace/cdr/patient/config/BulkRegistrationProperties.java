@@ -0,0 +1,34 @@
+package com.alienworkspace.cdr.patient.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for registering many patients in one request.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.bulk-registration")
+public class BulkRegistrationProperties {
+
+    /**
+     * Number of patients registered with the demographic service in one call and inserted in one
+     * transaction.
+     */
+    private int batchSize = 200;
+
+    /**
+     * Number of batches in flight at once. Batches run on the demographic executor, so this should not
+     * exceed its pool size.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Maximum number of patients in a JSON array request. Newline delimited requests are streamed and
+     * not limited.
+     */
+    private int maxRows = 10_000;
+}
@@ -0,0 +1,23 @@
+package com.alienworkspace.cdr.patient.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the incremental patient change feed.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.change-feed")
+public class ChangeFeedProperties {
+
+    /**
+     * How far behind the current time a sync run ends, so changes still being committed with an earlier
+     * timestamp are picked up by the next run instead of being skipped.
+     */
+    private Duration settleTime = Duration.ofSeconds(5);
+}
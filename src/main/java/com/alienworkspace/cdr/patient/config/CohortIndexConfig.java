@@ -0,0 +1,33 @@
+package com.alienworkspace.cdr.patient.config;
+
+import com.alienworkspace.cdr.patient.service.cohort.CohortIndex;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Configuration class scheduling the rebuilds of the cohort index.
+ * The first rebuild starts with the application, so the first cohort query does not wait for it.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+@EnableScheduling
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "cdr-application.cohort-index", name = "enabled", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class CohortIndexConfig implements SchedulingConfigurer {
+
+    private final CohortIndex cohortIndex;
+
+    private final CohortIndexProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(cohortIndex::rebuild, properties.getRebuildInterval());
+    }
+}
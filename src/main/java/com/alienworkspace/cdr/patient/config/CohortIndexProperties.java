@@ -0,0 +1,34 @@
+package com.alienworkspace.cdr.patient.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the in-memory cohort index.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.cohort-index")
+public class CohortIndexProperties {
+
+    /**
+     * Whether the index is built at startup and rebuilt periodically. When disabled it is built by the
+     * first cohort query and only follows the changes made by this instance.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time between the end of one rebuild of the index and the start of the next. Rebuilds pick up the
+     * changes made by the other instances.
+     */
+    private Duration rebuildInterval = Duration.ofMinutes(30);
+
+    /**
+     * Number of patients read per query while the index is built.
+     */
+    private int chunkSize = 10000;
+}
@@ -0,0 +1,103 @@
+package com.alienworkspace.cdr.patient.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for calls made to the demographic service.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@ConfigurationProperties(prefix = "cdr-application.demographic")
+@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Nested properties are bound in place by Spring")
+public class DemographicClientProperties {
+
+    private final Cache cache = new Cache();
+
+    private final Executor executor = new Executor();
+
+    private final Batch batch = new Batch();
+
+    private final LastKnown lastKnown = new LastKnown();
+
+    /**
+     * Settings for the local {@code PersonDto} cache.
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Maximum number of persons kept in memory before the least recently used are evicted.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long an entry may live after it was loaded before it is evicted.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+        /**
+         * How long after it was loaded an entry is reloaded in the background on its next access.
+         */
+        private Duration refreshAfterWrite = Duration.ofMinutes(2);
+    }
+
+    /**
+     * Settings for the executor that runs background calls to the demographic service.
+     */
+    @Getter
+    @Setter
+    public static class Executor {
+
+        /**
+         * Maximum number of concurrent background calls.
+         */
+        private int poolSize = 8;
+
+        /**
+         * Number of calls allowed to wait for a free thread.
+         */
+        private int queueCapacity = 1_000;
+    }
+
+    /**
+     * Settings for resolving many persons at once.
+     */
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Maximum number of patients that can be requested in one batch.
+         */
+        private int maxIds = 2_000;
+
+        /**
+         * Maximum number of ids sent in one bulk call to the demographic service.
+         */
+        private int bulkSize = 500;
+    }
+
+    /**
+     * Settings for the last known good copies of persons served while the demographic service is down.
+     */
+    @Getter
+    @Setter
+    public static class LastKnown {
+
+        /**
+         * Maximum number of persons remembered before the least recently used are evicted.
+         */
+        private long maximumSize = 50_000;
+
+        /**
+         * How long a remembered person may still be served after it was last fetched.
+         */
+        private Duration expireAfterWrite = Duration.ofHours(24);
+    }
+}
@@ -0,0 +1,75 @@
+package com.alienworkspace.cdr.patient.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuration class for the executors used to call downstream services and to maintain the cohort index
+ * off the request thread.
+ *
+ * <p>
+ * With {@code spring.threads.virtual.enabled} on a Java 21 runtime the calls run on virtual threads
+ * instead of a fixed pool. The pool size then limits how many calls run at once.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+public class ExecutorConfig {
+
+    public static final String DEMOGRAPHIC_EXECUTOR = "demographicExecutor";
+
+    public static final String COHORT_INDEX_EXECUTOR = "cohortIndexExecutor";
+
+    /**
+     * Bounded executor for background calls to the demographic service.
+     *
+     * @param properties the demographic client properties
+     * @return the executor
+     */
+    @Bean(name = DEMOGRAPHIC_EXECUTOR)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor demographicExecutor(DemographicClientProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getExecutor().getPoolSize());
+        executor.setMaxPoolSize(properties.getExecutor().getPoolSize());
+        executor.setQueueCapacity(properties.getExecutor().getQueueCapacity());
+        executor.setThreadNamePrefix("demographic-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Executor for background calls to the demographic service that starts a virtual thread per call.
+     * Submitting blocks while the pool size is reached, which is cheap on a virtual request thread.
+     *
+     * @param properties the demographic client properties
+     * @return the executor
+     */
+    @Bean(name = DEMOGRAPHIC_EXECUTOR)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualDemographicExecutor(DemographicClientProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("demographic-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(properties.getExecutor().getPoolSize());
+        return executor;
+    }
+
+    /**
+     * Single thread applying the changes of committed transactions to the cohort index, so writes do not
+     * wait for the reloads and the reloads run in the order they were requested.
+     *
+     * @return the executor
+     */
+    @Bean(name = COHORT_INDEX_EXECUTOR)
+    public ThreadPoolTaskExecutor cohortIndexExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("cohort-index-");
+        return executor;
+    }
+}
@@ -0,0 +1,27 @@
+package com.alienworkspace.cdr.patient.config;
+
+import com.alienworkspace.cdr.patient.model.id.PooledSequenceGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class passing the identifier generation settings on to Hibernate.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+public class IdGenerationConfig {
+
+    /**
+     * Hands the configured allocation size to the {@link PooledSequenceGenerator}.
+     *
+     * @param properties the identifier generation properties
+     * @return the customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer idGenerationCustomizer(IdGenerationProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(PooledSequenceGenerator.ALLOCATION_SIZE_SETTING,
+                properties.getAllocationSize());
+    }
+}
@@ -0,0 +1,22 @@
+package com.alienworkspace.cdr.patient.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for generating entity identifiers.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.id-generation")
+public class IdGenerationProperties {
+
+    /**
+     * Number of identifiers reserved per sequence read. Larger blocks mean fewer sequence round trips
+     * and longer JDBC batches, at the cost of bigger gaps after a restart.
+     */
+    private int allocationSize = 50;
+}
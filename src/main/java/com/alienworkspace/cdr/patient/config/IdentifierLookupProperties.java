@@ -0,0 +1,39 @@
+package com.alienworkspace.cdr.patient.config;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for looking patients up by identifier.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@ConfigurationProperties(prefix = "cdr-application.identifier-lookup")
+@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Nested properties are bound in place by Spring")
+public class IdentifierLookupProperties {
+
+    private final NegativeCache negativeCache = new NegativeCache();
+
+    /**
+     * Settings for the cache of identifiers that matched no patient.
+     */
+    @Getter
+    @Setter
+    public static class NegativeCache {
+
+        /**
+         * Maximum number of unknown identifiers remembered.
+         */
+        private long maximumSize = 50_000;
+
+        /**
+         * How long an identifier is remembered as unknown. Bounds how long another instance may keep
+         * answering not found after the identifier was registered elsewhere.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(1);
+    }
+}
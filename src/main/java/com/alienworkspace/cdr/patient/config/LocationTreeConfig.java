@@ -0,0 +1,35 @@
+package com.alienworkspace.cdr.patient.config;
+
+import com.alienworkspace.cdr.patient.service.cache.LocationTreeHolder;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Configuration class scheduling the periodic reload of the location tree.
+ *
+ * <p>
+ * The first load runs right after startup, so the tree is preloaded before the first lookups.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+@EnableScheduling
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "cdr-application.location-tree", name = "enabled", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class LocationTreeConfig implements SchedulingConfigurer {
+
+    private final LocationTreeHolder locationTreeHolder;
+
+    private final LocationTreeProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(locationTreeHolder::refresh, properties.getRefreshInterval());
+    }
+}
@@ -0,0 +1,27 @@
+package com.alienworkspace.cdr.patient.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the local copy of the location hierarchy.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.location-tree")
+public class LocationTreeProperties {
+
+    /**
+     * Whether the location tree is loaded from the metadata service at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time between the end of one reload of the location tree and the start of the next.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(15);
+}
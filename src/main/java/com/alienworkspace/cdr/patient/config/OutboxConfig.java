@@ -0,0 +1,33 @@
+package com.alienworkspace.cdr.patient.config;
+
+import com.alienworkspace.cdr.patient.service.outbox.OutboxRelay;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Configuration class scheduling the outbox relay and the deletion of published events.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+@EnableScheduling
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "cdr-application.outbox", name = "relay-enabled", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class OutboxConfig implements SchedulingConfigurer {
+
+    private final OutboxRelay outboxRelay;
+
+    private final OutboxProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(outboxRelay::publishPending, properties.getPollInterval());
+        taskRegistrar.addFixedDelayTask(outboxRelay::purgePublished, properties.getPurgeInterval());
+    }
+}
@@ -0,0 +1,53 @@
+package com.alienworkspace.cdr.patient.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the transactional outbox of patient change events.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.outbox")
+public class OutboxProperties {
+
+    /**
+     * Whether pending events are published to the broker. Events are written to the outbox either way.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * Name of the Spring Cloud Stream output binding the events are sent to.
+     */
+    private String binding = "patientEvents-out-0";
+
+    /**
+     * Number of pending events read and published per query.
+     */
+    private int batchSize = 500;
+
+    /**
+     * How long the relay waits for the broker to confirm a batch of events. Events not confirmed in time
+     * stay pending and are published again on the next run.
+     */
+    private Duration confirmTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Time between the end of one relay run and the start of the next.
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * How long published events are kept before they are deleted.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Time between two deletions of expired published events.
+     */
+    private Duration purgeInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,32 @@
+package com.alienworkspace.cdr.patient.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for paginated and streamed patient listings.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.paging")
+public class PagingProperties {
+
+    /**
+     * Page size used when no size is given, including the first page of a listing requested without
+     * any paging parameter.
+     */
+    private int defaultSize = 100;
+
+    /**
+     * Largest page size a client may request; larger sizes are capped.
+     */
+    private int maxSize = 1_000;
+
+    /**
+     * Number of rows read per query while streaming a listing.
+     */
+    private int streamChunkSize = 500;
+}
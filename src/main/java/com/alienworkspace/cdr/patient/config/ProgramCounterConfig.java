@@ -0,0 +1,34 @@
+package com.alienworkspace.cdr.patient.config;
+
+import com.alienworkspace.cdr.patient.service.counter.ProgramEnrollmentCounterReconciler;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Configuration class scheduling the reconciliation of the per-program enrollment counters.
+ * The first run starts with the application, so programs created before the counters existed get one.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+@EnableScheduling
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "cdr-application.program-counters", name = "reconcile-enabled", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class ProgramCounterConfig implements SchedulingConfigurer {
+
+    private final ProgramEnrollmentCounterReconciler programEnrollmentCounterReconciler;
+
+    private final ProgramCounterProperties properties;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(programEnrollmentCounterReconciler::reconcile,
+                properties.getReconcileInterval());
+    }
+}
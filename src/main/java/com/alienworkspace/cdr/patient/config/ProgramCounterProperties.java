@@ -0,0 +1,27 @@
+package com.alienworkspace.cdr.patient.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the per-program enrollment counters.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.program-counters")
+public class ProgramCounterProperties {
+
+    /**
+     * Whether the counters are periodically compared with the enrollments and repaired.
+     */
+    private boolean reconcileEnabled = true;
+
+    /**
+     * Time between the end of one reconciliation and the start of the next.
+     */
+    private Duration reconcileInterval = Duration.ofHours(1);
+}
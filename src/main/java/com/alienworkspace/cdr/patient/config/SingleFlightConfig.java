@@ -0,0 +1,44 @@
+package com.alienworkspace.cdr.patient.config;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
+import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
+import com.alienworkspace.cdr.patient.service.cache.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.CompletionException;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the single flights that coalesce concurrent reads.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+public class SingleFlightConfig {
+
+    public static final String PATIENT_READS = "patient.reads";
+
+    /**
+     * Coalesces concurrent reads of the same patient into one database load and one demographic call.
+     * Every caller that waited for another caller's read receives its own copy of the patient, and a
+     * patient that is not found is reported to each of them with a {@link ResourceNotFoundException} of
+     * its own.
+     *
+     * @param meterRegistry the registry the coalescing counters are published to
+     * @param patientMapper the mapper the patients are copied with
+     * @return the single flight keyed by patient id
+     */
+    @Bean
+    public SingleFlight<Long, PatientDto> patientReadFlight(MeterRegistry meterRegistry, PatientMapper patientMapper) {
+        return new SingleFlight<>(PATIENT_READS, meterRegistry, patientMapper::copy,
+                SingleFlightConfig::copyFailure);
+    }
+
+    private static RuntimeException copyFailure(RuntimeException failure) {
+        if (failure instanceof ResourceNotFoundException) {
+            return new ResourceNotFoundException(failure.getMessage(), failure);
+        }
+        return new CompletionException(failure);
+    }
+}
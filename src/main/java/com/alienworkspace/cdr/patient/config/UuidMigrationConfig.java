@@ -0,0 +1,38 @@
+package com.alienworkspace.cdr.patient.config;
+
+import com.alienworkspace.cdr.patient.migration.UuidBinaryMigration;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class running the {@link UuidBinaryMigration} before JPA starts.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+public class UuidMigrationConfig {
+
+    /**
+     * The migration of string {@code uuid} columns to {@code BINARY(16)}.
+     *
+     * @param dataSource the application data source
+     * @param properties the migration properties
+     * @return the migration, run when the bean is initialized
+     */
+    @Bean
+    public UuidBinaryMigration uuidBinaryMigration(DataSource dataSource, UuidMigrationProperties properties) {
+        return new UuidBinaryMigration(dataSource, properties);
+    }
+
+    /**
+     * Makes the entity manager factory wait for the {@link UuidBinaryMigration}.
+     *
+     * @return the post processor adding the dependency
+     */
+    @Bean
+    public static EntityManagerFactoryDependsOnPostProcessor uuidMigrationDependsOn() {
+        return new EntityManagerFactoryDependsOnPostProcessor(UuidBinaryMigration.class);
+    }
+}
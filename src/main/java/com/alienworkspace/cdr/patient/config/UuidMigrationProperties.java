@@ -0,0 +1,32 @@
+package com.alienworkspace.cdr.patient.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for moving existing {@code uuid} columns to their binary form.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "cdr-application.uuid-migration")
+public class UuidMigrationProperties {
+
+    /**
+     * Whether string {@code uuid} columns are migrated at startup.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Number of rows converted per statement, each committed on its own.
+     */
+    private int chunkSize = 1_000;
+
+    /**
+     * Longest time to wait for another instance to finish migrating before startup fails.
+     */
+    private Duration lockTimeout = Duration.ofMinutes(10);
+}
@@ -0,0 +1,41 @@
+package com.alienworkspace.cdr.patient.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+
+/**
+ * Configuration class for running on virtual threads, active with {@code spring.threads.virtual.enabled}
+ * on a Java 21 runtime.
+ *
+ * <p>
+ * Spring Boot then already serves requests and runs listeners on virtual threads. The Feign clients run
+ * every call inside a circuit breaker, which hands the call to its own cached pool of platform threads;
+ * this moves those calls onto virtual threads as well, so a slow downstream service costs no platform
+ * thread at all.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Runs the calls guarded by the circuit breakers, and so every Feign call, on virtual threads.
+     *
+     * @return the customizer
+     */
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> virtualThreadCircuitBreakerCustomizer() {
+        return factory -> {
+            VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor("circuit-breaker-");
+            factory.configureExecutorService(new ExecutorServiceAdapter(executor));
+            factory.configureGroupExecutorService(group -> new ExecutorServiceAdapter(executor));
+        };
+    }
+}
@@ -4,12 +4,28 @@ import com.alienworkspace.cdr.model.dto.patient.PatientDto;
 import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
 import com.alienworkspace.cdr.model.dto.patient.PatientProgramDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.config.BulkRegistrationProperties;
+import com.alienworkspace.cdr.patient.config.PagingProperties;
 import com.alienworkspace.cdr.patient.exception.AlreadyExistException;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
 import com.alienworkspace.cdr.patient.helpers.Constants;
+import com.alienworkspace.cdr.patient.service.CohortPage;
+import com.alienworkspace.cdr.patient.service.CohortService;
+import com.alienworkspace.cdr.patient.service.LocationPatientCount;
+import com.alienworkspace.cdr.patient.service.PatientChangeService;
+import com.alienworkspace.cdr.patient.service.PatientChanges;
+import com.alienworkspace.cdr.patient.service.PatientField;
 import com.alienworkspace.cdr.patient.service.PatientIdentifierService;
+import com.alienworkspace.cdr.patient.service.PatientListQuery;
 import com.alienworkspace.cdr.patient.service.PatientProgramService;
+import com.alienworkspace.cdr.patient.service.PatientRegistrationResult;
 import com.alienworkspace.cdr.patient.service.PatientService;
+import com.alienworkspace.cdr.patient.service.PatientView;
+import com.alienworkspace.cdr.patient.service.cache.LocationLevel;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,11 +34,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -32,7 +55,10 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller for managing patient-related operations.
@@ -58,6 +84,12 @@ import org.springframework.web.bind.annotation.RestController;
  * <p>
  * Base URL: {@value Constants#PATIENT_BASE_URL}
  *
+ * <p>
+ * The patient listings accept an optional {@code after} cursor and {@code size}. When either is
+ * given a single page ordered by patient id is returned, and the {@value Constants#NEXT_CURSOR_HEADER}
+ * header carries the cursor of the next page while more rows may follow. Requesting a listing with
+ * {@code Accept: application/x-ndjson} streams every row as one JSON document per line instead.
+ *
  * @author Firstname Lastname
  * @version 1.0
  * @since 1.0
@@ -74,53 +106,170 @@ public class PatientController {
     private final PatientService patientService;
     private final PatientIdentifierService patientIdentifierService;
     private final PatientProgramService patientProgramService;
+    private final PatientChangeService patientChangeService;
+    private final CohortService cohortService;
+    private final PagingProperties pagingProperties;
+    private final BulkRegistrationProperties bulkRegistrationProperties;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Retrieves all patients in the system.
-     * Returns a list of all non-voided patients with their basic information.
+     * Retrieves all patients in the system, one page at a time.
+     * Returns a page of the non-voided patients with their basic information; without {@code after} and
+     * {@code size} the first page of the default size is returned. The {@value Constants#NEXT_CURSOR_HEADER}
+     * header carries the cursor of the next page. Stream the NDJSON listing to read every patient at once.
      *
+     * @param after The last patient id of the previous page
+     * @param size The maximum number of patients to return
      * @return ResponseEntity of List of PatientDto List of all patients with 200 OK status
      */
     @Operation(summary = "Get all patients", description = "Retrieves all patients")
     @ApiResponse(responseCode = "200", description = "Patients retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientDto.class)))
     @GetMapping
-    public ResponseEntity<List<PatientDto>> getAllPatients() {
-        return ResponseEntity.ok(patientService.getAllPatients());
+    public ResponseEntity<List<PatientDto>> getAllPatients(@RequestParam(required = false) Long after,
+                                                           @RequestParam(required = false) Integer size) {
+        return page(PatientListQuery.all(), after, size);
+    }
+
+    /**
+     * Streams all patients as newline delimited JSON.
+     *
+     * @return ResponseEntity of StreamingResponseBody writing one patient per line with 200 OK status
+     */
+    @Operation(summary = "Stream all patients", description = "Streams all patients as newline delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Patients streamed successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = PatientDto.class)))
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPatients() {
+        return stream(PatientListQuery.all());
     }
 
     /**
      * Retrieves a specific patient by their ID.
      * Returns detailed information about a single patient.
      *
+     * <p>
+     * The response carries an {@code ETag}. When the {@code If-None-Match} header matches the current tag,
+     * 304 Not Modified is returned without mapping the patient or calling the demographic service. The current
+     * tag is only looked up when the header is present.
+     *
      * @param id The unique identifier of the patient
+     * @param request The request, checked for {@code If-None-Match}
      * @return ResponseEntity of PatientDto Patient information with 200 OK status
      * @throws ResourceNotFoundException if patient not found
      */
     @Operation(summary = "Get a patient by ID", description = "Retrieves a patient by their ID")
     @ApiResponse(responseCode = "200", description = "Patient retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientDto.class)))
+    @ApiResponse(responseCode = "304", description = "Patient not modified")
     @GetMapping("/{id}")
     @RateLimiter(name = "getPatient", fallbackMethod = "getPatientFallback")
     public ResponseEntity<PatientDto> getPatient(@RequestHeader("X-cdr-correlation-id") String correlationId,
-                                                 @PathVariable long id) {
+                                                 @PathVariable long id, WebRequest request) {
         log.debug("Retrieving patient with ID: {}", id);
-        return ResponseEntity.ok(patientService.getPatient(id, correlationId));
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(patientService.getPatientETag(id))) {
+            return null;
+        }
+        PatientDto patient = patientService.getPatient(id, correlationId);
+        return ResponseEntity.ok().eTag(patientService.getPatientETag(patient)).body(patient);
     }
 
     /**
      * Fallback method for the getPatient method.
      *
      * @param id The unique identifier of the patient
+     * @param request The request
      * @param e The exception that occurred during the request
      * @return ResponseEntity of PatientDto Patient information with 200 OK status
      */
     public ResponseEntity<PatientDto> getPatientFallback(@RequestHeader("X-cdr-correlation-id") String correlationId,
-                                                         @PathVariable long id, Throwable e) {
+                                                         @PathVariable long id, WebRequest request, Throwable e) {
+        log.error("Retryable Error retrieving patient with ID: {} with correlationId: {}", id, correlationId, e);
+        return ResponseEntity.ok(null);
+    }
+
+    /**
+     * Retrieves a specific patient with only the requested fields.
+     * Selected instead of {@link #getPatient(String, long, WebRequest)} when the {@code fields} parameter is present.
+     * The demographic service is only called when {@code person} is requested.
+     *
+     * @param id The unique identifier of the patient
+     * @param fields Comma separated parts to include: {@code person}, {@code identifiers}, {@code programs},
+     *               {@code audit}
+     * @return ResponseEntity of PatientView Patient information with 200 OK status
+     * @throws ResourceNotFoundException if patient not found
+     * @throws BadRequestException if a field is unknown
+     */
+    @Operation(summary = "Get selected fields of a patient by ID",
+            description = "Retrieves a patient by their ID with only the requested fields")
+    @ApiResponse(responseCode = "200", description = "Patient retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientView.class)))
+    @GetMapping(value = "/{id}", params = "fields")
+    @RateLimiter(name = "getPatient", fallbackMethod = "getPatientViewFallback")
+    public ResponseEntity<PatientView> getPatientView(@RequestHeader("X-cdr-correlation-id") String correlationId,
+                                                      @PathVariable long id, @RequestParam String fields) {
+        log.debug("Retrieving fields {} of patient with ID: {}", fields, id);
+        return ResponseEntity.ok(patientService.getPatient(id, PatientField.parse(fields), correlationId));
+    }
+
+    /**
+     * Fallback method for the getPatientView method.
+     *
+     * @param id The unique identifier of the patient
+     * @param fields The requested fields
+     * @param e The exception that occurred during the request
+     * @return ResponseEntity of PatientView Patient information with 200 OK status
+     */
+    public ResponseEntity<PatientView> getPatientViewFallback(String correlationId, long id, String fields,
+                                                              Throwable e) {
         log.error("Retryable Error retrieving patient with ID: {} with correlationId: {}", id, correlationId, e);
         return ResponseEntity.ok(null);
     }
 
+    /**
+     * Retrieves many patients at once.
+     * Loads every requested patient in one query and resolves their person data in bulk,
+     * replacing one call to the single patient endpoint per id.
+     *
+     * @param ids The unique identifiers of the patients
+     * @return ResponseEntity of List of PatientDto Found patients with 200 OK status
+     * @throws BadRequestException if more patients are requested than allowed
+     */
+    @Operation(summary = "Get patients by IDs", description = "Retrieves many patients by their IDs")
+    @ApiResponse(responseCode = "200", description = "Patients retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientDto.class)))
+    @PostMapping("/batch")
+    public ResponseEntity<List<PatientDto>> getPatients(@RequestHeader("X-cdr-correlation-id") String correlationId,
+                                                        @RequestBody List<Long> ids) {
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieving {} patients with correlationId: {}", ids.size(), correlationId);
+        }
+        return ResponseEntity.ok(patientService.getPatients(ids, correlationId));
+    }
+
+    /**
+     * Retrieves many patients at once with only the requested fields.
+     * Selected instead of {@link #getPatients(String, List)} when the {@code fields} parameter is present.
+     *
+     * @param ids The unique identifiers of the patients
+     * @param fields Comma separated parts to include: {@code person}, {@code identifiers}, {@code programs},
+     *               {@code audit}
+     * @return ResponseEntity of List of PatientView Found patients with 200 OK status
+     * @throws BadRequestException if more patients are requested than allowed or a field is unknown
+     */
+    @Operation(summary = "Get selected fields of patients by IDs",
+            description = "Retrieves many patients by their IDs with only the requested fields")
+    @ApiResponse(responseCode = "200", description = "Patients retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientView.class)))
+    @PostMapping(value = "/batch", params = "fields")
+    public ResponseEntity<List<PatientView>> getPatientViews(
+            @RequestHeader("X-cdr-correlation-id") String correlationId, @RequestBody List<Long> ids,
+            @RequestParam String fields) {
+        return ResponseEntity.ok(patientService.getPatients(ids, PatientField.parse(fields), correlationId));
+    }
+
     /**
      * Creates a new patient record.
      * Registers a new patient in the system with their basic information.
@@ -139,6 +288,63 @@ public class PatientController {
         return ResponseEntity.status(HttpStatus.CREATED).body(patientService.createPatient(patientDto, correlationId));
     }
 
+    /**
+     * Creates many patient records at once.
+     * Persons are registered with the demographic service in batches and the patients of each batch
+     * are inserted together. A patient that fails does not fail the others.
+     *
+     * @param patientDtos The patients to create
+     * @return ResponseEntity of List of PatientRegistrationResult One result per patient, in request order,
+     *         with 200 OK status
+     * @throws BadRequestException if more patients are sent than allowed
+     */
+    @Operation(summary = "Create many patients", description = "Creates many patients and reports each one")
+    @ApiResponse(responseCode = "200", description = "Patients processed",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = PatientRegistrationResult.class)))
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<PatientRegistrationResult>> createPatients(
+            @RequestHeader("X-cdr-correlation-id") String correlationId, @RequestBody List<PatientDto> patientDtos) {
+        int maxRows = bulkRegistrationProperties.getMaxRows();
+        if (patientDtos.size() > maxRows) {
+            throw new BadRequestException("At most " + maxRows + " patients can be created at once");
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Creating {} patients with correlationId: {}", patientDtos.size(), correlationId);
+        }
+        List<PatientRegistrationResult> results = new ArrayList<>(patientDtos.size());
+        patientService.registerPatients(patientDtos.iterator(), correlationId, results::add);
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Creates many patient records from newline delimited JSON.
+     * The request is read while it is processed, so it is not limited in size, and one result per
+     * patient is streamed back in request order.
+     *
+     * @param body The request body, one patient per line
+     * @return ResponseEntity of StreamingResponseBody writing one result per line with 200 OK status
+     */
+    @Operation(summary = "Stream many new patients",
+            description = "Creates patients sent as newline delimited JSON and streams a result per patient")
+    @ApiResponse(responseCode = "200", description = "Patients processed",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = PatientRegistrationResult.class)))
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCreatePatients(
+            @RequestHeader("X-cdr-correlation-id") String correlationId, InputStream body) {
+        log.debug("Streaming patient creation with correlationId: {}", correlationId);
+        StreamingResponseBody response = outputStream -> {
+            try (MappingIterator<PatientDto> patientDtos = objectMapper.readerFor(PatientDto.class).readValues(body);
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                patientService.registerPatients(patientDtos, correlationId, result -> writeLine(generator, result));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
+    }
+
     /**
      * Updates an existing patient's information.
      * Modifies the information of a patient identified by their ID.
@@ -191,32 +397,74 @@ public class PatientController {
 
     /**
      * Finds patients by identifier type.
-     * Retrieves all patients who have a specific type of identifier.
+     * Retrieves the patients who have a specific type of identifier, one page at a time, starting with
+     * the first page of the default size when no paging parameter is given.
      *
      * @param identifierType The ID of the identifier type to search for
+     * @param after The last patient id of the previous page
+     * @param size The maximum number of patients to return
      * @return ResponseEntity of List of PatientDto List of matching patients with 200 OK status
      */
     @Operation(summary = "Get a patient by identifier", description = "Retrieves a patient by their identifier")
     @ApiResponse(responseCode = "200", description = "Patient retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientDto.class)))
     @GetMapping("/identifier/type/{identifierType}")
-    public ResponseEntity<List<PatientDto>> getPatientByIdentifierType(@PathVariable int identifierType) {
-        return ResponseEntity.ok(patientService.getPatientsByIdentifierType(identifierType));
+    public ResponseEntity<List<PatientDto>> getPatientByIdentifierType(@PathVariable int identifierType,
+                                                                       @RequestParam(required = false) Long after,
+                                                                       @RequestParam(required = false) Integer size) {
+        return page(PatientListQuery.identifierType(identifierType), after, size);
+    }
+
+    /**
+     * Streams patients by identifier type as newline delimited JSON.
+     *
+     * @param identifierType The ID of the identifier type to search for
+     * @return ResponseEntity of StreamingResponseBody writing one patient per line with 200 OK status
+     */
+    @Operation(summary = "Stream patients by identifier type",
+            description = "Streams patients by identifier type as newline delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Patients streamed successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = PatientDto.class)))
+    @GetMapping(value = "/identifier/type/{identifierType}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPatientsByIdentifierType(@PathVariable int identifierType) {
+        return stream(PatientListQuery.identifierType(identifierType));
     }
 
     /**
      * Finds patients by program enrollment.
-     * Retrieves all patients enrolled in a specific program.
+     * Retrieves the patients enrolled in a specific program, one page at a time, starting with the first
+     * page of the default size when no paging parameter is given.
      *
      * @param programId The ID of the program to search for
+     * @param after The last patient id of the previous page
+     * @param size The maximum number of patients to return
      * @return ResponseEntity of List of PatientDto List of enrolled patients with 200 OK status
      */
     @Operation(summary = "Get a patient by program", description = "Retrieves a patient by their program")
     @ApiResponse(responseCode = "200", description = "Patient retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientDto.class)))
     @GetMapping("/program/{programId}")
-    public ResponseEntity<List<PatientDto>> getPatientsByProgram(@PathVariable int programId) {
-        return ResponseEntity.ok(patientService.getPatientsByProgram(programId));
+    public ResponseEntity<List<PatientDto>> getPatientsByProgram(@PathVariable int programId,
+                                                                 @RequestParam(required = false) Long after,
+                                                                 @RequestParam(required = false) Integer size) {
+        return page(PatientListQuery.program(programId), after, size);
+    }
+
+    /**
+     * Streams patients by program enrollment as newline delimited JSON.
+     *
+     * @param programId The ID of the program to search for
+     * @return ResponseEntity of StreamingResponseBody writing one patient per line with 200 OK status
+     */
+    @Operation(summary = "Stream patients by program",
+            description = "Streams patients by program as newline delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Patients streamed successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = PatientDto.class)))
+    @GetMapping(value = "/program/{programId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPatientsByProgram(@PathVariable int programId) {
+        return stream(PatientListQuery.program(programId));
     }
 
     /**
@@ -237,18 +485,160 @@ public class PatientController {
         return ResponseEntity.ok(patientService.getPatientsByProgramAndStatus(programId, status));
     }
 
+    /**
+     * Finds patients by location.
+     * Retrieves the patients enrolled in a program or holding an identifier at any location at or below
+     * a country, state, county, city, community or location, one page at a time.
+     *
+     * @param level The level of the location node, e.g. {@code state}
+     * @param id The ID of the location node
+     * @param after The last patient id of the previous page
+     * @param size The maximum number of patients to return
+     * @return ResponseEntity of List of PatientDto List of matching patients with 200 OK status
+     * @throws BadRequestException if the level is unknown
+     */
+    @Operation(summary = "Get patients by location",
+            description = "Retrieves the patients seen at any location below a node of the location hierarchy")
+    @ApiResponse(responseCode = "200", description = "Patients retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientDto.class)))
+    @GetMapping("/location/{level}/{id}")
+    public ResponseEntity<List<PatientDto>> getPatientsByLocation(@PathVariable String level, @PathVariable int id,
+                                                                  @RequestParam(required = false) Long after,
+                                                                  @RequestParam(required = false) Integer size) {
+        return page(PatientListQuery.location(locationLevel(level), id), after, size);
+    }
+
+    /**
+     * Streams patients by location as newline delimited JSON.
+     *
+     * @param level The level of the location node, e.g. {@code state}
+     * @param id The ID of the location node
+     * @return ResponseEntity of StreamingResponseBody writing one patient per line with 200 OK status
+     * @throws BadRequestException if the level is unknown
+     */
+    @Operation(summary = "Stream patients by location",
+            description = "Streams the patients seen at any location below a node as newline delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Patients streamed successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = PatientDto.class)))
+    @GetMapping(value = "/location/{level}/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPatientsByLocation(@PathVariable String level,
+                                                                          @PathVariable int id) {
+        return stream(PatientListQuery.location(locationLevel(level), id));
+    }
+
+    /**
+     * Counts patients by location.
+     * Counts the distinct patients enrolled in a program and holding an identifier at any location at or
+     * below a node of the location hierarchy.
+     *
+     * @param level The level of the location node, e.g. {@code state}
+     * @param id The ID of the location node
+     * @return ResponseEntity of LocationPatientCount The counts with 200 OK status
+     * @throws BadRequestException if the level is unknown
+     * @throws ResourceNotFoundException if the node is not in the location hierarchy
+     */
+    @Operation(summary = "Count patients by location",
+            description = "Counts the patients seen at any location below a node of the location hierarchy")
+    @ApiResponse(responseCode = "200", description = "Patients counted successfully",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = LocationPatientCount.class)))
+    @GetMapping("/location/{level}/{id}/count")
+    public ResponseEntity<LocationPatientCount> countPatientsByLocation(@PathVariable String level,
+                                                                        @PathVariable int id) {
+        return ResponseEntity.ok(patientService.countPatientsByLocation(locationLevel(level), id));
+    }
+
+    /**
+     * Retrieves the patients, identifiers and program enrollments changed since a cursor.
+     * Without a cursor every record is returned, so a client starts with a full sync and then only
+     * follows the changes. Pages are requested with the returned cursor until one is {@code complete};
+     * the cursor of that page starts the next sync.
+     *
+     * @param since The cursor returned by the previous page
+     * @param size The maximum number of records to return
+     * @return ResponseEntity of PatientChanges The changed records with 200 OK status
+     * @throws BadRequestException if the cursor is malformed or the size is not positive
+     */
+    @Operation(summary = "Get patient changes",
+            description = "Retrieves the patients, identifiers and enrollments changed since a cursor")
+    @ApiResponse(responseCode = "200", description = "Changes retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientChanges.class)))
+    @GetMapping("/changes")
+    public ResponseEntity<PatientChanges> getChanges(@RequestParam(required = false) String since,
+                                                     @RequestParam(required = false) Integer size) {
+        int requested = size == null ? pagingProperties.getDefaultSize() : size;
+        return ResponseEntity.ok(patientChangeService.getChanges(since,
+                Math.min(requested, pagingProperties.getMaxSize())));
+    }
+
+    /**
+     * Retrieves the ids of the patients matching a cohort expression, such as
+     * {@code program:1 AND NOT completed:1 AND identifier:2}.
+     * The ids are returned in ascending order, one page at a time, together with the number of matching
+     * patients; the {@value Constants#NEXT_CURSOR_HEADER} header carries the cursor of the next page.
+     *
+     * @param expression The cohort expression
+     * @param after The last patient id of the previous page
+     * @param size The maximum number of patient ids to return
+     * @return ResponseEntity of CohortPage The matching patient ids with 200 OK status
+     * @throws BadRequestException if the expression is malformed, the size is not positive or the
+     *     cursor is negative
+     */
+    @Operation(summary = "Get a patient cohort",
+            description = "Retrieves the ids of the patients matching a boolean expression over their programs, "
+                    + "program statuses and identifier types")
+    @ApiResponse(responseCode = "200", description = "Cohort retrieved successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CohortPage.class)))
+    @GetMapping("/cohort")
+    public ResponseEntity<CohortPage> getCohort(@RequestParam("q") String expression,
+                                                @RequestParam(required = false) Long after,
+                                                @RequestParam(required = false) Integer size) {
+        int requested = size == null ? pagingProperties.getDefaultSize() : size;
+        int pageSize = Math.min(requested, pagingProperties.getMaxSize());
+        if (pageSize < 1 || (after != null && after < 0)) {
+            throw new BadRequestException("Page size must be positive and the cursor must not be negative");
+        }
+        CohortPage cohort = cohortService.getCohort(expression, after == null ? 0 : after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        List<Long> patientIds = cohort.patientIds();
+        if (patientIds.size() == pageSize) {
+            response.header(Constants.NEXT_CURSOR_HEADER, String.valueOf(patientIds.get(patientIds.size() - 1)));
+        }
+        return response.body(cohort);
+    }
+
     /**
      * Retrieves all voided (soft-deleted) patients.
-     * Returns a list of all patients that have been marked as voided.
+     * Returns the patients that have been marked as voided, one page at a time, starting with the first
+     * page of the default size when no paging parameter is given.
      *
+     * @param after The last patient id of the previous page
+     * @param size The maximum number of patients to return
      * @return ResponseEntity of List of PatientDto voided patients with 200 OK status
      */
     @Operation(summary = "Get all patients both voided", description = "Retrieves all patients both voided")
     @ApiResponse(responseCode = "200", description = "Patients retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = PatientDto.class)))
     @GetMapping("/both-voided")
-    public ResponseEntity<List<PatientDto>> getAllPatientsBothVoided() {
-        return ResponseEntity.ok(patientService.getAllPatientsBothVoided());
+    public ResponseEntity<List<PatientDto>> getAllPatientsBothVoided(@RequestParam(required = false) Long after,
+                                                                     @RequestParam(required = false) Integer size) {
+        return page(PatientListQuery.voided(), after, size);
+    }
+
+    /**
+     * Streams all voided patients as newline delimited JSON.
+     *
+     * @return ResponseEntity of StreamingResponseBody writing one patient per line with 200 OK status
+     */
+    @Operation(summary = "Stream all patients both voided",
+            description = "Streams all voided patients as newline delimited JSON")
+    @ApiResponse(responseCode = "200", description = "Patients streamed successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = PatientDto.class)))
+    @GetMapping(value = "/both-voided", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllPatientsBothVoided() {
+        return stream(PatientListQuery.voided());
     }
 
     /**
@@ -293,6 +683,26 @@ public class PatientController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Voids a patient's program enrollment.
+     * Marks the enrollment as voided rather than physically deleting the record.
+     *
+     * @param patientId The ID of the enrolled patient
+     * @param programId The ID of the program
+     * @param recordVoidRequest The void request containing reason and metadata
+     * @return ResponseEntity Void Empty response with 204 No Content status
+     * @throws ResourceNotFoundException if enrollment not found
+     */
+    @Operation(summary = "Void a patient's program enrollment",
+            description = "Voids a patient's program enrollment")
+    @ApiResponse(responseCode = "204", description = "Patient program enrollment voided successfully")
+    @DeleteMapping("{patientId}/program/{programId}")
+    public ResponseEntity<Void> voidPatientProgramEnrollment(@PathVariable long patientId, @PathVariable int programId,
+                                                             @RequestBody RecordVoidRequest recordVoidRequest) {
+        patientProgramService.voidProgramEnrollment(patientId, programId, recordVoidRequest);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Adds a new identifier to a patient.
      * Associates a new identifier (e.g., hospital number, national ID) with a patient.
@@ -345,4 +755,46 @@ public class PatientController {
         patientIdentifierService.deletePatientIdentifier(id, recordVoidRequest);
         return ResponseEntity.ok().build();
     }
+
+    private ResponseEntity<List<PatientDto>> page(PatientListQuery query, Long after, Integer size) {
+        int requested = size == null ? pagingProperties.getDefaultSize() : size;
+        int pageSize = Math.min(requested, pagingProperties.getMaxSize());
+        if (pageSize < 1 || (after != null && after < 0)) {
+            throw new BadRequestException("Page size must be positive and the cursor must not be negative");
+        }
+        List<PatientDto> patients = patientService.getPatientPage(query, after == null ? 0 : after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (patients.size() == pageSize) {
+            response.header(Constants.NEXT_CURSOR_HEADER,
+                    String.valueOf(patients.get(patients.size() - 1).getPatientId()));
+        }
+        return response.body(patients);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(PatientListQuery query) {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                patientService.streamPatients(query, patient -> writeLine(generator, patient));
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    private static LocationLevel locationLevel(String level) {
+        try {
+            return LocationLevel.valueOf(level.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown location level: " + level, e);
+        }
+    }
+
+    private static void writeLine(JsonGenerator generator, Object value) {
+        try {
+            generator.writeObject(value);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -4,7 +4,22 @@ import static com.alienworkspace.cdr.patient.helpers.Constants.PROGRAM_BASE_URL;
 
 import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.config.PagingProperties;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import com.alienworkspace.cdr.patient.helpers.Constants;
+import com.alienworkspace.cdr.patient.service.ActiveEnrollment;
+import com.alienworkspace.cdr.patient.service.BulkEnrollmentRequest;
+import com.alienworkspace.cdr.patient.service.BulkEnrollmentResult;
+import com.alienworkspace.cdr.patient.service.CohortExportRow;
+import com.alienworkspace.cdr.patient.service.EnrollmentCursor;
+import com.alienworkspace.cdr.patient.service.MonthlyEnrollment;
+import com.alienworkspace.cdr.patient.service.PatientProgramService;
+import com.alienworkspace.cdr.patient.service.ProgramExportService;
 import com.alienworkspace.cdr.patient.service.ProgramService;
+import com.alienworkspace.cdr.patient.service.ProgramSummary;
+import com.alienworkspace.cdr.patient.service.export.CohortRowWriter;
+import com.alienworkspace.cdr.patient.service.export.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,8 +28,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,8 +48,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * REST controller for managing healthcare programs.
@@ -58,7 +87,13 @@ import org.springframework.web.bind.annotation.RestController;
 @SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
 public class ProgramController {
 
+    private static final int EXPORT_BUFFER_SIZE = 64 * 1024;
+
     private final ProgramService programService;
+    private final PatientProgramService patientProgramService;
+    private final ProgramExportService programExportService;
+    private final PagingProperties pagingProperties;
+    private final ObjectMapper objectMapper;
 
     /**
      * Creates a new program.
@@ -135,14 +170,218 @@ public class ProgramController {
 
     /**
      * Retrieves all programs.
+     * Answers 304 Not Modified without building the list when the {@code If-None-Match} header matches
+     * the current entity tag.
      *
+     * @param request the request, checked for {@code If-None-Match}
      * @return a list of programs
      */
     @Operation(summary = "Get all programs", description = "Retrieves all programs")
     @ApiResponse(responseCode = "200", description = "Programs retrieved successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ProgramDto.class)))
+    @ApiResponse(responseCode = "304", description = "Programs not modified")
     @GetMapping
-    public ResponseEntity<List<ProgramDto>> getAllPrograms() {
-        return ResponseEntity.ok(programService.getAllPrograms());
+    public ResponseEntity<List<ProgramDto>> getAllPrograms(WebRequest request) {
+        String etag = programService.getProgramsETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(programService.getAllPrograms());
+    }
+
+    /**
+     * Retrieves all programs together with their active, completed and total enrollment counts.
+     *
+     * @return a summary of every program
+     */
+    @Operation(summary = "Get all programs with enrollment counts",
+            description = "Retrieves all programs with their active, completed and total enrollment counts")
+    @ApiResponse(responseCode = "200", description = "Programs retrieved successfully",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = ProgramSummary.class)))
+    @GetMapping("/summary")
+    public ResponseEntity<List<ProgramSummary>> getProgramSummaries() {
+        return ResponseEntity.ok(programService.getProgramSummaries());
+    }
+
+    /**
+     * Retrieves a program together with its active, completed and total enrollment counts.
+     * The counts are read from the program's enrollment counter, whatever the number of enrollments.
+     *
+     * @param id the ID of the program
+     * @return the summary of the program
+     */
+    @Operation(summary = "Get the enrollment counts of a program",
+            description = "Retrieves a program with its active, completed and total enrollment counts")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Program retrieved successfully",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ProgramSummary.class))),
+        @ApiResponse(responseCode = "404", description = "Program not found")
+    })
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<ProgramSummary> getProgramStats(@PathVariable int id) {
+        return ResponseEntity.ok(programService.getProgramStats(id));
+    }
+
+    /**
+     * Counts the enrollments of a program that were active on a date: enrolled on or before it and not
+     * completed by then.
+     *
+     * @param id the ID of the program
+     * @param on the date, in ISO format
+     * @return the number of active enrollments
+     */
+    @Operation(summary = "Count the enrollments of a program active on a date",
+            description = "Counts the enrollments of a program enrolled on or before a date and not completed by then")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Enrollments counted successfully"),
+        @ApiResponse(responseCode = "404", description = "Program not found")
+    })
+    @GetMapping("/{id}/enrollments/active/count")
+    public ResponseEntity<Long> countActiveEnrollments(
+            @PathVariable int id, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate on) {
+        return ResponseEntity.ok(programService.countActiveEnrollments(id, on));
+    }
+
+    /**
+     * Retrieves the enrollments of a program that were active on a date, one page at a time, ordered by
+     * enrollment date and patient id. The {@value Constants#NEXT_CURSOR_HEADER} header carries the cursor
+     * of the next page.
+     *
+     * @param id the ID of the program
+     * @param on the date, in ISO format
+     * @param after the cursor returned with the previous page
+     * @param size the maximum number of enrollments to return
+     * @return the active enrollments
+     */
+    @Operation(summary = "Get the enrollments of a program active on a date",
+            description = "Retrieves the enrollments of a program enrolled on or before a date and not completed "
+                    + "by then")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Enrollments retrieved successfully",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ActiveEnrollment.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid cursor or size"),
+        @ApiResponse(responseCode = "404", description = "Program not found")
+    })
+    @GetMapping("/{id}/enrollments/active")
+    public ResponseEntity<List<ActiveEnrollment>> getActiveEnrollments(
+            @PathVariable int id, @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate on,
+            @RequestParam(required = false) String after, @RequestParam(required = false) Integer size) {
+        int requested = size == null ? pagingProperties.getDefaultSize() : size;
+        int pageSize = Math.min(requested, pagingProperties.getMaxSize());
+        if (pageSize < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        List<ActiveEnrollment> enrollments = programService.getActiveEnrollments(id, on, after, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (enrollments.size() == pageSize) {
+            response.header(Constants.NEXT_CURSOR_HEADER,
+                    EnrollmentCursor.after(enrollments.get(enrollments.size() - 1)).encode());
+        }
+        return response.body(enrollments);
+    }
+
+    /**
+     * Retrieves the enrollments of a program started, completed and active in every month of a range.
+     *
+     * @param id the ID of the program
+     * @param from the first month of the range, as {@code yyyy-MM}
+     * @param to the last month of the range, as {@code yyyy-MM}
+     * @return one entry per month, in order
+     */
+    @Operation(summary = "Get the monthly enrollments of a program",
+            description = "Retrieves the enrollments of a program started, completed and active in every month "
+                    + "of a range")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Enrollments retrieved successfully",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = MonthlyEnrollment.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid range"),
+        @ApiResponse(responseCode = "404", description = "Program not found")
+    })
+    @GetMapping("/{id}/enrollments/monthly")
+    public ResponseEntity<List<MonthlyEnrollment>> getMonthlyEnrollments(@PathVariable int id,
+                                                                         @RequestParam YearMonth from,
+                                                                         @RequestParam YearMonth to) {
+        return ResponseEntity.ok(programService.getMonthlyEnrollments(id, from, to));
+    }
+
+    /**
+     * Exports the cohort of a program, one enrollment per line with the identifiers of its patient, as
+     * CSV or newline delimited JSON. The enrollments are written as they are read from the database, so
+     * exports of any size run in constant memory. The response is gzip compressed when the client
+     * accepts it.
+     *
+     * @param id the ID of the program
+     * @param format the format, {@code csv} or {@code ndjson}
+     * @param acceptEncoding the encodings the client accepts
+     * @return the streamed export
+     */
+    @Operation(summary = "Export the cohort of a program",
+            description = "Streams the enrollments of a program with the identifiers of their patients as CSV or "
+                    + "newline delimited JSON")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Cohort exported successfully",
+                content = {@Content(mediaType = "text/csv"),
+                    @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = CohortExportRow.class))}),
+        @ApiResponse(responseCode = "400", description = "Unsupported format"),
+        @ApiResponse(responseCode = "404", description = "Program not found")
+    })
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> exportProgram(
+            @PathVariable int id, @RequestParam(defaultValue = "csv") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ExportFormat exportFormat = ExportFormat.parse(format);
+        programService.getProgram(id);
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        StreamingResponseBody body = outputStream -> {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE) : outputStream;
+            try (CohortRowWriter writer = exportFormat.open(target, objectMapper)) {
+                programExportService.exportProgram(id, row -> write(writer, row));
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("program-" + id + "." + exportFormat.getExtension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Enrolls many patients in a program at once.
+     * Patients already enrolled in the program are skipped, so the request can be sent again.
+     *
+     * @param id the ID of the program to enroll the patients in
+     * @param request the patients to enroll and the enrollment details
+     * @return the number of patients enrolled and skipped, and the ids that match no patient
+     */
+    @Operation(summary = "Enroll patients in a program", description = "Enrolls many patients in a program")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Patients enrolled successfully",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = BulkEnrollmentResult.class))),
+        @ApiResponse(responseCode = "404", description = "Program not found")
+    })
+    @PostMapping("/{id}/enrollments")
+    public ResponseEntity<BulkEnrollmentResult> enrollPatients(@PathVariable int id,
+                                                               @RequestBody BulkEnrollmentRequest request) {
+        return ResponseEntity.ok(patientProgramService.enrollPatientsInProgram(id, request));
+    }
+
+    private static void write(CohortRowWriter writer, CohortExportRow row) {
+        try {
+            writer.write(row);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 }
@@ -0,0 +1,66 @@
+package com.alienworkspace.cdr.patient.controller;
+
+import static com.alienworkspace.cdr.patient.helpers.Constants.STALE_PERSON_HEADER;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.service.PatientView;
+import com.alienworkspace.cdr.patient.service.cache.LastKnownPersonStore;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Collection;
+import lombok.AllArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Flags responses whose patients carry a stale copy of their person.
+ *
+ * <p>
+ * While the demographic service is down persons are served from their last known copy. Responses
+ * holding a patient, full or sparse, whose person is such a copy get the {@code X-cdr-stale-person}
+ * header, so clients can tell the data may be out of date. The check looks at the person instances in
+ * the body itself, so only the responses that were actually served a stale copy are flagged. The
+ * newline delimited listings never resolve persons and are not flagged.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@RestControllerAdvice
+@AllArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class StalePersonResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    private final LastKnownPersonStore lastKnownPersonStore;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        boolean stale = body instanceof Collection<?> patients
+                ? patients.stream().anyMatch(this::hasStalePerson)
+                : hasStalePerson(body);
+        if (stale) {
+            response.getHeaders().set(STALE_PERSON_HEADER, Boolean.TRUE.toString());
+        }
+        return body;
+    }
+
+    private boolean hasStalePerson(Object body) {
+        PersonDto person = null;
+        if (body instanceof PatientDto patient) {
+            person = patient.getPerson();
+        } else if (body instanceof PatientView view) {
+            person = view.person();
+        }
+        return lastKnownPersonStore.isStale(person);
+    }
+}
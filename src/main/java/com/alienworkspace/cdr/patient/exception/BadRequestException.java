@@ -0,0 +1,32 @@
+package com.alienworkspace.cdr.patient.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when a request parameter or body is malformed or outside of its allowed range.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BadRequestException extends RuntimeException {
+
+    /**
+     * Constructs a new BadRequestException with a detailed message.
+     *
+     * @param message the detail message
+     */
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructs a new BadRequestException with a detailed message and the exception that caused it.
+     *
+     * @param message the detail message
+     * @param cause the exception the request was rejected for
+     */
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -70,6 +70,27 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(errorResponseDto, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Handles {@link BadRequestException} exceptions. This exception is
+     * thrown when a request parameter is malformed or outside of its allowed range.
+     *
+     * @param exception the exception thrown
+     * @param webRequest the web request
+     * @return an {@link ErrorResponseDto} containing the error code, error message,
+     *     path of the API, and the timestamp of the error
+     */
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorResponseDto> handleBadRequestException(BadRequestException exception,
+                                                                      WebRequest webRequest) {
+        ErrorResponseDto errorResponseDto = ErrorResponseDto.builder()
+                .errorCode(HttpStatus.BAD_REQUEST.value())
+                .apiPath(webRequest.getDescription(false))
+                .errorMessage(exception.getMessage())
+                .errorTime(LocalDateTime.now())
+                .build();
+        return new ResponseEntity<>(errorResponseDto, HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Handles global exceptions that occur in the application.
      *
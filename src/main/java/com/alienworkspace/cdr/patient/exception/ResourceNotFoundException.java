@@ -23,4 +23,14 @@ public class ResourceNotFoundException extends RuntimeException {
     public ResourceNotFoundException(String entity, String field, String value) {
         super(format("%s with %s of '%s' not found", entity, field, value));
     }
+
+    /**
+     * Constructs a new ResourceNotFoundException with a detailed message and the exception that caused it.
+     *
+     * @param message the detail message
+     * @param cause the exception this one is thrown for
+     */
+    public ResourceNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
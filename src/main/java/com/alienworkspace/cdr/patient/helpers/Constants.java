@@ -16,6 +16,9 @@ public class Constants {
     public static final String DEMOGRAPHIC_BASE_URL = "/api";
     public static final String METADATA_BASE_URL = "/api";
 
+    public static final String NEXT_CURSOR_HEADER = "X-cdr-next-cursor";
+    public static final String STALE_PERSON_HEADER = "X-cdr-stale-person";
+
 
 
     private Constants() {}
@@ -0,0 +1,28 @@
+package com.alienworkspace.cdr.patient.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Builds strong entity tags for conditional {@code GET} requests.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public final class ETags {
+
+    private ETags() {}
+
+    /**
+     * Builds a strong entity tag from the values that change whenever the representation changes,
+     * such as the id and audit timestamps of a record.
+     *
+     * @param parts the values versioning the representation; {@code null} values are allowed
+     * @return the quoted entity tag
+     */
+    public static String of(Object... parts) {
+        String joined = Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("|"));
+        return "\"" + DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
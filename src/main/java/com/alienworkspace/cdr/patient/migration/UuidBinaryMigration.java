@@ -0,0 +1,207 @@
+package com.alienworkspace.cdr.patient.migration;
+
+import com.alienworkspace.cdr.patient.config.UuidMigrationProperties;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Moves the {@code uuid} column of the audited tables from the 36 character string form to
+ * {@code BINARY(16)}, and adds it to the audited tables that were created without one.
+ *
+ * <p>
+ * Each table goes through the following steps, and the current step is derived from the columns that
+ * exist, so an interrupted migration picks up where it stopped on the next start:
+ * <ol>
+ *     <li>a nullable {@code uuid_bin} column is added next to {@code uuid};</li>
+ *     <li>{@code uuid_bin} is filled in chunks, each committed on its own, until no row is left, from
+ *     {@code uuid} or, for a table without one, with a new random uuid per row;</li>
+ *     <li>{@code uuid}, if any, is dropped, together with its unique index;</li>
+ *     <li>{@code uuid_bin} is renamed to {@code uuid};</li>
+ *     <li>{@code uuid} is made not null and unique, unless it already is.</li>
+ * </ol>
+ * Tables that do not exist yet, or whose {@code uuid} column is already binary, not null and unique,
+ * are left alone. The migration runs before the entity manager factory is created, so no entity is
+ * written to a table that is only partly migrated. It holds a named lock ({@code GET_LOCK}) while it
+ * runs, so instances starting together migrate one after the other, and the later ones find the
+ * tables migrated. The statements are written for MySQL, which every deployed database runs on.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class UuidBinaryMigration implements InitializingBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UuidBinaryMigration.class);
+
+    private static final String UUID_COLUMN = "uuid";
+    private static final String SHADOW_COLUMN = "uuid_bin";
+    private static final String LOCK_NAME = "cdr_patient_uuid_migration";
+
+    /**
+     * The audited tables, keyed by table name, with their primary key column.
+     */
+    static final Map<String, String> TABLES = Map.of(
+            "patient", "patient_id",
+            "patient_identifier", "patient_identifier_id",
+            "patient_identifier_type", "patient_identifier_type_id",
+            "patient_program", "patient_program_id",
+            "program", "program_id");
+
+    private final DataSource dataSource;
+    private final UuidMigrationProperties properties;
+
+    /**
+     * Creates the migration.
+     *
+     * @param dataSource the data source of the audited tables
+     * @param properties the migration properties
+     */
+    public UuidBinaryMigration(DataSource dataSource, UuidMigrationProperties properties) {
+        this.dataSource = dataSource;
+        this.properties = properties;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        migrate(TABLES);
+    }
+
+    void migrate(String table, String primaryKey) throws SQLException {
+        migrate(Map.of(table, primaryKey));
+    }
+
+    /**
+     * Migrates some tables while holding the migration lock, on one connection so the lock is held by
+     * the session that runs the statements.
+     *
+     * @param tables the tables, keyed by table name, with their primary key column
+     * @throws SQLException if the columns of a table cannot be read
+     * @throws IllegalStateException if the lock is not acquired within the configured timeout
+     */
+    private void migrate(Map<String, String> tables) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            Integer locked = jdbcTemplate.queryForObject("SELECT GET_LOCK(?, ?)", Integer.class, LOCK_NAME,
+                    properties.getLockTimeout().toSeconds());
+            if (locked == null || locked != 1) {
+                throw new IllegalStateException("Timed out waiting for another instance to migrate the uuid columns");
+            }
+            try {
+                for (Map.Entry<String, String> table : tables.entrySet()) {
+                    migrate(connection, jdbcTemplate, table.getKey(), table.getValue());
+                }
+            } finally {
+                jdbcTemplate.queryForObject("SELECT RELEASE_LOCK(?)", Integer.class, LOCK_NAME);
+            }
+        }
+    }
+
+    private void migrate(Connection connection, JdbcTemplate jdbcTemplate, String table, String primaryKey)
+            throws SQLException {
+        Map<String, ColumnInfo> columns = columns(connection, table);
+        if (columns.isEmpty()) {
+            return;
+        }
+        ColumnInfo uuid = columns.get(UUID_COLUMN);
+        boolean hasShadow = columns.containsKey(SHADOW_COLUMN);
+        boolean converted = uuid != null && isBinary(uuid.type());
+        boolean unique = converted && uniqueColumns(connection, table).contains(UUID_COLUMN);
+        if (converted && !uuid.nullable() && unique) {
+            return;
+        }
+        LOGGER.info("Migrating {}.{} to BINARY(16)", table, UUID_COLUMN);
+        if (!converted) {
+            if (!hasShadow) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + SHADOW_COLUMN + " BINARY(16) NULL");
+            }
+            backfill(jdbcTemplate, table, primaryKey, uuid != null);
+            if (uuid != null) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + UUID_COLUMN);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table + " RENAME COLUMN " + SHADOW_COLUMN + " TO " + UUID_COLUMN);
+        }
+        String constraints = "ALTER TABLE " + table + " MODIFY " + UUID_COLUMN + " BINARY(16) NOT NULL";
+        if (!unique) {
+            constraints += ", ADD CONSTRAINT uk_" + table + "_uuid UNIQUE (" + UUID_COLUMN + ")";
+        }
+        jdbcTemplate.execute(constraints);
+        LOGGER.info("Migrated {}.{} to BINARY(16)", table, UUID_COLUMN);
+    }
+
+    private void backfill(JdbcTemplate jdbcTemplate, String table, String primaryKey, boolean fromUuid) {
+        String value = fromUuid ? "UNHEX(REPLACE(" + UUID_COLUMN + ", '-', ''))" : "UUID_TO_BIN(UUID())";
+        String sql = "UPDATE " + table + " SET " + SHADOW_COLUMN + " = " + value
+                + " WHERE " + SHADOW_COLUMN + " IS NULL ORDER BY " + primaryKey + " LIMIT " + properties.getChunkSize();
+        long migrated = 0;
+        int updated;
+        do {
+            updated = jdbcTemplate.update(sql);
+            migrated += updated;
+            if (updated > 0) {
+                LOGGER.debug("Converted {} uuids of {} so far", migrated, table);
+            }
+        } while (updated > 0);
+    }
+
+    private static Map<String, ColumnInfo> columns(Connection connection, String table) throws SQLException {
+        Map<String, ColumnInfo> columns = new HashMap<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet resultSet = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table,
+                null)) {
+            while (resultSet.next()) {
+                columns.put(resultSet.getString("COLUMN_NAME").toLowerCase(Locale.ROOT), new ColumnInfo(
+                        resultSet.getInt("DATA_TYPE"),
+                        resultSet.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Returns the columns that are unique on their own, that is the only column of a unique index.
+     */
+    private static Set<String> uniqueColumns(Connection connection, String table) throws SQLException {
+        Map<String, List<String>> indexes = new HashMap<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet resultSet = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                true, false)) {
+            while (resultSet.next()) {
+                String column = resultSet.getString("COLUMN_NAME");
+                if (column != null) {
+                    indexes.computeIfAbsent(resultSet.getString("INDEX_NAME"), name -> new ArrayList<>())
+                            .add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return indexes.values().stream()
+                .filter(indexColumns -> indexColumns.size() == 1)
+                .map(indexColumns -> indexColumns.get(0))
+                .collect(Collectors.toSet());
+    }
+
+    private static boolean isBinary(int sqlType) {
+        return sqlType == Types.BINARY || sqlType == Types.VARBINARY;
+    }
+
+    private record ColumnInfo(int type, boolean nullable) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.alienworkspace.cdr.patient.model;
+
+import com.alienworkspace.cdr.patient.model.id.PooledSequence;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * OutboxEvent entity class.
+ *
+ * <p>
+ * One row is written for every change to a patient, patient identifier or program enrollment, in the
+ * same transaction as the change itself, and stays pending until the outbox relay has published it.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@AllArgsConstructor
+@Builder
+@Entity
+@Getter
+@NoArgsConstructor
+@Setter
+@Table(name = "outbox_event", indexes = {
+    @Index(name = "outbox_event_pending_idx", columnList = "published_at, outbox_event_id")})
+public class OutboxEvent {
+
+    /**
+     * The kinds of records a change is made to.
+     */
+    public enum AggregateType {
+        PATIENT,
+        PATIENT_IDENTIFIER,
+        PATIENT_PROGRAM
+    }
+
+    /**
+     * The kinds of changes.
+     */
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        VOIDED
+    }
+
+    @Id
+    @PooledSequence(name = "outbox_event_seq")
+    @Column(name = "outbox_event_id")
+    private Long outboxEventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 32)
+    private AggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private long aggregateId;
+
+    @Column(name = "patient_id", nullable = false)
+    private long patientId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ChangeType changeType;
+
+    @Column(name = "occurred_at", nullable = false)
+    private Instant occurredAt;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+}
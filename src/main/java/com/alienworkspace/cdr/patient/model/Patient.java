@@ -8,7 +8,13 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedEntityGraphs;
+import jakarta.persistence.NamedSubgraph;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
 import java.util.Collections;
@@ -23,16 +29,46 @@ import lombok.Setter;
 /**
  * Patient entity class.
  *
+ * <p>
+ * Identifiers and program enrollments are loaded lazily. Queries that need them ask for one of the
+ * named entity graphs below so that they are fetched in the same statement as the patient.
+ *
  * @author Ikenumah (enumahinm@gmail.com)
  */
 @AllArgsConstructor
 @Builder
 @Entity
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = Patient.WITH_IDENTIFIERS,
+            attributeNodes = @NamedAttributeNode(value = "patientIdentifiers", subgraph = "identifierType"),
+            subgraphs = @NamedSubgraph(name = "identifierType",
+                    attributeNodes = @NamedAttributeNode("patientIdentifierType"))),
+    @NamedEntityGraph(name = Patient.WITH_PROGRAMS,
+            attributeNodes = @NamedAttributeNode(value = "patientPrograms", subgraph = "program"),
+            subgraphs = @NamedSubgraph(name = "program", attributeNodes = @NamedAttributeNode("program"))),
+    @NamedEntityGraph(name = Patient.WITH_IDENTIFIERS_AND_PROGRAMS,
+            attributeNodes = {
+                @NamedAttributeNode(value = "patientIdentifiers", subgraph = "identifierType"),
+                @NamedAttributeNode(value = "patientPrograms", subgraph = "program")
+            },
+            subgraphs = {
+                @NamedSubgraph(name = "identifierType", attributeNodes = @NamedAttributeNode("patientIdentifierType")),
+                @NamedSubgraph(name = "program", attributeNodes = @NamedAttributeNode("program"))
+            })
+})
 @NoArgsConstructor
 @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"},
         justification = "Dependency injection by Spring; safe to store")
+@Table(name = "patient", indexes = {
+    @Index(name = "patient_created_idx", columnList = "created_at, patient_id"),
+    @Index(name = "patient_modified_idx", columnList = "last_modified_at, patient_id"),
+    @Index(name = "patient_voided_idx", columnList = "voided_at, patient_id")})
 public class Patient extends AuditTrail {
 
+    public static final String WITH_IDENTIFIERS = "Patient.withIdentifiers";
+    public static final String WITH_PROGRAMS = "Patient.withPrograms";
+    public static final String WITH_IDENTIFIERS_AND_PROGRAMS = "Patient.withIdentifiersAndPrograms";
+
     @Getter
     @Setter
     @Id
@@ -45,11 +81,11 @@ public class Patient extends AuditTrail {
     private String allergies;
 
     @Builder.Default
-    @OneToMany(mappedBy = "patient", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "patient", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private Set<PatientIdentifier> patientIdentifiers = new HashSet<>();
 
     @Builder.Default
-    @OneToMany(mappedBy = "patient", fetch = FetchType.EAGER, cascade = CascadeType.ALL)
+    @OneToMany(mappedBy = "patient", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private Set<PatientProgram> patientPrograms = new HashSet<>();
 
     @Setter
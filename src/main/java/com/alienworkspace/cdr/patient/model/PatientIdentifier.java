@@ -1,12 +1,11 @@
 package com.alienworkspace.cdr.patient.model;
 
 import com.alienworkspace.cdr.patient.model.audit.AuditTrail;
+import com.alienworkspace.cdr.patient.model.id.PooledSequence;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
@@ -34,19 +33,23 @@ import lombok.Setter;
 @Table(name = "patient_identifier", indexes = {
     @Index(name = "patient_identifier_idx", columnList = "identifier_type_id, patient_id, preferred"),
     @Index(name = "patient_identifier_type_idx", columnList = "identifier_type_id, preferred"),
+    @Index(name = "patient_identifier_location_idx", columnList = "location_id, patient_id"),
+    @Index(name = "patient_identifier_created_idx", columnList = "created_at, patient_identifier_id"),
+    @Index(name = "patient_identifier_modified_idx", columnList = "last_modified_at, patient_identifier_id"),
+    @Index(name = "patient_identifier_voided_idx", columnList = "voided_at, patient_identifier_id"),
 }, uniqueConstraints = @UniqueConstraint(columnNames = {"identifier_type_id", "patient_id", "preferred"}))
 public class PatientIdentifier extends AuditTrail {
 
     @Id
     @Column(name = "patient_identifier_id", updatable = false, nullable = false)
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence(name = "patient_identifier_seq")
     private Long patientIdentifierId;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id")
     private Patient patient;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "identifier_type_id")
     private PatientIdentifierType patientIdentifierType;
 
@@ -1,12 +1,11 @@
 package com.alienworkspace.cdr.patient.model;
 
-import com.alienworkspace.cdr.model.helper.AuditTrail;
+import com.alienworkspace.cdr.patient.model.audit.AuditTrail;
+import com.alienworkspace.cdr.patient.model.id.PooledSequence;
 import com.google.common.base.MoreObjects;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
@@ -35,12 +34,18 @@ import lombok.Setter;
 @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"}, justification = "Composition; safe to store")
 @Table(name = "patient_program", indexes = {
     @Index(name = "idx_program", columnList = "program_id, patient_id, date_enrolled DESC"),
-    @Index(name = "idx_program_date", columnList = "program_id, date_enrolled")},
+    @Index(name = "idx_program_interval",
+            columnList = "program_id, voided, date_enrolled, patient_id, date_completed"),
+    @Index(name = "idx_program_location", columnList = "location_id, patient_id"),
+    @Index(name = "idx_program_status", columnList = "program_id, voided, date_completed"),
+    @Index(name = "idx_program_created", columnList = "created_at, patient_program_id"),
+    @Index(name = "idx_program_modified", columnList = "last_modified_at, patient_program_id"),
+    @Index(name = "idx_program_voided", columnList = "voided_at, patient_program_id")},
     uniqueConstraints = @UniqueConstraint(columnNames = {"program_id", "patient_id", "date_enrolled"}))
 public class PatientProgram extends AuditTrail {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence(name = "patient_program_seq")
     @Column(name = "patient_program_id")
     private Long patientProgramId;
 
@@ -78,8 +83,8 @@ public class PatientProgram extends AuditTrail {
         if (!(o instanceof PatientProgram that)) {
             return false;
         }
-        if (!super.equals(o)) {
-            return false;
+        if (this == o) {
+            return true;
         }
         return getLocationId() == that.getLocationId() && Objects.equals(getPatientProgramId(),
                 that.getPatientProgramId()) && Objects.equals(getProgram(), that.getProgram())
@@ -93,7 +98,7 @@ public class PatientProgram extends AuditTrail {
                 && Objects.equals(getCreatedAt(), that.getCreatedAt())
                 && Objects.equals(getLastModifiedBy(), that.getLastModifiedBy())
                 && Objects.equals(getLastModifiedAt(), that.getLastModifiedAt())
-                && Objects.equals(getVoided(), that.getVoided())
+                && isVoided() == that.isVoided()
                 && Objects.equals(getVoidedBy(), that.getVoidedBy())
                 && Objects.equals(getVoidedAt(), that.getVoidedAt())
                 && Objects.equals(getVoidReason(), that.getVoidReason());
@@ -106,9 +111,9 @@ public class PatientProgram extends AuditTrail {
      */
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), getPatientProgramId(), getProgram(), getPatient(), getLocationId(),
+        return Objects.hash(getPatientProgramId(), getProgram(), getPatient(), getLocationId(),
                 getDateEnrolled(), getDateCompleted(), getOutcomeConceptId(), getOutcomeComment(), getUuid(),
-                getCreatedBy(), getCreatedAt(), getLastModifiedBy(), getLastModifiedAt(), getVoided(),
+                getCreatedBy(), getCreatedAt(), getLastModifiedBy(), getLastModifiedAt(), isVoided(),
                 getVoidedBy(), getVoidedAt(), getVoidReason());
     }
 
@@ -127,7 +132,7 @@ public class PatientProgram extends AuditTrail {
                 .add("createdAt", getCreatedAt())
                 .add("lastModifiedBy", getLastModifiedBy())
                 .add("lastModifiedAt", getLastModifiedAt())
-                .add("voided", getVoided())
+                .add("voided", isVoided())
                 .add("voidedBy", getVoidedBy())
                 .add("voidedAt", getVoidedAt())
                 .add("voidReason", getVoidReason())
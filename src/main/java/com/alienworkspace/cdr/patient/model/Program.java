@@ -1,13 +1,12 @@
 package com.alienworkspace.cdr.patient.model;
 
 import com.alienworkspace.cdr.patient.model.audit.AuditTrail;
+import com.alienworkspace.cdr.patient.model.id.PooledSequence;
 import com.google.common.base.MoreObjects;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import java.util.Collections;
@@ -34,7 +33,7 @@ public class Program extends AuditTrail {
 
     @Getter
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @PooledSequence(name = "program_seq")
     @Column(name = "program_id")
     private Integer programId;
 
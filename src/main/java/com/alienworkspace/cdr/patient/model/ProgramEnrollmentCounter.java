@@ -0,0 +1,44 @@
+package com.alienworkspace.cdr.patient.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * ProgramEnrollmentCounter entity class.
+ *
+ * <p>
+ * Holds the number of active, completed and total enrollments of one program, not counting voided
+ * enrollments. The counts are changed in the same transaction as the enrollments they count and are
+ * repaired by the reconciliation job if they ever drift.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@AllArgsConstructor
+@Builder
+@Entity
+@Getter
+@NoArgsConstructor
+@Setter
+@Table(name = "program_enrollment_counter")
+public class ProgramEnrollmentCounter {
+
+    @Id
+    @Column(name = "program_id")
+    private Integer programId;
+
+    @Column(name = "active", nullable = false)
+    private long active;
+
+    @Column(name = "completed", nullable = false)
+    private long completed;
+
+    @Column(name = "total", nullable = false)
+    private long total;
+}
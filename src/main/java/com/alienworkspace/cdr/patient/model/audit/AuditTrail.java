@@ -1,11 +1,11 @@
 package com.alienworkspace.cdr.patient.model.audit;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.MappedSuperclass;
 import jakarta.persistence.PrePersist;
 import java.time.LocalDateTime;
-import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
@@ -28,6 +28,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
  *     <li>Voided by</li>
  *     <li>Voided at</li>
  *     <li>Void reason</li>
+ *     <li>UUID, time-ordered and stored as {@code BINARY(16)} by the {@link UuidBinaryConverter}</li>
  * </ul>
  */
 @MappedSuperclass
@@ -64,8 +65,9 @@ public class AuditTrail {
     @Column(name = "void_reason")
     private String voidReason;
 
-    @Column(name = "uuid", updatable = false, nullable = false, unique = true)
-    private String uuid = UUID.randomUUID().toString();
+    @Convert(converter = UuidBinaryConverter.class)
+    @Column(name = "uuid", updatable = false, nullable = false, unique = true, columnDefinition = "BINARY(16)")
+    private String uuid = TimeOrderedUuid.generate().toString();
 
     /**
      * Generate a UUID if one is not already set.
@@ -73,7 +75,7 @@ public class AuditTrail {
     @PrePersist
     public void generateUuid() {
         if (uuid == null) {
-            this.uuid = UUID.randomUUID().toString();
+            this.uuid = TimeOrderedUuid.generate().toString();
         }
     }
 }
@@ -52,4 +52,26 @@ public abstract class AuditTrailMapper {
         to.setVoidedAt(from.getVoidedAt());
         to.setVoidReason(from.getVoidReason());
     }
+
+    /**
+     * Copies the audit fields of one AuditTrailDto to another.
+     *
+     * @param from The AuditTrailDto to copy.
+     * @param to   The AuditTrailDto to copy to.
+     */
+    public static <T extends com.alienworkspace.cdr.model.helper.AuditTrail> void copy(
+            T from, com.alienworkspace.cdr.model.helper.AuditTrail to) {
+        if (from == null || to == null) {
+            return;
+        }
+        to.setUuid(from.getUuid());
+        to.setCreatedAt(from.getCreatedAt());
+        to.setCreatedBy(from.getCreatedBy());
+        to.setLastModifiedBy(from.getLastModifiedBy());
+        to.setLastModifiedAt(from.getLastModifiedAt());
+        to.setVoided(from.getVoided());
+        to.setVoidedBy(from.getVoidedBy());
+        to.setVoidedAt(from.getVoidedAt());
+        to.setVoidReason(from.getVoidReason());
+    }
 }
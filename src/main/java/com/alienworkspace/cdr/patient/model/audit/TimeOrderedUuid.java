@@ -0,0 +1,44 @@
+package com.alienworkspace.cdr.patient.model.audit;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Generates time-ordered UUIDs in the version 7 layout.
+ *
+ * <p>
+ * The first 48 bits hold the Unix time in milliseconds and the remaining bits, apart from the version
+ * and variant, are random. UUIDs created later sort after earlier ones, both as strings and as their
+ * 16 byte binary form, so new rows are appended to the end of a unique index instead of being spread
+ * over all of its pages.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public final class TimeOrderedUuid {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private TimeOrderedUuid() {
+    }
+
+    /**
+     * Generates a UUID for the current time.
+     *
+     * @return the UUID
+     */
+    public static UUID generate() {
+        return generate(System.currentTimeMillis());
+    }
+
+    /**
+     * Generates a UUID for the given time.
+     *
+     * @param epochMillis the Unix time in milliseconds
+     * @return the UUID
+     */
+    public static UUID generate(long epochMillis) {
+        long mostSigBits = (epochMillis << 16) | 0x7000L | (RANDOM.nextInt() & 0x0FFFL);
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
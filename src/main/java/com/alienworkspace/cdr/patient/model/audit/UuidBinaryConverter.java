@@ -0,0 +1,47 @@
+package com.alienworkspace.cdr.patient.model.audit;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Stores the canonical string form of a UUID as its 16 raw bytes, so the column is a compact
+ * {@code BINARY(16)} while entities and DTOs keep working with the usual string form.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Converter
+public class UuidBinaryConverter implements AttributeConverter<String, byte[]> {
+
+    /**
+     * Number of bytes of a UUID in its binary form.
+     */
+    public static final int UUID_BYTES = 16;
+
+    @Override
+    @SuppressWarnings("PMD.ReturnEmptyCollectionRatherThanNull") // JPA expects null for a null attribute
+    public byte[] convertToDatabaseColumn(String uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        UUID value = UUID.fromString(uuid);
+        return ByteBuffer.allocate(UUID_BYTES)
+                .putLong(value.getMostSignificantBits())
+                .putLong(value.getLeastSignificantBits())
+                .array();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != UUID_BYTES) {
+            throw new IllegalArgumentException("A binary UUID must have " + UUID_BYTES + " bytes but had "
+                    + bytes.length);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+}
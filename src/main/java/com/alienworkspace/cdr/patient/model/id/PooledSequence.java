@@ -0,0 +1,31 @@
+package com.alienworkspace.cdr.patient.model.id;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Marks an identifier as allocated in blocks from a named sequence by the {@link PooledSequenceGenerator}.
+ *
+ * <p>
+ * On databases without sequences, such as MySQL, the sequence is emulated by a single row table, which
+ * is then hit once per block instead of once per insert.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledSequence {
+
+    /**
+     * Name of the sequence, or of the table emulating it, the identifiers are allocated from.
+     *
+     * @return the sequence name
+     */
+    String name();
+}
@@ -0,0 +1,58 @@
+package com.alienworkspace.cdr.patient.model.id;
+
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequence generator that hands out identifiers from blocks with the pooled-lo optimizer.
+ *
+ * <p>
+ * The sequence is read once per block of {@value #ALLOCATION_SIZE_SETTING} identifiers and the
+ * identifiers of a block are assigned in memory, so inserts are no longer serialised on the sequence
+ * and can be sent to the database as JDBC batches. The stored sequence value is the first identifier
+ * of the next free block, which keeps inserts by tools that do not know the block size safe.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Hibernate setting holding the number of identifiers allocated per sequence read.
+     */
+    public static final String ALLOCATION_SIZE_SETTING = "cdr.id.allocation_size";
+
+    /**
+     * Block size used when {@value #ALLOCATION_SIZE_SETTING} is not set.
+     */
+    public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+    private final String sequenceName;
+
+    /**
+     * Creates the generator for an identifier annotated with {@link PooledSequence}.
+     *
+     * @param config the annotation on the identifier
+     */
+    public PooledSequenceGenerator(PooledSequence config) {
+        this.sequenceName = config.name();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        int allocationSize = serviceRegistry.requireService(ConfigurationService.class)
+                .getSetting(ALLOCATION_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_ALLOCATION_SIZE);
+        if (allocationSize < 1) {
+            throw new MappingException(ALLOCATION_SIZE_SETTING + " must be at least 1 but was " + allocationSize);
+        }
+        parameters.setProperty(SEQUENCE_PARAM, sequenceName);
+        parameters.setProperty(INCREMENT_PARAM, Integer.toString(allocationSize));
+        parameters.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
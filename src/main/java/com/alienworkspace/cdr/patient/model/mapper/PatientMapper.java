@@ -78,6 +78,25 @@ public interface PatientMapper {
         return patientDtoBuilder;
     }
 
+    /**
+     * Copies a {@link PatientDto} produced by {@link #toPatientDto(Patient)}, so the copy can be changed
+     * without affecting the original. The person is shared, as it is read-only once cached.
+     *
+     * @param patientDto The DTO to copy
+     * @return {@link PatientDto} A new DTO with the same patient information and audit trail
+     */
+    default PatientDto copy(PatientDto patientDto) {
+        PatientDto copy = PatientDto.builder()
+                .patientId(patientDto.getPatientId())
+                .person(patientDto.getPerson())
+                .allergies(patientDto.getAllergies())
+                .build();
+
+        AuditTrailMapper.copy(patientDto, copy);
+
+        return copy;
+    }
+
     /**
      * Converts a {@link PatientDto} to a {@link Patient} entity.
      * This method creates a new patient entity with:
@@ -0,0 +1,33 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of the audit timestamps of a record, which together version the record.
+ * Lets a conditional read compare versions without loading or mapping the record.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface AuditVersion {
+
+    /**
+     * When the record was created.
+     *
+     * @return the creation time
+     */
+    LocalDateTime getCreatedAt();
+
+    /**
+     * When the record was last modified.
+     *
+     * @return the last modification time, or {@code null} if never modified
+     */
+    LocalDateTime getLastModifiedAt();
+
+    /**
+     * When the record was voided.
+     *
+     * @return the void time, or {@code null} if not voided
+     */
+    LocalDateTime getVoidedAt();
+}
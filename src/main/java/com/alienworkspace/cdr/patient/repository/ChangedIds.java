@@ -0,0 +1,37 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import java.util.List;
+import java.util.TreeSet;
+import org.springframework.data.domain.Limit;
+
+/**
+ * Merges the pages of ids read from the {@code created_at}, {@code last_modified_at} and {@code voided_at}
+ * indexes of an audited table into one page of the change feed.
+ *
+ * <p>
+ * Every page holds the lowest ids changed in the window on its own time column, so the lowest ids of their
+ * union are the lowest ids changed on any of them.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+final class ChangedIds {
+
+    private ChangedIds() {
+    }
+
+    /**
+     * Merges pages of ids, dropping duplicates.
+     *
+     * @param limit the maximum number of ids to return
+     * @param pages the pages, each ordered by id
+     * @return the lowest ids of all pages, ordered
+     */
+    @SafeVarargs
+    static List<Long> merge(Limit limit, List<Long>... pages) {
+        TreeSet<Long> ids = new TreeSet<>();
+        for (List<Long> page : pages) {
+            ids.addAll(page);
+        }
+        return ids.stream().limit(limit.isLimited() ? limit.max() : Long.MAX_VALUE).toList();
+    }
+}
@@ -0,0 +1,68 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of one enrollment of a program cohort joined with one identifier of its patient. An
+ * enrollment comes once per identifier of the patient, or once with no identifier if the patient has none.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface CohortExportTuple {
+
+    /**
+     * The enrolled patient.
+     *
+     * @return the patient id
+     */
+    Long getPatientId();
+
+    /**
+     * The public id of the enrolled patient.
+     *
+     * @return the patient uuid
+     */
+    String getPatientUuid();
+
+    /**
+     * The first day of the enrollment.
+     *
+     * @return the enrollment date
+     */
+    LocalDate getDateEnrolled();
+
+    /**
+     * The day the enrollment was completed.
+     *
+     * @return the completion date, or {@code null} while the enrollment is active
+     */
+    LocalDate getDateCompleted();
+
+    /**
+     * The location of the enrollment.
+     *
+     * @return the location id
+     */
+    Integer getLocationId();
+
+    /**
+     * The outcome of the enrollment.
+     *
+     * @return the outcome concept id, or {@code null} if there is none
+     */
+    Integer getOutcomeConceptId();
+
+    /**
+     * The type of the identifier.
+     *
+     * @return the identifier type id, or {@code null} if the patient has no identifier
+     */
+    Integer getIdentifierTypeId();
+
+    /**
+     * The identifier.
+     *
+     * @return the identifier, or {@code null} if the patient has no identifier
+     */
+    String getIdentifier();
+}
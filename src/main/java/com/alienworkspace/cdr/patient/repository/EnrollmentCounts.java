@@ -0,0 +1,37 @@
+package com.alienworkspace.cdr.patient.repository;
+
+/**
+ * Projection of the enrollment counts of one program. Voided enrollments are not counted.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface EnrollmentCounts {
+
+    /**
+     * The program the counts belong to.
+     *
+     * @return the program id
+     */
+    Integer getProgramId();
+
+    /**
+     * Enrollments not completed yet.
+     *
+     * @return the number of active enrollments
+     */
+    Long getActive();
+
+    /**
+     * Enrollments with a completion date.
+     *
+     * @return the number of completed enrollments
+     */
+    Long getCompleted();
+
+    /**
+     * All enrollments, active and completed.
+     *
+     * @return the number of enrollments
+     */
+    Long getTotal();
+}
@@ -0,0 +1,32 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the period a patient is enrolled in a program, read from the enrollment index alone.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface EnrollmentInterval {
+
+    /**
+     * The enrolled patient.
+     *
+     * @return the patient id
+     */
+    Long getPatientId();
+
+    /**
+     * The first day of the enrollment.
+     *
+     * @return the enrollment date
+     */
+    LocalDate getDateEnrolled();
+
+    /**
+     * The day the enrollment was completed, the first day it is no longer active.
+     *
+     * @return the completion date, or {@code null} while the enrollment is active
+     */
+    LocalDate getDateCompleted();
+}
@@ -0,0 +1,32 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of the program a patient is enrolled in, read to build the cohort index.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface EnrollmentMembership {
+
+    /**
+     * The enrolled patient.
+     *
+     * @return the patient id
+     */
+    Long getPatientId();
+
+    /**
+     * The program the patient is enrolled in.
+     *
+     * @return the program id
+     */
+    Integer getProgramId();
+
+    /**
+     * When the enrollment was completed.
+     *
+     * @return the completion date, or {@code null} while the enrollment is active
+     */
+    LocalDate getDateCompleted();
+}
@@ -0,0 +1,23 @@
+package com.alienworkspace.cdr.patient.repository;
+
+/**
+ * Projection of the type of identifier a patient holds, read to build the cohort index.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface IdentifierMembership {
+
+    /**
+     * The patient holding the identifier.
+     *
+     * @return the patient id
+     */
+    Long getPatientId();
+
+    /**
+     * The type of the identifier.
+     *
+     * @return the identifier type id
+     */
+    Integer getIdentifierTypeId();
+}
@@ -0,0 +1,30 @@
+package com.alienworkspace.cdr.patient.repository;
+
+/**
+ * Projection of a number of enrollment events in one calendar month.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface MonthlyCount {
+
+    /**
+     * The year of the month.
+     *
+     * @return the year
+     */
+    Integer getCalendarYear();
+
+    /**
+     * The month of the year, from 1 to 12.
+     *
+     * @return the month
+     */
+    Integer getCalendarMonth();
+
+    /**
+     * The number of events in the month.
+     *
+     * @return the count
+     */
+    Long getTotal();
+}
@@ -0,0 +1,70 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import com.alienworkspace.cdr.patient.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for managing {@link OutboxEvent} entities.
+ *
+ * <p>
+ * Pending events are those without a publication time; they are read in id order from the
+ * {@code (published_at, outbox_event_id)} index. Ids are allocated in blocks per instance and the writing
+ * transactions commit in any order, so the id order is close to, but not the same as, the commit order.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ * @see OutboxEvent
+ * @see JpaRepository
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Claims the oldest events that have not been published yet, with {@code SELECT ... FOR UPDATE SKIP LOCKED}.
+     * The rows stay locked until the calling transaction ends, and rows another relay has claimed are
+     * skipped rather than waited for, so concurrent relays publish disjoint events. A lock timeout of
+     * {@code -2} is the Hibernate value for skipping locked rows.
+     *
+     * @param limit The maximum number of events to return
+     * @return {@link List}&lt;{@link OutboxEvent}&gt; Pending events ordered by id
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.publishedAt IS NULL ORDER BY e.outboxEventId")
+    List<OutboxEvent> claimPending(Limit limit);
+
+    /**
+     * Marks events as published.
+     *
+     * @param outboxEventIds The ids of the published events
+     * @param publishedAt When the events were published
+     * @return the number of events marked
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEvent e SET e.publishedAt = ?2 WHERE e.outboxEventId IN ?1")
+    int markPublished(Collection<Long> outboxEventIds, Instant publishedAt);
+
+    /**
+     * Deletes the events published before the given time.
+     *
+     * @param publishedBefore The publication time before which events are deleted
+     * @return the number of events deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < ?1")
+    int deletePublishedBefore(Instant publishedBefore);
+}
@@ -0,0 +1,24 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import com.alienworkspace.cdr.patient.model.Patient;
+import java.util.List;
+
+/**
+ * Bulk write operations for {@link Patient} entities, mixed into {@link PatientRepository}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface PatientBulkRepository {
+
+    /**
+     * Inserts new patients in one transaction.
+     *
+     * <p>
+     * Patient ids are assigned by the demographic service, so {@code saveAll} would treat every patient
+     * as existing and select it before merging. The patients are persisted directly instead, and their
+     * inserts are sent to the database in JDBC batches of {@code hibernate.jdbc.batch_size}.
+     *
+     * @param patients the patients to insert; none may exist yet
+     */
+    void persistAll(List<Patient> patients);
+}
@@ -0,0 +1,25 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import com.alienworkspace.cdr.patient.model.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.util.List;
+
+/**
+ * JPA implementation of {@link PatientBulkRepository}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public class PatientBulkRepositoryImpl implements PatientBulkRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public void persistAll(List<Patient> patients) {
+        patients.forEach(entityManager::persist);
+        entityManager.flush();
+    }
+}
@@ -1,7 +1,11 @@
 package com.alienworkspace.cdr.patient.repository;
 
 import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -93,4 +97,113 @@ public interface PatientIdentifierRepository extends JpaRepository<PatientIdenti
     @Query("UPDATE PatientIdentifier p SET p.preferred = false WHERE p.patient.patientId = ?1 AND "
             + "p.patientIdentifierType.patientIdentifierTypeId = ?2")
     void resetPreferredByPatientIdAndIdentifierType(long patientId, long identifierTypeId);
+
+    /**
+     * Counts the distinct patients holding an identifier issued at any of the given locations. Voided
+     * identifiers and voided patients are not counted.
+     * Found on the {@code (location_id, patient_id)} index.
+     *
+     * @param locationIds The ids of the locations
+     * @return the number of patients
+     */
+    @Query("SELECT COUNT(DISTINCT p.patient.patientId) FROM PatientIdentifier p "
+            + "WHERE p.locationId IN ?1 AND p.voided = false AND p.patient.voided = false")
+    long countPatientsByLocationIds(Collection<Integer> locationIds);
+
+    /**
+     * Finds the next page of identifiers created, modified or voided in a time window after the given
+     * identifier id, together with their identifier types.
+     *
+     * <p>
+     * Each time column is paged on its own {@code (time, patient_identifier_id)} index, reading only the ids
+     * changed in the window. The pages are merged and only the identifiers of the merged page are loaded,
+     * so the cost follows the number of changed rows rather than the size of the table.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last identifier id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of identifiers to return
+     * @return {@link List}&lt;{@link PatientIdentifier}&gt; Identifiers ordered by id
+     */
+    default List<PatientIdentifier> findChangedAfter(LocalDateTime since, LocalDateTime until, long after,
+                                                     Limit limit) {
+        List<Long> ids = ChangedIds.merge(limit, findCreatedIdsAfter(since, until, after, limit),
+                findModifiedIdsAfter(since, until, after, limit), findVoidedIdsAfter(since, until, after, limit));
+        return ids.isEmpty() ? List.of() : findAllWithIdentifierType(ids);
+    }
+
+    /**
+     * Finds the next page of ids of identifiers created in a time window, on the
+     * {@code (created_at, patient_identifier_id)} index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last identifier id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Identifier ids in ascending order
+     */
+    @Query("SELECT p.patientIdentifierId FROM PatientIdentifier p WHERE p.createdAt > ?1 AND p.createdAt <= ?2 "
+            + "AND p.patientIdentifierId > ?3 ORDER BY p.patientIdentifierId")
+    List<Long> findCreatedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the next page of ids of identifiers modified in a time window, on the
+     * {@code (last_modified_at, patient_identifier_id)} index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last identifier id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Identifier ids in ascending order
+     */
+    @Query("SELECT p.patientIdentifierId FROM PatientIdentifier p WHERE p.lastModifiedAt > ?1 "
+            + "AND p.lastModifiedAt <= ?2 AND p.patientIdentifierId > ?3 ORDER BY p.patientIdentifierId")
+    List<Long> findModifiedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the next page of ids of identifiers voided in a time window, on the
+     * {@code (voided_at, patient_identifier_id)} index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last identifier id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Identifier ids in ascending order
+     */
+    @Query("SELECT p.patientIdentifierId FROM PatientIdentifier p WHERE p.voidedAt > ?1 AND p.voidedAt <= ?2 "
+            + "AND p.patientIdentifierId > ?3 ORDER BY p.patientIdentifierId")
+    List<Long> findVoidedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the identifiers with the given ids, together with their identifier types.
+     *
+     * @param ids The ids of the identifiers
+     * @return {@link List}&lt;{@link PatientIdentifier}&gt; Identifiers ordered by id
+     */
+    @Query("SELECT p FROM PatientIdentifier p JOIN FETCH p.patientIdentifierType "
+            + "WHERE p.patientIdentifierId IN ?1 ORDER BY p.patientIdentifierId")
+    List<PatientIdentifier> findAllWithIdentifierType(Collection<Long> ids);
+
+    /**
+     * Finds the identifier types held by the patients in an id range, not counting voided identifiers.
+     *
+     * @param after The exclusive lower bound of the patient ids
+     * @param last The inclusive upper bound of the patient ids
+     * @return {@link List}&lt;{@link IdentifierMembership}&gt; One row per identifier
+     */
+    @Query("SELECT p.patient.patientId AS patientId, "
+            + "p.patientIdentifierType.patientIdentifierTypeId AS identifierTypeId FROM PatientIdentifier p "
+            + "WHERE p.voided = false AND p.patient.patientId > ?1 AND p.patient.patientId <= ?2")
+    List<IdentifierMembership> findMembershipsBetween(long after, long last);
+
+    /**
+     * Finds the identifier types held by the given patients, not counting voided identifiers.
+     *
+     * @param patientIds The ids of the patients
+     * @return {@link List}&lt;{@link IdentifierMembership}&gt; One row per identifier
+     */
+    @Query("SELECT p.patient.patientId AS patientId, "
+            + "p.patientIdentifierType.patientIdentifierTypeId AS identifierTypeId FROM PatientIdentifier p "
+            + "WHERE p.voided = false AND p.patient.patientId IN ?1")
+    List<IdentifierMembership> findMemberships(Collection<Long> patientIds);
 }
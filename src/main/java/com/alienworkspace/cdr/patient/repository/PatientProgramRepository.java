@@ -1,9 +1,18 @@
 package com.alienworkspace.cdr.patient.repository;
 
 import com.alienworkspace.cdr.patient.model.PatientProgram;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -62,4 +71,246 @@ public interface PatientProgramRepository extends JpaRepository<PatientProgram,
      */
     @Query("select p from PatientProgram p where p.patient.patientId =:patientId and p.program.programId =:programId")
     Optional<PatientProgram> findByPatientIdAndProgramId(long patientId, int programId);
+
+    /**
+     * Finds which of the given patients are already enrolled in a program on any date, in a single statement.
+     * Matches {@link #findByPatientIdAndProgramId(long, int)}, and is answered from the
+     * {@code (program_id, patient_id, date_enrolled DESC)} index alone.
+     *
+     * @param programId The ID of the program
+     * @param patientIds The patient ids to check
+     * @return {@link List}&lt;{@link Long}&gt; The ids of the patients already enrolled, once each
+     */
+    @Query("select distinct p.patient.patientId from PatientProgram p where p.program.programId = ?1 "
+            + "and p.patient.patientId in ?2")
+    List<Long> findEnrolledPatientIds(int programId, Collection<Long> patientIds);
+
+    /**
+     * Counts the distinct patients enrolled in any program at any of the given locations. Voided
+     * enrollments and voided patients are not counted.
+     * Found on the {@code (location_id, patient_id)} index.
+     *
+     * @param locationIds The ids of the locations
+     * @return the number of patients
+     */
+    @Query("select count(distinct p.patient.patientId) from PatientProgram p "
+            + "where p.locationId in ?1 and p.voided = false and p.patient.voided = false")
+    long countPatientsByLocationIds(Collection<Integer> locationIds);
+
+    /**
+     * Finds the next page of enrollments created, modified or voided in a time window after the given
+     * enrollment id, together with their programs and patients.
+     *
+     * <p>
+     * Each time column is paged on its own {@code (time, patient_program_id)} index, reading only the ids
+     * changed in the window. The pages are merged and only the enrollments of the merged page are loaded,
+     * so the cost follows the number of changed rows rather than the size of the table.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last enrollment id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of enrollments to return
+     * @return {@link List}&lt;{@link PatientProgram}&gt; Enrollments ordered by id
+     */
+    default List<PatientProgram> findChangedAfter(LocalDateTime since, LocalDateTime until, long after,
+                                                  Limit limit) {
+        List<Long> ids = ChangedIds.merge(limit, findCreatedIdsAfter(since, until, after, limit),
+                findModifiedIdsAfter(since, until, after, limit), findVoidedIdsAfter(since, until, after, limit));
+        return ids.isEmpty() ? List.of() : findAllWithProgramAndPatient(ids);
+    }
+
+    /**
+     * Finds the next page of ids of enrollments created in a time window, on the
+     * {@code (created_at, patient_program_id)} index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last enrollment id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Enrollment ids in ascending order
+     */
+    @Query("select p.patientProgramId from PatientProgram p where p.createdAt > ?1 and p.createdAt <= ?2 "
+            + "and p.patientProgramId > ?3 order by p.patientProgramId")
+    List<Long> findCreatedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the next page of ids of enrollments modified in a time window, on the
+     * {@code (last_modified_at, patient_program_id)} index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last enrollment id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Enrollment ids in ascending order
+     */
+    @Query("select p.patientProgramId from PatientProgram p where p.lastModifiedAt > ?1 and p.lastModifiedAt <= ?2 "
+            + "and p.patientProgramId > ?3 order by p.patientProgramId")
+    List<Long> findModifiedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the next page of ids of enrollments voided in a time window, on the
+     * {@code (voided_at, patient_program_id)} index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last enrollment id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Enrollment ids in ascending order
+     */
+    @Query("select p.patientProgramId from PatientProgram p where p.voidedAt > ?1 and p.voidedAt <= ?2 "
+            + "and p.patientProgramId > ?3 order by p.patientProgramId")
+    List<Long> findVoidedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the enrollments with the given ids, together with their programs and patients.
+     *
+     * @param ids The ids of the enrollments
+     * @return {@link List}&lt;{@link PatientProgram}&gt; Enrollments ordered by id
+     */
+    @Query("select p from PatientProgram p join fetch p.program join fetch p.patient "
+            + "where p.patientProgramId in ?1 order by p.patientProgramId")
+    List<PatientProgram> findAllWithProgramAndPatient(Collection<Long> ids);
+
+    /**
+     * Counts the active, completed and total enrollments of every program in a single grouped statement.
+     * Answered from the {@code (program_id, voided, date_completed)} index alone, without reading the
+     * enrollment rows.
+     *
+     * @return {@link List}&lt;{@link EnrollmentCounts}&gt; The counts of every program with an enrollment
+     */
+    @Query("select p.program.programId as programId, "
+            + "sum(case when p.dateCompleted is null then 1 else 0 end) as active, "
+            + "sum(case when p.dateCompleted is not null then 1 else 0 end) as completed, "
+            + "count(p) as total "
+            + "from PatientProgram p where p.voided = false group by p.program.programId")
+    List<EnrollmentCounts> countEnrollmentsByProgram();
+
+    /**
+     * Counts the active, completed and total enrollments of one program.
+     * Answered from the {@code (program_id, voided, date_completed)} index alone.
+     *
+     * @param programId The ID of the program
+     * @return {@link Optional}&lt;{@link EnrollmentCounts}&gt; The counts, or empty if the program has no enrollment
+     */
+    @Query("select p.program.programId as programId, "
+            + "sum(case when p.dateCompleted is null then 1 else 0 end) as active, "
+            + "sum(case when p.dateCompleted is not null then 1 else 0 end) as completed, "
+            + "count(p) as total "
+            + "from PatientProgram p where p.program.programId = ?1 and p.voided = false "
+            + "group by p.program.programId")
+    Optional<EnrollmentCounts> countEnrollmentsOfProgram(int programId);
+
+    /**
+     * Finds the programs the patients in an id range are enrolled in, not counting voided enrollments.
+     *
+     * @param after The exclusive lower bound of the patient ids
+     * @param last The inclusive upper bound of the patient ids
+     * @return {@link List}&lt;{@link EnrollmentMembership}&gt; One row per enrollment
+     */
+    @Query("select p.patient.patientId as patientId, p.program.programId as programId, "
+            + "p.dateCompleted as dateCompleted from PatientProgram p "
+            + "where p.voided = false and p.patient.patientId > ?1 and p.patient.patientId <= ?2")
+    List<EnrollmentMembership> findMembershipsBetween(long after, long last);
+
+    /**
+     * Finds the programs the given patients are enrolled in, not counting voided enrollments.
+     *
+     * @param patientIds The ids of the patients
+     * @return {@link List}&lt;{@link EnrollmentMembership}&gt; One row per enrollment
+     */
+    @Query("select p.patient.patientId as patientId, p.program.programId as programId, "
+            + "p.dateCompleted as dateCompleted from PatientProgram p "
+            + "where p.voided = false and p.patient.patientId in ?1")
+    List<EnrollmentMembership> findMemberships(Collection<Long> patientIds);
+
+    /**
+     * Counts the enrollments of a program that were active on a date: enrolled on or before it and not
+     * completed by then. Voided enrollments are not counted.
+     * Answered from a range of the {@code (program_id, voided, date_enrolled, patient_id, date_completed)}
+     * index alone.
+     *
+     * @param programId The ID of the program
+     * @param on The date
+     * @return the number of active enrollments
+     */
+    @Query("select count(p) from PatientProgram p where p.program.programId = ?1 and p.voided = false "
+            + "and p.dateEnrolled <= ?2 and (p.dateCompleted is null or p.dateCompleted > ?2)")
+    long countActiveOn(int programId, LocalDate on);
+
+    /**
+     * Finds the next page of the enrollments of a program that were active on a date, after the given
+     * enrollment date and patient id. Voided enrollments are skipped.
+     * Read in the order of the {@code (program_id, voided, date_enrolled, patient_id, date_completed)}
+     * index, from the index alone and without sorting.
+     *
+     * @param programId The ID of the program
+     * @param on The date
+     * @param afterEnrolled The enrollment date of the last enrollment of the previous page
+     * @param afterPatientId The patient id of the last enrollment of the previous page
+     * @param limit The maximum number of enrollments to return
+     * @return {@link List}&lt;{@link EnrollmentInterval}&gt; Enrollments ordered by enrollment date and patient id
+     */
+    @Query("select p.patient.patientId as patientId, p.dateEnrolled as dateEnrolled, "
+            + "p.dateCompleted as dateCompleted from PatientProgram p "
+            + "where p.program.programId = ?1 and p.voided = false "
+            + "and p.dateEnrolled <= ?2 and (p.dateCompleted is null or p.dateCompleted > ?2) "
+            + "and (p.dateEnrolled > ?3 or (p.dateEnrolled = ?3 and p.patient.patientId > ?4)) "
+            + "order by p.dateEnrolled, p.patient.patientId")
+    List<EnrollmentInterval> findActiveOn(int programId, LocalDate on, LocalDate afterEnrolled, long afterPatientId,
+                                          Limit limit);
+
+    /**
+     * Counts the enrollments of a program per month of their enrollment date, in a date range.
+     * Voided enrollments are not counted. Answered from a range of the
+     * {@code (program_id, voided, date_enrolled, patient_id, date_completed)} index alone.
+     *
+     * @param programId The ID of the program
+     * @param from The first day of the range
+     * @param to The last day of the range
+     * @return {@link List}&lt;{@link MonthlyCount}&gt; The counts of the months with an enrollment
+     */
+    @Query("select year(p.dateEnrolled) as calendarYear, month(p.dateEnrolled) as calendarMonth, count(p) as total "
+            + "from PatientProgram p where p.program.programId = ?1 and p.voided = false "
+            + "and p.dateEnrolled between ?2 and ?3 group by year(p.dateEnrolled), month(p.dateEnrolled)")
+    List<MonthlyCount> countEnrolledByMonth(int programId, LocalDate from, LocalDate to);
+
+    /**
+     * Counts the enrollments of a program per month of their completion date, in a date range.
+     * Voided enrollments are not counted. Answered from a range of the
+     * {@code (program_id, voided, date_completed)} index alone.
+     *
+     * @param programId The ID of the program
+     * @param from The first day of the range
+     * @param to The last day of the range
+     * @return {@link List}&lt;{@link MonthlyCount}&gt; The counts of the months with a completion
+     */
+    @Query("select year(p.dateCompleted) as calendarYear, month(p.dateCompleted) as calendarMonth, "
+            + "count(p) as total from PatientProgram p where p.program.programId = ?1 and p.voided = false "
+            + "and p.dateCompleted between ?2 and ?3 group by year(p.dateCompleted), month(p.dateCompleted)")
+    List<MonthlyCount> countCompletedByMonth(int programId, LocalDate from, LocalDate to);
+
+    /**
+     * Streams the enrollments of a program joined with the identifiers of their patients, ordered by
+     * patient id and enrollment date in the order of the {@code (program_id, patient_id, date_enrolled DESC)}
+     * index. Voided patients, enrollments and identifiers are skipped.
+     *
+     * <p>
+     * The rows are not managed entities, and the fetch size of {@link Integer#MIN_VALUE} makes MySQL stream
+     * them one at a time over the connection instead of buffering the whole result, so memory does not grow
+     * with the cohort. The connection serves no other statement until the stream is closed, so it must be
+     * read and closed inside a transaction that does nothing else.
+     *
+     * @param programId The ID of the program
+     * @return {@link Stream}&lt;{@link CohortExportTuple}&gt; One row per enrollment and identifier
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("select pt.patientId as patientId, pt.uuid as patientUuid, p.dateEnrolled as dateEnrolled, "
+            + "p.dateCompleted as dateCompleted, p.locationId as locationId, "
+            + "p.outcomeConceptId as outcomeConceptId, t.patientIdentifierTypeId as identifierTypeId, "
+            + "i.identifier as identifier from PatientProgram p join p.patient pt "
+            + "left join PatientIdentifier i on i.patient = pt and i.voided = false "
+            + "left join i.patientIdentifierType t "
+            + "where p.program.programId = ?1 and p.voided = false and pt.voided = false "
+            + "order by pt.patientId, p.dateEnrolled desc")
+    Stream<CohortExportTuple> streamProgramCohort(int programId);
 }
@@ -1,8 +1,12 @@
 package com.alienworkspace.cdr.patient.repository;
 
 import com.alienworkspace.cdr.patient.model.Patient;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -26,6 +30,17 @@ import org.springframework.stereotype.Repository;
  * - Relationships with other entities
  * - Audit trail data
  *
+ * <p>
+ * Fetch plans: the identifier and program collections of a {@link Patient} are lazy, and the list
+ * queries below select the patient rows only, because their endpoints map nothing but the patient
+ * row. Callers that need the collections use {@link #findWithDetailsByPatientId(long)}, which loads
+ * them through the {@link Patient#WITH_IDENTIFIERS_AND_PROGRAMS} entity graph in a single statement.
+ *
+ * <p>
+ * The {@code ...After} queries page through patients with a keyset on {@code patient_id}: each page
+ * starts after the last id of the previous one, so a page costs the same no matter how deep into the
+ * table it is and rows inserted meanwhile never shift later pages.
+ *
  * @author Firstname Lastname
  * @version 1.0
  * @since 1.0
@@ -33,7 +48,7 @@ import org.springframework.stereotype.Repository;
  * @see JpaRepository
  */
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends JpaRepository<Patient, Long>, PatientBulkRepository {
 
     /**
      * Finds a patient by their unique identifier value.
@@ -111,4 +126,235 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
      * @return {@link List}&lt;{@link Patient}&gt; List of patients matching the void status
      */
     List<Patient> findAllByVoided(boolean voided);
+
+    /**
+     * Finds a patient together with its identifiers, their types, its program enrollments and their
+     * programs in a single statement.
+     *
+     * @param patientId The ID of the patient
+     * @return {@link Optional}&lt;{@link Patient}&gt; The patient with its collections initialised, or empty
+     */
+    @EntityGraph(Patient.WITH_IDENTIFIERS_AND_PROGRAMS)
+    Optional<Patient> findWithDetailsByPatientId(long patientId);
+
+    /**
+     * Finds a patient together with its identifiers and their types in a single statement.
+     *
+     * @param patientId The ID of the patient
+     * @return {@link Optional}&lt;{@link Patient}&gt; The patient with its identifiers initialised, or empty
+     */
+    @EntityGraph(Patient.WITH_IDENTIFIERS)
+    Optional<Patient> findWithIdentifiersByPatientId(long patientId);
+
+    /**
+     * Finds a patient together with its program enrollments and their programs in a single statement.
+     *
+     * @param patientId The ID of the patient
+     * @return {@link Optional}&lt;{@link Patient}&gt; The patient with its enrollments initialised, or empty
+     */
+    @EntityGraph(Patient.WITH_PROGRAMS)
+    Optional<Patient> findWithProgramsByPatientId(long patientId);
+
+    /**
+     * Finds many patients together with their identifiers and their types in a single statement.
+     *
+     * @param patientIds The IDs of the patients
+     * @return {@link List}&lt;{@link Patient}&gt; The patients found with their identifiers initialised
+     */
+    @EntityGraph(Patient.WITH_IDENTIFIERS)
+    List<Patient> findWithIdentifiersByPatientIdIn(Collection<Long> patientIds);
+
+    /**
+     * Finds many patients together with their program enrollments and their programs in a single statement.
+     *
+     * @param patientIds The IDs of the patients
+     * @return {@link List}&lt;{@link Patient}&gt; The patients found with their enrollments initialised
+     */
+    @EntityGraph(Patient.WITH_PROGRAMS)
+    List<Patient> findWithProgramsByPatientIdIn(Collection<Long> patientIds);
+
+    /**
+     * Finds the patient holding the given identifier value together with its identifiers, their types,
+     * its program enrollments and their programs in a single statement.
+     * Replaces loading the identifier first and then navigating to its patient.
+     *
+     * @param identifier The identifier value to search for
+     * @return {@link Optional}&lt;{@link Patient}&gt; The patient with its collections initialised, or empty
+     */
+    @EntityGraph(Patient.WITH_IDENTIFIERS_AND_PROGRAMS)
+    @Query("SELECT p FROM Patient p WHERE p.patientId = "
+            + "(SELECT pi.patient.patientId FROM PatientIdentifier pi WHERE pi.identifier = ?1)")
+    Optional<Patient> findWithDetailsByIdentifier(String identifier);
+
+    /**
+     * Finds the next page of patients after the given patient id.
+     *
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of patients to return
+     * @return {@link List}&lt;{@link Patient}&gt; Patients ordered by id
+     */
+    @Query("SELECT p FROM Patient p WHERE p.patientId > ?1 ORDER BY p.patientId")
+    List<Patient> findAllAfter(long after, Limit limit);
+
+    /**
+     * Finds the next page of patients with the given void status after the given patient id.
+     *
+     * @param voided The void status to filter by
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of patients to return
+     * @return {@link List}&lt;{@link Patient}&gt; Patients ordered by id
+     */
+    @Query("SELECT p FROM Patient p WHERE p.voided = ?1 AND p.patientId > ?2 ORDER BY p.patientId")
+    List<Patient> findAllByVoidedAfter(boolean voided, long after, Limit limit);
+
+    /**
+     * Finds the next page of patients enrolled in a program after the given patient id.
+     * Uses a semi-join instead of {@code DISTINCT} so the scan follows the primary key order.
+     *
+     * @param programId The ID of the program
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of patients to return
+     * @return {@link List}&lt;{@link Patient}&gt; Patients ordered by id
+     */
+    @Query("SELECT p FROM Patient p WHERE p.patientId > ?2 AND EXISTS ("
+            + "SELECT 1 FROM PatientProgram pp WHERE pp.patient = p AND pp.program.programId = ?1) "
+            + "ORDER BY p.patientId")
+    List<Patient> findByProgramAfter(int programId, long after, Limit limit);
+
+    /**
+     * Finds the next page of patients holding an identifier of a type after the given patient id.
+     * Uses a semi-join instead of {@code DISTINCT} so the scan follows the primary key order.
+     *
+     * @param identifierTypeId The ID of the identifier type
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of patients to return
+     * @return {@link List}&lt;{@link Patient}&gt; Patients ordered by id
+     */
+    @Query("SELECT p FROM Patient p WHERE p.patientId > ?2 AND EXISTS ("
+            + "SELECT 1 FROM PatientIdentifier pi WHERE pi.patient = p "
+            + "AND pi.patientIdentifierType.patientIdentifierTypeId = ?1) "
+            + "ORDER BY p.patientId")
+    List<Patient> findByIdentifierTypeAfter(int identifierTypeId, long after, Limit limit);
+
+    /**
+     * Finds the next page of patients enrolled in a program or holding an identifier at any of the given
+     * locations after the given patient id. Voided patients, enrollments and identifiers are skipped.
+     *
+     * @param locationIds The ids of the locations
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of patients to return
+     * @return {@link List}&lt;{@link Patient}&gt; Patients ordered by id
+     */
+    @Query("SELECT p FROM Patient p WHERE p.patientId > ?2 AND p.voided = false AND (EXISTS ("
+            + "SELECT 1 FROM PatientProgram pp WHERE pp.patient = p AND pp.locationId IN ?1 AND pp.voided = false) "
+            + "OR EXISTS (SELECT 1 FROM PatientIdentifier pi WHERE pi.patient = p AND pi.locationId IN ?1 "
+            + "AND pi.voided = false)) ORDER BY p.patientId")
+    List<Patient> findByLocationsAfter(Collection<Integer> locationIds, long after, Limit limit);
+
+    /**
+     * Finds the audit timestamps of a patient without loading the patient.
+     *
+     * @param patientId The ID of the patient
+     * @return {@link Optional}&lt;{@link AuditVersion}&gt; The timestamps, or empty if not found
+     */
+    Optional<AuditVersion> findVersionByPatientId(long patientId);
+
+    /**
+     * Finds which of the given patient ids exist, in a single statement.
+     *
+     * @param patientIds The patient ids to check
+     * @return {@link List}&lt;{@link Long}&gt; The ids that match a patient
+     */
+    @Query("SELECT p.patientId FROM Patient p WHERE p.patientId IN ?1")
+    List<Long> findExistingIds(Collection<Long> patientIds);
+
+    /**
+     * Finds the next page of patients created, modified or voided in a time window after the given
+     * patient id.
+     *
+     * <p>
+     * Each time column is paged on its own {@code (time, patient_id)} index, reading only the ids changed
+     * in the window. The pages are merged and only the patients of the merged page are loaded, so the cost
+     * follows the number of changed rows rather than the size of the table.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of patients to return
+     * @return {@link List}&lt;{@link Patient}&gt; Patients ordered by id
+     */
+    default List<Patient> findChangedAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit) {
+        List<Long> ids = ChangedIds.merge(limit, findCreatedIdsAfter(since, until, after, limit),
+                findModifiedIdsAfter(since, until, after, limit), findVoidedIdsAfter(since, until, after, limit));
+        return ids.isEmpty() ? List.of() : findAllByPatientIdInOrderByPatientId(ids);
+    }
+
+    /**
+     * Finds the next page of ids of patients created in a time window, on the {@code (created_at, patient_id)}
+     * index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last patient id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Patient ids in ascending order
+     */
+    @Query("SELECT p.patientId FROM Patient p WHERE p.createdAt > ?1 AND p.createdAt <= ?2 AND p.patientId > ?3 "
+            + "ORDER BY p.patientId")
+    List<Long> findCreatedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the next page of ids of patients modified in a time window, on the
+     * {@code (last_modified_at, patient_id)} index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last patient id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Patient ids in ascending order
+     */
+    @Query("SELECT p.patientId FROM Patient p WHERE p.lastModifiedAt > ?1 AND p.lastModifiedAt <= ?2 "
+            + "AND p.patientId > ?3 ORDER BY p.patientId")
+    List<Long> findModifiedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the next page of ids of patients voided in a time window, on the {@code (voided_at, patient_id)}
+     * index.
+     *
+     * @param since The exclusive start of the window
+     * @param until The inclusive end of the window
+     * @param after The last patient id of the previous page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Patient ids in ascending order
+     */
+    @Query("SELECT p.patientId FROM Patient p WHERE p.voidedAt > ?1 AND p.voidedAt <= ?2 AND p.patientId > ?3 "
+            + "ORDER BY p.patientId")
+    List<Long> findVoidedIdsAfter(LocalDateTime since, LocalDateTime until, long after, Limit limit);
+
+    /**
+     * Finds the patients with the given ids.
+     *
+     * @param patientIds The ids of the patients
+     * @return {@link List}&lt;{@link Patient}&gt; Patients ordered by id
+     */
+    List<Patient> findAllByPatientIdInOrderByPatientId(Collection<Long> patientIds);
+
+    /**
+     * Finds the next page of ids of patients that are not voided.
+     *
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param limit The maximum number of ids to return
+     * @return {@link List}&lt;{@link Long}&gt; Patient ids in ascending order
+     */
+    @Query("SELECT p.patientId FROM Patient p WHERE p.voided = false AND p.patientId > ?1 ORDER BY p.patientId")
+    List<Long> findActiveIdsAfter(long after, Limit limit);
+
+    /**
+     * Finds which of the given patient ids belong to a patient that is not voided, in a single statement.
+     *
+     * @param patientIds The patient ids to check
+     * @return {@link List}&lt;{@link Long}&gt; The ids of the patients that are not voided
+     */
+    @Query("SELECT p.patientId FROM Patient p WHERE p.voided = false AND p.patientId IN ?1")
+    List<Long> findActiveIds(Collection<Long> patientIds);
 }
@@ -0,0 +1,45 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import com.alienworkspace.cdr.patient.model.ProgramEnrollmentCounter;
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing {@link ProgramEnrollmentCounter} entities.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ * @see ProgramEnrollmentCounter
+ */
+@Repository
+public interface ProgramEnrollmentCounterRepository extends JpaRepository<ProgramEnrollmentCounter, Integer> {
+
+    /**
+     * Adds to the counts of a program in a single statement, without reading the row first.
+     * The row stays locked until the calling transaction ends.
+     *
+     * @param programId The ID of the program
+     * @param active The number added to the active enrollments, negative to subtract
+     * @param completed The number added to the completed enrollments, negative to subtract
+     * @param total The number added to the total enrollments, negative to subtract
+     * @return the number of counters updated, {@code 0} if the program has no counter yet
+     */
+    @Modifying
+    @Query("UPDATE ProgramEnrollmentCounter c SET c.active = c.active + ?2, c.completed = c.completed + ?3, "
+            + "c.total = c.total + ?4 WHERE c.programId = ?1")
+    int addToCounts(int programId, long active, long completed, long total);
+
+    /**
+     * Finds the counter of a program and locks it until the calling transaction ends.
+     *
+     * @param programId The ID of the program
+     * @return {@link Optional}&lt;{@link ProgramEnrollmentCounter}&gt; The counter, or empty if there is none
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ProgramEnrollmentCounter c WHERE c.programId = ?1")
+    Optional<ProgramEnrollmentCounter> findForUpdate(int programId);
+}
@@ -0,0 +1,15 @@
+package com.alienworkspace.cdr.patient.service;
+
+import java.time.LocalDate;
+
+/**
+ * An enrollment that was active in a program on the requested date.
+ *
+ * @param patientId the id of the enrolled patient
+ * @param dateEnrolled the first day of the enrollment
+ * @param dateCompleted the day the enrollment was completed, or {@code null} if it still is active
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record ActiveEnrollment(long patientId, LocalDate dateEnrolled, LocalDate dateCompleted) {
+}
@@ -0,0 +1,26 @@
+package com.alienworkspace.cdr.patient.service;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Request to enroll many patients in one program with the same enrollment details.
+ *
+ * @param patientIds the ids of the patients to enroll
+ * @param dateEnrolled the date the patients are enrolled on
+ * @param locationId the location the patients are enrolled at
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "The patient ids are copied to an unmodifiable list")
+public record BulkEnrollmentRequest(List<Long> patientIds, LocalDate dateEnrolled, int locationId) {
+
+    /**
+     * Creates the request, copying the patient ids and dropping blank entries.
+     */
+    public BulkEnrollmentRequest {
+        patientIds = patientIds == null ? List.of() : patientIds.stream().filter(Objects::nonNull).toList();
+    }
+}
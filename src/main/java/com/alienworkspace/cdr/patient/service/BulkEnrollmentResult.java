@@ -0,0 +1,22 @@
+package com.alienworkspace.cdr.patient.service;
+
+import java.util.List;
+
+/**
+ * Outcome of enrolling many patients in one program.
+ *
+ * @param enrolled the number of patients that were enrolled
+ * @param alreadyEnrolled the number of patients skipped because they were already enrolled in the program
+ * @param unknownPatientIds the ids that match no patient
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record BulkEnrollmentResult(int enrolled, int alreadyEnrolled, List<Long> unknownPatientIds) {
+
+    /**
+     * Creates the result, copying the unknown patient ids.
+     */
+    public BulkEnrollmentResult {
+        unknownPatientIds = List.copyOf(unknownPatientIds);
+    }
+}
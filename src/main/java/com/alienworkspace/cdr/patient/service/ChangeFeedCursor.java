@@ -0,0 +1,121 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the patient change feed.
+ *
+ * <p>
+ * A sync run reads every record whose creation, last modification or void time falls in the window
+ * {@code (since, until]}: first the patients, then their identifiers, then their program enrollments,
+ * each in id order. The end of the window is fixed when the first page of the run is read, and the
+ * cursor of the last page starts the next run at that end. Clients treat the cursor as an opaque string.
+ *
+ * @param since the exclusive start of the window
+ * @param until the inclusive end of the window, or {@code null} until the run has started
+ * @param section the kind of record read next
+ * @param after the id of the last record of that kind already returned, or {@code 0}
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record ChangeFeedCursor(LocalDateTime since, LocalDateTime until, Section section, long after) {
+
+    /**
+     * The kinds of records of the change feed, in the order they are read.
+     */
+    public enum Section {
+        PATIENTS,
+        IDENTIFIERS,
+        ENROLLMENTS
+    }
+
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Returns the cursor of a run covering every change ever made.
+     *
+     * @return the cursor
+     */
+    public static ChangeFeedCursor first() {
+        return new ChangeFeedCursor(BEGINNING, null, Section.PATIENTS, 0);
+    }
+
+    /**
+     * Returns whether the end of the window is fixed.
+     *
+     * @return {@code true} once the run has started
+     */
+    public boolean started() {
+        return until != null;
+    }
+
+    /**
+     * Returns the cursor starting this run with the given end of the window.
+     *
+     * @param until the inclusive end of the window
+     * @return the cursor
+     */
+    public ChangeFeedCursor startedAt(LocalDateTime until) {
+        return new ChangeFeedCursor(since, until, Section.PATIENTS, 0);
+    }
+
+    /**
+     * Returns the cursor continuing the run in the given section after the given id.
+     *
+     * @param section the section read next
+     * @param after the id of the last record of that section already returned
+     * @return the cursor
+     */
+    public ChangeFeedCursor at(Section section, long after) {
+        return new ChangeFeedCursor(since, until, section, after);
+    }
+
+    /**
+     * Returns the cursor of the next run, starting right after the window of this one.
+     *
+     * @return the cursor
+     */
+    public ChangeFeedCursor next() {
+        return new ChangeFeedCursor(until, null, Section.PATIENTS, 0);
+    }
+
+    /**
+     * Encodes the cursor for clients.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = since + SEPARATOR + (until == null ? "" : until) + SEPARATOR + section + SEPARATOR + after;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor sent by a client.
+     *
+     * @param encoded the encoded cursor
+     * @return the cursor
+     * @throws BadRequestException if the cursor is malformed
+     */
+    public static ChangeFeedCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new BadRequestException("Invalid change feed cursor: " + encoded);
+            }
+            long after = Long.parseLong(parts[3]);
+            if (after < 0) {
+                throw new BadRequestException("Invalid change feed cursor: " + encoded);
+            }
+            return new ChangeFeedCursor(LocalDateTime.parse(parts[0]),
+                    parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]), Section.valueOf(parts[2]), after);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid change feed cursor: " + encoded, e);
+        }
+    }
+}
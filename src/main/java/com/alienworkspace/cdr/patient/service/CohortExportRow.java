@@ -0,0 +1,30 @@
+package com.alienworkspace.cdr.patient.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One enrollment of an exported program cohort, with the identifiers of its patient.
+ *
+ * @param patientId the id of the enrolled patient
+ * @param patientUuid the public id of the enrolled patient
+ * @param dateEnrolled the first day of the enrollment
+ * @param dateCompleted the day the enrollment was completed, or {@code null} if it still is active
+ * @param locationId the location of the enrollment
+ * @param outcomeConceptId the outcome of the enrollment, or {@code null} if there is none
+ * @param identifiers the identifiers of the patient that are not voided
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record CohortExportRow(long patientId, String patientUuid, LocalDate dateEnrolled, LocalDate dateCompleted,
+                              int locationId, Integer outcomeConceptId, List<Identifier> identifiers) {
+
+    /**
+     * One identifier of the patient.
+     *
+     * @param identifierTypeId the type of the identifier
+     * @param identifier the identifier
+     */
+    public record Identifier(int identifierTypeId, String identifier) {
+    }
+}
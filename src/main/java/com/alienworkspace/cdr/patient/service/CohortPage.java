@@ -0,0 +1,14 @@
+package com.alienworkspace.cdr.patient.service;
+
+import java.util.List;
+
+/**
+ * One page of the patients matching a cohort expression.
+ *
+ * @param patientIds the ids of the matching patients on this page, in ascending order
+ * @param total the number of patients matching the expression
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record CohortPage(List<Long> patientIds, long total) {
+}
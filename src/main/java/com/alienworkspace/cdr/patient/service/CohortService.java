@@ -0,0 +1,26 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression;
+
+/**
+ * Service interface for cohort queries.
+ * Selects the patients matching a boolean expression over their programs, program statuses and
+ * identifier types without reading a patient row.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ * @see CohortExpression
+ */
+public interface CohortService {
+
+    /**
+     * Gets one page of the patients matching an expression.
+     *
+     * @param expression The cohort expression
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param size The maximum number of patient ids to return
+     * @return CohortPage
+     * @throws BadRequestException if the expression is malformed
+     */
+    CohortPage getCohort(String expression, long after, int size);
+}
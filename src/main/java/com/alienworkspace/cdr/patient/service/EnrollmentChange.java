@@ -0,0 +1,42 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import java.time.LocalDate;
+
+/**
+ * State of a program enrollment, as returned by the patient change feed and the patient reads.
+ *
+ * @param patientProgramId the id of the enrollment
+ * @param patientId the id of the enrolled patient
+ * @param programId the id of the program
+ * @param locationId the id of the location the patient was enrolled at
+ * @param dateEnrolled the enrollment date
+ * @param dateCompleted the completion date, or {@code null}
+ * @param outcomeConceptId the outcome, or {@code null}
+ * @param outcomeComment the outcome comment, or {@code null}
+ * @param voided whether the enrollment is voided
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record EnrollmentChange(long patientProgramId, long patientId, int programId, int locationId,
+                               LocalDate dateEnrolled, LocalDate dateCompleted, Integer outcomeConceptId,
+                               String outcomeComment, boolean voided) {
+
+    /**
+     * Copies the state of an enrollment.
+     *
+     * @param patientProgram the enrollment, with its patient and program
+     * @return the state of the enrollment
+     */
+    public static EnrollmentChange of(PatientProgram patientProgram) {
+        return new EnrollmentChange(patientProgram.getPatientProgramId(),
+                patientProgram.getPatient().getPatientId(),
+                patientProgram.getProgram().getProgramId(),
+                patientProgram.getLocationId(),
+                patientProgram.getDateEnrolled(),
+                patientProgram.getDateCompleted(),
+                patientProgram.getOutcomeConceptId(),
+                patientProgram.getOutcomeComment(),
+                patientProgram.isVoided());
+    }
+}
@@ -0,0 +1,75 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list of enrollments ordered by enrollment date and patient id.
+ * Clients treat the cursor as an opaque string.
+ *
+ * @param dateEnrolled the enrollment date of the last enrollment already returned
+ * @param patientId the patient id of the last enrollment already returned, or {@code 0}
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record EnrollmentCursor(LocalDate dateEnrolled, long patientId) {
+
+    private static final LocalDate BEGINNING = LocalDate.of(1900, 1, 1);
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Returns the cursor before every enrollment.
+     *
+     * @return the cursor
+     */
+    public static EnrollmentCursor first() {
+        return new EnrollmentCursor(BEGINNING, 0);
+    }
+
+    /**
+     * Returns the cursor after an enrollment.
+     *
+     * @param enrollment the last enrollment already returned
+     * @return the cursor
+     */
+    public static EnrollmentCursor after(ActiveEnrollment enrollment) {
+        return new EnrollmentCursor(enrollment.dateEnrolled(), enrollment.patientId());
+    }
+
+    /**
+     * Encodes the cursor for clients.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        String raw = dateEnrolled + SEPARATOR + patientId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor sent by a client.
+     *
+     * @param encoded the encoded cursor
+     * @return the cursor
+     * @throws BadRequestException if the cursor is malformed
+     */
+    public static EnrollmentCursor decode(String encoded) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 2) {
+                throw new BadRequestException("Invalid enrollment cursor: " + encoded);
+            }
+            long patientId = Long.parseLong(parts[1]);
+            if (patientId < 0) {
+                throw new BadRequestException("Invalid enrollment cursor: " + encoded);
+            }
+            return new EnrollmentCursor(LocalDate.parse(parts[0]), patientId);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid enrollment cursor: " + encoded, e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.service.cache.LocationLevel;
+
+/**
+ * Number of patients seen at the locations at or below a node of the location hierarchy.
+ *
+ * @param level the level of the node
+ * @param id the id of the node
+ * @param name the name of the node
+ * @param locations the number of locations at or below the node
+ * @param enrolledPatients the number of distinct patients enrolled in a program at those locations
+ * @param identifiedPatients the number of distinct patients holding an identifier issued at those locations
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record LocationPatientCount(LocationLevel level, int id, String name, int locations, long enrolledPatients,
+                                   long identifiedPatients) {
+}
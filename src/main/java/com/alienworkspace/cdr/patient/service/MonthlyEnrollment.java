@@ -0,0 +1,16 @@
+package com.alienworkspace.cdr.patient.service;
+
+import java.time.YearMonth;
+
+/**
+ * The enrollments of a program in one calendar month.
+ *
+ * @param month the month
+ * @param enrolled the number of enrollments starting in the month
+ * @param completed the number of enrollments completed in the month
+ * @param active the number of enrollments active on the last day of the month
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record MonthlyEnrollment(YearMonth month, long enrolled, long completed, long active) {
+}
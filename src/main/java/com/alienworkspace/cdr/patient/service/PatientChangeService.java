@@ -0,0 +1,23 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+
+/**
+ * Service interface for the incremental patient change feed.
+ * Lets sync clients fetch only the patients, identifiers and program enrollments that changed since
+ * their last sync instead of downloading every patient again.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface PatientChangeService {
+
+    /**
+     * Gets one page of the change feed.
+     *
+     * @param cursor The cursor returned by the previous page, or {@code null} to start with every change
+     * @param size The maximum number of records to return
+     * @return PatientChanges
+     * @throws BadRequestException if the cursor is malformed
+     */
+    PatientChanges getChanges(String cursor, int size);
+}
@@ -0,0 +1,20 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
+import java.util.List;
+
+/**
+ * One page of the patient change feed.
+ *
+ * @param patients the patients created, modified or voided in the window
+ * @param identifiers the identifiers created, modified or voided in the window
+ * @param enrollments the program enrollments created, modified or voided in the window
+ * @param cursor the cursor of the next page, or of the next sync run if this page completes the run
+ * @param complete whether this page completes the run
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record PatientChanges(List<PatientDto> patients, List<PatientIdentifierDto> identifiers,
+                             List<EnrollmentChange> enrollments, String cursor, boolean complete) {
+}
@@ -0,0 +1,60 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Optional parts of a patient that a caller can ask for.
+ * Parts that are not requested are neither loaded nor serialised, so a caller that only needs the
+ * identifiers does not pay for the demographic service call or the program join.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public enum PatientField {
+
+    /**
+     * The person, fetched from the demographic service.
+     */
+    PERSON,
+
+    /**
+     * The patient identifiers.
+     */
+    IDENTIFIERS,
+
+    /**
+     * The program enrollments.
+     */
+    PROGRAMS,
+
+    /**
+     * The audit trail: creation, modification and void details.
+     */
+    AUDIT;
+
+    /**
+     * Parses a comma separated list of field names, e.g. {@code identifiers,programs}.
+     * Names are case-insensitive and blanks are ignored.
+     *
+     * @param fields the field names
+     * @return the fields
+     * @throws BadRequestException if a name is unknown
+     */
+    public static Set<PatientField> parse(String fields) {
+        Set<PatientField> parsed = EnumSet.noneOf(PatientField.class);
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed.add(valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown patient field: " + name, e);
+            }
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,76 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.service.cache.LocationLevel;
+
+/**
+ * Describes which patients a paginated or streamed listing returns.
+ *
+ * @param scope the kind of listing
+ * @param scopeId the program, identifier type or location node id the listing is restricted to, or {@code 0}
+ * @param level the level of the location node for {@link Scope#LOCATION} listings, otherwise {@code null}
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record PatientListQuery(Scope scope, int scopeId, LocationLevel level) {
+
+    /**
+     * The kinds of patient listings.
+     */
+    public enum Scope {
+        ALL,
+        VOIDED,
+        PROGRAM,
+        IDENTIFIER_TYPE,
+        LOCATION
+    }
+
+    /**
+     * Lists every patient.
+     *
+     * @return the query
+     */
+    public static PatientListQuery all() {
+        return new PatientListQuery(Scope.ALL, 0, null);
+    }
+
+    /**
+     * Lists voided patients.
+     *
+     * @return the query
+     */
+    public static PatientListQuery voided() {
+        return new PatientListQuery(Scope.VOIDED, 0, null);
+    }
+
+    /**
+     * Lists patients enrolled in a program.
+     *
+     * @param programId the id of the program
+     * @return the query
+     */
+    public static PatientListQuery program(int programId) {
+        return new PatientListQuery(Scope.PROGRAM, programId, null);
+    }
+
+    /**
+     * Lists patients holding an identifier of a type.
+     *
+     * @param identifierTypeId the id of the identifier type
+     * @return the query
+     */
+    public static PatientListQuery identifierType(int identifierTypeId) {
+        return new PatientListQuery(Scope.IDENTIFIER_TYPE, identifierTypeId, null);
+    }
+
+    /**
+     * Lists patients enrolled in a program or holding an identifier at any location at or below a
+     * node of the location hierarchy.
+     *
+     * @param level the level of the node
+     * @param id the id of the node
+     * @return the query
+     */
+    public static PatientListQuery location(LocationLevel level, int id) {
+        return new PatientListQuery(Scope.LOCATION, id, level);
+    }
+}
@@ -1,7 +1,9 @@
 package com.alienworkspace.cdr.patient.service;
 
 import com.alienworkspace.cdr.model.dto.patient.PatientProgramDto;
+import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
 import com.alienworkspace.cdr.patient.exception.AlreadyExistException;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
 
 /**
@@ -43,6 +45,20 @@ public interface PatientProgramService {
      */
     void enrollPatientInProgram(long patientId, int programId, PatientProgramDto patientProgramDto);
 
+    /**
+     * Enrolls many patients in a specific program on the same date and location.
+     * Patients already enrolled in the program, on any date, are skipped as {@link #enrollPatientInProgram}
+     * would reject them, and ids that match no patient are reported, so the same request can safely be
+     * sent again.
+     *
+     * @param programId The unique identifier of the program to enroll the patients in
+     * @param request The patients to enroll and the enrollment details
+     * @return The number of patients enrolled and skipped, and the unknown patient ids
+     * @throws ResourceNotFoundException if the program is not found
+     * @throws BadRequestException if no enrollment date is given or more patients are sent than allowed
+     */
+    BulkEnrollmentResult enrollPatientsInProgram(int programId, BulkEnrollmentRequest request);
+
     /**
      * Updates an existing program enrollment for a patient.
      * This method allows updating the completion details of a patient's program enrollment,
@@ -55,4 +71,15 @@ public interface PatientProgramService {
      * @throws ResourceNotFoundException if either patient or enrollment is not found
      */
     void updateProgramEnrollment(long patientId, int programId, PatientProgramDto patientProgramDto);
+
+    /**
+     * Voids a patient's program enrollment.
+     * The enrollment is kept but no longer counted in the program's enrollment counts.
+     *
+     * @param patientId The unique identifier of the enrolled patient
+     * @param programId The unique identifier of the program the patient is enrolled in
+     * @param recordVoidRequest The void request containing the reason
+     * @throws ResourceNotFoundException if the enrollment is not found
+     */
+    void voidProgramEnrollment(long patientId, int programId, RecordVoidRequest recordVoidRequest);
 }
@@ -0,0 +1,45 @@
+package com.alienworkspace.cdr.patient.service;
+
+/**
+ * Outcome of registering one patient of a bulk registration.
+ *
+ * @param index the position of the patient in the request, starting at {@code 0}
+ * @param status whether the patient was registered
+ * @param patientId the id of the patient, or of the person created for it, if any
+ * @param error why the patient was not registered, or {@code null}
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record PatientRegistrationResult(int index, Status status, Long patientId, String error) {
+
+    /**
+     * The outcomes of a registration.
+     */
+    public enum Status {
+        REGISTERED,
+        FAILED
+    }
+
+    /**
+     * A patient that was registered.
+     *
+     * @param index the position of the patient in the request
+     * @param patientId the id of the new patient
+     * @return the result
+     */
+    public static PatientRegistrationResult registered(int index, long patientId) {
+        return new PatientRegistrationResult(index, Status.REGISTERED, patientId, null);
+    }
+
+    /**
+     * A patient that could not be registered.
+     *
+     * @param index the position of the patient in the request
+     * @param patientId the id of the person created for the patient, or {@code null} if none was
+     * @param error why the patient was not registered
+     * @return the result
+     */
+    public static PatientRegistrationResult failed(int index, Long patientId, String error) {
+        return new PatientRegistrationResult(index, Status.FAILED, patientId, error);
+    }
+}
@@ -3,7 +3,11 @@ package com.alienworkspace.cdr.patient.service;
 import com.alienworkspace.cdr.model.dto.patient.PatientDto;
 import com.alienworkspace.cdr.model.dto.person.PersonDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.service.cache.LocationLevel;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing patient records.
@@ -39,6 +43,17 @@ public interface PatientService {
      */
     PatientDto createPatient(PatientDto patientDto, String correlationId);
 
+    /**
+     * Creates many Patients at once.
+     * Patients are read and registered in batches, so the whole request never has to be held in memory.
+     *
+     * @param patientDtos The Patients to create, read in order
+     * @param correlationId The correlation id forwarded to the demographic service
+     * @param results Receives one result per Patient, in the order the Patients were read
+     */
+    void registerPatients(Iterator<PatientDto> patientDtos, String correlationId,
+                          Consumer<PatientRegistrationResult> results);
+
     /**
      * Updates a Patient.
      *
@@ -64,6 +79,54 @@ public interface PatientService {
      */
     PatientDto getPatient(long id, String correlationId);
 
+    /**
+     * Gets the entity tag of a Patient, derived from its audit timestamps and its cached person without
+     * loading the Patient or calling the demographic service.
+     *
+     * @param id The id of the Patient
+     * @return the quoted strong entity tag
+     */
+    String getPatientETag(long id);
+
+    /**
+     * Gets the entity tag of a Patient that was just read.
+     *
+     * @param patientDto The Patient
+     * @return the quoted strong entity tag
+     */
+    String getPatientETag(PatientDto patientDto);
+
+    /**
+     * Gets many Patients at once, together with their person data.
+     *
+     * @param ids The ids of the Patients
+     * @param correlationId The correlation id forwarded to the demographic service
+     * @return PatientDto of every Patient found, in the order the ids were given
+     */
+    List<PatientDto> getPatients(List<Long> ids, String correlationId);
+
+    /**
+     * Gets a Patient with only the requested fields.
+     * The person is only fetched from the demographic service, and the identifiers and program enrollments
+     * only loaded, when they are requested.
+     *
+     * @param id The id of the Patient
+     * @param fields The optional parts to include
+     * @param correlationId The correlation id forwarded to the demographic service
+     * @return PatientView
+     */
+    PatientView getPatient(long id, Set<PatientField> fields, String correlationId);
+
+    /**
+     * Gets many Patients at once with only the requested fields.
+     *
+     * @param ids The ids of the Patients
+     * @param fields The optional parts to include
+     * @param correlationId The correlation id forwarded to the demographic service
+     * @return PatientView of every Patient found, in the order the ids were given
+     */
+    List<PatientView> getPatients(List<Long> ids, Set<PatientField> fields, String correlationId);
+
     /**
      * Gets a Patient.
      *
@@ -80,6 +143,34 @@ public interface PatientService {
      */
     PersonDto getPerson(long id, boolean includeVoided, String correlationId);
 
+    /**
+     * Gets one page of a patient listing, ordered by patient id.
+     *
+     * @param query The listing to page through
+     * @param after The last patient id of the previous page, or {@code 0} for the first page
+     * @param size The maximum number of patients to return
+     * @return List of PatientDto
+     */
+    List<PatientDto> getPatientPage(PatientListQuery query, long after, int size);
+
+    /**
+     * Streams a whole patient listing, ordered by patient id, to the given consumer.
+     * Patients are read and handed over in chunks so memory use does not grow with the listing.
+     *
+     * @param query The listing to stream
+     * @param consumer Receives every patient of the listing
+     */
+    void streamPatients(PatientListQuery query, Consumer<PatientDto> consumer);
+
+    /**
+     * Counts the patients seen at any location at or below a node of the location hierarchy.
+     *
+     * @param level The level of the node
+     * @param id The id of the node
+     * @return LocationPatientCount
+     */
+    LocationPatientCount countPatientsByLocation(LocationLevel level, int id);
+
     /**
      * Gets all Patients.
      *
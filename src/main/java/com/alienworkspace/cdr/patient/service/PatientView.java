@@ -0,0 +1,56 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.model.audit.AuditTrail;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A patient with only the {@link PatientField}s that were asked for.
+ * Parts that were not requested are {@code null} and left out of the JSON.
+ *
+ * @param patientId the id of the patient
+ * @param allergies the allergies of the patient
+ * @param person the person, if {@link PatientField#PERSON} was requested
+ * @param identifiers the identifiers, if {@link PatientField#IDENTIFIERS} was requested
+ * @param programs the program enrollments, if {@link PatientField#PROGRAMS} was requested
+ * @param audit the audit trail, if {@link PatientField#AUDIT} was requested
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PatientView(long patientId, String allergies, PersonDto person, List<PatientIdentifierDto> identifiers,
+                          List<EnrollmentChange> programs, Audit audit) {
+
+    /**
+     * Audit trail of a patient.
+     *
+     * @param uuid the uuid of the patient
+     * @param createdBy the id of the user who created the patient
+     * @param createdAt when the patient was created
+     * @param lastModifiedBy the id of the user who last modified the patient, or {@code null}
+     * @param lastModifiedAt when the patient was last modified, or {@code null}
+     * @param voided whether the patient is voided
+     * @param voidedBy the id of the user who voided the patient, or {@code null}
+     * @param voidedAt when the patient was voided, or {@code null}
+     * @param voidReason why the patient was voided, or {@code null}
+     */
+    public record Audit(String uuid, long createdBy, LocalDateTime createdAt, Long lastModifiedBy,
+                        LocalDateTime lastModifiedAt, boolean voided, Long voidedBy, LocalDateTime voidedAt,
+                        String voidReason) {
+
+        /**
+         * Copies the audit trail of an entity.
+         *
+         * @param auditTrail the audit trail
+         * @return the audit trail
+         */
+        public static Audit of(AuditTrail auditTrail) {
+            return new Audit(auditTrail.getUuid(), auditTrail.getCreatedBy(), auditTrail.getCreatedAt(),
+                    auditTrail.getLastModifiedBy(), auditTrail.getLastModifiedAt(), auditTrail.isVoided(),
+                    auditTrail.getVoidedBy(), auditTrail.getVoidedAt(), auditTrail.getVoidReason());
+        }
+    }
+}
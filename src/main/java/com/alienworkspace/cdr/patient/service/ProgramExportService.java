@@ -0,0 +1,23 @@
+package com.alienworkspace.cdr.patient.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Service interface for exporting the cohort of a program.
+ * Hands the enrollments over one at a time as they are read, so an export of any size runs in constant
+ * memory.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface ProgramExportService {
+
+    /**
+     * Exports the enrollments of a program, ordered by patient id and, for one patient, latest first.
+     * Voided patients, enrollments and identifiers are left out.
+     *
+     * @param programId The ID of the program
+     * @param consumer The consumer the enrollments are handed to, inside the reading transaction
+     * @return the number of exported enrollments
+     */
+    long exportProgram(int programId, Consumer<CohortExportRow> consumer);
+}
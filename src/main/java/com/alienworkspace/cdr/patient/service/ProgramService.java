@@ -2,6 +2,9 @@ package com.alienworkspace.cdr.patient.service;
 
 import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 /**
@@ -68,4 +71,59 @@ public interface ProgramService {
      * @return a list of programs
      */
     List<ProgramDto> getAllPrograms();
+
+    /**
+     * Retrieves all programs together with their active, completed and total enrollment counts.
+     *
+     * @return a summary of every program, ordered by program id
+     */
+    List<ProgramSummary> getProgramSummaries();
+
+    /**
+     * Retrieves a program together with its active, completed and total enrollment counts.
+     *
+     * @param id the ID of the program
+     * @return the summary of the program
+     */
+    ProgramSummary getProgramStats(int id);
+
+    /**
+     * Counts the enrollments of a program that were active on a date.
+     *
+     * @param id the ID of the program
+     * @param on the date
+     * @return the number of enrollments enrolled on or before the date and not completed by then
+     */
+    long countActiveEnrollments(int id, LocalDate on);
+
+    /**
+     * Retrieves one page of the enrollments of a program that were active on a date, ordered by
+     * enrollment date and patient id.
+     *
+     * @param id the ID of the program
+     * @param on the date
+     * @param after the cursor of the last enrollment of the previous page, or {@code null} for the first page
+     * @param size the maximum number of enrollments to return
+     * @return the active enrollments
+     * @throws BadRequestException if the cursor is malformed
+     */
+    List<ActiveEnrollment> getActiveEnrollments(int id, LocalDate on, String after, int size);
+
+    /**
+     * Retrieves the enrollments started, completed and active in every month of a range.
+     *
+     * @param id the ID of the program
+     * @param from the first month of the range
+     * @param to the last month of the range
+     * @return one entry per month, in order
+     * @throws BadRequestException if the range is reversed or too long
+     */
+    List<MonthlyEnrollment> getMonthlyEnrollments(int id, YearMonth from, YearMonth to);
+
+    /**
+     * Gets the entity tag of the program list returned by {@link #getAllPrograms()}.
+     *
+     * @return the quoted strong entity tag
+     */
+    String getProgramsETag();
 }
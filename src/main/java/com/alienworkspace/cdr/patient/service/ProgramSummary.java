@@ -0,0 +1,17 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
+
+/**
+ * A program together with its enrollment counts. Voided enrollments are not counted.
+ *
+ * @param program the program
+ * @param activeEnrollments the enrollments not completed yet
+ * @param completedEnrollments the enrollments with a completion date
+ * @param totalEnrollments all enrollments, active and completed
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record ProgramSummary(ProgramDto program, long activeEnrollments, long completedEnrollments,
+                             long totalEnrollments) {
+}
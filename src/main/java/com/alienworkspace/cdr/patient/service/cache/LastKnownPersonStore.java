@@ -0,0 +1,112 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.config.DemographicClientProperties;
+import com.alienworkspace.cdr.patient.service.cache.PersonCache.PersonKey;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.springframework.stereotype.Component;
+
+/**
+ * Last known good copies of the persons fetched from the demographic service.
+ *
+ * <p>
+ * Every person the demographic service returns is remembered here, for much longer than the
+ * {@link PersonCache} keeps it. While the service is down the demographic fallback serves persons
+ * from this store instead of nothing; a person the service answers as not found is forgotten. Every
+ * stale serve hands out a copy of its own, and the staleness is tied to that copy rather than to the
+ * person id, so a response is only flagged when it actually holds a copy served from here. Hit and miss
+ * counts are published to the meter registry under the {@value #CACHE_NAME} cache name, and the number
+ * of stale serves under {@code demographic.person.stale}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class LastKnownPersonStore {
+
+    public static final String CACHE_NAME = "demographic.person.last-known";
+
+    private final Cache<PersonKey, PersonDto> cache;
+    private final Set<PersonDto> staleCopies = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+    private final ObjectMapper objectMapper;
+    private final Counter staleServes;
+
+    /**
+     * Creates the store and registers its metrics.
+     *
+     * @param properties the demographic client properties
+     * @param objectMapper the mapper the stale copies are made with
+     * @param meterRegistry the registry the store metrics are published to
+     */
+    public LastKnownPersonStore(DemographicClientProperties properties, ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry) {
+        DemographicClientProperties.LastKnown settings = properties.getLastKnown();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.objectMapper = objectMapper;
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.staleServes = meterRegistry.counter("demographic.person.stale");
+    }
+
+    /**
+     * Remembers a person freshly returned by the demographic service.
+     *
+     * @param person the person
+     * @param includeVoided whether the person was requested including voided persons
+     */
+    public void remember(PersonDto person, boolean includeVoided) {
+        cache.put(new PersonKey(person.getPersonId(), includeVoided), person);
+    }
+
+    /**
+     * Forgets every last known copy of a person, for instance because the demographic service no longer
+     * finds it.
+     *
+     * @param personId the id of the person
+     */
+    public void forget(long personId) {
+        cache.invalidateAll(List.of(new PersonKey(personId, false), new PersonKey(personId, true)));
+    }
+
+    /**
+     * Returns a copy of the last known person, marked as stale.
+     *
+     * @param personId the id of the person
+     * @param includeVoided whether a voided person should be returned
+     * @return the stale copy, or {@code null} if the person was never fetched or has expired
+     */
+    public PersonDto serveStale(long personId, boolean includeVoided) {
+        PersonDto person = cache.getIfPresent(new PersonKey(personId, includeVoided));
+        if (person == null) {
+            return null;
+        }
+        PersonDto copy = objectMapper.convertValue(person, PersonDto.class);
+        staleCopies.add(copy);
+        staleServes.increment();
+        return copy;
+    }
+
+    /**
+     * Tells whether the given person instance is a stale copy served by {@link #serveStale(long, boolean)}.
+     * Instances are compared by identity, so a fresh person with the same content is never stale.
+     *
+     * @param person the person
+     * @return {@code true} if the person is a stale copy
+     */
+    public boolean isStale(PersonDto person) {
+        return person != null && staleCopies.contains(person);
+    }
+}
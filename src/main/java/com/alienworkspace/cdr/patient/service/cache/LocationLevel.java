@@ -0,0 +1,24 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+/**
+ * Levels of the location hierarchy, from the widest to the narrowest.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public enum LocationLevel {
+    COUNTRY,
+    STATE,
+    COUNTY,
+    CITY,
+    COMMUNITY,
+    LOCATION;
+
+    /**
+     * Returns the level directly above this one.
+     *
+     * @return the parent level, or {@code null} for {@link #COUNTRY}
+     */
+    public LocationLevel parent() {
+        return this == COUNTRY ? null : values()[ordinal() - 1];
+    }
+}
@@ -0,0 +1,35 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Node of the {@link LocationTree}.
+ *
+ * @param level the level of the node
+ * @param id the id of the node within its level
+ * @param name the name of the node
+ * @param parent the node one level up, or {@code null} for countries and for nodes whose parent is unknown
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record LocationNode(LocationLevel level, int id, String name, LocationNode parent) {
+
+    /**
+     * Returns the nodes from the widest known ancestor down to this node.
+     *
+     * @return the path to this node
+     */
+    public List<LocationNode> path() {
+        Deque<LocationNode> path = new ArrayDeque<>();
+        for (LocationNode node = this; node != null; node = node.parent()) {
+            path.addFirst(node);
+        }
+        return List.copyOf(path);
+    }
+
+    @Override
+    public String toString() {
+        return level + "[" + id + ", " + name + "]";
+    }
+}
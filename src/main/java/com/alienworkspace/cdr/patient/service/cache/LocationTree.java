@@ -0,0 +1,204 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable copy of the location hierarchy served by the metadata service.
+ *
+ * <p>
+ * Every country, state, county, city, community and location is held as a {@link LocationNode}
+ * linked to its parent, so any node and the path above it are found in memory. The ids of the
+ * locations below every node are collected once when the tree is built, so a node is expanded to its
+ * locations without walking the hierarchy.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public final class LocationTree {
+
+    public static final LocationTree EMPTY = new Builder().build(0);
+
+    private final long version;
+    private final Map<LocationLevel, Map<Integer, LocationNode>> nodes;
+    private final Map<LocationLevel, Map<Integer, List<Integer>>> locationIds;
+    private final int size;
+    private final int orphans;
+
+    private LocationTree(long version, Map<LocationLevel, Map<Integer, LocationNode>> nodes,
+                         Map<LocationLevel, Map<Integer, List<Integer>>> locationIds, int orphans) {
+        this.version = version;
+        this.nodes = nodes;
+        this.locationIds = locationIds;
+        this.size = nodes.values().stream().mapToInt(Map::size).sum();
+        this.orphans = orphans;
+    }
+
+    /**
+     * Creates a builder for a new tree.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the version of the tree; every reload produces a higher version.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of nodes below country level whose parent is not in the tree.
+     *
+     * @return the number of orphaned nodes
+     */
+    public int getOrphans() {
+        return orphans;
+    }
+
+    /**
+     * Finds a node by level and id.
+     *
+     * @param level the level of the node
+     * @param id the id of the node
+     * @return the node, if present
+     */
+    public Optional<LocationNode> find(LocationLevel level, int id) {
+        return Optional.ofNullable(nodes.get(level).get(id));
+    }
+
+    /**
+     * Returns the ids of the locations at or below a node, in ascending order.
+     *
+     * @param level the level of the node
+     * @param id the id of the node
+     * @return the location ids; empty if the node is unknown or has no locations below it
+     */
+    public List<Integer> locationIds(LocationLevel level, int id) {
+        return locationIds.get(level).getOrDefault(id, List.of());
+    }
+
+    /**
+     * Resolves a location given by the ids of every level, the way the metadata service's person
+     * location lookup does. Resolution stops at the first level whose id is {@code null}.
+     *
+     * @param countryId the id of the country
+     * @param stateId the id of the state, or {@code null}
+     * @param countyId the id of the county, or {@code null}
+     * @param cityId the id of the city, or {@code null}
+     * @param communityId the id of the community, or {@code null}
+     * @param locationId the id of the location, or {@code null}
+     * @return the narrowest node given, if every given id exists and is a child of the one before
+     */
+    public Optional<LocationNode> resolve(int countryId, Integer stateId, Integer countyId, Integer cityId,
+                                          Integer communityId, Integer locationId) {
+        Integer[] ids = {countryId, stateId, countyId, cityId, communityId, locationId};
+        LocationNode resolved = null;
+        for (LocationLevel level : LocationLevel.values()) {
+            Integer id = ids[level.ordinal()];
+            if (id == null) {
+                break;
+            }
+            LocationNode node = nodes.get(level).get(id);
+            if (node == null || node.parent() != resolved) {
+                return Optional.empty();
+            }
+            resolved = node;
+        }
+        return Optional.ofNullable(resolved);
+    }
+
+    /**
+     * Collects the nodes of a level and links them to their parents.
+     */
+    public static final class Builder {
+
+        private final Map<LocationLevel, List<Entry>> entries = new EnumMap<>(LocationLevel.class);
+
+        private Builder() {
+            for (LocationLevel level : LocationLevel.values()) {
+                entries.put(level, new ArrayList<>());
+            }
+        }
+
+        /**
+         * Adds a node; nodes without an id are ignored.
+         *
+         * @param level the level of the node
+         * @param id the id of the node
+         * @param name the name of the node
+         * @param parentId the id of the parent one level up, or {@code null}
+         * @return this builder
+         */
+        public Builder add(LocationLevel level, Integer id, String name, Integer parentId) {
+            if (id != null) {
+                entries.get(level).add(new Entry(id, name, parentId));
+            }
+            return this;
+        }
+
+        /**
+         * Links every node to its parent and builds the tree.
+         *
+         * @param version the version of the tree
+         * @return the tree
+         */
+        public LocationTree build(long version) {
+            Map<LocationLevel, Map<Integer, LocationNode>> nodes = new EnumMap<>(LocationLevel.class);
+            int orphans = 0;
+            for (LocationLevel level : LocationLevel.values()) {
+                Map<Integer, LocationNode> parents = level.parent() == null ? Map.of() : nodes.get(level.parent());
+                Map<Integer, LocationNode> linked = new HashMap<>();
+                for (Entry entry : entries.get(level)) {
+                    LocationNode parent = entry.parentId() == null ? null : parents.get(entry.parentId());
+                    if (parent == null && level.parent() != null) {
+                        orphans++;
+                    }
+                    linked.put(entry.id(), new LocationNode(level, entry.id(), entry.name(), parent));
+                }
+                nodes.put(level, Map.copyOf(linked));
+            }
+            return new LocationTree(version, nodes, collectLocationIds(nodes), orphans);
+        }
+
+        private static Map<LocationLevel, Map<Integer, List<Integer>>> collectLocationIds(
+                Map<LocationLevel, Map<Integer, LocationNode>> nodes) {
+            Map<LocationLevel, Map<Integer, List<Integer>>> collected = new EnumMap<>(LocationLevel.class);
+            for (LocationLevel level : LocationLevel.values()) {
+                collected.put(level, new HashMap<>());
+            }
+            for (LocationNode location : nodes.get(LocationLevel.LOCATION).values()) {
+                for (LocationNode node = location; node != null; node = node.parent()) {
+                    collected.get(node.level()).computeIfAbsent(node.id(), id -> new ArrayList<>()).add(location.id());
+                }
+            }
+            Map<LocationLevel, Map<Integer, List<Integer>>> locationIds = new EnumMap<>(LocationLevel.class);
+            collected.forEach((level, byNode) -> {
+                Map<Integer, List<Integer>> sorted = new HashMap<>();
+                byNode.forEach((id, ids) -> sorted.put(id, ids.stream().sorted().toList()));
+                locationIds.put(level, Map.copyOf(sorted));
+            });
+            return locationIds;
+        }
+
+        private record Entry(int id, String name, Integer parentId) {
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.model.dto.metadata.CityDto;
+import com.alienworkspace.cdr.model.dto.metadata.CommunityDto;
+import com.alienworkspace.cdr.model.dto.metadata.CountryDto;
+import com.alienworkspace.cdr.model.dto.metadata.CountyDto;
+import com.alienworkspace.cdr.model.dto.metadata.LocationDto;
+import com.alienworkspace.cdr.model.dto.metadata.StateDto;
+import com.alienworkspace.cdr.patient.service.client.MetadataFeignClient;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds the current {@link LocationTree} and reloads it from the metadata service.
+ *
+ * <p>
+ * The whole hierarchy is loaded at once, so lookups never call the metadata service. The tree is
+ * reloaded periodically and whenever a {@link LocationsChangedEvent} arrives over the Spring Cloud Bus.
+ * If any level cannot be loaded the current tree is kept. The number of nodes is published to the
+ * meter registry as {@code location.tree.size} and the reload latency as {@code location.tree.refresh},
+ * tagged with the outcome.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class LocationTreeHolder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocationTreeHolder.class);
+
+    private final MetadataFeignClient metadataFeignClient;
+    private final Timer refreshed;
+    private final Timer failed;
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicReference<LocationTree> tree = new AtomicReference<>(LocationTree.EMPTY);
+
+    /**
+     * Creates the holder with an empty tree and registers its metrics.
+     *
+     * @param metadataFeignClient the client the hierarchy is loaded with
+     * @param meterRegistry the registry the tree metrics are published to
+     */
+    public LocationTreeHolder(MetadataFeignClient metadataFeignClient, MeterRegistry meterRegistry) {
+        this.metadataFeignClient = metadataFeignClient;
+        this.refreshed = refreshTimer("success", meterRegistry);
+        this.failed = refreshTimer("failure", meterRegistry);
+        Gauge.builder("location.tree.size", tree, current -> current.get().size())
+                .description("Number of locations held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the current tree; empty until the first reload succeeds.
+     *
+     * @return the current tree
+     */
+    public LocationTree current() {
+        return tree.get();
+    }
+
+    /**
+     * Reloads the tree from the metadata service and makes it current.
+     * Reloads run one at a time so a slower, older reload never replaces a newer one.
+     *
+     * @return {@code true} if the tree was replaced, {@code false} if the current tree was kept
+     */
+    public synchronized boolean refresh() {
+        long start = System.nanoTime();
+        LocationTree loaded;
+        try {
+            loaded = load();
+        } catch (RuntimeException e) {
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            LOGGER.warn("Unable to reload the location tree, keeping the current one", e);
+            return false;
+        }
+        tree.set(loaded);
+        refreshed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (loaded.getOrphans() > 0 && LOGGER.isWarnEnabled()) {
+            LOGGER.warn("Location tree version {} has {} locations whose parent is unknown",
+                    loaded.getVersion(), loaded.getOrphans());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reloaded location tree version {} with {} locations", loaded.getVersion(), loaded.size());
+        }
+        return true;
+    }
+
+    /**
+     * Reloads the tree when the metadata service announces a change.
+     *
+     * @param event the bus event
+     */
+    @EventListener
+    public void onLocationsChanged(LocationsChangedEvent event) {
+        refresh();
+    }
+
+    private LocationTree load() {
+        LocationTree.Builder builder = LocationTree.builder();
+        for (CountryDto country : fetch(LocationLevel.COUNTRY, metadataFeignClient::getAllCountries)) {
+            builder.add(LocationLevel.COUNTRY, country.getCountryId(), country.getName(), null);
+        }
+        for (StateDto state : fetch(LocationLevel.STATE, metadataFeignClient::getAllStates)) {
+            builder.add(LocationLevel.STATE, state.getStateId(), state.getName(), state.getCountryId());
+        }
+        for (CountyDto county : fetch(LocationLevel.COUNTY, metadataFeignClient::getAllCounties)) {
+            builder.add(LocationLevel.COUNTY, county.getCountyId(), county.getName(), county.getStateId());
+        }
+        for (CityDto city : fetch(LocationLevel.CITY, metadataFeignClient::getAllCities)) {
+            builder.add(LocationLevel.CITY, city.getCityId(), city.getName(), city.getCountyId());
+        }
+        for (CommunityDto community : fetch(LocationLevel.COMMUNITY, metadataFeignClient::getAllCommunities)) {
+            builder.add(LocationLevel.COMMUNITY, community.getCommunityId(), community.getName(),
+                    community.getCityId());
+        }
+        for (LocationDto location : fetch(LocationLevel.LOCATION, metadataFeignClient::getAllLocations)) {
+            builder.add(LocationLevel.LOCATION, location.getLocationId(), location.getName(),
+                    location.getCommunityId());
+        }
+        return builder.build(versions.incrementAndGet());
+    }
+
+    private static <T> List<T> fetch(LocationLevel level, Supplier<ResponseEntity<List<T>>> call) {
+        List<T> fetched = call.get().getBody();
+        if (fetched == null) {
+            throw new IllegalStateException("Metadata service returned no locations of level " + level);
+        }
+        return fetched;
+    }
+
+    private static Timer refreshTimer(String result, MeterRegistry meterRegistry) {
+        return Timer.builder("location.tree.refresh")
+                .description("Time taken to reload the location tree from the metadata service")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Bus event announcing that the location hierarchy changed in the metadata service, so every
+ * instance reloads its {@link LocationTree}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public class LocationsChangedEvent extends RemoteApplicationEvent {
+
+    /**
+     * Creates an empty event; used when the event is read from the bus.
+     */
+    @SuppressWarnings("unused")
+    public LocationsChangedEvent() {
+        super();
+    }
+
+    /**
+     * Creates an event addressed to every instance.
+     *
+     * @param source the object publishing the event
+     * @param originService the bus id of the instance publishing the event
+     */
+    public LocationsChangedEvent(Object source, String originService) {
+        super(source, originService, DEFAULT_DESTINATION_FACTORY.getDestination(null));
+    }
+}
@@ -0,0 +1,30 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import org.springframework.cloud.bus.event.RemoteApplicationEvent;
+
+/**
+ * Bus event announcing that programs or patient identifier types changed, so every instance
+ * rebuilds its {@link MetadataSnapshot}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public class MetadataChangedEvent extends RemoteApplicationEvent {
+
+    /**
+     * Creates an empty event; used when the event is read from the bus.
+     */
+    @SuppressWarnings("unused")
+    public MetadataChangedEvent() {
+        super();
+    }
+
+    /**
+     * Creates an event addressed to every instance.
+     *
+     * @param source the object publishing the event
+     * @param originService the bus id of the instance publishing the event
+     */
+    public MetadataChangedEvent(Object source, String originService) {
+        super(source, originService, DEFAULT_DESTINATION_FACTORY.getDestination(null));
+    }
+}
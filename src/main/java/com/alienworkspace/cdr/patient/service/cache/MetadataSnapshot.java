@@ -0,0 +1,107 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierTypeDto;
+import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
+import com.alienworkspace.cdr.patient.helpers.ETags;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, versioned copy of the {@code Program} and {@code PatientIdentifierType} tables.
+ *
+ * <p>
+ * A snapshot is never modified once built; a write replaces it with a new snapshot of a higher
+ * version. The DTOs it holds are shared between readers and must be treated as read-only.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@SuppressFBWarnings(value = "EI_EXPOSE_REP", justification = "Snapshot DTOs are shared read-only by design")
+public final class MetadataSnapshot {
+
+    private final long version;
+    private final Map<Integer, ProgramDto> programs;
+    private final Map<Integer, PatientIdentifierTypeDto> identifierTypes;
+    private final String programsETag;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param version the version of the snapshot
+     * @param programs every program, voided ones included
+     * @param identifierTypes every patient identifier type, voided ones included
+     */
+    public MetadataSnapshot(long version, Collection<ProgramDto> programs,
+                            Collection<PatientIdentifierTypeDto> identifierTypes) {
+        this.version = version;
+        this.programs = index(programs, ProgramDto::getProgramId);
+        this.identifierTypes = index(identifierTypes, PatientIdentifierTypeDto::getPatientIdentifierTypeId);
+        this.programsETag = ETags.of(this.programs.values().stream()
+                .map(program -> program.getProgramId() + ":" + program.getCreatedAt() + ":"
+                        + program.getLastModifiedAt() + ":" + program.getVoidedAt())
+                .toArray());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Finds a program by id, voided or not.
+     *
+     * @param programId the id of the program
+     * @return the program, or empty if no such program exists
+     */
+    public Optional<ProgramDto> findProgram(int programId) {
+        return Optional.ofNullable(programs.get(programId));
+    }
+
+    /**
+     * Returns every program, voided ones included, ordered by id.
+     *
+     * @return the programs
+     */
+    public List<ProgramDto> getPrograms() {
+        return List.copyOf(programs.values());
+    }
+
+    /**
+     * Returns the entity tag of the program list, derived from the ids and audit timestamps of the
+     * programs. It depends only on the table content, so every instance computes the same tag.
+     *
+     * @return the quoted strong entity tag
+     */
+    public String getProgramsETag() {
+        return programsETag;
+    }
+
+    /**
+     * Finds a patient identifier type by id, voided or not.
+     *
+     * @param identifierTypeId the id of the patient identifier type
+     * @return the patient identifier type, or empty if no such type exists
+     */
+    public Optional<PatientIdentifierTypeDto> findIdentifierType(int identifierTypeId) {
+        return Optional.ofNullable(identifierTypes.get(identifierTypeId));
+    }
+
+    /**
+     * Returns every patient identifier type, voided ones included, ordered by id.
+     *
+     * @return the patient identifier types
+     */
+    public List<PatientIdentifierTypeDto> getIdentifierTypes() {
+        return List.copyOf(identifierTypes.values());
+    }
+
+    private static <T> Map<Integer, T> index(Collection<T> values, Function<T, Integer> id) {
+        return Collections.unmodifiableMap(values.stream()
+                .collect(Collectors.toMap(id, Function.identity(), (first, second) -> second, TreeMap::new)));
+    }
+}
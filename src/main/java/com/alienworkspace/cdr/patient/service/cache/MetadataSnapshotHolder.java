@@ -0,0 +1,147 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierTypeMapper;
+import com.alienworkspace.cdr.patient.model.mapper.ProgramMapper;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Holds the current {@link MetadataSnapshot} and replaces it when programs or patient identifier
+ * types change.
+ *
+ * <p>
+ * Reads are served from memory; the database is only read to build a new snapshot. Writers call
+ * {@link #refreshAfterCommit()}, which rebuilds the snapshot once their transaction commits and
+ * broadcasts a {@link MetadataChangedEvent} over the Spring Cloud Bus so the other instances rebuild
+ * theirs as well.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+public class MetadataSnapshotHolder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetadataSnapshotHolder.class);
+
+    private final ProgramRepository programRepository;
+    private final PatientIdentifierTypeRepository patientIdentifierTypeRepository;
+    private final ProgramMapper programMapper;
+    private final PatientIdentifierTypeMapper patientIdentifierTypeMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectProvider<BusProperties> busProperties;
+    private final AtomicLong versions = new AtomicLong();
+
+    private final AtomicReference<MetadataSnapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Creates the holder; the first snapshot is built on first use.
+     *
+     * @param programRepository the program repository
+     * @param patientIdentifierTypeRepository the patient identifier type repository
+     * @param programMapper the program mapper
+     * @param patientIdentifierTypeMapper the patient identifier type mapper
+     * @param transactionManager the transaction manager snapshots are read with
+     * @param eventPublisher the publisher bus events are sent through
+     * @param busProperties the bus properties, used to recognise events sent by this instance
+     */
+    public MetadataSnapshotHolder(ProgramRepository programRepository,
+                                  PatientIdentifierTypeRepository patientIdentifierTypeRepository,
+                                  ProgramMapper programMapper,
+                                  PatientIdentifierTypeMapper patientIdentifierTypeMapper,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectProvider<BusProperties> busProperties) {
+        this.programRepository = programRepository;
+        this.patientIdentifierTypeRepository = patientIdentifierTypeRepository;
+        this.programMapper = programMapper;
+        this.patientIdentifierTypeMapper = patientIdentifierTypeMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.transactionTemplate.setReadOnly(true);
+        this.eventPublisher = eventPublisher;
+        this.busProperties = busProperties;
+    }
+
+    /**
+     * Returns the current snapshot, building it if none exists yet.
+     *
+     * @return the current snapshot
+     */
+    public MetadataSnapshot current() {
+        MetadataSnapshot current = snapshot.get();
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Rebuilds the snapshot from the database and makes it current.
+     * Rebuilds run one at a time so a slower, older rebuild never replaces a newer one.
+     *
+     * @return the new snapshot
+     */
+    public synchronized MetadataSnapshot rebuild() {
+        transactionTemplate.executeWithoutResult(status -> snapshot.set(new MetadataSnapshot(
+                versions.incrementAndGet(),
+                programRepository.findAll().stream().map(programMapper::toProgramDto).toList(),
+                patientIdentifierTypeRepository.findAll().stream()
+                        .map(patientIdentifierTypeMapper::toPatientIdentifierTypeDto).toList())));
+        MetadataSnapshot rebuilt = snapshot.get();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Rebuilt metadata snapshot version {}", rebuilt.getVersion());
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Rebuilds the snapshot and notifies the other instances once the current transaction commits,
+     * or right away when no transaction is active.
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshAndBroadcast();
+                }
+            });
+        } else {
+            refreshAndBroadcast();
+        }
+    }
+
+    /**
+     * Rebuilds the snapshot when another instance announces a change.
+     *
+     * @param event the bus event
+     */
+    @EventListener
+    public void onMetadataChanged(MetadataChangedEvent event) {
+        if (!Objects.equals(busId(), event.getOriginService())) {
+            rebuild();
+        }
+    }
+
+    private void refreshAndBroadcast() {
+        rebuild();
+        eventPublisher.publishEvent(new MetadataChangedEvent(this, busId()));
+    }
+
+    private String busId() {
+        BusProperties properties = busProperties.getIfAvailable();
+        return properties != null ? properties.getId() : null;
+    }
+}
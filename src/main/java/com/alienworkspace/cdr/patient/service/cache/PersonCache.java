@@ -0,0 +1,263 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import static com.alienworkspace.cdr.patient.helpers.Constants.STALE_PERSON_HEADER;
+
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.config.DemographicClientProperties;
+import com.alienworkspace.cdr.patient.config.ExecutorConfig;
+import com.alienworkspace.cdr.patient.service.client.DemographicFeignClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Read-through cache of {@link PersonDto} records served by the demographic service.
+ *
+ * <p>
+ * Entries are keyed by person id and the {@code includeVoided} flag, bounded by size and evicted
+ * after a fixed time to live. Entries that are read after the refresh interval are reloaded in the
+ * background while the cached value keeps being served, so frequently read persons never miss.
+ * Hit, miss, load and eviction counts are published to the meter registry under the
+ * {@value #CACHE_NAME} cache name.
+ *
+ * <p>
+ * Batches of persons are resolved with the bulk endpoint of the demographic service. When that
+ * endpoint is unavailable the lookups fan out over a bounded number of threads instead.
+ *
+ * <p>
+ * Every person freshly returned by the demographic service is also remembered in the
+ * {@link LastKnownPersonStore}, which the demographic fallback serves from during an outage. Those
+ * stale copies are handed to the caller but never cached here, so the next read after the outage
+ * goes to the demographic service again, and a failed background refresh keeps the cached entry.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public final class PersonCache {
+
+    public static final String CACHE_NAME = "demographic.person";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersonCache.class);
+
+    private final DemographicFeignClient demographicFeignClient;
+    private final LastKnownPersonStore lastKnownPersonStore;
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final int bulkSize;
+    private final int parallelism;
+    private final LoadingCache<PersonKey, PersonDto> cache;
+
+    /**
+     * Creates the cache and registers its metrics.
+     *
+     * @param demographicFeignClient the client used to load persons
+     * @param lastKnownPersonStore the store fresh persons are remembered in
+     * @param properties the demographic client properties
+     * @param objectMapper the mapper persons are serialized with to version them
+     * @param executor the executor background refreshes run on
+     * @param meterRegistry the registry the cache metrics are published to
+     */
+    public PersonCache(DemographicFeignClient demographicFeignClient, LastKnownPersonStore lastKnownPersonStore,
+                       DemographicClientProperties properties, ObjectMapper objectMapper,
+                       @Qualifier(ExecutorConfig.DEMOGRAPHIC_EXECUTOR) Executor executor,
+                       MeterRegistry meterRegistry) {
+        this.demographicFeignClient = demographicFeignClient;
+        this.lastKnownPersonStore = lastKnownPersonStore;
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.bulkSize = properties.getBatch().getBulkSize();
+        this.parallelism = properties.getExecutor().getPoolSize();
+        DemographicClientProperties.Cache settings = properties.getCache();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .refreshAfterWrite(settings.getRefreshAfterWrite())
+                .recordStats()
+                .build(CacheLoader.asyncReloading(CacheLoader.from(
+                        key -> fetch(key, "person-cache-refresh-" + UUID.randomUUID())), executor));
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the person with the given id, loading it from the demographic service on a miss.
+     *
+     * @param personId the id of the person
+     * @param includeVoided whether a voided person should be returned
+     * @param correlationId the correlation id forwarded to the demographic service on a miss
+     * @return the person, or {@code null} if the demographic service could not provide it
+     */
+    public PersonDto get(long personId, boolean includeVoided, String correlationId) {
+        PersonKey key = new PersonKey(personId, includeVoided);
+        try {
+            return cache.get(key, () -> fetch(key, correlationId));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof StalePersonException stale) {
+                return stale.person;
+            }
+            LOGGER.warn("Unable to load person with ID: {}. CorrelationId: {}", personId, correlationId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the persons with the given ids, loading every miss from the demographic service.
+     *
+     * <p>
+     * Misses are requested in bulk calls of at most the configured bulk size. If the bulk call
+     * returns nothing the misses are looked up one by one, spread over at most as many threads as
+     * the demographic executor has.
+     *
+     * @param personIds the ids of the persons
+     * @param includeVoided whether voided persons should be returned
+     * @param correlationId the correlation id forwarded to the demographic service
+     * @return the persons that could be resolved, keyed by person id
+     */
+    public Map<Long, PersonDto> getAll(Collection<Long> personIds, boolean includeVoided, String correlationId) {
+        Map<Long, PersonDto> people = new HashMap<>();
+        Set<Long> misses = new LinkedHashSet<>();
+        for (Long personId : personIds) {
+            PersonDto person = cache.getIfPresent(new PersonKey(personId, includeVoided));
+            if (person == null) {
+                misses.add(personId);
+            } else {
+                people.put(personId, person);
+            }
+        }
+        for (List<Long> chunk : Lists.partition(List.copyOf(misses), bulkSize)) {
+            List<PersonDto> fetched = demographicFeignClient.getPeople(correlationId, includeVoided, chunk).getBody();
+            if (fetched == null) {
+                LOGGER.warn("Bulk person lookup unavailable, falling back to single lookups. CorrelationId: {}",
+                        correlationId);
+                people.putAll(fanOut(chunk, includeVoided, correlationId));
+                continue;
+            }
+            for (PersonDto person : fetched) {
+                if (person != null && person.getPersonId() != null) {
+                    cache.put(new PersonKey(person.getPersonId(), includeVoided), person);
+                    lastKnownPersonStore.remember(person, includeVoided);
+                    people.put(person.getPersonId(), person);
+                }
+            }
+        }
+        return people;
+    }
+
+    /**
+     * Returns the version of the cached person, without loading it. Lets a conditional read tell whether
+     * the person it would serve has changed.
+     *
+     * @param personId the id of the person
+     * @param includeVoided whether the entry holding voided persons is meant
+     * @return the version, or {@code null} if the person is not cached
+     * @see #version(PersonDto)
+     */
+    public String version(long personId, boolean includeVoided) {
+        return version(cache.getIfPresent(new PersonKey(personId, includeVoided)));
+    }
+
+    /**
+     * Returns a hash of the content of the given person. Reloading an unchanged person keeps its version,
+     * and any change to the person served changes it.
+     *
+     * @param person the person, may be {@code null}
+     * @return the version, or {@code null} if there is no person
+     */
+    public String version(PersonDto person) {
+        if (person == null) {
+            return null;
+        }
+        String json = objectMapper.valueToTree(person).toString();
+        return DigestUtils.md5DigestAsHex(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Removes every cached entry of the given person.
+     *
+     * @param personId the id of the person
+     */
+    public void invalidate(long personId) {
+        cache.invalidateAll(List.of(new PersonKey(personId, false), new PersonKey(personId, true)));
+    }
+
+    private Map<Long, PersonDto> fanOut(List<Long> personIds, boolean includeVoided, String correlationId) {
+        int sliceSize = (personIds.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<Map<Long, PersonDto>>> slices = Lists.partition(personIds, sliceSize).stream()
+                .map(slice -> CompletableFuture.supplyAsync(() -> {
+                    Map<Long, PersonDto> resolved = new HashMap<>();
+                    for (Long personId : slice) {
+                        PersonDto person = get(personId, includeVoided, correlationId);
+                        if (person != null) {
+                            resolved.put(personId, person);
+                        }
+                    }
+                    return resolved;
+                }, executor))
+                .toList();
+        Map<Long, PersonDto> people = new HashMap<>();
+        slices.forEach(slice -> people.putAll(slice.join()));
+        return people;
+    }
+
+    private PersonDto fetch(PersonKey key, String correlationId) {
+        ResponseEntity<PersonDto> response = demographicFeignClient
+                .getPerson(correlationId, key.personId(), key.includeVoided());
+        PersonDto person = response.getBody();
+        if (person == null) {
+            throw new IllegalStateException("Demographic service returned no person for ID: " + key.personId());
+        }
+        if (response.getHeaders().containsKey(STALE_PERSON_HEADER)) {
+            throw new StalePersonException(person);
+        }
+        lastKnownPersonStore.remember(person, key.includeVoided());
+        return person;
+    }
+
+    /**
+     * Carries a stale copy out of the cache loader, so it is returned without being cached.
+     */
+    private static final class StalePersonException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient PersonDto person;
+
+        StalePersonException(PersonDto person) {
+            super("Demographic service unavailable, serving stale person with ID: " + person.getPersonId(),
+                    null, false, false);
+            this.person = person;
+        }
+    }
+
+    /**
+     * Cache key of a person lookup.
+     *
+     * @param personId the id of the person
+     * @param includeVoided whether a voided person should be returned
+     */
+    record PersonKey(long personId, boolean includeVoided) {
+    }
+}
@@ -0,0 +1,129 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Deduplicates concurrent loads of the same key.
+ *
+ * <p>
+ * The first caller of a key runs the loader; every caller that arrives while that load is still in
+ * flight waits for it and receives a copy of the value, or an exception of its own caused by the
+ * loader's exception, so no two callers share an object they might change. Nothing is kept once the
+ * load completes, so a later call loads again.
+ *
+ * <p>
+ * Calls are counted in the {@value #METER_NAME} counter, tagged with the name of the flight and
+ * {@code result=loaded} for callers that ran the loader or {@code result=coalesced} for callers that
+ * shared another caller's load. The coalescing ratio is {@code coalesced / (loaded + coalesced)}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public final class SingleFlight<K, V> {
+
+    public static final String METER_NAME = "single.flight.calls";
+
+    private final Map<K, CompletableFuture<Outcome<V>>> inFlight = new ConcurrentHashMap<>();
+    private final UnaryOperator<V> copier;
+    private final UnaryOperator<RuntimeException> failureCopier;
+    private final Counter loaded;
+    private final Counter coalesced;
+
+    /**
+     * Creates a flight of immutable values, which callers share. A caller that waited for a failed load
+     * receives a {@link CompletionException} caused by the loader's exception.
+     *
+     * @param name the name the counters are tagged with
+     * @param meterRegistry the registry the counters are published to
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this(name, meterRegistry, UnaryOperator.identity(), CompletionException::new);
+    }
+
+    /**
+     * Creates the flight and registers its counters.
+     *
+     * @param name the name the counters are tagged with
+     * @param meterRegistry the registry the counters are published to
+     * @param copier copies the loaded value for each caller that waited for it
+     * @param failureCopier creates the exception thrown to each caller that waited for a failed load from
+     *     the loader's exception; the result should have the loader's exception as its cause
+     */
+    public SingleFlight(String name, MeterRegistry meterRegistry, UnaryOperator<V> copier,
+                        UnaryOperator<RuntimeException> failureCopier) {
+        this.copier = copier;
+        this.failureCopier = failureCopier;
+        this.loaded = counter(name, "loaded", meterRegistry);
+        this.coalesced = counter(name, "coalesced", meterRegistry);
+        meterRegistry.gaugeMapSize("single.flight.in.flight", Tags.of("name", name), inFlight);
+    }
+
+    /**
+     * Returns the value of the key, sharing the load with concurrent callers of the same key.
+     *
+     * @param key the key
+     * @param loader loads the value when no load of the key is in flight
+     * @return the loaded value, or a copy of it for a caller that waited for another caller's load
+     * @throws RuntimeException the exception the loader threw, or to a waiting caller an exception of
+     *     its own caused by it
+     */
+    public V load(K key, Supplier<V> loader) {
+        CompletableFuture<Outcome<V>> flight = new CompletableFuture<>();
+        CompletableFuture<Outcome<V>> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            Outcome<V> outcome = existing.join();
+            if (outcome.failure() != null) {
+                throw failureCopier.apply(outcome.failure());
+            }
+            return copier.apply(outcome.value());
+        }
+        loaded.increment();
+        Outcome<V> outcome;
+        try {
+            outcome = new Outcome<>(loader.get(), null);
+        } catch (RuntimeException e) {
+            outcome = new Outcome<>(null, e);
+        } catch (Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+        flight.complete(outcome);
+        return outcome.get();
+    }
+
+    private static Counter counter(String name, String result, MeterRegistry meterRegistry) {
+        return Counter.builder(METER_NAME)
+                .description("Calls to a single flight, by whether they ran the load or shared it")
+                .tag("name", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Result of a load, handed to every caller that shared it.
+     *
+     * @param value the loaded value
+     * @param failure the exception the loader threw, or {@code null} if it returned
+     */
+    private record Outcome<V>(V value, RuntimeException failure) {
+
+        V get() {
+            if (failure != null) {
+                throw failure;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.patient.config.IdentifierLookupProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Negative cache of patient identifiers that matched no patient.
+ *
+ * <p>
+ * Repeated scans of an unknown barcode are answered from memory instead of the database until the
+ * entry expires or the identifier is registered on this instance. Hit and miss counts are published
+ * to the meter registry under the {@value #CACHE_NAME} cache name.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+public class UnknownIdentifierCache {
+
+    public static final String CACHE_NAME = "patient.identifier.unknown";
+
+    private final Cache<String, Boolean> cache;
+
+    /**
+     * Creates the cache and registers its metrics.
+     *
+     * @param properties the identifier lookup properties
+     * @param meterRegistry the registry the cache metrics are published to
+     */
+    public UnknownIdentifierCache(IdentifierLookupProperties properties, MeterRegistry meterRegistry) {
+        IdentifierLookupProperties.NegativeCache settings = properties.getNegativeCache();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(settings.getMaximumSize())
+                .expireAfterWrite(settings.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Tells whether the identifier recently matched no patient.
+     *
+     * @param identifier the identifier value
+     * @return {@code true} if the identifier is known not to exist
+     */
+    public boolean isUnknown(String identifier) {
+        return cache.getIfPresent(identifier) != null;
+    }
+
+    /**
+     * Remembers that the identifier matched no patient.
+     *
+     * @param identifier the identifier value
+     */
+    public void markUnknown(String identifier) {
+        cache.put(identifier, Boolean.TRUE);
+    }
+
+    /**
+     * Forgets the identifier, because it is being registered.
+     *
+     * <p>
+     * The entry is removed right away and again once the surrounding transaction commits, so a lookup
+     * that ran before the commit cannot leave a stale entry behind.
+     *
+     * @param identifier the identifier value
+     */
+    public void forget(String identifier) {
+        cache.invalidate(identifier);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(identifier);
+                }
+            });
+        }
+    }
+}
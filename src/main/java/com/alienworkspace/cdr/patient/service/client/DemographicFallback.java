@@ -1,25 +1,64 @@
 package com.alienworkspace.cdr.patient.service.client;
 
+import static com.alienworkspace.cdr.patient.helpers.Constants.STALE_PERSON_HEADER;
+
 import com.alienworkspace.cdr.model.dto.person.PersonDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
 import com.alienworkspace.cdr.model.helper.ResponseDto;
+import com.alienworkspace.cdr.patient.service.cache.LastKnownPersonStore;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Component;
 
 /**
- * Fallback class for the demographic service.
+ * Fallback class for the demographic service, created by {@link DemographicFallbackFactory} for every
+ * failed call with the failure that caused it.
  */
-@Component
+@AllArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Created by the fallback factory; safe to store")
 public class DemographicFallback implements DemographicFeignClient {
 
+    private final LastKnownPersonStore lastKnownPersonStore;
+
+    private final Throwable cause;
+
     /**
      * Gets a person by id.
      *
      * @param id The id of the person.
-     * @return The person.
+     * @return The last known copy of the person, flagged with the {@code X-cdr-stale-person} header, if
+     *     the service is unavailable; otherwise no person. A person the service does not find is also
+     *     forgotten by the {@link LastKnownPersonStore}.
      */
     @Override
     public ResponseEntity<PersonDto> getPerson(String correlationId, long id, boolean includeVoided) {
+        if (cause instanceof FeignException.NotFound) {
+            lastKnownPersonStore.forget(id);
+            return ResponseEntity.ok(null);
+        }
+        if (!isUnavailable(cause)) {
+            return ResponseEntity.ok(null);
+        }
+        PersonDto person = lastKnownPersonStore.serveStale(id, includeVoided);
+        if (person == null) {
+            return ResponseEntity.ok(null);
+        }
+        return ResponseEntity.ok().header(STALE_PERSON_HEADER, Boolean.TRUE.toString()).body(person);
+    }
+
+    /**
+     * Gets the persons with the given ids.
+     *
+     * @param ids The ids of the persons.
+     * @return No persons, signalling that the bulk lookup is unavailable.
+     */
+    @Override
+    public ResponseEntity<List<PersonDto>> getPeople(String correlationId, boolean includeVoided, List<Long> ids) {
         return ResponseEntity.ok(null);
     }
 
@@ -34,6 +73,17 @@ public class DemographicFallback implements DemographicFeignClient {
         return ResponseEntity.ok(null);
     }
 
+    /**
+     * Adds many persons.
+     *
+     * @param personDtos The persons to add.
+     * @return No persons, signalling that the bulk registration is unavailable.
+     */
+    @Override
+    public ResponseEntity<List<PersonDto>> addPeople(String correlationId, List<PersonDto> personDtos) {
+        return ResponseEntity.ok(null);
+    }
+
     /**
      * Deletes a person.
      *
@@ -44,4 +94,21 @@ public class DemographicFallback implements DemographicFeignClient {
     public ResponseEntity<ResponseDto> deletePerson(long id, RecordVoidRequest voidRequest) {
         return ResponseEntity.ok(null);
     }
+
+    /**
+     * Tells whether a failure means the service is unavailable rather than that it rejected the call:
+     * it could not be reached or timed out, answered with a server error, or the circuit is open.
+     *
+     * @param cause the failure of the call
+     * @return {@code true} if the service is unavailable
+     */
+    static boolean isUnavailable(Throwable cause) {
+        for (Throwable failure = cause; failure != null; failure = failure.getCause()) {
+            if (failure instanceof RetryableException || failure instanceof FeignException.FeignServerException
+                    || failure instanceof CallNotPermittedException || failure instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
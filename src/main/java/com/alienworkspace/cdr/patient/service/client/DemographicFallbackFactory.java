@@ -0,0 +1,26 @@
+package com.alienworkspace.cdr.patient.service.client;
+
+import com.alienworkspace.cdr.patient.service.cache.LastKnownPersonStore;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import org.springframework.cloud.openfeign.FallbackFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the {@link DemographicFallback} of a failed call to the demographic service, so the fallback
+ * can tell an outage from a person that does not exist.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@AllArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class DemographicFallbackFactory implements FallbackFactory<DemographicFeignClient> {
+
+    private final LastKnownPersonStore lastKnownPersonStore;
+
+    @Override
+    public DemographicFeignClient create(Throwable cause) {
+        return new DemographicFallback(lastKnownPersonStore, cause);
+    }
+}
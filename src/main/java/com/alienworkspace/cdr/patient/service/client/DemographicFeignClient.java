@@ -7,6 +7,7 @@ import com.alienworkspace.cdr.model.dto.person.PersonDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
 import com.alienworkspace.cdr.model.helper.ResponseDto;
 import jakarta.validation.Valid;
+import java.util.List;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,7 +20,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 /**
  * Feign client for interacting with the demographic service.
  */
-@FeignClient(name = "demographic", fallback = DemographicFallback.class)
+@FeignClient(name = "demographic", fallbackFactory = DemographicFallbackFactory.class)
 public interface DemographicFeignClient {
 
     /**
@@ -33,6 +34,18 @@ public interface DemographicFeignClient {
                                         @PathVariable("id") long id,
                                         @PathVariable("includeVoided") boolean includeVoided);
 
+    /**
+     * Gets the persons with the given ids in a single call.
+     *
+     * @param ids The ids of the persons.
+     * @param includeVoided Whether voided persons should be returned.
+     * @return The persons that were found.
+     */
+    @PostMapping(DEMOGRAPHIC_BASE_URL + "/people/batch/{includeVoided}")
+    ResponseEntity<List<PersonDto>> getPeople(@RequestHeader("X-cdr-correlation-id") String correlationId,
+                                              @PathVariable("includeVoided") boolean includeVoided,
+                                              @RequestBody List<Long> ids);
+
     /**
      * Adds a person.
      *
@@ -43,6 +56,16 @@ public interface DemographicFeignClient {
     ResponseEntity<PersonDto> addPerson(@RequestHeader("X-cdr-correlation-id") String correlationId,
                                         @Valid @RequestBody PersonDto personDto);
 
+    /**
+     * Adds many persons in a single call.
+     *
+     * @param personDtos The persons to add.
+     * @return The added persons, in the order they were given.
+     */
+    @PostMapping(DEMOGRAPHIC_BASE_URL + "/people/bulk")
+    ResponseEntity<List<PersonDto>> addPeople(@RequestHeader("X-cdr-correlation-id") String correlationId,
+                                              @RequestBody List<PersonDto> personDtos);
+
     /**
      * Deletes a person.
      *
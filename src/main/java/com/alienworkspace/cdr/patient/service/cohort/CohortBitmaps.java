@@ -0,0 +1,145 @@
+package com.alienworkspace.cdr.patient.service.cohort;
+
+import com.alienworkspace.cdr.patient.repository.EnrollmentMembership;
+import com.alienworkspace.cdr.patient.repository.IdentifierMembership;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+/**
+ * Compressed bitmaps of patient ids: one of the patients that are not voided, and one per program, per
+ * program status and per identifier type.
+ *
+ * <p>
+ * Not thread-safe; {@link CohortIndex} guards every access.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+final class CohortBitmaps {
+
+    private static final Roaring64NavigableMap EMPTY = new Roaring64NavigableMap();
+
+    private final Roaring64NavigableMap patients = new Roaring64NavigableMap();
+    private final Map<Integer, Roaring64NavigableMap> programs = new HashMap<>();
+    private final Map<Integer, Roaring64NavigableMap> active = new HashMap<>();
+    private final Map<Integer, Roaring64NavigableMap> completed = new HashMap<>();
+    private final Map<Integer, Roaring64NavigableMap> identifierTypes = new HashMap<>();
+
+    /**
+     * Adds a patient that is not voided.
+     *
+     * @param patientId the id of the patient
+     */
+    void addPatient(long patientId) {
+        patients.addLong(patientId);
+    }
+
+    /**
+     * Adds an enrollment that is not voided.
+     *
+     * @param enrollment the enrollment
+     */
+    void addEnrollment(EnrollmentMembership enrollment) {
+        long patientId = enrollment.getPatientId();
+        bitmap(programs, enrollment.getProgramId()).addLong(patientId);
+        bitmap(enrollment.getDateCompleted() == null ? active : completed, enrollment.getProgramId())
+                .addLong(patientId);
+    }
+
+    /**
+     * Adds an identifier that is not voided.
+     *
+     * @param identifier the identifier
+     */
+    void addIdentifier(IdentifierMembership identifier) {
+        bitmap(identifierTypes, identifier.getIdentifierTypeId()).addLong(identifier.getPatientId());
+    }
+
+    /**
+     * Replaces everything known about some patients with what was loaded for them.
+     *
+     * @param patientIds the ids of the patients
+     * @param loaded the bitmaps loaded for those patients only
+     */
+    void replace(Collection<Long> patientIds, CohortBitmaps loaded) {
+        Roaring64NavigableMap removed = new Roaring64NavigableMap();
+        patientIds.forEach(removed::addLong);
+        patients.andNot(removed);
+        patients.or(loaded.patients);
+        replace(programs, removed, loaded.programs);
+        replace(active, removed, loaded.active);
+        replace(completed, removed, loaded.completed);
+        replace(identifierTypes, removed, loaded.identifierTypes);
+    }
+
+    /**
+     * Returns the number of patients that are not voided.
+     *
+     * @return the number of patients
+     */
+    long size() {
+        return patients.getLongCardinality();
+    }
+
+    /**
+     * Evaluates an expression into a new bitmap, leaving these bitmaps unchanged.
+     *
+     * @param expression the expression
+     * @return the ids of the matching patients that are not voided
+     */
+    Roaring64NavigableMap evaluate(CohortExpression expression) {
+        Roaring64NavigableMap result = copy(expression);
+        result.and(patients);
+        return result;
+    }
+
+    private Roaring64NavigableMap copy(CohortExpression expression) {
+        Roaring64NavigableMap result;
+        if (expression instanceof CohortExpression.And and) {
+            result = copy(and.left());
+            result.and(operand(and.right()));
+        } else if (expression instanceof CohortExpression.Or or) {
+            result = copy(or.left());
+            result.or(operand(or.right()));
+        } else if (expression instanceof CohortExpression.Not not) {
+            result = copy(new CohortExpression.All());
+            result.andNot(operand(not.operand()));
+        } else {
+            result = new Roaring64NavigableMap();
+            result.or(leaf(expression));
+        }
+        return result;
+    }
+
+    private Roaring64NavigableMap operand(CohortExpression expression) {
+        Roaring64NavigableMap leaf = leaf(expression);
+        return leaf == null ? copy(expression) : leaf;
+    }
+
+    private Roaring64NavigableMap leaf(CohortExpression expression) {
+        if (expression instanceof CohortExpression.All) {
+            return patients;
+        }
+        if (expression instanceof CohortExpression.Member member) {
+            Map<Integer, Roaring64NavigableMap> bitmaps = switch (member.kind()) {
+                case PROGRAM -> programs;
+                case ACTIVE -> active;
+                case COMPLETED -> completed;
+                case IDENTIFIER -> identifierTypes;
+            };
+            return bitmaps.getOrDefault(member.id(), EMPTY);
+        }
+        return null;
+    }
+
+    private static Roaring64NavigableMap bitmap(Map<Integer, Roaring64NavigableMap> bitmaps, int id) {
+        return bitmaps.computeIfAbsent(id, key -> new Roaring64NavigableMap());
+    }
+
+    private static void replace(Map<Integer, Roaring64NavigableMap> bitmaps, Roaring64NavigableMap removed,
+                                Map<Integer, Roaring64NavigableMap> loaded) {
+        bitmaps.values().forEach(bitmap -> bitmap.andNot(removed));
+        loaded.forEach((id, bitmap) -> bitmap(bitmaps, id).or(bitmap));
+    }
+}
@@ -0,0 +1,98 @@
+package com.alienworkspace.cdr.patient.service.cohort;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+
+/**
+ * Boolean expression selecting a cohort of patients.
+ *
+ * <p>
+ * Expressions are written as text, for example {@code program:1 AND NOT program:2 AND identifier:3}.
+ * The terms are:
+ * - {@code all}: every patient
+ * - {@code program:<id>}: patients enrolled in the program
+ * - {@code active:<id>}: patients with an enrollment in the program that is not completed
+ * - {@code completed:<id>}: patients with a completed enrollment in the program
+ * - {@code identifier:<id>}: patients holding an identifier of the type
+ *
+ * <p>
+ * Terms are combined with {@code NOT}, {@code AND} and {@code OR}, in decreasing order of precedence,
+ * and grouped with parentheses. Keywords are case-insensitive. Voided patients, enrollments and
+ * identifiers never match.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public sealed interface CohortExpression {
+
+    /**
+     * Longest expression accepted, in characters.
+     */
+    int MAX_LENGTH = 1000;
+
+    /**
+     * The kinds of sets of patients a term can name.
+     */
+    enum Kind {
+        PROGRAM,
+        ACTIVE,
+        COMPLETED,
+        IDENTIFIER
+    }
+
+    /**
+     * Every patient.
+     */
+    record All() implements CohortExpression {
+    }
+
+    /**
+     * The patients of one set.
+     *
+     * @param kind the kind of set
+     * @param id the program or identifier type id
+     */
+    record Member(Kind kind, int id) implements CohortExpression {
+    }
+
+    /**
+     * The patients matching both operands.
+     *
+     * @param left the left operand
+     * @param right the right operand
+     */
+    record And(CohortExpression left, CohortExpression right) implements CohortExpression {
+    }
+
+    /**
+     * The patients matching either operand.
+     *
+     * @param left the left operand
+     * @param right the right operand
+     */
+    record Or(CohortExpression left, CohortExpression right) implements CohortExpression {
+    }
+
+    /**
+     * The patients not matching the operand.
+     *
+     * @param operand the operand
+     */
+    record Not(CohortExpression operand) implements CohortExpression {
+    }
+
+    /**
+     * Parses an expression.
+     *
+     * @param text the expression
+     * @return the parsed expression
+     * @throws BadRequestException if the expression is empty, too long or malformed
+     */
+    static CohortExpression parse(String text) {
+        if (text == null || text.isBlank()) {
+            throw new BadRequestException("A cohort expression is required");
+        }
+        if (text.length() > MAX_LENGTH) {
+            throw new BadRequestException("Cohort expressions are limited to " + MAX_LENGTH + " characters");
+        }
+        return new CohortExpressionParser(text).parse();
+    }
+}
@@ -0,0 +1,103 @@
+package com.alienworkspace.cdr.patient.service.cohort;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recursive descent parser of the {@link CohortExpression} grammar.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+final class CohortExpressionParser {
+
+    private static final Pattern TOKEN = Pattern.compile("\\s*([()]|[^\\s()]+)");
+    private static final Pattern TERM = Pattern.compile("([a-z]+):(\\d{1,9})");
+
+    private final String text;
+    private final List<String> tokens = new ArrayList<>();
+    private int position;
+
+    CohortExpressionParser(String text) {
+        this.text = text;
+        Matcher matcher = TOKEN.matcher(text);
+        while (matcher.lookingAt()) {
+            tokens.add(matcher.group(1));
+            matcher.region(matcher.end(), text.length());
+        }
+    }
+
+    CohortExpression parse() {
+        CohortExpression expression = or();
+        if (position < tokens.size()) {
+            throw invalid("unexpected '" + tokens.get(position) + "'");
+        }
+        return expression;
+    }
+
+    private CohortExpression or() {
+        CohortExpression expression = and();
+        while (accept("OR")) {
+            expression = new CohortExpression.Or(expression, and());
+        }
+        return expression;
+    }
+
+    private CohortExpression and() {
+        CohortExpression expression = not();
+        while (accept("AND")) {
+            expression = new CohortExpression.And(expression, not());
+        }
+        return expression;
+    }
+
+    private CohortExpression not() {
+        if (accept("NOT")) {
+            return new CohortExpression.Not(not());
+        }
+        if (accept("(")) {
+            CohortExpression expression = or();
+            if (!accept(")")) {
+                throw invalid("missing ')'");
+            }
+            return expression;
+        }
+        return term();
+    }
+
+    private CohortExpression term() {
+        if (position == tokens.size()) {
+            throw invalid("unexpected end");
+        }
+        String token = tokens.get(position++).toLowerCase(Locale.ROOT);
+        if ("all".equals(token)) {
+            return new CohortExpression.All();
+        }
+        Matcher matcher = TERM.matcher(token);
+        if (!matcher.matches()) {
+            throw invalid("unknown term '" + token + "'");
+        }
+        CohortExpression.Kind kind;
+        try {
+            kind = CohortExpression.Kind.valueOf(matcher.group(1).toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw invalid("unknown term '" + token + "'");
+        }
+        return new CohortExpression.Member(kind, Integer.parseInt(matcher.group(2)));
+    }
+
+    private boolean accept(String expected) {
+        if (position < tokens.size() && tokens.get(position).equalsIgnoreCase(expected)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private BadRequestException invalid(String reason) {
+        return new BadRequestException("Invalid cohort expression '" + text + "': " + reason);
+    }
+}
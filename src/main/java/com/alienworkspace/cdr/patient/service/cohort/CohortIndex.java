@@ -0,0 +1,330 @@
+package com.alienworkspace.cdr.patient.service.cohort;
+
+import com.alienworkspace.cdr.patient.config.CohortIndexProperties;
+import com.alienworkspace.cdr.patient.config.ExecutorConfig;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.CohortPage;
+import com.alienworkspace.cdr.patient.service.outbox.PatientsChangedEvent;
+import com.google.common.collect.Lists;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory index answering cohort queries over compressed bitmaps of patient ids.
+ *
+ * <p>
+ * The index is built from the database in chunks of patients and rebuilt periodically. Between
+ * rebuilds, every {@link PatientsChangedEvent} of this instance reloads the changed patients once
+ * their transaction has committed, so the index follows local writes within moments and the changes of
+ * other instances at the next rebuild. Those reloads run on a single background thread, so the write
+ * does not wait for them; patients changed while a reload runs are collected and reloaded together
+ * next. Patients changed while a rebuild runs are reloaded again once
+ * the rebuilt index is made current, so no change is lost to a rebuild that read them too early.
+ * Reloads run one at a time, each reading the database after the previous one was applied, so a
+ * reload that read older rows can never overwrite a newer one.
+ *
+ * <p>
+ * Rebuilds are timed as {@code cohort.index.rebuild} and the number of indexed patients is published
+ * as the {@code cohort.index.patients} gauge.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ * @see CohortExpression
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class CohortIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CohortIndex.class);
+
+    private static final int RELOAD_CHUNK_SIZE = 1000;
+
+    private final PatientRepository patientRepository;
+    private final PatientProgramRepository patientProgramRepository;
+    private final PatientIdentifierRepository patientIdentifierRepository;
+    private final CohortIndexProperties properties;
+    private final TransactionTemplate readTransaction;
+    private final Executor executor;
+    private final Timer rebuilt;
+    private final Timer failed;
+    private final AtomicLong size = new AtomicLong();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock refreshLock = new ReentrantLock();
+    private CohortBitmaps bitmaps;
+    private Set<Long> changedDuringRebuild;
+
+    private final Set<Long> pending = new LinkedHashSet<>();
+    private boolean draining;
+
+    /**
+     * Creates an index that is not built yet and registers its metrics.
+     *
+     * @param patientRepository the repository the patients are read with
+     * @param patientProgramRepository the repository the enrollments are read with
+     * @param patientIdentifierRepository the repository the identifiers are read with
+     * @param properties the cohort index properties
+     * @param transactionManager the manager of the read-only transactions the index is loaded in
+     * @param executor the single thread the changes of committed transactions are reloaded on
+     * @param meterRegistry the registry the index metrics are published to
+     */
+    public CohortIndex(PatientRepository patientRepository, PatientProgramRepository patientProgramRepository,
+                       PatientIdentifierRepository patientIdentifierRepository, CohortIndexProperties properties,
+                       PlatformTransactionManager transactionManager,
+                       @Qualifier(ExecutorConfig.COHORT_INDEX_EXECUTOR) Executor executor,
+                       MeterRegistry meterRegistry) {
+        this.patientRepository = patientRepository;
+        this.patientProgramRepository = patientProgramRepository;
+        this.patientIdentifierRepository = patientIdentifierRepository;
+        this.properties = properties;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.executor = executor;
+        this.rebuilt = rebuildTimer("success", meterRegistry);
+        this.failed = rebuildTimer("failure", meterRegistry);
+        Gauge.builder("cohort.index.patients", size, AtomicLong::get)
+                .description("Number of patients held in the cohort index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Evaluates an expression and returns one page of the matching patient ids, in ascending order.
+     * Builds the index first if it was never built.
+     *
+     * @param expression the expression
+     * @param after the last patient id of the previous page, or {@code 0} for the first page
+     * @param size the maximum number of ids to return
+     * @return the page and the number of matching patients
+     */
+    public CohortPage query(CohortExpression expression, long after, int size) {
+        Roaring64NavigableMap result = evaluate(expression);
+        long total = result.getLongCardinality();
+        long from = after <= 0 ? 0 : result.rankLong(after);
+        long to = Math.min(total, from + size);
+        List<Long> patientIds = new ArrayList<>((int) Math.max(0, to - from));
+        for (long rank = from; rank < to; rank++) {
+            patientIds.add(result.select(rank));
+        }
+        return new CohortPage(patientIds, total);
+    }
+
+    /**
+     * Builds the index from the database and makes it current.
+     * Rebuilds run one at a time; the current index keeps answering queries until the new one is ready.
+     *
+     * @return {@code true} if the index was replaced, {@code false} if the current index was kept
+     */
+    public synchronized boolean rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        CohortBitmaps loaded;
+        try {
+            loaded = load();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            LOGGER.warn("Unable to rebuild the cohort index, keeping the current one", e);
+            return false;
+        }
+        Set<Long> changed;
+        lock.writeLock().lock();
+        try {
+            bitmaps = loaded;
+            size.set(loaded.size());
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        rebuilt.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!changed.isEmpty()) {
+            refresh(changed);
+        }
+        LOGGER.debug("Rebuilt the cohort index with {} patients", size.get());
+        return true;
+    }
+
+    /**
+     * Queues the patients changed by a committed transaction for a reload on the background thread and
+     * returns at once. Patients queued while a reload runs are reloaded together by the next one.
+     * A failure is only logged; the next rebuild repairs the index.
+     *
+     * @param event the event of the transaction
+     */
+    @TransactionalEventListener
+    public void onPatientsChanged(PatientsChangedEvent event) {
+        synchronized (pending) {
+            pending.addAll(event.patientIds());
+            if (draining) {
+                return;
+            }
+            draining = true;
+        }
+        try {
+            executor.execute(this::drainPending);
+        } catch (RejectedExecutionException e) {
+            synchronized (pending) {
+                pending.clear();
+                draining = false;
+            }
+            LOGGER.warn("Unable to queue {} changed patients for the cohort index", event.patientIds().size(), e);
+        }
+    }
+
+    /**
+     * Reloads some patients from the database into the index.
+     * Does nothing while the index was never built; the first build reads them anyway.
+     * Waits for any reload in progress, so reloads are applied in the order they read the database.
+     *
+     * @param patientIds the ids of the patients
+     */
+    public void refresh(Collection<Long> patientIds) {
+        refreshLock.lock();
+        try {
+            lock.writeLock().lock();
+            try {
+                if (changedDuringRebuild != null) {
+                    changedDuringRebuild.addAll(patientIds);
+                }
+                if (bitmaps == null) {
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            CohortBitmaps loaded = readTransaction.execute(status -> load(patientIds));
+            lock.writeLock().lock();
+            try {
+                bitmaps.replace(patientIds, loaded);
+                size.set(bitmaps.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void drainPending() {
+        while (true) {
+            List<Long> patientIds;
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                patientIds = List.copyOf(pending);
+                pending.clear();
+            }
+            try {
+                refresh(patientIds);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to reload {} changed patients into the cohort index", patientIds.size(), e);
+            }
+        }
+    }
+
+    private Roaring64NavigableMap evaluate(CohortExpression expression) {
+        if (!isBuilt() && !buildIfMissing()) {
+            throw new IllegalStateException("The cohort index could not be built");
+        }
+        lock.readLock().lock();
+        try {
+            return bitmaps.evaluate(expression);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isBuilt() {
+        lock.readLock().lock();
+        try {
+            return bitmaps != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized boolean buildIfMissing() {
+        return isBuilt() || rebuild();
+    }
+
+    private CohortBitmaps load() {
+        CohortBitmaps loaded = new CohortBitmaps();
+        int chunkSize = properties.getChunkSize();
+        long after = 0;
+        List<Long> patientIds;
+        do {
+            long from = after;
+            patientIds = readTransaction.execute(status -> {
+                List<Long> chunk = patientRepository.findActiveIdsAfter(from, Limit.of(chunkSize));
+                if (!chunk.isEmpty()) {
+                    long last = chunk.get(chunk.size() - 1);
+                    patientProgramRepository.findMembershipsBetween(from, last).forEach(loaded::addEnrollment);
+                    patientIdentifierRepository.findMembershipsBetween(from, last).forEach(loaded::addIdentifier);
+                }
+                return chunk;
+            });
+            patientIds.forEach(loaded::addPatient);
+            if (!patientIds.isEmpty()) {
+                after = patientIds.get(patientIds.size() - 1);
+            }
+        } while (patientIds.size() == chunkSize);
+        return loaded;
+    }
+
+    private CohortBitmaps load(Collection<Long> patientIds) {
+        CohortBitmaps loaded = new CohortBitmaps();
+        for (List<Long> chunk : Lists.partition(List.copyOf(patientIds), RELOAD_CHUNK_SIZE)) {
+            patientRepository.findActiveIds(chunk).forEach(loaded::addPatient);
+            patientProgramRepository.findMemberships(chunk).forEach(loaded::addEnrollment);
+            patientIdentifierRepository.findMemberships(chunk).forEach(loaded::addIdentifier);
+        }
+        return loaded;
+    }
+
+    private static Timer rebuildTimer(String result, MeterRegistry meterRegistry) {
+        return Timer.builder("cohort.index.rebuild")
+                .description("Time taken to rebuild the cohort index from the database")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
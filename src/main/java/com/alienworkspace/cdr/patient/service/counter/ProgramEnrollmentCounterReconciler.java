@@ -0,0 +1,135 @@
+package com.alienworkspace.cdr.patient.service.counter;
+
+import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
+import com.alienworkspace.cdr.patient.model.ProgramEnrollmentCounter;
+import com.alienworkspace.cdr.patient.repository.EnrollmentCounts;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramEnrollmentCounterRepository;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Repairs the per-program enrollment counters that drifted from the enrollments.
+ *
+ * <p>
+ * The counters and the grouped enrollment counts are first read in one transaction to find the
+ * programs whose counter is missing or wrong. Each of those is then repaired in a transaction of its
+ * own: the counter row is locked before the enrollments of the program are counted again, so every
+ * enrollment change that updated the counter before is already visible and every later one waits for
+ * the repair to commit.
+ *
+ * <p>
+ * Repaired counters are counted as {@code program.counters.repaired}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class ProgramEnrollmentCounterReconciler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgramEnrollmentCounterReconciler.class);
+
+    private final ProgramEnrollmentCounterRepository programEnrollmentCounterRepository;
+    private final PatientProgramRepository patientProgramRepository;
+    private final MetadataSnapshotHolder metadataSnapshotHolder;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter repaired;
+
+    /**
+     * Creates the reconciler and registers its metric.
+     *
+     * @param programEnrollmentCounterRepository the repository of the counters
+     * @param patientProgramRepository the repository the enrollments are counted with
+     * @param metadataSnapshotHolder the holder of the programs
+     * @param transactionTemplate the template the reads and repairs run in
+     * @param meterRegistry the registry the metric is published to
+     */
+    public ProgramEnrollmentCounterReconciler(ProgramEnrollmentCounterRepository programEnrollmentCounterRepository,
+                                              PatientProgramRepository patientProgramRepository,
+                                              MetadataSnapshotHolder metadataSnapshotHolder,
+                                              TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.programEnrollmentCounterRepository = programEnrollmentCounterRepository;
+        this.patientProgramRepository = patientProgramRepository;
+        this.metadataSnapshotHolder = metadataSnapshotHolder;
+        this.transactionTemplate = transactionTemplate;
+        this.repaired = Counter.builder("program.counters.repaired")
+                .description("Number of program enrollment counters repaired by the reconciliation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Repairs every counter that is missing or does not match the enrollments.
+     *
+     * @return the number of counters repaired
+     */
+    public int reconcile() {
+        List<Integer> drifted = transactionTemplate.execute(status -> findDrifted());
+        int count = 0;
+        for (Integer programId : drifted) {
+            try {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> repair(programId)))) {
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Error repairing the enrollment counter of program {}, retrying on the next run",
+                        programId, e);
+            }
+        }
+        return count;
+    }
+
+    private List<Integer> findDrifted() {
+        Map<Integer, EnrollmentCounts> counts = patientProgramRepository.countEnrollmentsByProgram().stream()
+                .collect(Collectors.toMap(EnrollmentCounts::getProgramId, Function.identity()));
+        Map<Integer, ProgramEnrollmentCounter> counters = programEnrollmentCounterRepository.findAll().stream()
+                .collect(Collectors.toMap(ProgramEnrollmentCounter::getProgramId, Function.identity()));
+        Set<Integer> programIds = new TreeSet<>(counts.keySet());
+        metadataSnapshotHolder.current().getPrograms().stream().map(ProgramDto::getProgramId).forEach(programIds::add);
+        return programIds.stream()
+                .filter(programId -> !matches(counters.get(programId), counts.get(programId)))
+                .toList();
+    }
+
+    private boolean repair(int programId) {
+        Optional<ProgramEnrollmentCounter> locked = programEnrollmentCounterRepository.findForUpdate(programId);
+        EnrollmentCounts counts = patientProgramRepository.countEnrollmentsOfProgram(programId).orElse(null);
+        if (locked.isPresent() && matches(locked.get(), counts)) {
+            return false;
+        }
+        ProgramEnrollmentCounter counter = locked.orElseGet(() -> ProgramEnrollmentCounter.builder()
+                .programId(programId)
+                .build());
+        LOGGER.warn("Repairing the enrollment counter of program {}: active {}, completed {}, total {}", programId,
+                counter.getActive(), counter.getCompleted(), counter.getTotal());
+        counter.setActive(counts == null ? 0 : counts.getActive());
+        counter.setCompleted(counts == null ? 0 : counts.getCompleted());
+        counter.setTotal(counts == null ? 0 : counts.getTotal());
+        programEnrollmentCounterRepository.save(counter);
+        repaired.increment();
+        return true;
+    }
+
+    private static boolean matches(ProgramEnrollmentCounter counter, EnrollmentCounts counts) {
+        if (counter == null) {
+            return false;
+        }
+        if (counts == null) {
+            return counter.getActive() == 0 && counter.getCompleted() == 0 && counter.getTotal() == 0;
+        }
+        return counter.getActive() == counts.getActive() && counter.getCompleted() == counts.getCompleted()
+                && counter.getTotal() == counts.getTotal();
+    }
+}
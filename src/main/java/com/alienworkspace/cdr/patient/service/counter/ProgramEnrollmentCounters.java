@@ -0,0 +1,58 @@
+package com.alienworkspace.cdr.patient.service.counter;
+
+import com.alienworkspace.cdr.patient.model.ProgramEnrollmentCounter;
+import com.alienworkspace.cdr.patient.repository.ProgramEnrollmentCounterRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.transaction.Transactional;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the per-program enrollment counters in step with the enrollments.
+ *
+ * <p>
+ * Counts can only be changed inside the transaction changing the enrollments, so a counter moves if
+ * and only if its enrollments are committed. Each change is a single relative update that locks the
+ * counter row until the transaction ends, so callers change the counts as late in the transaction as
+ * they can. A program without a counter row is skipped and left to the
+ * {@link ProgramEnrollmentCounterReconciler}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@AllArgsConstructor
+@Transactional(Transactional.TxType.MANDATORY)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class ProgramEnrollmentCounters {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProgramEnrollmentCounters.class);
+
+    private final ProgramEnrollmentCounterRepository programEnrollmentCounterRepository;
+
+    /**
+     * Creates the empty counter of a new program.
+     *
+     * @param programId the id of the program
+     */
+    public void create(int programId) {
+        programEnrollmentCounterRepository.save(ProgramEnrollmentCounter.builder().programId(programId).build());
+    }
+
+    /**
+     * Adds to the counts of a program; the total changes by the sum of both numbers.
+     *
+     * @param programId the id of the program
+     * @param active the number added to the active enrollments, negative to subtract
+     * @param completed the number added to the completed enrollments, negative to subtract
+     */
+    public void add(int programId, long active, long completed) {
+        if (active == 0 && completed == 0) {
+            return;
+        }
+        if (programEnrollmentCounterRepository.addToCounts(programId, active, completed, active + completed) == 0) {
+            LOGGER.warn("Program {} has no enrollment counter, leaving it to the reconciliation", programId);
+        }
+    }
+}
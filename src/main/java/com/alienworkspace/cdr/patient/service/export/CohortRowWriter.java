@@ -0,0 +1,21 @@
+package com.alienworkspace.cdr.patient.service.export;
+
+import com.alienworkspace.cdr.patient.service.CohortExportRow;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes the enrollments of an exported program cohort, one at a time, in one {@link ExportFormat}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public interface CohortRowWriter extends Closeable {
+
+    /**
+     * Writes one enrollment.
+     *
+     * @param row the enrollment
+     * @throws IOException if the enrollment cannot be written
+     */
+    void write(CohortExportRow row) throws IOException;
+}
@@ -0,0 +1,66 @@
+package com.alienworkspace.cdr.patient.service.export;
+
+import com.alienworkspace.cdr.patient.service.CohortExportRow;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+
+/**
+ * Writes enrollments as RFC 4180 comma separated values. The identifiers of the patient go in one column
+ * as {@code <identifier type id>:<identifier>} pairs separated by semicolons.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+final class CsvCohortRowWriter implements CohortRowWriter {
+
+    static final String HEADER =
+            "patient_id,patient_uuid,date_enrolled,date_completed,location_id,outcome_concept_id,identifiers";
+
+    private final Writer writer;
+
+    CsvCohortRowWriter(OutputStream outputStream) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(CohortExportRow row) throws IOException {
+        writer.write(String.valueOf(row.patientId()));
+        writer.write(',');
+        writer.write(field(row.patientUuid()));
+        writer.write(',');
+        writer.write(field(row.dateEnrolled()));
+        writer.write(',');
+        writer.write(field(row.dateCompleted()));
+        writer.write(',');
+        writer.write(String.valueOf(row.locationId()));
+        writer.write(',');
+        writer.write(field(row.outcomeConceptId()));
+        writer.write(',');
+        writer.write(field(row.identifiers().stream()
+                .map(identifier -> identifier.identifierTypeId() + ":" + identifier.identifier())
+                .collect(Collectors.joining(";"))));
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
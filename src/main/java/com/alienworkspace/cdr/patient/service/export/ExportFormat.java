@@ -0,0 +1,78 @@
+package com.alienworkspace.cdr.patient.service.export;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats a program cohort can be exported in.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public enum ExportFormat {
+
+    /**
+     * Comma separated values with a header line, one enrollment per line.
+     */
+    CSV(new MediaType("text", "csv")),
+
+    /**
+     * Newline delimited JSON, one enrollment per line.
+     */
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    ExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Returns the media type of the format.
+     *
+     * @return the media type
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Returns the file name extension of the format.
+     *
+     * @return the extension, without a dot
+     */
+    public String getExtension() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Opens a writer of this format on an output stream. Closing the writer closes the stream.
+     *
+     * @param outputStream the stream to write to
+     * @param objectMapper the mapper writing JSON values
+     * @return the writer
+     * @throws IOException if the header cannot be written
+     */
+    public CohortRowWriter open(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        return this == CSV ? new CsvCohortRowWriter(outputStream) : new NdjsonCohortRowWriter(outputStream,
+                objectMapper);
+    }
+
+    /**
+     * Parses a format name.
+     *
+     * @param name the name, case-insensitive
+     * @return the format
+     * @throws BadRequestException if the format is not supported
+     */
+    public static ExportFormat parse(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported export format: " + name, e);
+        }
+    }
+}
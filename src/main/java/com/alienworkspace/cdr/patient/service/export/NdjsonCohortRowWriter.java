@@ -0,0 +1,33 @@
+package com.alienworkspace.cdr.patient.service.export;
+
+import com.alienworkspace.cdr.patient.service.CohortExportRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes enrollments as newline delimited JSON objects.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+final class NdjsonCohortRowWriter implements CohortRowWriter {
+
+    private final JsonGenerator generator;
+
+    NdjsonCohortRowWriter(OutputStream outputStream, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void write(CohortExportRow row) throws IOException {
+        generator.writeObject(row);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.alienworkspace.cdr.patient.service.impl;
+
+import com.alienworkspace.cdr.patient.service.CohortPage;
+import com.alienworkspace.cdr.patient.service.CohortService;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression;
+import com.alienworkspace.cdr.patient.service.cohort.CohortIndex;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the {@link CohortService} interface, answering every query from the
+ * {@link CohortIndex}.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Service
+@AllArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class CohortServiceImpl implements CohortService {
+
+    private CohortIndex cohortIndex;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CohortPage getCohort(String expression, long after, int size) {
+        return cohortIndex.query(CohortExpression.parse(expression), after, size);
+    }
+}
@@ -0,0 +1,113 @@
+package com.alienworkspace.cdr.patient.service.impl;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
+import com.alienworkspace.cdr.patient.config.ChangeFeedProperties;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierMapper;
+import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.ChangeFeedCursor;
+import com.alienworkspace.cdr.patient.service.ChangeFeedCursor.Section;
+import com.alienworkspace.cdr.patient.service.EnrollmentChange;
+import com.alienworkspace.cdr.patient.service.PatientChangeService;
+import com.alienworkspace.cdr.patient.service.PatientChanges;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the {@link PatientChangeService} interface.
+ *
+ * <p>
+ * A page is filled section by section: the changed patients first, then the changed identifiers, then
+ * the changed enrollments, each read with a keyset on its primary key. Persons are not part of the feed;
+ * they are synchronised from the demographic service.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ * @see ChangeFeedCursor
+ */
+@Service
+@AllArgsConstructor
+@Transactional
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class PatientChangeServiceImpl implements PatientChangeService {
+
+    private PatientRepository patientRepository;
+
+    private PatientIdentifierRepository patientIdentifierRepository;
+
+    private PatientProgramRepository patientProgramRepository;
+
+    private PatientMapper patientMapper;
+
+    private PatientIdentifierMapper patientIdentifierMapper;
+
+    private ChangeFeedProperties changeFeedProperties;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PatientChanges getChanges(String cursor, int size) {
+        if (size < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        ChangeFeedCursor position = cursor == null ? ChangeFeedCursor.first() : ChangeFeedCursor.decode(cursor);
+        if (!position.started()) {
+            position = position.startedAt(LocalDateTime.now().minus(changeFeedProperties.getSettleTime()));
+        }
+        LocalDateTime since = position.since();
+        LocalDateTime until = position.until();
+        List<PatientDto> patients = new ArrayList<>();
+        List<PatientIdentifierDto> identifiers = new ArrayList<>();
+        List<EnrollmentChange> enrollments = new ArrayList<>();
+        int remaining = size;
+
+        if (position.section() == Section.PATIENTS) {
+            List<Patient> changed = patientRepository.findChangedAfter(since, until, position.after(),
+                    Limit.of(remaining));
+            changed.stream().map(patientMapper::toPatientDto).forEach(patients::add);
+            remaining -= changed.size();
+            if (remaining == 0) {
+                long last = changed.get(changed.size() - 1).getPatientId();
+                return new PatientChanges(patients, identifiers, enrollments,
+                        position.at(Section.PATIENTS, last).encode(), false);
+            }
+            position = position.at(Section.IDENTIFIERS, 0);
+        }
+
+        if (position.section() == Section.IDENTIFIERS) {
+            List<PatientIdentifier> changed = patientIdentifierRepository.findChangedAfter(since, until,
+                    position.after(), Limit.of(remaining));
+            changed.stream().map(patientIdentifierMapper::toPatientIdentifierDto).forEach(identifiers::add);
+            remaining -= changed.size();
+            if (remaining == 0) {
+                long last = changed.get(changed.size() - 1).getPatientIdentifierId();
+                return new PatientChanges(patients, identifiers, enrollments,
+                        position.at(Section.IDENTIFIERS, last).encode(), false);
+            }
+            position = position.at(Section.ENROLLMENTS, 0);
+        }
+
+        List<PatientProgram> changed = patientProgramRepository.findChangedAfter(since, until, position.after(),
+                Limit.of(remaining));
+        changed.stream().map(EnrollmentChange::of).forEach(enrollments::add);
+        if (changed.size() == remaining) {
+            long last = changed.get(changed.size() - 1).getPatientProgramId();
+            return new PatientChanges(patients, identifiers, enrollments,
+                    position.at(Section.ENROLLMENTS, last).encode(), false);
+        }
+        return new PatientChanges(patients, identifiers, enrollments, position.next().encode(), true);
+    }
+}
@@ -5,14 +5,18 @@ import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
 import com.alienworkspace.cdr.patient.exception.AlreadyExistException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
 import com.alienworkspace.cdr.patient.helpers.CurrentUser;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
 import com.alienworkspace.cdr.patient.model.Patient;
 import com.alienworkspace.cdr.patient.model.PatientIdentifier;
-import com.alienworkspace.cdr.patient.model.PatientIdentifierType;
 import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierMapper;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
 import com.alienworkspace.cdr.patient.repository.PatientRepository;
 import com.alienworkspace.cdr.patient.service.PatientIdentifierService;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import com.alienworkspace.cdr.patient.service.cache.UnknownIdentifierCache;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
 import lombok.AllArgsConstructor;
@@ -60,6 +64,9 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
     private final PatientIdentifierTypeRepository patientIdentifierTypeRepository;
     private final PatientRepository patientRepository;
     private final PatientIdentifierMapper patientIdentifierMapper;
+    private final UnknownIdentifierCache unknownIdentifierCache;
+    private final MetadataSnapshotHolder metadataSnapshotHolder;
+    private final OutboxWriter outboxWriter;
 
     /**
      * {@inheritDoc}
@@ -68,9 +75,10 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
      * This implementation:
      * 1. Converts the DTO to a domain entity
      * 2. Validates the existence of the referenced patient
-     * 3. Validates the existence of the identifier type
+     * 3. Validates the existence of the identifier type against the in-memory metadata snapshot
      * 4. Sets up the relationships between entities
-     * 5. Saves the new identifier
+     * 5. Saves the new identifier and its change event
+     * 6. Removes the identifier from the {@link UnknownIdentifierCache}
      *
      * @throws ResourceNotFoundException if either the patient or identifier type is not found
      * @throws IllegalArgumentException if the identifier data is invalid
@@ -85,8 +93,7 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "Id",
                         String.valueOf(patientIdentifierDto.getPatientId())));
 
-        PatientIdentifierType patientIdentifierType = patientIdentifierTypeRepository
-                .findById(patientIdentifierDto.getIdentifierTypeId())
+        metadataSnapshotHolder.current().findIdentifierType(patientIdentifierDto.getIdentifierTypeId())
                 .orElseThrow(() -> new ResourceNotFoundException("Patient Identifier Type", "Id",
                        String.valueOf(patientIdentifierDto.getIdentifierTypeId())));
         if (patientIdentifierDto.isPreferred()) {
@@ -96,11 +103,15 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
         }
 
 
-        patientIdentifier.setPatientIdentifierType(patientIdentifierType);
         patientIdentifier.setPatient(patient);
+        patientIdentifier.setPatientIdentifierType(patientIdentifierTypeRepository
+                .getReferenceById(patientIdentifierDto.getIdentifierTypeId()));
+        unknownIdentifierCache.forget(patientIdentifier.getIdentifier());
 
-        return patientIdentifierMapper.toPatientIdentifierDto(
-                patientIdentifierRepository.save(patientIdentifier));
+        PatientIdentifier saved = patientIdentifierRepository.save(patientIdentifier);
+        outboxWriter.record(AggregateType.PATIENT_IDENTIFIER, saved.getPatientIdentifierId(), patient.getPatientId(),
+                ChangeType.CREATED);
+        return patientIdentifierMapper.toPatientIdentifierDto(saved);
     }
 
     /**
@@ -111,6 +122,7 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
      * 1. Checks if a preferred identifier of the same type already exists
      * 2. Updates the identifier if found
      * 3. Handles the preferred status changes
+     * 4. Writes the change event
      *
      * <p>
      * The method enforces the business rule that only one identifier of a given type
@@ -135,8 +147,10 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
                 .map(patientIdentifier -> {
                     try {
                         patientIdentifier.setPreferred(patientIdentifierDto.isPreferred());
-                        return patientIdentifierMapper.toPatientIdentifierDto(
-                                patientIdentifierRepository.save(patientIdentifier));
+                        PatientIdentifier saved = patientIdentifierRepository.save(patientIdentifier);
+                        outboxWriter.record(AggregateType.PATIENT_IDENTIFIER, saved.getPatientIdentifierId(),
+                                patientId, ChangeType.UPDATED);
+                        return patientIdentifierMapper.toPatientIdentifierDto(saved);
                     } catch (Exception e) {
                         throw new IllegalArgumentException("Error updating Patient Identifier with patientID: "
                                 + patientId, e);
@@ -156,6 +170,7 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
      * 3. Recording the user who performed the void
      * 4. Recording the void timestamp
      * 5. Storing the reason for voiding
+     * 6. Writing the change event
      *
      * <p>
      * Note: Due to the composite key structure, the identifier is located using
@@ -175,8 +190,10 @@ public class PatientIdentifierServiceImpl implements PatientIdentifierService {
                         patientIdentifier.setVoidedBy(CurrentUser.getCurrentUser().getPersonId());
                         patientIdentifier.setVoidedAt(LocalDateTime.now());
                         patientIdentifier.setVoidReason(recordVoidRequest.getVoidReason());
-                        return patientIdentifierMapper.toPatientIdentifierDto(
-                                patientIdentifierRepository.save(patientIdentifier));
+                        PatientIdentifier saved = patientIdentifierRepository.save(patientIdentifier);
+                        outboxWriter.record(AggregateType.PATIENT_IDENTIFIER, id,
+                                saved.getPatient().getPatientId(), ChangeType.VOIDED);
+                        return patientIdentifierMapper.toPatientIdentifierDto(saved);
                     } catch (Exception e) {
                         throw new IllegalStateException("Error deleting Patient Identifier with id: " + id, e);
                     }
@@ -7,6 +7,7 @@ import com.alienworkspace.cdr.patient.helpers.CurrentUser;
 import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierTypeMapper;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
 import com.alienworkspace.cdr.patient.service.PatientIdentifierTypeService;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,6 +32,7 @@ import org.springframework.stereotype.Service;
  * - Implements transaction management
  * - Handles data validation
  * - Maintains audit trails
+ * - Serves reads from the in-memory {@link MetadataSnapshotHolder} snapshot and refreshes it on writes
  *
  * <p>
  * Business rules enforced:
@@ -52,6 +54,7 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
 
     private final PatientIdentifierTypeRepository patientIdentifierTypeRepository;
     private final PatientIdentifierTypeMapper patientIdentifierTypeMapper;
+    private final MetadataSnapshotHolder metadataSnapshotHolder;
 
     /**
      * {@inheritDoc}
@@ -66,10 +69,12 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
      */
     @Override
     public PatientIdentifierTypeDto createPatientIdentifierType(PatientIdentifierTypeDto patientIdentifierDto) {
-        return patientIdentifierTypeMapper.toPatientIdentifierTypeDto(
+        PatientIdentifierTypeDto created = patientIdentifierTypeMapper.toPatientIdentifierTypeDto(
                 patientIdentifierTypeRepository.save(patientIdentifierTypeMapper
                         .toPatientIdentifierType(patientIdentifierDto))
         );
+        metadataSnapshotHolder.refreshAfterCommit();
+        return created;
     }
 
     /**
@@ -95,7 +100,7 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
      */
     @Override
     public PatientIdentifierTypeDto updatePatientIdentifierType(int id, PatientIdentifierTypeDto patientIdentifierDto) {
-        return patientIdentifierTypeRepository.findById(id)
+        PatientIdentifierTypeDto updated = patientIdentifierTypeRepository.findById(id)
                 .map(patientIdentifierType -> {
                     try {
                         patientIdentifierType.setDescription(patientIdentifierDto.getDescription());
@@ -112,6 +117,8 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
                     }
                 }).orElseThrow(() -> new ResourceNotFoundException("Patient Identifier Type", "Id",
                         String.valueOf(id)));
+        metadataSnapshotHolder.refreshAfterCommit();
+        return updated;
     }
 
     /**
@@ -143,19 +150,19 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
                     }
                 }).orElseThrow(() ->
                         new ResourceNotFoundException("Patient Identifier Type", "Id", String.valueOf(id)));
+        metadataSnapshotHolder.refreshAfterCommit();
     }
 
     /**
      * {@inheritDoc}
      *
      * <p>
-     * This implementation retrieves the entity and converts it to a DTO.
+     * This implementation reads the identifier type from the in-memory metadata snapshot.
      * Only non-voided identifier types are returned.
      */
     @Override
     public PatientIdentifierTypeDto getPatientIdentifierType(int id) {
-        return patientIdentifierTypeRepository.findById(id)
-                .map(patientIdentifierTypeMapper::toPatientIdentifierTypeDto)
+        return metadataSnapshotHolder.current().findIdentifierType(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient Identifier Type", "Id", String.valueOf(id)));
     }
 
@@ -164,8 +171,8 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
      *
      * <p>
      * This implementation:
-     * 1. Retrieves all non-voided identifier types
-     * 2. Converts each entity to a DTO
+     * 1. Reads all identifier types from the in-memory metadata snapshot
+     * 2. Drops the voided ones
      * 3. Returns them as a list
      *
      * <p>
@@ -173,8 +180,9 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
      */
     @Override
     public List<PatientIdentifierTypeDto> getAllPatientIdentifierTypes() {
-        return patientIdentifierTypeRepository.findAllByVoided(false).stream()
-                .map(patientIdentifierTypeMapper::toPatientIdentifierTypeDto).collect(Collectors.toList());
+        return metadataSnapshotHolder.current().getIdentifierTypes().stream()
+                .filter(patientIdentifierType -> !patientIdentifierType.isVoided())
+                .collect(Collectors.toList());
     }
 
     /**
@@ -182,16 +190,14 @@ public class PatientIdentifierTypeServiceImpl implements PatientIdentifierTypeSe
      *
      * <p>
      * This implementation:
-     * 1. Retrieves all identifier types regardless of void status
-     * 2. Converts each entity to a DTO
-     * 3. Returns them as a list
+     * 1. Reads all identifier types regardless of void status from the in-memory metadata snapshot
+     * 2. Returns them as a list
      *
      * <p>
      * Both voided and non-voided records are included in the results.
      */
     @Override
     public List<PatientIdentifierTypeDto> getAllPatientIdentifierTypesBothVoided() {
-        return patientIdentifierTypeRepository.findAll().stream()
-                .map(patientIdentifierTypeMapper::toPatientIdentifierTypeDto).collect(Collectors.toList());
+        return metadataSnapshotHolder.current().getIdentifierTypes();
     }
 }
@@ -1,18 +1,39 @@
 package com.alienworkspace.cdr.patient.service.impl;
 
 import com.alienworkspace.cdr.model.dto.patient.PatientProgramDto;
+import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.config.BulkEnrollmentProperties;
 import com.alienworkspace.cdr.patient.exception.AlreadyExistException;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
+import com.alienworkspace.cdr.patient.helpers.CurrentUser;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
 import com.alienworkspace.cdr.patient.model.Patient;
 import com.alienworkspace.cdr.patient.model.PatientProgram;
 import com.alienworkspace.cdr.patient.model.Program;
 import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
 import com.alienworkspace.cdr.patient.repository.PatientRepository;
 import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import com.alienworkspace.cdr.patient.service.BulkEnrollmentRequest;
+import com.alienworkspace.cdr.patient.service.BulkEnrollmentResult;
 import com.alienworkspace.cdr.patient.service.PatientProgramService;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import com.alienworkspace.cdr.patient.service.counter.ProgramEnrollmentCounters;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
+import com.google.common.collect.Lists;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import jakarta.transaction.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 import lombok.AllArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Implementation of the {@link PatientProgramService} interface.
@@ -51,11 +72,17 @@ import org.springframework.stereotype.Service;
 @Service
 @Transactional
 @AllArgsConstructor
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
 public class PatientProgramServiceImpl implements PatientProgramService {
 
     private PatientProgramRepository patientProgramRepository;
     private PatientRepository patientRepository;
     private ProgramRepository programRepository;
+    private MetadataSnapshotHolder metadataSnapshotHolder;
+    private BulkEnrollmentProperties bulkEnrollmentProperties;
+    private TransactionTemplate transactionTemplate;
+    private OutboxWriter outboxWriter;
+    private ProgramEnrollmentCounters programEnrollmentCounters;
 
     /**
      * {@inheritDoc}
@@ -65,13 +92,13 @@ public class PatientProgramServiceImpl implements PatientProgramService {
      * 1. Checks for existing enrollment to prevent duplicates
      * 2. Validates the existence of both patient and program
      * 3. Creates a new PatientProgram entity with the provided details
-     * 4. Persists the enrollment in the database
+     * 4. Persists the enrollment and its change event in the database and counts it as active
      *
      * <p>
      * The method follows these steps:
      * - Verify no existing enrollment exists for the patient in the program
      * - Retrieve and validate patient existence
-     * - Retrieve and validate program existence
+     * - Validate program existence against the in-memory metadata snapshot and reference it without a query
      * - Create and persist the new enrollment
      *
      * @throws AlreadyExistException if the patient is already enrolled in the program
@@ -89,15 +116,122 @@ public class PatientProgramServiceImpl implements PatientProgramService {
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new ResourceNotFoundException("Patient", "Id", String.valueOf(patientId)));
 
-        Program program = programRepository.findById(programId)
+        metadataSnapshotHolder.current().findProgram(programId)
                         .orElseThrow(() -> new ResourceNotFoundException("Program", "Id", String.valueOf(programId)));
+        Program program = programRepository.getReferenceById(programId);
         PatientProgram patientProgram = PatientProgram.builder()
                 .dateEnrolled(patientProgramDto.getDateEnrolled())
                 .patient(patient)
                 .program(program)
                 .locationId(patientProgramDto.getLocationId())
                 .build();
-        patientProgramRepository.save(patientProgram);
+        PatientProgram saved = patientProgramRepository.save(patientProgram);
+        outboxWriter.record(AggregateType.PATIENT_PROGRAM, saved.getPatientProgramId(), patientId,
+                ChangeType.CREATED);
+        programEnrollmentCounters.add(programId, 1, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * 1. Validates the request and the program against the in-memory metadata snapshot
+     * 2. Splits the distinct patient ids into chunks of the configured size
+     * 3. For every chunk, in a transaction of its own:
+     *    - Finds the ids that match a patient with one query
+     *    - Finds the patients already enrolled in the program, on any date, with one index-only query
+     *    - Persists the remaining enrollments and their change events, which Hibernate writes as JDBC batches
+     *    - Counts the enrollments of the chunk as active with one update
+     *
+     * <p>
+     * Runs outside a transaction so each chunk commits on its own and the persistence context never
+     * holds more than one chunk. A failed chunk leaves earlier chunks enrolled; sending the request again
+     * skips them and enrolls the rest. A chunk that violates the unique key because a concurrent request
+     * enrolled some of its patients first is enrolled again one patient at a time, and those patients
+     * are counted as already enrolled.
+     *
+     * @throws ResourceNotFoundException if the program is not found
+     * @throws BadRequestException if no enrollment date is given or more patients are sent than allowed
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public BulkEnrollmentResult enrollPatientsInProgram(int programId, BulkEnrollmentRequest request) {
+        if (request.dateEnrolled() == null) {
+            throw new BadRequestException("An enrollment date is required");
+        }
+        Set<Long> patientIds = new LinkedHashSet<>(request.patientIds());
+        int maxPatients = bulkEnrollmentProperties.getMaxPatients();
+        if (patientIds.size() > maxPatients) {
+            throw new BadRequestException("At most " + maxPatients + " patients can be enrolled at once");
+        }
+        metadataSnapshotHolder.current().findProgram(programId)
+                .orElseThrow(() -> new ResourceNotFoundException("Program", "Id", String.valueOf(programId)));
+
+        ChunkResult result = ChunkResult.empty();
+        for (List<Long> chunk : Lists.partition(List.copyOf(patientIds), bulkEnrollmentProperties.getChunkSize())) {
+            try {
+                result.add(enrollChunk(programId, request, chunk));
+            } catch (DataIntegrityViolationException e) {
+                result.add(enrollOneByOne(programId, request, chunk));
+            }
+        }
+        return new BulkEnrollmentResult(result.enrolled().size(), result.skipped().size(), result.unknown());
+    }
+
+    /**
+     * Enrolls one chunk of patients in a transaction of its own.
+     *
+     * @throws DataIntegrityViolationException if a concurrent request enrolled one of the patients on the
+     *     same date after the chunk was checked; nothing of the chunk is then enrolled
+     */
+    private ChunkResult enrollChunk(int programId, BulkEnrollmentRequest request, List<Long> chunk) {
+        ChunkResult result = ChunkResult.empty();
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> existing = new HashSet<>(patientRepository.findExistingIds(chunk));
+            Set<Long> enrolled = new HashSet<>(
+                    patientProgramRepository.findEnrolledPatientIds(programId, chunk));
+            Program program = programRepository.getReferenceById(programId);
+            List<PatientProgram> enrollments = new ArrayList<>(chunk.size());
+            for (Long patientId : chunk) {
+                if (!existing.contains(patientId)) {
+                    result.unknown().add(patientId);
+                } else if (enrolled.contains(patientId)) {
+                    result.skipped().add(patientId);
+                } else {
+                    enrollments.add(PatientProgram.builder()
+                            .dateEnrolled(request.dateEnrolled())
+                            .patient(patientRepository.getReferenceById(patientId))
+                            .program(program)
+                            .locationId(request.locationId())
+                            .build());
+                }
+            }
+            List<PatientProgram> saved = patientProgramRepository.saveAll(enrollments);
+            outboxWriter.recordAll(AggregateType.PATIENT_PROGRAM, saved.stream()
+                    .map(enrollment -> new OutboxWriter.Change(enrollment.getPatientProgramId(),
+                            enrollment.getPatient().getPatientId()))
+                    .toList(), ChangeType.CREATED);
+            programEnrollmentCounters.add(programId, saved.size(), 0);
+            enrollments.forEach(enrollment -> result.enrolled().add(enrollment.getPatient().getPatientId()));
+        });
+        return result;
+    }
+
+    /**
+     * Enrolls the patients of a chunk that lost a race for the unique key one at a time, so only the
+     * patients enrolled concurrently are skipped.
+     */
+    private ChunkResult enrollOneByOne(int programId, BulkEnrollmentRequest request, List<Long> chunk) {
+        ChunkResult result = ChunkResult.empty();
+        for (Long patientId : chunk) {
+            try {
+                result.add(enrollChunk(programId, request, List.of(patientId)));
+            } catch (DataIntegrityViolationException e) {
+                result.skipped().add(patientId);
+            }
+        }
+        return result;
     }
 
     /**
@@ -111,7 +245,8 @@ public class PatientProgramServiceImpl implements PatientProgramService {
      *    - Completion date
      *    - Outcome comments
      *    - Outcome concept identifier
-     * 4. Persists the updated enrollment
+     * 4. Persists the updated enrollment and its change event
+     * 5. Moves the enrollment between the active and completed counts when its completion date is set or cleared
      *
      * <p>
      * The method ensures that both the patient and their program enrollment exist
@@ -128,11 +263,69 @@ public class PatientProgramServiceImpl implements PatientProgramService {
 
         patientProgramRepository.findByPatientIdAndProgramId(patientId, programId)
                 .map(savedPatientProgram -> {
+                    boolean wasCompleted = savedPatientProgram.getDateCompleted() != null;
                     savedPatientProgram.setDateCompleted(patientProgramDto.getDateCompleted());
                     savedPatientProgram.setOutcomeComment(patientProgramDto.getOutcomeComment());
                     savedPatientProgram.setOutcomeConceptId(patientProgramDto.getOutcomeConceptId());
-                    return patientProgramRepository.save(savedPatientProgram);
+                    PatientProgram saved = patientProgramRepository.save(savedPatientProgram);
+                    outboxWriter.record(AggregateType.PATIENT_PROGRAM, saved.getPatientProgramId(), patientId,
+                            ChangeType.UPDATED);
+                    boolean completed = saved.getDateCompleted() != null;
+                    if (!saved.isVoided() && completed != wasCompleted) {
+                        programEnrollmentCounters.add(programId, completed ? -1 : 1, completed ? 1 : -1);
+                    }
+                    return saved;
                 }).orElseThrow(() -> new ResourceNotFoundException("Patient Enrollment", "Program Id",
                         String.valueOf(patientId)));
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * 1. Retrieves the enrollment of the patient in the program
+     * 2. Marks it as voided with the current user, time and the given reason
+     * 3. Persists the voided enrollment and its change event
+     * 4. Removes it from the active or completed count
+     *
+     * <p>
+     * Voiding an enrollment that is already voided changes nothing.
+     *
+     * @throws ResourceNotFoundException if the enrollment is not found
+     */
+    @Override
+    public void voidProgramEnrollment(long patientId, int programId, RecordVoidRequest recordVoidRequest) {
+        PatientProgram patientProgram = patientProgramRepository.findByPatientIdAndProgramId(patientId, programId)
+                .orElseThrow(() -> new ResourceNotFoundException("Patient Enrollment", "Program Id",
+                        String.valueOf(programId)));
+        if (patientProgram.isVoided()) {
+            return;
+        }
+        patientProgram.setVoided(true);
+        patientProgram.setVoidedBy(CurrentUser.getCurrentUser().getPersonId());
+        patientProgram.setVoidedAt(LocalDateTime.now());
+        patientProgram.setVoidReason(recordVoidRequest.getVoidReason());
+        PatientProgram saved = patientProgramRepository.save(patientProgram);
+        outboxWriter.record(AggregateType.PATIENT_PROGRAM, saved.getPatientProgramId(), patientId,
+                ChangeType.VOIDED);
+        boolean completed = saved.getDateCompleted() != null;
+        programEnrollmentCounters.add(programId, completed ? 0 : -1, completed ? -1 : 0);
+    }
+
+    /**
+     * The patients of one or more chunks, by what happened to them.
+     */
+    private record ChunkResult(List<Long> enrolled, List<Long> skipped, List<Long> unknown) {
+
+        static ChunkResult empty() {
+            return new ChunkResult(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        }
+
+        void add(ChunkResult other) {
+            enrolled.addAll(other.enrolled());
+            skipped.addAll(other.skipped());
+            unknown.addAll(other.unknown());
+        }
+    }
 }
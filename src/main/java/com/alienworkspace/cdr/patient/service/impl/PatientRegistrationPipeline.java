@@ -0,0 +1,220 @@
+package com.alienworkspace.cdr.patient.service.impl;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.config.BulkRegistrationProperties;
+import com.alienworkspace.cdr.patient.config.ExecutorConfig;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.PatientRegistrationResult;
+import com.alienworkspace.cdr.patient.service.client.DemographicFeignClient;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Registers many patients at once: persons are created with the demographic service in batches and the
+ * patients of each batch are inserted together.
+ *
+ * <p>
+ * The patients are read in batches of the configured size. Up to the configured number of batches run
+ * at the same time on the demographic executor, while the caller keeps reading, so a streamed request
+ * is never held in memory as a whole. Results are handed back in request order, one per patient.
+ *
+ * <p>
+ * A batch creates its persons with one bulk call. When that call is unavailable the persons are
+ * created one by one. The patients are then inserted, together with their change events, in one
+ * transaction; if that fails, each patient is retried in a transaction of its own so one bad row does
+ * not fail its whole batch.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class PatientRegistrationPipeline {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PatientRegistrationPipeline.class);
+
+    private final DemographicFeignClient demographicFeignClient;
+    private final PatientRepository patientRepository;
+    private final PatientMapper patientMapper;
+    private final BulkRegistrationProperties properties;
+    private final Executor executor;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates the pipeline.
+     *
+     * @param demographicFeignClient the client used to create persons
+     * @param patientRepository the repository the patients are inserted with
+     * @param patientMapper the patient mapper
+     * @param properties the bulk registration properties
+     * @param executor the executor batches run on
+     * @param outboxWriter the writer the change events of the new patients are written with
+     * @param transactionTemplate the template the inserts run in
+     */
+    public PatientRegistrationPipeline(DemographicFeignClient demographicFeignClient,
+                                       PatientRepository patientRepository, PatientMapper patientMapper,
+                                       BulkRegistrationProperties properties,
+                                       @Qualifier(ExecutorConfig.DEMOGRAPHIC_EXECUTOR) Executor executor,
+                                       OutboxWriter outboxWriter, TransactionTemplate transactionTemplate) {
+        this.demographicFeignClient = demographicFeignClient;
+        this.patientRepository = patientRepository;
+        this.patientMapper = patientMapper;
+        this.properties = properties;
+        this.executor = executor;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Registers the given patients.
+     *
+     * @param patients the patients to register, read in order
+     * @param correlationId the correlation id forwarded to the demographic service
+     * @param results receives one result per patient, in request order, on the calling thread
+     */
+    public void register(Iterator<PatientDto> patients, String correlationId,
+                         Consumer<PatientRegistrationResult> results) {
+        Deque<CompletableFuture<List<PatientRegistrationResult>>> inFlight = new ArrayDeque<>();
+        int index = 0;
+        while (patients.hasNext()) {
+            List<PatientDto> batch = new ArrayList<>(properties.getBatchSize());
+            while (patients.hasNext() && batch.size() < properties.getBatchSize()) {
+                batch.add(patients.next());
+            }
+            if (inFlight.size() >= properties.getConcurrency()) {
+                inFlight.removeFirst().join().forEach(results);
+            }
+            int first = index;
+            inFlight.addLast(CompletableFuture.supplyAsync(() -> registerBatch(first, batch, correlationId),
+                    executor));
+            index += batch.size();
+        }
+        while (!inFlight.isEmpty()) {
+            inFlight.removeFirst().join().forEach(results);
+        }
+    }
+
+    private List<PatientRegistrationResult> registerBatch(int first, List<PatientDto> batch, String correlationId) {
+        PatientRegistrationResult[] results = new PatientRegistrationResult[batch.size()];
+        try {
+            List<Integer> positions = new ArrayList<>(batch.size());
+            List<PersonDto> persons = new ArrayList<>(batch.size());
+            for (int position = 0; position < batch.size(); position++) {
+                PatientDto patientDto = batch.get(position);
+                if (patientDto == null || patientDto.getPerson() == null) {
+                    results[position] = PatientRegistrationResult.failed(first + position, null,
+                            "A person is required");
+                } else {
+                    positions.add(position);
+                    persons.add(patientDto.getPerson());
+                }
+            }
+            List<PersonDto> created = addPeople(persons, correlationId);
+            List<Integer> persisted = new ArrayList<>(positions.size());
+            List<Patient> patients = new ArrayList<>(positions.size());
+            for (int i = 0; i < positions.size(); i++) {
+                int position = positions.get(i);
+                PersonDto person = created.get(i);
+                if (person == null || person.getPersonId() == null) {
+                    results[position] = PatientRegistrationResult.failed(first + position, null,
+                            "The person could not be created");
+                    continue;
+                }
+                PatientDto patientDto = batch.get(position);
+                patientDto.setPatientId(person.getPersonId());
+                persisted.add(position);
+                patients.add(patientMapper.toPatient(patientDto));
+            }
+            persist(first, persisted, patients, results);
+        } catch (RuntimeException e) {
+            LOGGER.error("Error registering the batch of patients starting at {}. CorrelationId: {}", first,
+                    correlationId, e);
+            for (int position = 0; position < results.length; position++) {
+                if (results[position] == null) {
+                    results[position] = PatientRegistrationResult.failed(first + position, null, e.getMessage());
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<PersonDto> addPeople(List<PersonDto> persons, String correlationId) {
+        if (persons.isEmpty()) {
+            return persons;
+        }
+        List<PersonDto> created = demographicFeignClient.addPeople(correlationId, persons).getBody();
+        if (created != null) {
+            if (created.size() != persons.size()) {
+                throw new IllegalStateException("Demographic service created " + created.size() + " of "
+                        + persons.size() + " persons");
+            }
+            return created;
+        }
+        LOGGER.warn("Bulk person registration unavailable, falling back to single registrations. CorrelationId: {}",
+                correlationId);
+        List<PersonDto> fannedOut = new ArrayList<>(persons.size());
+        for (PersonDto person : persons) {
+            PersonDto added = null;
+            try {
+                added = demographicFeignClient.addPerson(correlationId, person).getBody();
+            } catch (RuntimeException e) {
+                LOGGER.warn("Error creating person. CorrelationId: {}", correlationId, e);
+            }
+            fannedOut.add(added);
+        }
+        return fannedOut;
+    }
+
+    private void persist(int first, List<Integer> positions, List<Patient> patients,
+                         PatientRegistrationResult[] results) {
+        try {
+            insert(patients);
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = PatientRegistrationResult.registered(first + positions.get(i),
+                        patients.get(i).getPatientId());
+            }
+            return;
+        } catch (RuntimeException e) {
+            LOGGER.warn("Insert of the batch starting at {} failed, retrying one by one", first, e);
+        }
+        for (int i = 0; i < positions.size(); i++) {
+            Patient patient = patients.get(i);
+            int position = positions.get(i);
+            try {
+                insert(List.of(patient));
+                results[position] = PatientRegistrationResult.registered(first + position, patient.getPatientId());
+            } catch (RuntimeException e) {
+                results[position] = PatientRegistrationResult.failed(first + position, patient.getPatientId(),
+                        e.getMessage());
+            }
+        }
+    }
+
+    private void insert(List<Patient> patients) {
+        transactionTemplate.executeWithoutResult(status -> {
+            patientRepository.persistAll(patients);
+            outboxWriter.recordAll(AggregateType.PATIENT, patients.stream()
+                    .map(patient -> new OutboxWriter.Change(patient.getPatientId(), patient.getPatientId()))
+                    .toList(), ChangeType.CREATED);
+        });
+    }
+}
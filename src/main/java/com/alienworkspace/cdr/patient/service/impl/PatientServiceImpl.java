@@ -3,22 +3,61 @@ package com.alienworkspace.cdr.patient.service.impl;
 import com.alienworkspace.cdr.model.dto.patient.PatientDto;
 import com.alienworkspace.cdr.model.dto.person.PersonDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.config.DemographicClientProperties;
+import com.alienworkspace.cdr.patient.config.PagingProperties;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
 import com.alienworkspace.cdr.patient.helpers.CurrentUser;
+import com.alienworkspace.cdr.patient.helpers.ETags;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
 import com.alienworkspace.cdr.patient.model.Patient;
 import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierMapper;
 import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
 import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.EnrollmentChange;
+import com.alienworkspace.cdr.patient.service.LocationPatientCount;
+import com.alienworkspace.cdr.patient.service.PatientField;
+import com.alienworkspace.cdr.patient.service.PatientListQuery;
+import com.alienworkspace.cdr.patient.service.PatientRegistrationResult;
 import com.alienworkspace.cdr.patient.service.PatientService;
+import com.alienworkspace.cdr.patient.service.PatientView;
+import com.alienworkspace.cdr.patient.service.cache.LocationLevel;
+import com.alienworkspace.cdr.patient.service.cache.LocationNode;
+import com.alienworkspace.cdr.patient.service.cache.LocationTree;
+import com.alienworkspace.cdr.patient.service.cache.LocationTreeHolder;
+import com.alienworkspace.cdr.patient.service.cache.PersonCache;
+import com.alienworkspace.cdr.patient.service.cache.SingleFlight;
+import com.alienworkspace.cdr.patient.service.cache.UnknownIdentifierCache;
 import com.alienworkspace.cdr.patient.service.client.DemographicFeignClient;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Implementation of the {@link PatientService} interface.
@@ -57,30 +96,60 @@ import org.springframework.stereotype.Service;
 @Service
 @AllArgsConstructor
 @Transactional
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
 public class PatientServiceImpl implements PatientService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PatientServiceImpl.class);
 
     private PatientRepository patientRepository;
-    private PatientIdentifierRepository patientIdentifierRepository;
 
     private PatientMapper patientMapper;
 
+    private PatientIdentifierMapper patientIdentifierMapper;
+
     private DemographicFeignClient demographicFeignClient;
 
+    private PersonCache personCache;
+
+    private DemographicClientProperties demographicClientProperties;
+
+    private PagingProperties pagingProperties;
+
+    private UnknownIdentifierCache unknownIdentifierCache;
+
+    private PatientRegistrationPipeline patientRegistrationPipeline;
+
+    private SingleFlight<Long, PatientDto> patientReadFlight;
+
+    private LocationTreeHolder locationTreeHolder;
+
+    private PatientProgramRepository patientProgramRepository;
+
+    private PatientIdentifierRepository patientIdentifierRepository;
+
+    private OutboxWriter outboxWriter;
+
+    private TransactionTemplate transactionTemplate;
+
+    private EntityManager entityManager;
+
     /**
      * {@inheritDoc}
      *
      * <p>
      * Implementation details:
      * 1. Converts the DTO to a patient entity
-     * 2. Persists the new patient record
+     * 2. Persists the new patient record and its change event
      * 3. Returns the created patient as DTO
      *
+     * <p>
+     * Runs outside a transaction so no database connection is held while the demographic service
+     * creates the person; the insert and the change event run in a transaction of their own.
+     *
      * @throws IllegalArgumentException if there are issues with the patient data
      */
     @Override
-    @Transactional
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public PatientDto createPatient(PatientDto patientDto, String correlationId) {
         try {
             PersonDto person = demographicFeignClient.addPerson(correlationId, patientDto.getPerson()).getBody();
@@ -88,13 +157,34 @@ public class PatientServiceImpl implements PatientService {
                 throw new IllegalArgumentException("Error creating person: " + person);
             }
             patientDto.setPatientId(person.getPersonId());
-            return patientMapper.toPatientDto(patientRepository.save(patientMapper.toPatient(patientDto)));
+            Patient patient = patientMapper.toPatient(patientDto);
+            return patientMapper.toPatientDto(transactionTemplate.execute(status -> {
+                Patient saved = patientRepository.save(patient);
+                outboxWriter.record(AggregateType.PATIENT, saved.getPatientId(), saved.getPatientId(),
+                        ChangeType.CREATED);
+                return saved;
+            }));
         } catch (Exception e) {
             LOGGER.error("Error creating patient", e);
             throw new IllegalArgumentException("Error creating patient", e);
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * Hands the patients to the {@link PatientRegistrationPipeline}. Runs outside a transaction so every
+     * batch is inserted in its own transaction instead of the whole request holding one.
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void registerPatients(Iterator<PatientDto> patientDtos, String correlationId,
+                                 Consumer<PatientRegistrationResult> results) {
+        patientRegistrationPipeline.register(patientDtos, correlationId, results);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -102,7 +192,7 @@ public class PatientServiceImpl implements PatientService {
      * Implementation details:
      * 1. Validates patient existence
      * 2. Updates the patient's allergies information
-     * 3. Persists the changes
+     * 3. Persists the changes and their change event
      * 4. Logs any errors during the update process
      *
      * <p>
@@ -120,7 +210,9 @@ public class PatientServiceImpl implements PatientService {
                         patient.setAllergies(patientDto.getAllergies());
                         patient.setLastModifiedAt(LocalDateTime.now());
                         patient.setLastModifiedBy(CurrentUser.getCurrentUser().getPersonId());
-                        return patientMapper.toPatientDto(patientRepository.save(patient));
+                        Patient saved = patientRepository.save(patient);
+                        outboxWriter.record(AggregateType.PATIENT, id, id, ChangeType.UPDATED);
+                        return patientMapper.toPatientDto(saved);
                     } catch (Exception e) {
                         LOGGER.error("Error updating patient:", e);
                         throw new IllegalArgumentException("Error updating patient: {}", e);
@@ -142,7 +234,9 @@ public class PatientServiceImpl implements PatientService {
      *    - Who performed the void operation
      *    - When it was performed
      *    - Reason for voiding
-     * 4. Logs the operation for tracking
+     * 4. Writes the change event
+     * 5. Evicts the voided person from the person cache
+     * 6. Logs the operation for tracking
      *
      * @throws ResourceNotFoundException if the patient is not found
      * @throws IllegalArgumentException if there are issues with the void operation
@@ -153,6 +247,7 @@ public class PatientServiceImpl implements PatientService {
         try {
             LOGGER.info("Voiding person with ID: {}", id);
             demographicFeignClient.deletePerson(id, recordVoidRequest);
+            personCache.invalidate(id);
         } catch (Exception e) {
             LOGGER.error("Error voiding person:", e);
             throw new IllegalArgumentException("Error voiding person: {}", e);
@@ -165,7 +260,9 @@ public class PatientServiceImpl implements PatientService {
                         patient.setVoidedBy(CurrentUser.getCurrentUser().getPersonId());
                         patient.setVoidedAt(LocalDateTime.now());
                         patient.setVoidReason(recordVoidRequest.getVoidReason());
-                        return patientMapper.toPatientDto(patientRepository.save(patient));
+                        Patient saved = patientRepository.save(patient);
+                        outboxWriter.record(AggregateType.PATIENT, id, id, ChangeType.VOIDED);
+                        return patientMapper.toPatientDto(saved);
                     } catch (Exception e) {
                         LOGGER.error("Error deleting patient:", e);
                         throw new IllegalArgumentException("Error deleting patient: {}", e);
@@ -185,10 +282,51 @@ public class PatientServiceImpl implements PatientService {
      * 2. Converts to DTO format
      * 3. Includes error logging for not-found cases
      *
+     * <p>
+     * Runs outside a transaction so no database connection is held while the person is fetched from
+     * the demographic service. Concurrent reads of the same patient share one load through the
+     * {@link SingleFlight}; the load runs with the correlation id of the caller that started it.
+     *
      * @throws ResourceNotFoundException if the patient is not found
      */
     @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public PatientDto getPatient(long id, String correlationId) {
+        return patientReadFlight.load(id, () -> loadPatient(id, correlationId));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * Reads only the audit timestamps of the patient row. The person is versioned by the content of the
+     * entry of the {@link PersonCache} it would be served from.
+     *
+     * @throws ResourceNotFoundException if the patient is not found
+     */
+    @Override
+    public String getPatientETag(long id) {
+        return patientRepository.findVersionByPatientId(id)
+                .map(version -> ETags.of("patient", id, version.getCreatedAt(), version.getLastModifiedAt(),
+                        version.getVoidedAt(), personCache.version(id, false)))
+                .orElseThrow(() -> new ResourceNotFoundException("Patient", "Id", String.valueOf(id)));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * Versions the person carried by the Patient, so the tag describes exactly what is served.
+     */
+    @Override
+    public String getPatientETag(PatientDto patientDto) {
+        return ETags.of("patient", patientDto.getPatientId(), patientDto.getCreatedAt(),
+                patientDto.getLastModifiedAt(), patientDto.getVoidedAt(), personCache.version(patientDto.getPerson()));
+    }
+
+    private PatientDto loadPatient(long id, String correlationId) {
         PatientDto patientDto = patientMapper.toPatientDto(patientRepository.findById(id)
                 .orElseThrow(() -> {
                     LOGGER.error("Patient With Id: {} not found. CorrelationId: {}", id, correlationId);
@@ -196,7 +334,44 @@ public class PatientServiceImpl implements PatientService {
                 }));
         patientDto.setPerson(getPerson(patientDto.getPatientId(), false, correlationId));
         return patientDto;
+    }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * 1. Rejects batches larger than the configured maximum
+     * 2. Loads every patient row in a single query
+     * 3. Resolves all persons through the {@link PersonCache}, which uses the bulk demographic endpoint
+     * 4. Drops ids that do not match a patient
+     *
+     * <p>
+     * Runs outside a transaction so no database connection is held while persons are fetched from
+     * the demographic service.
+     *
+     * @throws BadRequestException if more ids are requested than allowed
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public List<PatientDto> getPatients(List<Long> ids, String correlationId) {
+        int maxIds = demographicClientProperties.getBatch().getMaxIds();
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > maxIds) {
+            throw new BadRequestException("At most " + maxIds + " patients can be requested at once");
+        }
+        Map<Long, Patient> patients = patientRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(Patient::getPatientId, Function.identity()));
+        Map<Long, PersonDto> people = personCache.getAll(patients.keySet(), false, correlationId);
+        return uniqueIds.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
+                .map(patient -> {
+                    PatientDto patientDto = patientMapper.toPatientDto(patient);
+                    patientDto.setPerson(people.get(patient.getPatientId()));
+                    return patientDto;
+                })
+                .toList();
     }
 
     /**
@@ -204,31 +379,206 @@ public class PatientServiceImpl implements PatientService {
      *
      * <p>
      * Implementation details:
-     * 1. Searches for patient identifier
-     * 2. Retrieves associated patient record
-     * 3. Converts to DTO format
-     * 4. Includes error logging for not-found cases
+     * 1. Loads the patient row, joined in the same statement with only the requested collections
+     * 2. Calls the demographic service only if the person is requested
+     *
+     * <p>
+     * Runs outside a transaction so no database connection is held while the person is fetched.
+     *
+     * @throws ResourceNotFoundException if the patient is not found
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public PatientView getPatient(long id, Set<PatientField> fields, String correlationId) {
+        Patient patient = findPatient(id, fields).orElseThrow(() -> {
+            LOGGER.error("Patient With Id: {} not found. CorrelationId: {}", id, correlationId);
+            return new ResourceNotFoundException("Patient", "Id", String.valueOf(id));
+        });
+        PersonDto person = fields.contains(PatientField.PERSON) ? getPerson(id, false, correlationId) : null;
+        return toPatientView(patient, patient.getPatientPrograms(), person, fields);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * 1. Rejects batches larger than the configured maximum
+     * 2. Loads every patient row in a single query, joined with the identifiers or the enrollments only if
+     *    they are requested. When both are, the enrollments are read in a second query, so the two
+     *    collections are not multiplied with each other across the whole batch
+     * 3. Resolves the persons through the {@link PersonCache} only if the person is requested
+     * 4. Drops ids that do not match a patient
+     *
+     * @throws BadRequestException if more ids are requested than allowed
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public List<PatientView> getPatients(List<Long> ids, Set<PatientField> fields, String correlationId) {
+        int maxIds = demographicClientProperties.getBatch().getMaxIds();
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > maxIds) {
+            throw new BadRequestException("At most " + maxIds + " patients can be requested at once");
+        }
+        boolean identifiers = fields.contains(PatientField.IDENTIFIERS);
+        boolean programs = fields.contains(PatientField.PROGRAMS);
+        Map<Long, Patient> patients;
+        if (identifiers) {
+            patients = byId(patientRepository.findWithIdentifiersByPatientIdIn(uniqueIds));
+        } else if (programs) {
+            patients = byId(patientRepository.findWithProgramsByPatientIdIn(uniqueIds));
+        } else {
+            patients = byId(patientRepository.findAllById(uniqueIds));
+        }
+        Map<Long, Patient> enrolled = identifiers && programs
+                ? byId(patientRepository.findWithProgramsByPatientIdIn(patients.keySet()))
+                : patients;
+        Map<Long, PersonDto> people = fields.contains(PatientField.PERSON)
+                ? personCache.getAll(patients.keySet(), false, correlationId)
+                : Map.of();
+        return uniqueIds.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
+                .map(patient -> toPatientView(patient,
+                        enrolled.getOrDefault(patient.getPatientId(), patient).getPatientPrograms(),
+                        people.get(patient.getPatientId()), fields))
+                .toList();
+    }
+
+    private static Map<Long, Patient> byId(List<Patient> patients) {
+        return patients.stream().collect(Collectors.toMap(Patient::getPatientId, Function.identity()));
+    }
+
+    private Optional<Patient> findPatient(long id, Set<PatientField> fields) {
+        boolean identifiers = fields.contains(PatientField.IDENTIFIERS);
+        boolean programs = fields.contains(PatientField.PROGRAMS);
+        if (identifiers && programs) {
+            return patientRepository.findWithDetailsByPatientId(id);
+        }
+        if (identifiers) {
+            return patientRepository.findWithIdentifiersByPatientId(id);
+        }
+        if (programs) {
+            return patientRepository.findWithProgramsByPatientId(id);
+        }
+        return patientRepository.findById(id);
+    }
+
+    private PatientView toPatientView(Patient patient, Collection<PatientProgram> programs, PersonDto person,
+                                      Set<PatientField> fields) {
+        return new PatientView(patient.getPatientId(), patient.getAllergies(), person,
+                fields.contains(PatientField.IDENTIFIERS)
+                        ? patient.getPatientIdentifiers().stream()
+                                .sorted(Comparator.comparing(PatientIdentifier::getPatientIdentifierId))
+                                .map(patientIdentifierMapper::toPatientIdentifierDto)
+                                .toList()
+                        : null,
+                fields.contains(PatientField.PROGRAMS)
+                        ? programs.stream()
+                                .sorted(Comparator.comparing(PatientProgram::getPatientProgramId))
+                                .map(EnrollmentChange::of)
+                                .toList()
+                        : null,
+                fields.contains(PatientField.AUDIT) ? PatientView.Audit.of(patient) : null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * 1. Answers identifiers recently found not to exist from the {@link UnknownIdentifierCache}
+     * 2. Loads the patient with its identifiers and programs in a single query
+     * 3. Remembers identifiers that match no patient
+     * 4. Converts to DTO format
      *
      * @throws ResourceNotFoundException if no patient is found with the given identifier
      */
     @Override
     public PatientDto getPatientByIdentifier(String value) {
-        PatientIdentifier patientIdentifier = patientIdentifierRepository.findPatientIdentifierByIdentifier(value)
+        if (unknownIdentifierCache.isUnknown(value)) {
+            LOGGER.debug("Identifier: {} is known not to exist", value);
+            throw new ResourceNotFoundException("Patient", "Identifier", value);
+        }
+        Patient patient = patientRepository.findWithDetailsByIdentifier(value)
                 .orElseThrow(() -> {
+                    unknownIdentifierCache.markUnknown(value);
                     LOGGER.error("Error fetching patient with Identifier: {}", value);
                     return new ResourceNotFoundException("Patient", "Identifier", value);
                 });
-        Patient patient = patientIdentifier.getPatient();
         return patientMapper.toPatientDto(patient);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * Reads a single keyset page of patient rows; the size is capped at the configured maximum.
+     */
+    @Override
+    public List<PatientDto> getPatientPage(PatientListQuery query, long after, int size) {
+        return findPage(query, after, Math.min(size, pagingProperties.getMaxSize())).stream()
+                .map(patientMapper::toPatientDto)
+                .toList();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * Walks the listing one keyset page at a time. Runs outside a transaction so every page is read
+     * in its own short transaction, which is released before the next page, instead of holding a
+     * connection for the whole stream. The persistence context is cleared after every page, so the
+     * loaded entities are not kept until the end of the stream when it is bound to the request.
+     */
+    @Override
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void streamPatients(PatientListQuery query, Consumer<PatientDto> consumer) {
+        int chunkSize = pagingProperties.getStreamChunkSize();
+        long after = 0;
+        List<Patient> page;
+        do {
+            page = findPage(query, after, chunkSize);
+            page.stream().map(patientMapper::toPatientDto).forEach(consumer);
+            entityManager.clear();
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getPatientId();
+            }
+        } while (page.size() == chunkSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>
+     * Implementation details:
+     * Expands the node to its locations with the in-memory {@link LocationTree} and counts the distinct
+     * patients of those locations on the {@code (location_id, patient_id)} indexes.
+     *
+     * @throws ResourceNotFoundException if the node is not in the location tree
+     */
+    @Override
+    public LocationPatientCount countPatientsByLocation(LocationLevel level, int id) {
+        LocationTree tree = locationTreeHolder.current();
+        LocationNode node = tree.find(level, id).orElseThrow(() -> new ResourceNotFoundException(
+                "Location", level.name().toLowerCase(Locale.ROOT) + " id", String.valueOf(id)));
+        List<Integer> locationIds = tree.locationIds(level, id);
+        if (locationIds.isEmpty()) {
+            return new LocationPatientCount(level, id, node.name(), 0, 0, 0);
+        }
+        return new LocationPatientCount(level, id, node.name(), locationIds.size(),
+                patientProgramRepository.countPatientsByLocationIds(locationIds),
+                patientIdentifierRepository.countPatientsByLocationIds(locationIds));
+    }
+
     /**
      * {@inheritDoc}
      *
      * <p>
      * Implementation details:
      * Returns all active patients in the system, mapped to DTOs.
-     * Uses streaming for efficient memory usage with large result sets.
      */
     @Override
     public List<PatientDto> getAllPatients() {
@@ -302,10 +652,27 @@ public class PatientServiceImpl implements PatientService {
      *
      * <p>
      * Implementation details:
-     * Retrieves a person by ID from the Demographic Service.
+     * Retrieves a person by ID through the {@link PersonCache}, which only calls the
+     * Demographic Service on a miss.
      */
     @Override
     public PersonDto getPerson(long personId, boolean includeVoided, String correlationId) {
-        return demographicFeignClient.getPerson(correlationId, personId, includeVoided).getBody();
+        return personCache.get(personId, includeVoided, correlationId);
+    }
+
+    private List<Patient> findPage(PatientListQuery query, long after, int size) {
+        Limit limit = Limit.of(size);
+        return switch (query.scope()) {
+            case ALL -> patientRepository.findAllAfter(after, limit);
+            case VOIDED -> patientRepository.findAllByVoidedAfter(true, after, limit);
+            case PROGRAM -> patientRepository.findByProgramAfter(query.scopeId(), after, limit);
+            case IDENTIFIER_TYPE -> patientRepository.findByIdentifierTypeAfter(query.scopeId(), after, limit);
+            case LOCATION -> findByLocationAfter(query.level(), query.scopeId(), after, limit);
+        };
+    }
+
+    private List<Patient> findByLocationAfter(LocationLevel level, int id, long after, Limit limit) {
+        List<Integer> locationIds = locationTreeHolder.current().locationIds(level, id);
+        return locationIds.isEmpty() ? List.of() : patientRepository.findByLocationsAfter(locationIds, after, limit);
     }
 }
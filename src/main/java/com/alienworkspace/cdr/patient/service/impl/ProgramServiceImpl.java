@@ -4,17 +4,36 @@ import static java.lang.String.format;
 
 import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
 import com.alienworkspace.cdr.patient.helpers.CurrentUser;
+import com.alienworkspace.cdr.patient.model.ProgramEnrollmentCounter;
 import com.alienworkspace.cdr.patient.model.mapper.ProgramMapper;
+import com.alienworkspace.cdr.patient.repository.MonthlyCount;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramEnrollmentCounterRepository;
 import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import com.alienworkspace.cdr.patient.service.ActiveEnrollment;
+import com.alienworkspace.cdr.patient.service.EnrollmentCursor;
+import com.alienworkspace.cdr.patient.service.MonthlyEnrollment;
 import com.alienworkspace.cdr.patient.service.ProgramService;
+import com.alienworkspace.cdr.patient.service.ProgramSummary;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import com.alienworkspace.cdr.patient.service.counter.ProgramEnrollmentCounters;
 import jakarta.transaction.Transactional;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 /**
@@ -35,6 +54,7 @@ import org.springframework.stereotype.Service;
  * - Implements transaction management
  * - Handles data validation
  * - Maintains audit trails
+ * - Serves reads from the in-memory {@link MetadataSnapshotHolder} snapshot and refreshes it on writes
  *
  * <p>
  * Business rules enforced:
@@ -54,12 +74,25 @@ public class ProgramServiceImpl implements ProgramService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProgramServiceImpl.class);
 
+    /**
+     * Longest range of months {@link #getMonthlyEnrollments} answers.
+     */
+    static final int MAX_MONTHS = 240;
+
     private final ProgramRepository programRepository;
 
+    private final ProgramEnrollmentCounterRepository programEnrollmentCounterRepository;
+
+    private final PatientProgramRepository patientProgramRepository;
+
+    private final ProgramEnrollmentCounters programEnrollmentCounters;
+
     private final ProgramMapper programMapper;
 
+    private final MetadataSnapshotHolder metadataSnapshotHolder;
+
     /**
-     * Creates a new program.
+     * Creates a new program with an empty enrollment counter.
      *
      * @param programDto The program details.
      * @return The created program.
@@ -67,7 +100,11 @@ public class ProgramServiceImpl implements ProgramService {
     @Override
     public ProgramDto createProgram(ProgramDto programDto) {
         try {
-            return programMapper.toProgramDto(programRepository.save(programMapper.toProgram(programDto)));
+            ProgramDto created = programMapper.toProgramDto(
+                    programRepository.save(programMapper.toProgram(programDto)));
+            programEnrollmentCounters.create(created.getProgramId());
+            metadataSnapshotHolder.refreshAfterCommit();
+            return created;
         } catch (Exception e) {
             LOGGER.error("Failed to create program", e);
             throw new IllegalArgumentException("Failed to create program", e);
@@ -83,7 +120,7 @@ public class ProgramServiceImpl implements ProgramService {
      */
     @Override
     public ProgramDto updateProgram(int programId, ProgramDto programDto) {
-        return programRepository.findById(programId)
+        ProgramDto updated = programRepository.findById(programId)
                 .map(program -> {
                     try {
                         program.setName(programDto.getName());
@@ -97,6 +134,8 @@ public class ProgramServiceImpl implements ProgramService {
                     }
                 }).orElseThrow(() ->
                         new ResourceNotFoundException("Program", "Id", String.valueOf(programId)));
+        metadataSnapshotHolder.refreshAfterCommit();
+        return updated;
     }
 
     /**
@@ -121,6 +160,7 @@ public class ProgramServiceImpl implements ProgramService {
                 }).orElseThrow(() ->
                         new ResourceNotFoundException(
                                 "Program", "Id", String.valueOf(id)));
+        metadataSnapshotHolder.refreshAfterCommit();
     }
 
     /**
@@ -131,8 +171,8 @@ public class ProgramServiceImpl implements ProgramService {
      */
     @Override
     public ProgramDto getProgram(int id) {
-        return programMapper.toProgramDto(programRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Program", "Id", String.valueOf(id))));
+        return metadataSnapshotHolder.current().findProgram(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Program", "Id", String.valueOf(id)));
     }
 
     /**
@@ -140,9 +180,128 @@ public class ProgramServiceImpl implements ProgramService {
      *
      * @return A list of programs.
      */
-    @Transactional
     @Override
     public List<ProgramDto> getAllPrograms() {
-        return programRepository.findAll().stream().map(programMapper::toProgramDto).toList();
+        return metadataSnapshotHolder.current().getPrograms();
+    }
+
+    /**
+     * Retrieves all programs with their enrollment counts.
+     * The programs come from the metadata snapshot and the counts from the maintained enrollment
+     * counters, one row per program, so no enrollment row is read.
+     *
+     * @return A summary of every program.
+     */
+    @Override
+    public List<ProgramSummary> getProgramSummaries() {
+        Map<Integer, ProgramEnrollmentCounter> counters = programEnrollmentCounterRepository.findAll().stream()
+                .collect(Collectors.toMap(ProgramEnrollmentCounter::getProgramId, Function.identity()));
+        return metadataSnapshotHolder.current().getPrograms().stream()
+                .map(program -> summary(program, counters.get(program.getProgramId())))
+                .toList();
+    }
+
+    /**
+     * Retrieves a program with its enrollment counts.
+     * The program comes from the metadata snapshot and the counts from its enrollment counter, read by
+     * primary key.
+     *
+     * @param id The ID of the program.
+     * @return The summary of the program.
+     */
+    @Override
+    public ProgramSummary getProgramStats(int id) {
+        ProgramDto program = getProgram(id);
+        return summary(program, programEnrollmentCounterRepository.findById(id).orElse(null));
+    }
+
+    /**
+     * Counts the enrollments of a program that were active on a date, from the enrollment index alone.
+     *
+     * @param id The ID of the program.
+     * @param on The date.
+     * @return The number of active enrollments.
+     */
+    @Override
+    public long countActiveEnrollments(int id, LocalDate on) {
+        getProgram(id);
+        return patientProgramRepository.countActiveOn(id, on);
+    }
+
+    /**
+     * Retrieves one page of the enrollments of a program that were active on a date.
+     * The page is read in index order with a keyset on the enrollment date and patient id, so every page
+     * costs the same whatever its position.
+     *
+     * @param id The ID of the program.
+     * @param on The date.
+     * @param after The cursor of the previous page, or {@code null} for the first page.
+     * @param size The maximum number of enrollments to return.
+     * @return The active enrollments.
+     */
+    @Override
+    public List<ActiveEnrollment> getActiveEnrollments(int id, LocalDate on, String after, int size) {
+        EnrollmentCursor cursor = after == null ? EnrollmentCursor.first() : EnrollmentCursor.decode(after);
+        getProgram(id);
+        return patientProgramRepository.findActiveOn(id, on, cursor.dateEnrolled(), cursor.patientId(),
+                        Limit.of(size)).stream()
+                .map(enrollment -> new ActiveEnrollment(enrollment.getPatientId(), enrollment.getDateEnrolled(),
+                        enrollment.getDateCompleted()))
+                .toList();
+    }
+
+    /**
+     * Retrieves the enrollments started, completed and active in every month of a range.
+     * Three index-only statements answer any range: the enrollments active the day before it, and the
+     * enrollments started and completed in it grouped by month. The active count of every month follows
+     * from the previous one.
+     *
+     * @param id The ID of the program.
+     * @param from The first month of the range.
+     * @param to The last month of the range.
+     * @return One entry per month, in order.
+     */
+    @Override
+    public List<MonthlyEnrollment> getMonthlyEnrollments(int id, YearMonth from, YearMonth to) {
+        long months = ChronoUnit.MONTHS.between(from, to) + 1;
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new BadRequestException(
+                    format("The range must end after it starts and cover at most %d months", MAX_MONTHS));
+        }
+        getProgram(id);
+        LocalDate first = from.atDay(1);
+        LocalDate last = to.atEndOfMonth();
+        Map<YearMonth, Long> enrolled = byMonth(patientProgramRepository.countEnrolledByMonth(id, first, last));
+        Map<YearMonth, Long> completed = byMonth(patientProgramRepository.countCompletedByMonth(id, first, last));
+        long active = patientProgramRepository.countActiveOn(id, first.minusDays(1));
+        List<MonthlyEnrollment> result = new ArrayList<>((int) months);
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            long started = enrolled.getOrDefault(month, 0L);
+            long ended = completed.getOrDefault(month, 0L);
+            active += started - ended;
+            result.add(new MonthlyEnrollment(month, started, ended, active));
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the entity tag of the program list, computed once per metadata snapshot.
+     *
+     * @return The entity tag.
+     */
+    @Override
+    public String getProgramsETag() {
+        return metadataSnapshotHolder.current().getProgramsETag();
+    }
+
+    private static Map<YearMonth, Long> byMonth(List<MonthlyCount> counts) {
+        return counts.stream().collect(Collectors.toMap(
+                count -> YearMonth.of(count.getCalendarYear(), count.getCalendarMonth()), MonthlyCount::getTotal));
+    }
+
+    private static ProgramSummary summary(ProgramDto program, ProgramEnrollmentCounter counter) {
+        return counter == null
+                ? new ProgramSummary(program, 0, 0, 0)
+                : new ProgramSummary(program, counter.getActive(), counter.getCompleted(), counter.getTotal());
     }
 }
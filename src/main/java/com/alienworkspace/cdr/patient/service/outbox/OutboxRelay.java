@@ -0,0 +1,198 @@
+package com.alienworkspace.cdr.patient.service.outbox;
+
+import com.alienworkspace.cdr.patient.config.OutboxProperties;
+import com.alienworkspace.cdr.patient.model.OutboxEvent;
+import com.alienworkspace.cdr.patient.repository.OutboxEventRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Publishes the pending outbox events to the broker.
+ *
+ * <p>
+ * Each batch is claimed, sent and marked published in one transaction. The pending rows are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so every instance can run the relay and each event is claimed by one
+ * of them at a time. Every message carries a {@link CorrelationData} in the
+ * {@link AmqpHeaders#PUBLISH_CONFIRM_CORRELATION} header, which the Rabbit binder completes with the
+ * publisher confirm of the broker, and an event is only marked published once the broker confirmed it.
+ * An event that is rejected, not confirmed in time, or confirmed just before a crash is sent again by a
+ * later run, so delivery is at least once and consumers deduplicate on {@link #EVENT_ID_HEADER}.
+ *
+ * <p>
+ * Events are sent in id order within a batch, but ids do not follow the commit order of the writing
+ * transactions, instances publish their batches concurrently, and a rejected event is sent again after
+ * the events behind it. Consumers must therefore not rely on the order of the events, and should read
+ * the current state of the changed record rather than apply the events in sequence.
+ *
+ * <p>
+ * Published events are counted as {@code outbox.events.published}, each batch is timed as
+ * {@code outbox.relay.batch} and the age of the oldest pending event at the last run is published as
+ * the {@code outbox.lag} gauge, in seconds.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@ConditionalOnProperty(prefix = "cdr-application.outbox", name = "relay-enabled", matchIfMissing = true)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class OutboxRelay {
+
+    /**
+     * Message header carrying the id of the outbox event.
+     */
+    public static final String EVENT_ID_HEADER = "cdr-event-id";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final StreamBridge streamBridge;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+    private final Counter published;
+    private final Timer batches;
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    /**
+     * Creates the relay and registers its metrics.
+     *
+     * @param outboxEventRepository the repository pending events are read from
+     * @param streamBridge the bridge events are sent to the broker with
+     * @param transactionTemplate the template every batch is claimed and marked published in
+     * @param properties the outbox properties
+     * @param meterRegistry the registry the relay metrics are published to
+     */
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, StreamBridge streamBridge,
+                       TransactionTemplate transactionTemplate, OutboxProperties properties,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.streamBridge = streamBridge;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.published = Counter.builder("outbox.events.published")
+                .description("Number of patient change events published to the broker")
+                .register(meterRegistry);
+        this.batches = Timer.builder("outbox.relay.batch")
+                .description("Time taken to publish one batch of patient change events")
+                .register(meterRegistry);
+        Gauge.builder("outbox.lag", lagMillis, lag -> lag.get() / 1_000.0)
+                .description("Age of the oldest pending patient change event at the last relay run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes every pending event, one batch at a time, each batch in its own transaction.
+     * Runs one at a time on this instance; other instances claim other events.
+     *
+     * @return the number of events published
+     */
+    public synchronized int publishPending() {
+        int total = 0;
+        int sent;
+        do {
+            Timer.Sample sample = Timer.start();
+            sent = Objects.requireNonNullElse(transactionTemplate.execute(status -> publishBatch()), 0);
+            sample.stop(batches);
+            total += sent;
+        } while (sent == properties.getBatchSize());
+        return total;
+    }
+
+    /**
+     * Deletes the events published longer ago than the configured retention.
+     *
+     * @return the number of events deleted
+     */
+    public int purgePublished() {
+        int deleted = outboxEventRepository.deletePublishedBefore(Instant.now().minus(properties.getRetention()));
+        if (deleted > 0) {
+            LOGGER.debug("Deleted {} published outbox events", deleted);
+        }
+        return deleted;
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> pending = outboxEventRepository.claimPending(Limit.of(properties.getBatchSize()));
+        if (pending.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Math.max(0, Duration.between(pending.get(0).getOccurredAt(), Instant.now()).toMillis()));
+        Map<Long, CorrelationData> sent = new LinkedHashMap<>();
+        for (OutboxEvent event : pending) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getOutboxEventId()));
+            Message<PatientChangeEvent> message = MessageBuilder.withPayload(PatientChangeEvent.of(event))
+                    .setHeader(EVENT_ID_HEADER, event.getOutboxEventId())
+                    .setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, correlation)
+                    .build();
+            if (!send(message)) {
+                LOGGER.warn("Binding {} rejected outbox event {}, retrying on the next run", properties.getBinding(),
+                        event.getOutboxEventId());
+                break;
+            }
+            sent.put(event.getOutboxEventId(), correlation);
+        }
+        long deadline = System.nanoTime() + properties.getConfirmTimeout().toNanos();
+        List<Long> confirmed = new ArrayList<>(sent.size());
+        sent.forEach((eventId, correlation) -> {
+            if (isConfirmed(eventId, correlation, deadline)) {
+                confirmed.add(eventId);
+            }
+        });
+        if (!confirmed.isEmpty()) {
+            outboxEventRepository.markPublished(confirmed, Instant.now());
+            published.increment(confirmed.size());
+        }
+        return confirmed.size();
+    }
+
+    private boolean isConfirmed(long eventId, CorrelationData correlation, long deadline) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (confirm.isAck() && correlation.getReturned() == null) {
+                return true;
+            }
+            LOGGER.warn("Broker did not accept outbox event {} ({}), retrying on the next run", eventId,
+                    confirm.getReason());
+        } catch (TimeoutException | ExecutionException e) {
+            LOGGER.warn("No confirm for outbox event {}, retrying on the next run", eventId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private boolean send(Message<PatientChangeEvent> message) {
+        try {
+            return streamBridge.send(properties.getBinding(), message);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Error sending outbox event to binding {}", properties.getBinding(), e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.alienworkspace.cdr.patient.service.outbox;
+
+import com.alienworkspace.cdr.patient.model.OutboxEvent;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
+import com.alienworkspace.cdr.patient.repository.OutboxEventRepository;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import jakarta.transaction.Transactional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes patient change events to the outbox.
+ *
+ * <p>
+ * Events can only be written inside the transaction making the change, so an event is stored if and
+ * only if its change is committed. The {@link OutboxRelay} publishes them afterwards. Every write also
+ * publishes a {@link PatientsChangedEvent} to the local listeners.
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+@Component
+@AllArgsConstructor
+@Transactional(Transactional.TxType.MANDATORY)
+@SuppressFBWarnings(value = "EI_EXPOSE_REP2", justification = "Dependency injection by Spring; safe to store")
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Writes the event for a change to one record.
+     *
+     * @param aggregateType the kind of record that changed
+     * @param aggregateId the id of the record that changed
+     * @param patientId the id of the patient the record belongs to
+     * @param changeType the kind of change
+     */
+    public void record(AggregateType aggregateType, long aggregateId, long patientId, ChangeType changeType) {
+        outboxEventRepository.save(event(aggregateType, aggregateId, patientId, changeType, Instant.now()));
+        eventPublisher.publishEvent(new PatientsChangedEvent(List.of(patientId)));
+    }
+
+    /**
+     * Writes the events for the same change to many records of a kind, as one JDBC batch.
+     *
+     * @param aggregateType the kind of records that changed
+     * @param changes the ids of the changed records and of their patients
+     * @param changeType the kind of change
+     */
+    public void recordAll(AggregateType aggregateType, Collection<Change> changes, ChangeType changeType) {
+        Instant now = Instant.now();
+        List<OutboxEvent> events = changes.stream()
+                .map(change -> event(aggregateType, change.aggregateId(), change.patientId(), changeType, now))
+                .toList();
+        outboxEventRepository.saveAll(events);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new PatientsChangedEvent(changes.stream()
+                    .map(Change::patientId)
+                    .distinct()
+                    .toList()));
+        }
+    }
+
+    private static OutboxEvent event(AggregateType aggregateType, long aggregateId, long patientId,
+                                     ChangeType changeType, Instant occurredAt) {
+        return OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .patientId(patientId)
+                .changeType(changeType)
+                .occurredAt(occurredAt)
+                .build();
+    }
+
+    /**
+     * A changed record.
+     *
+     * @param aggregateId the id of the record
+     * @param patientId the id of the patient the record belongs to
+     */
+    public record Change(long aggregateId, long patientId) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.alienworkspace.cdr.patient.service.outbox;
+
+import com.alienworkspace.cdr.patient.model.OutboxEvent;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
+import java.time.Instant;
+
+/**
+ * Event published to the broker when a patient, patient identifier or program enrollment changes.
+ *
+ * @param eventId the id of the outbox row; a redelivered event carries the same id
+ * @param aggregateType the kind of record that changed
+ * @param aggregateId the id of the record that changed
+ * @param patientId the id of the patient the record belongs to
+ * @param changeType the kind of change
+ * @param occurredAt when the change was committed
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record PatientChangeEvent(long eventId, AggregateType aggregateType, long aggregateId, long patientId,
+                                 ChangeType changeType, Instant occurredAt) {
+
+    /**
+     * Creates the event for an outbox row.
+     *
+     * @param outboxEvent the outbox row
+     * @return the event
+     */
+    public static PatientChangeEvent of(OutboxEvent outboxEvent) {
+        return new PatientChangeEvent(outboxEvent.getOutboxEventId(), outboxEvent.getAggregateType(),
+                outboxEvent.getAggregateId(), outboxEvent.getPatientId(), outboxEvent.getChangeType(),
+                outboxEvent.getOccurredAt());
+    }
+}
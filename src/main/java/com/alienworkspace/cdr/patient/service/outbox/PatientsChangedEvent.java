@@ -0,0 +1,24 @@
+package com.alienworkspace.cdr.patient.service.outbox;
+
+import java.util.List;
+
+/**
+ * Application event published inside the transaction changing patients, their identifiers or their
+ * program enrollments. Listeners that keep local state in step with the database handle it after the
+ * transaction commits.
+ *
+ * @param patientIds the ids of the patients whose records changed
+ *
+ * @author Ikenumah (enumahinm@gmail.com)
+ */
+public record PatientsChangedEvent(List<Long> patientIds) {
+
+    /**
+     * Creates the event with an unmodifiable copy of the ids.
+     *
+     * @param patientIds the ids of the patients whose records changed
+     */
+    public PatientsChangedEvent {
+        patientIds = List.copyOf(patientIds);
+    }
+}
@@ -3,10 +3,23 @@ package com.alienworkspace.cdr.patient.controller;
 import com.alienworkspace.cdr.model.dto.patient.PatientDto;
 import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.config.BulkRegistrationProperties;
+import com.alienworkspace.cdr.patient.config.PagingProperties;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.helpers.Constants;
+import com.alienworkspace.cdr.patient.service.CohortPage;
+import com.alienworkspace.cdr.patient.service.CohortService;
+import com.alienworkspace.cdr.patient.service.LocationPatientCount;
+import com.alienworkspace.cdr.patient.service.PatientChangeService;
+import com.alienworkspace.cdr.patient.service.PatientChanges;
+import com.alienworkspace.cdr.patient.service.PatientField;
 import com.alienworkspace.cdr.patient.service.PatientIdentifierService;
+import com.alienworkspace.cdr.patient.service.PatientListQuery;
 import com.alienworkspace.cdr.patient.service.PatientProgramService;
+import com.alienworkspace.cdr.patient.service.PatientRegistrationResult;
 import com.alienworkspace.cdr.patient.service.PatientService;
+import com.alienworkspace.cdr.patient.service.PatientView;
+import com.alienworkspace.cdr.patient.service.cache.LocationLevel;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,18 +27,28 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,6 +65,21 @@ class PatientControllerTest {
     @Mock
     private PatientProgramService patientProgramService;
 
+    @Mock
+    private PatientChangeService patientChangeService;
+
+    @Mock
+    private CohortService cohortService;
+
+    @Spy
+    private PagingProperties pagingProperties = new PagingProperties();
+
+    @Spy
+    private BulkRegistrationProperties bulkRegistrationProperties = new BulkRegistrationProperties();
+
+    @Spy
+    private ObjectMapper controllerObjectMapper = new ObjectMapper();
+
     @InjectMocks
     private PatientController patientController;
 
@@ -65,14 +103,122 @@ class PatientControllerTest {
     }
 
     @Test
-    @DisplayName("GET " + Constants.PATIENT_BASE_URL + " - Get All Patients")
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + " - Get All Patients returns the first page by default")
     void testGetAllPatients() throws Exception {
-        List<PatientDto> patients = Arrays.asList(testPatientDto);
-        when(patientService.getAllPatients()).thenReturn(patients);
+        List<PatientDto> patients = Collections.nCopies(100, PatientDto.builder().patientId(1L).build());
+        when(patientService.getPatientPage(PatientListQuery.all(), 0L, 100)).thenReturn(patients);
 
         mockMvc.perform(get(Constants.PATIENT_BASE_URL))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, "1"));
+        verify(patientService, never()).getAllPatients();
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "?after&size - Get a Page of Patients")
+    void testGetAllPatientsPage() throws Exception {
+        PatientDto second = PatientDto.builder().patientId(7L).build();
+        when(patientService.getPatientPage(PatientListQuery.all(), 3L, 2)).thenReturn(List.of(testPatientDto, second));
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL).param("after", "3").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, "7"))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/program/{programId}?size - Last Page Has No Cursor")
+    void testGetPatientsByProgramLastPage() throws Exception {
+        when(patientService.getPatientPage(PatientListQuery.program(1), 0L, 2)).thenReturn(List.of(testPatientDto));
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/program/{id}", 1).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(Constants.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/location/{level}/{id} - Get a Page of Patients by Location")
+    void testGetPatientsByLocation() throws Exception {
+        when(patientService.getPatientPage(PatientListQuery.location(LocationLevel.STATE, 2), 0L, 100))
+                .thenReturn(List.of(testPatientDto));
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/location/{level}/{id}", "state", 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/location/{level}/{id}/count - Count Patients by Location")
+    void testCountPatientsByLocation() throws Exception {
+        when(patientService.countPatientsByLocation(LocationLevel.STATE, 2))
+                .thenReturn(new LocationPatientCount(LocationLevel.STATE, 2, "Lagos", 3, 12, 15));
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/location/{level}/{id}/count", "state", 2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Lagos"))
+                .andExpect(jsonPath("$.enrolledPatients").value(12))
+                .andExpect(jsonPath("$.identifiedPatients").value(15));
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/changes - Get Patient Changes")
+    void testGetChanges() throws Exception {
+        when(patientChangeService.getChanges("cursor", 100)).thenReturn(new PatientChanges(List.of(testPatientDto),
+                List.of(testPatientIdentifierDto), List.of(), "next", true));
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/changes").param("since", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients.length()").value(1))
+                .andExpect(jsonPath("$.identifiers.length()").value(1))
+                .andExpect(jsonPath("$.cursor").value("next"))
+                .andExpect(jsonPath("$.complete").value(true));
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/cohort?q&size - Get a Page of a Cohort")
+    void testGetCohort() throws Exception {
+        when(cohortService.getCohort("program:1 AND NOT completed:1", 0L, 2))
+                .thenReturn(new CohortPage(List.of(3L, 8L), 5));
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/cohort").param("q", "program:1 AND NOT completed:1")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, "8"))
+                .andExpect(jsonPath("$.patientIds.length()").value(2))
+                .andExpect(jsonPath("$.total").value(5));
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/cohort?q&size - Reject a Non Positive Size")
+    void testGetCohortInvalidSize() {
+        assertThrows(BadRequestException.class, () -> patientController.getCohort("all", null, 0));
+        verify(cohortService, never()).getCohort(anyString(), anyLong(), anyInt());
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + " as NDJSON - Stream Patients")
+    @SuppressWarnings("unchecked")
+    void testStreamAllPatients() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<PatientDto> consumer = invocation.getArgument(1);
+            consumer.accept(PatientDto.builder().patientId(1L).build());
+            consumer.accept(PatientDto.builder().patientId(2L).build());
+            return null;
+        }).when(patientService).streamPatients(eq(PatientListQuery.all()), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get(Constants.PATIENT_BASE_URL).accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("patientId").asLong());
     }
 
     @Test
@@ -85,6 +231,64 @@ class PatientControllerTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
     }
 
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/{id} - Get Patient by ID with an ETag")
+    void testGetPatientETag() throws Exception {
+        when(patientService.getPatient(1L, "ID")).thenReturn(testPatientDto);
+        when(patientService.getPatientETag(testPatientDto)).thenReturn("\"v2\"");
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/{id}", 1).header("X-cdr-correlation-id", "ID"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v2\""));
+        verify(patientService, never()).getPatientETag(1L);
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/{id} - Not Modified skips the read")
+    void testGetPatientNotModified() throws Exception {
+        when(patientService.getPatientETag(1L)).thenReturn("\"v1\"");
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/{id}", 1)
+                        .header("X-cdr-correlation-id", "ID")
+                        .header("If-None-Match", "\"v1\""))
+                .andExpect(status().isNotModified());
+        verify(patientService, never()).getPatient(anyLong(), anyString());
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/{id}?fields - Get Selected Fields of a Patient")
+    void testGetPatientView() throws Exception {
+        when(patientService.getPatient(1L, EnumSet.of(PatientField.IDENTIFIERS, PatientField.PROGRAMS), "ID"))
+                .thenReturn(new PatientView(1L, null, null, List.of(testPatientIdentifierDto), List.of(), null));
+
+        mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/{id}", 1)
+                        .header("X-cdr-correlation-id", "ID")
+                        .param("fields", "identifiers, Programs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.identifiers.length()").value(1))
+                .andExpect(jsonPath("$.person").doesNotExist())
+                .andExpect(jsonPath("$.audit").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/{id}?fields - Unknown Field")
+    void testGetPatientViewUnknownField() {
+        assertThrows(BadRequestException.class, () -> PatientField.parse("identifiers,address"));
+    }
+
+    @Test
+    @DisplayName("POST " + Constants.PATIENT_BASE_URL + "/batch - Get Patients by IDs")
+    void testGetPatients() throws Exception {
+        when(patientService.getPatients(anyList(), anyString())).thenReturn(List.of(testPatientDto));
+
+        mockMvc.perform(post(Constants.PATIENT_BASE_URL + "/batch")
+                .header("X-cdr-correlation-id", "CORRELATION_ID")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(1L, 2L))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
     @Test
     @DisplayName("POST " + Constants.PATIENT_BASE_URL + " - Create Patient")
     void testCreatePatient() throws Exception {
@@ -95,6 +299,69 @@ class PatientControllerTest {
                 .content(objectMapper.writeValueAsString(testPatientDto))).andExpect(status().isCreated());
     }
 
+    @Test
+    @DisplayName("POST " + Constants.PATIENT_BASE_URL + "/bulk - Create Patients")
+    @SuppressWarnings("unchecked")
+    void testCreatePatients() throws Exception {
+        doAnswer(invocation -> {
+            Iterator<PatientDto> patients = invocation.getArgument(0);
+            Consumer<PatientRegistrationResult> results = invocation.getArgument(2);
+            for (int index = 0; patients.hasNext(); index++) {
+                patients.next();
+                results.accept(PatientRegistrationResult.registered(index, index + 1L));
+            }
+            return null;
+        }).when(patientService).registerPatients(any(Iterator.class), eq("CORRELATION_ID"), any(Consumer.class));
+
+        mockMvc.perform(post(Constants.PATIENT_BASE_URL + "/bulk")
+                .header("X-cdr-correlation-id", "CORRELATION_ID")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(testPatientDto, testPatientDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].status").value("REGISTERED"))
+                .andExpect(jsonPath("$[1].patientId").value(2));
+    }
+
+    @Test
+    @DisplayName("POST " + Constants.PATIENT_BASE_URL + "/bulk - Too Many Patients")
+    void testCreatePatientsTooMany() {
+        bulkRegistrationProperties.setMaxRows(1);
+
+        assertThrows(BadRequestException.class, () -> patientController.createPatients("CORRELATION_ID",
+                List.of(testPatientDto, testPatientDto)));
+    }
+
+    @Test
+    @DisplayName("POST " + Constants.PATIENT_BASE_URL + "/bulk as NDJSON - Stream Patient Creation")
+    @SuppressWarnings("unchecked")
+    void testStreamCreatePatients() throws Exception {
+        doAnswer(invocation -> {
+            Iterator<PatientDto> patients = invocation.getArgument(0);
+            Consumer<PatientRegistrationResult> results = invocation.getArgument(2);
+            for (int index = 0; patients.hasNext(); index++) {
+                results.accept(PatientRegistrationResult.registered(index, patients.next().getPatientId()));
+            }
+            return null;
+        }).when(patientService).registerPatients(any(Iterator.class), eq("CORRELATION_ID"), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(post(Constants.PATIENT_BASE_URL + "/bulk")
+                .header("X-cdr-correlation-id", "CORRELATION_ID")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .content("{\"patientId\":7}\n{\"patientId\":8}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(8L, objectMapper.readTree(lines[1]).get("patientId").asLong());
+    }
+
     @Test
     @DisplayName("PUT " + Constants.PATIENT_BASE_URL + "/{id} - Update Patient")
     void testUpdatePatient() throws Exception {
@@ -135,34 +402,37 @@ class PatientControllerTest {
     @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/identifier/type/{identifierType} - Get Patients by Identifier Type")
     void testGetPatientByIdentifierType() throws Exception {
         List<PatientDto> patients = Arrays.asList(testPatientDto);
-        when(patientService.getPatientsByIdentifierType(anyInt())).thenReturn(patients);
+        when(patientService.getPatientPage(PatientListQuery.identifierType(1), 0L, 100)).thenReturn(patients);
 
         mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/identifier/type/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        verify(patientService, never()).getPatientsByIdentifierType(anyInt());
     }
 
     @Test
     @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/program/{programId} - Get Patients by Program")
     void testGetPatientsByProgram() throws Exception {
         List<PatientDto> patients = Collections.singletonList(testPatientDto);
-        when(patientService.getPatientsByProgram(anyInt())).thenReturn(patients);
+        when(patientService.getPatientPage(PatientListQuery.program(1), 0L, 100)).thenReturn(patients);
 
         mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/program/{id}",1))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].size()").value(greaterThan(0)))
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        verify(patientService, never()).getPatientsByProgram(anyInt());
     }
 
     @Test
     @DisplayName("GET " + Constants.PATIENT_BASE_URL + "/both-voided - Get All Patients Both Voided")
     void testGetAllPatientsBothVoided() throws Exception {
         List<PatientDto> patients = Collections.singletonList(testPatientDto);
-        when(patientService.getAllPatientsBothVoided()).thenReturn(patients);
+        when(patientService.getPatientPage(PatientListQuery.voided(), 0L, 100)).thenReturn(patients);
 
         mockMvc.perform(get(Constants.PATIENT_BASE_URL + "/both-voided"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        verify(patientService, never()).getAllPatientsBothVoided();
     }
 
     @Test
@@ -1,7 +1,19 @@
 package com.alienworkspace.cdr.patient.controller;
 
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
+import com.alienworkspace.cdr.patient.helpers.Constants;
+import com.alienworkspace.cdr.patient.service.ActiveEnrollment;
+import com.alienworkspace.cdr.patient.service.BulkEnrollmentRequest;
+import com.alienworkspace.cdr.patient.service.BulkEnrollmentResult;
+import com.alienworkspace.cdr.patient.service.CohortExportRow;
+import com.alienworkspace.cdr.patient.service.EnrollmentCursor;
+import com.alienworkspace.cdr.patient.service.MonthlyEnrollment;
+import com.alienworkspace.cdr.patient.service.PatientProgramService;
+import com.alienworkspace.cdr.patient.service.ProgramExportService;
 import com.alienworkspace.cdr.patient.service.ProgramService;
+import com.alienworkspace.cdr.patient.service.ProgramSummary;
+import com.alienworkspace.cdr.patient.service.cache.LastKnownPersonStore;
 import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,17 +23,28 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static com.alienworkspace.cdr.patient.helpers.Constants.PROGRAM_BASE_URL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProgramController.class)
@@ -36,6 +59,15 @@ public class ProgramControllerTest {
     @MockitoBean
     private ProgramService programService;
 
+    @MockitoBean
+    private PatientProgramService patientProgramService;
+
+    @MockitoBean
+    private ProgramExportService programExportService;
+
+    @MockitoBean
+    private LastKnownPersonStore lastKnownPersonStore;
+
     private ProgramDto.ProgramDtoBuilder programDtoBuilder = ProgramDto.builder();
 
     @BeforeEach
@@ -70,6 +102,25 @@ public class ProgramControllerTest {
                 .andExpect(jsonPath("$.active").value(programDto.isActive()));
     }
 
+    @DisplayName("Test Create Program - Server-side failures are not reported as bad requests")
+    @Test
+    public void testCreateProgramFailure() throws Exception {
+        // Arrange
+        ProgramDto programDto = programDtoBuilder.build();
+        when(programService.createProgram(programDto))
+                .thenThrow(new IllegalArgumentException("Failed to create program"));
+
+        // Act
+        ResultActions result = mockMvc.perform(
+                post(PROGRAM_BASE_URL)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(programDto))
+        );
+
+        // Assert
+        result.andExpect(status().isInternalServerError());
+    }
+
 
     @DisplayName("Test Update Program")
     @Test
@@ -148,6 +199,7 @@ public class ProgramControllerTest {
     public void testGetAllPrograms() throws Exception {
         // Arrange
         List<ProgramDto> programs = List.of(programDtoBuilder.programId(1).build());
+        when(programService.getProgramsETag()).thenReturn("\"v1\"");
         when(programService.getAllPrograms()).thenReturn(programs);
 
         // Act
@@ -161,7 +213,241 @@ public class ProgramControllerTest {
                 .andExpect(jsonPath("$.[0].programId").value(1))
                 .andExpect(jsonPath("$.[0].name").value(programs.get(0).getName()))
                 .andExpect(jsonPath("$.[0].description").value(programs.get(0).getDescription()))
-                .andExpect(jsonPath("$.[0].active").value(programs.get(0).isActive()));
+                .andExpect(jsonPath("$.[0].active").value(programs.get(0).isActive()))
+                .andExpect(header().string("ETag", "\"v1\""));
+    }
+
+    @DisplayName("Test Get Program Summaries")
+    @Test
+    public void testGetProgramSummaries() throws Exception {
+        // Arrange
+        ProgramDto program = programDtoBuilder.programId(1).build();
+        when(programService.getProgramSummaries()).thenReturn(List.of(new ProgramSummary(program, 3, 2, 5)));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/summary"));
+
+        // Assert
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].program.programId").value(1))
+                .andExpect(jsonPath("$.[0].activeEnrollments").value(3))
+                .andExpect(jsonPath("$.[0].completedEnrollments").value(2))
+                .andExpect(jsonPath("$.[0].totalEnrollments").value(5));
+    }
+
+    @DisplayName("Test Get Program Stats")
+    @Test
+    public void testGetProgramStats() throws Exception {
+        // Arrange
+        ProgramDto program = programDtoBuilder.programId(1).build();
+        when(programService.getProgramStats(1)).thenReturn(new ProgramSummary(program, 4, 6, 10));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/stats"));
+
+        // Assert
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.program.programId").value(1))
+                .andExpect(jsonPath("$.activeEnrollments").value(4))
+                .andExpect(jsonPath("$.completedEnrollments").value(6))
+                .andExpect(jsonPath("$.totalEnrollments").value(10));
+    }
+
+    @DisplayName("Test Get Program Stats - Not Found")
+    @Test
+    public void testGetProgramStatsNotFound() throws Exception {
+        // Arrange
+        when(programService.getProgramStats(1)).thenThrow(new ResourceNotFoundException("Program", "Id", "1"));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/stats"));
+
+        // Assert
+        result.andExpect(status().isNotFound());
+    }
+
+    @DisplayName("Test Count Active Enrollments")
+    @Test
+    public void testCountActiveEnrollments() throws Exception {
+        // Arrange
+        when(programService.countActiveEnrollments(1, LocalDate.of(2024, 3, 31))).thenReturn(42L);
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/enrollments/active/count")
+                .param("on", "2024-03-31"));
+
+        // Assert
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(42));
+    }
+
+    @DisplayName("Test Get Active Enrollments")
+    @Test
+    public void testGetActiveEnrollments() throws Exception {
+        // Arrange
+        ActiveEnrollment first = new ActiveEnrollment(3L, LocalDate.of(2024, 1, 15), null);
+        ActiveEnrollment second = new ActiveEnrollment(8L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 5, 1));
+        when(programService.getActiveEnrollments(1, LocalDate.of(2024, 3, 31), null, 2))
+                .thenReturn(List.of(first, second));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/enrollments/active")
+                .param("on", "2024-03-31")
+                .param("size", "2"));
+
+        // Assert
+        result.andExpect(status().isOk())
+                .andExpect(header().string(Constants.NEXT_CURSOR_HEADER, EnrollmentCursor.after(second).encode()))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[1].patientId").value(8))
+                .andExpect(jsonPath("$.[1].dateEnrolled").value("2024-02-01"));
+    }
+
+    @DisplayName("Test Get Active Enrollments - Not Found")
+    @Test
+    public void testGetActiveEnrollmentsNotFound() throws Exception {
+        // Arrange
+        when(programService.getActiveEnrollments(eq(9), any(LocalDate.class), isNull(), anyInt()))
+                .thenThrow(new ResourceNotFoundException("Program", "Id", "9"));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/9/enrollments/active")
+                .param("on", "2024-03-31"));
+
+        // Assert
+        result.andExpect(status().isNotFound());
+    }
+
+    @DisplayName("Test Get Monthly Enrollments")
+    @Test
+    public void testGetMonthlyEnrollments() throws Exception {
+        // Arrange
+        when(programService.getMonthlyEnrollments(1, YearMonth.of(2024, 1), YearMonth.of(2024, 2)))
+                .thenReturn(List.of(new MonthlyEnrollment(YearMonth.of(2024, 1), 5, 0, 15),
+                        new MonthlyEnrollment(YearMonth.of(2024, 2), 0, 4, 11)));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/enrollments/monthly")
+                .param("from", "2024-01")
+                .param("to", "2024-02"));
+
+        // Assert
+        result.andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].month").value("2024-01"))
+                .andExpect(jsonPath("$.[1].completed").value(4))
+                .andExpect(jsonPath("$.[1].active").value(11));
+    }
+
+    @DisplayName("Test Get Monthly Enrollments - Invalid Range")
+    @Test
+    public void testGetMonthlyEnrollmentsInvalidRange() throws Exception {
+        // Arrange
+        when(programService.getMonthlyEnrollments(1, YearMonth.of(2024, 3), YearMonth.of(2024, 1)))
+                .thenThrow(new BadRequestException("The range must end after it starts"));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/enrollments/monthly")
+                .param("from", "2024-03")
+                .param("to", "2024-01"));
+
+        // Assert
+        result.andExpect(status().isBadRequest());
+    }
+
+    @DisplayName("Test Export Program - CSV")
+    @Test
+    public void testExportProgramCsv() throws Exception {
+        // Arrange
+        givenExportedCohort();
+
+        // Act
+        MvcResult started = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(started));
+
+        // Assert
+        String body = result.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"program-1.csv\""))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn().getResponse().getContentAsString();
+        assertEquals("patient_id,patient_uuid,date_enrolled,date_completed,location_id,outcome_concept_id,"
+                + "identifiers\r\n"
+                + "1,uuid-1,2024-01-01,2024-06-30,4,,\"2:NIN-1;3:\"\"HOS,1\"\"\"\r\n"
+                + "2,uuid-2,2024-02-01,,4,,\r\n", body);
+    }
+
+    @DisplayName("Test Export Program - Gzip compressed NDJSON")
+    @Test
+    public void testExportProgramNdjsonGzip() throws Exception {
+        // Arrange
+        givenExportedCohort();
+
+        // Act
+        MvcResult started = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/export")
+                        .param("format", "ndjson")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions result = mockMvc.perform(asyncDispatch(started));
+
+        // Assert
+        byte[] compressed = result.andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn().getResponse().getContentAsByteArray();
+        String[] lines;
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            lines = new String(body.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        }
+        assertEquals(2, lines.length);
+        assertEquals("2024-06-30", objectMapper.readTree(lines[0]).get("dateCompleted").asText());
+        assertEquals("NIN-1", objectMapper.readTree(lines[0]).get("identifiers").get(0).get("identifier").asText());
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("patientId").asLong());
+    }
+
+    @DisplayName("Test Export Program - Unsupported Format")
+    @Test
+    public void testExportProgramUnsupportedFormat() throws Exception {
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/1/export").param("format", "xlsx"));
+
+        // Assert
+        result.andExpect(status().isBadRequest());
+        verifyNoInteractions(programExportService);
+    }
+
+    @DisplayName("Test Export Program - Not Found")
+    @Test
+    public void testExportProgramNotFound() throws Exception {
+        // Arrange
+        when(programService.getProgram(9)).thenThrow(new ResourceNotFoundException("Program", "Id", "9"));
+
+        // Act
+        ResultActions result = mockMvc.perform(get(PROGRAM_BASE_URL + "/9/export"));
+
+        // Assert
+        result.andExpect(status().isNotFound());
+        verifyNoInteractions(programExportService);
+    }
+
+    @DisplayName("Test Get All Programs - Not Modified")
+    @Test
+    public void testGetAllProgramsNotModified() throws Exception {
+        // Arrange
+        when(programService.getProgramsETag()).thenReturn("\"v1\"");
+
+        // Act
+        ResultActions result = mockMvc.perform(
+                get(PROGRAM_BASE_URL).header("If-None-Match", "\"v1\"")
+        );
+
+        // Assert
+        result.andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v1\""));
+        verify(programService, never()).getAllPrograms();
     }
 
 
@@ -209,4 +495,40 @@ public class ProgramControllerTest {
                 .andExpect(jsonPath("$.errorCode").value(404))
                 .andExpect(jsonPath("$.errorMessage").value("Program with programId of '1' not found"));
     }
+
+    @DisplayName("Test Enroll Patients")
+    @Test
+    public void testEnrollPatients() throws Exception {
+        // Arrange
+        BulkEnrollmentRequest request = new BulkEnrollmentRequest(List.of(1L, 2L, 3L), LocalDate.of(2024, 1, 1), 1);
+        when(patientProgramService.enrollPatientsInProgram(1, request))
+                .thenReturn(new BulkEnrollmentResult(1, 1, List.of(3L)));
+
+        // Act
+        ResultActions result = mockMvc.perform(
+                post(PROGRAM_BASE_URL + "/{programId}/enrollments", 1)
+                        .contentType("application/json")
+                        .content(objectMapper.writeValueAsString(request))
+        );
+
+        // Assert
+        result.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enrolled").value(1))
+                .andExpect(jsonPath("$.alreadyEnrolled").value(1))
+                .andExpect(jsonPath("$.unknownPatientIds[0]").value(3));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenExportedCohort() {
+        when(programService.getProgram(1)).thenReturn(programDtoBuilder.programId(1).build());
+        when(programExportService.exportProgram(eq(1), any(Consumer.class))).thenAnswer(invocation -> {
+            Consumer<CohortExportRow> consumer = invocation.getArgument(1);
+            consumer.accept(new CohortExportRow(1L, "uuid-1", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30),
+                    4, null, List.of(new CohortExportRow.Identifier(2, "NIN-1"),
+                            new CohortExportRow.Identifier(3, "\"HOS,1\""))));
+            consumer.accept(new CohortExportRow(2L, "uuid-2", LocalDate.of(2024, 2, 1), null, 4, null, List.of()));
+            return 2L;
+        });
+    }
 }
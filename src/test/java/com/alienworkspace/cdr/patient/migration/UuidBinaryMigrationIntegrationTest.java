@@ -0,0 +1,124 @@
+package com.alienworkspace.cdr.patient.migration;
+
+import com.alienworkspace.cdr.patient.config.UuidMigrationProperties;
+import com.alienworkspace.cdr.patient.integration.AbstractionContainerBaseTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class UuidBinaryMigrationIntegrationTest extends AbstractionContainerBaseTest {
+
+    private static final String TABLE = "legacy_uuid";
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+    private UuidMigrationProperties properties;
+    private UuidBinaryMigration migration;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE
+                + " (legacy_id BIGINT PRIMARY KEY, uuid VARCHAR(36) NOT NULL UNIQUE)");
+        properties = new UuidMigrationProperties();
+        properties.setChunkSize(2);
+        migration = new UuidBinaryMigration(dataSource, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE " + TABLE);
+    }
+
+    @Test
+    @DisplayName("Test Migrate - String uuids are converted in chunks and keep their value")
+    void testMigrate() throws Exception {
+        String uuid = UUID.randomUUID().toString();
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " VALUES (?, ?)", id,
+                    id == 1 ? uuid : UUID.randomUUID().toString());
+        }
+
+        migration.migrate(TABLE, "legacy_id");
+
+        assertEquals(uuid.replace("-", ""), jdbcTemplate.queryForObject(
+                "SELECT LOWER(HEX(uuid)) FROM " + TABLE + " WHERE legacy_id = 1", String.class));
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + TABLE, Integer.class));
+    }
+
+    @Test
+    @DisplayName("Test Migrate - Resumes after an interruption between backfill and rename")
+    void testMigrateResumes() throws Exception {
+        jdbcTemplate.update("INSERT INTO " + TABLE + " VALUES (1, ?)", UUID.randomUUID().toString());
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD COLUMN uuid_bin BINARY(16) NULL");
+        jdbcTemplate.execute("UPDATE " + TABLE + " SET uuid_bin = UNHEX(REPLACE(uuid, '-', ''))");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP COLUMN uuid");
+
+        migration.migrate(TABLE, "legacy_id");
+        migration.migrate(TABLE, "legacy_id");
+
+        assertEquals(16, jdbcTemplate.queryForObject("SELECT LENGTH(uuid) FROM " + TABLE, Integer.class));
+    }
+
+    @Test
+    @DisplayName("Test Migrate - Adds the constraints after an interruption between rename and constraints")
+    void testMigrateCompletesConstraints() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP COLUMN uuid");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD COLUMN uuid BINARY(16) NULL");
+        jdbcTemplate.update("INSERT INTO " + TABLE + " VALUES (1, UNHEX(REPLACE(?, '-', '')))",
+                UUID.randomUUID().toString());
+
+        migration.migrate(TABLE, "legacy_id");
+
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM information_schema.COLUMNS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'uuid'", String.class, TABLE));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.STATISTICS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND INDEX_NAME = ?", Integer.class, TABLE,
+                "uk_" + TABLE + "_uuid"));
+    }
+
+    @Test
+    @DisplayName("Test Migrate - Adds a unique uuid to a table created without one")
+    void testMigrateAddsUuid() throws Exception {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP COLUMN uuid");
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO " + TABLE + " VALUES (?)", id);
+        }
+
+        migration.migrate(TABLE, "legacy_id");
+
+        assertEquals(5, jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT uuid) FROM " + TABLE, Integer.class));
+        assertEquals(16, jdbcTemplate.queryForObject("SELECT MIN(LENGTH(uuid)) FROM " + TABLE, Integer.class));
+        assertEquals("NO", jdbcTemplate.queryForObject("SELECT IS_NULLABLE FROM information_schema.COLUMNS"
+                + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = 'uuid'", String.class, TABLE));
+    }
+
+    @Test
+    @DisplayName("Test Migrate - Fails when another instance holds the migration lock")
+    void testMigrateWaitsForLock() throws Exception {
+        properties.setLockTimeout(Duration.ofSeconds(1));
+        try (Connection other = dataSource.getConnection()) {
+            JdbcTemplate otherSession = new JdbcTemplate(new SingleConnectionDataSource(other, true));
+            otherSession.queryForObject("SELECT GET_LOCK('cdr_patient_uuid_migration', 0)", Integer.class);
+
+            assertThrows(IllegalStateException.class, () -> migration.migrate(TABLE, "legacy_id"));
+
+            otherSession.queryForObject("SELECT RELEASE_LOCK('cdr_patient_uuid_migration')", Integer.class);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.alienworkspace.cdr.patient.model.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeOrderedUuidTest {
+
+    @Test
+    @DisplayName("Test Generate - Version 7 layout with the time in the leading bits")
+    void testGenerateLayout() {
+        long now = 1_700_000_000_000L;
+
+        UUID uuid = TimeOrderedUuid.generate(now);
+
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(now, uuid.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    @DisplayName("Test Generate - Later UUIDs sort after earlier ones as strings")
+    void testGenerateTimeOrdered() {
+        String earlier = TimeOrderedUuid.generate(1_700_000_000_000L).toString();
+        String later = TimeOrderedUuid.generate(1_700_000_000_001L).toString();
+
+        assertTrue(earlier.compareTo(later) < 0);
+    }
+}
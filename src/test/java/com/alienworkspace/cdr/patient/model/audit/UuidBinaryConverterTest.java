@@ -0,0 +1,41 @@
+package com.alienworkspace.cdr.patient.model.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidBinaryConverterTest {
+
+    private final UuidBinaryConverter converter = new UuidBinaryConverter();
+
+    @Test
+    @DisplayName("Test Convert - String form survives the round trip through 16 bytes")
+    void testRoundTrip() {
+        String uuid = UUID.randomUUID().toString();
+
+        byte[] bytes = converter.convertToDatabaseColumn(uuid);
+
+        assertEquals(UuidBinaryConverter.UUID_BYTES, bytes.length);
+        assertEquals(uuid, converter.convertToEntityAttribute(bytes));
+    }
+
+    @Test
+    @DisplayName("Test Convert - Byte order follows the string order")
+    void testByteOrder() {
+        byte[] bytes = converter.convertToDatabaseColumn("0189f7a2-1c2b-7d3e-8f40-123456789abc");
+
+        assertEquals((byte) 0x01, bytes[0]);
+        assertEquals((byte) 0xbc, bytes[15]);
+    }
+
+    @Test
+    @DisplayName("Test Convert - Nulls are passed through and malformed values rejected")
+    void testNullAndMalformed() {
+        assertNull(converter.convertToDatabaseColumn(null));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute(new byte[4]));
+    }
+}
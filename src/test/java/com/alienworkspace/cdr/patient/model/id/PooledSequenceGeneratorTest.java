@@ -0,0 +1,40 @@
+package com.alienworkspace.cdr.patient.model.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PooledSequenceGeneratorTest {
+
+    @Mock
+    private PooledSequence pooledSequence;
+
+    @Test
+    @DisplayName("Test Configure - Allocation size below one is rejected")
+    void testConfigureRejectsInvalidAllocationSize() {
+        when(pooledSequence.name()).thenReturn("program_seq");
+        PooledSequenceGenerator generator = new PooledSequenceGenerator(pooledSequence);
+        StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                .applySetting(PooledSequenceGenerator.ALLOCATION_SIZE_SETTING, 0)
+                .build();
+
+        try {
+            MappingException exception = assertThrows(MappingException.class,
+                    () -> generator.configure(null, new Properties(), serviceRegistry));
+            assertTrue(exception.getMessage().contains(PooledSequenceGenerator.ALLOCATION_SIZE_SETTING));
+        } finally {
+            StandardServiceRegistryBuilder.destroy(serviceRegistry);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.alienworkspace.cdr.patient.repository;
+
+import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
+import com.alienworkspace.cdr.patient.integration.AbstractionContainerBaseTest;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.PatientIdentifierType;
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.service.PatientService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PatientFetchPlanIntegrationTest extends AbstractionContainerBaseTest {
+
+    private static final int PATIENTS = 5;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientIdentifierRepository patientIdentifierRepository;
+
+    @Autowired
+    private PatientIdentifierTypeRepository patientIdentifierTypeRepository;
+
+    @Autowired
+    private PatientProgramRepository patientProgramRepository;
+
+    @Autowired
+    private ProgramRepository programRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+    private Program program;
+    private PatientIdentifierType identifierType;
+
+    @BeforeEach
+    void setUp() {
+        patientIdentifierRepository.deleteAll();
+        patientProgramRepository.deleteAll();
+        patientRepository.deleteAll();
+        patientIdentifierTypeRepository.deleteAll();
+        programRepository.deleteAll();
+
+        program = programRepository.save(Program.builder()
+                .name("Fetch Plan Program")
+                .programCode("FPP" + System.currentTimeMillis())
+                .active(true)
+                .build());
+        identifierType = patientIdentifierTypeRepository.save(PatientIdentifierType.builder()
+                .name("Fetch Plan Identifier " + System.currentTimeMillis())
+                .build());
+
+        for (long id = 1; id <= PATIENTS; id++) {
+            Patient patient = patientRepository.save(Patient.builder().patientId(id).allergies("None").build());
+            patientIdentifierRepository.save(PatientIdentifier.builder()
+                    .patient(patient)
+                    .patientIdentifierType(identifierType)
+                    .identifier("FP-" + id)
+                    .build());
+            patientProgramRepository.save(PatientProgram.builder()
+                    .patient(patient)
+                    .program(program)
+                    .dateEnrolled(LocalDate.now())
+                    .build());
+        }
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Test Get All Patients - Single statement regardless of collections")
+    void testGetAllPatientsStatementCount() {
+        assertEquals(PATIENTS, countStatements(() -> patientService.getAllPatients()).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    @DisplayName("Test Get Voided Patients - Single statement")
+    void testGetVoidedPatientsStatementCount() {
+        countStatements(() -> patientService.getAllPatientsBothVoided());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    @DisplayName("Test Get Patients By Program - Single statement")
+    void testGetPatientsByProgramStatementCount() {
+        assertEquals(PATIENTS,
+                countStatements(() -> patientService.getPatientsByProgram(program.getProgramId())).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    @DisplayName("Test Get Patients By Program And Status - Single statement")
+    void testGetPatientsByProgramAndStatusStatementCount() {
+        assertEquals(PATIENTS, countStatements(
+                () -> patientService.getPatientsByProgramAndStatus(program.getProgramId(), true)).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    @DisplayName("Test Get Patients By Identifier Type - Single statement")
+    void testGetPatientsByIdentifierTypeStatementCount() {
+        assertEquals(PATIENTS, countStatements(() -> patientService
+                .getPatientsByIdentifierType(identifierType.getPatientIdentifierTypeId())).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    @DisplayName("Test Find With Details - Collections loaded in a single statement")
+    void testFindWithDetailsStatementCount() {
+        Patient patient = countStatements(() -> transactionTemplate.execute(status -> {
+            Patient found = patientRepository.findWithDetailsByPatientId(1L).orElseThrow();
+            found.getPatientIdentifiers().forEach(identifier -> identifier.getPatientIdentifierType().getName());
+            found.getPatientPrograms().forEach(enrollment -> enrollment.getProgram().getName());
+            return found;
+        }));
+
+        assertEquals(1, patient.getPatientIdentifiers().size());
+        assertEquals(1, patient.getPatientPrograms().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @DisplayName("Test Get Patient By Identifier - Single statement, unknown identifiers answered from memory")
+    void testGetPatientByIdentifierStatementCount() {
+        assertEquals(3L, countStatements(() -> patientService.getPatientByIdentifier("FP-3")).getPatientId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        String unknown = "UNKNOWN-" + System.nanoTime();
+        countStatements(() -> assertThrows(ResourceNotFoundException.class,
+                () -> patientService.getPatientByIdentifier(unknown)));
+        assertThrows(ResourceNotFoundException.class, () -> patientService.getPatientByIdentifier(unknown));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private <T> T countStatements(Supplier<T> call) {
+        statistics.clear();
+        return call.get();
+    }
+}
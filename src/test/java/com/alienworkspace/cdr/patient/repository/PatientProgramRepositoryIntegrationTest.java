@@ -9,8 +9,13 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -25,6 +30,9 @@ class PatientProgramRepositoryIntegrationTest extends AbstractionContainerBaseTe
     @Autowired
     private ProgramRepository programRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     private Patient testPatient;
     private Program testProgram;
     private PatientProgram.PatientProgramBuilder patientProgramBuilder;
@@ -116,6 +124,178 @@ class PatientProgramRepositoryIntegrationTest extends AbstractionContainerBaseTe
         assertEquals("Completed successfully", savedPatientProgram.getOutcomeComment());
     }
 
+    @Test
+    @DisplayName("Test Find Enrolled Patient IDs - Matches program and patient on any enrollment date")
+    void testFindEnrolledPatientIds() {
+        // Arrange
+        patientProgramRepository.save(patientProgramBuilder.build());
+        patientProgramRepository.save(patientProgramBuilder.dateEnrolled(LocalDate.now().minusDays(1)).build());
+
+        // Act
+        List<Long> enrolled = patientProgramRepository.findEnrolledPatientIds(testProgram.getProgramId(),
+                List.of(testPatient.getPatientId(), 999L));
+
+        // Assert
+        assertEquals(List.of(testPatient.getPatientId()), enrolled);
+        assertEquals(List.of(testPatient.getPatientId()),
+                patientRepository.findExistingIds(List.of(testPatient.getPatientId(), 999L)));
+    }
+
+    @Test
+    @DisplayName("Test Audit Fields - Voided state and audit timestamps are persisted")
+    void testAuditFieldsPersisted() {
+        // Arrange
+        PatientProgram patientProgram = patientProgramBuilder.build();
+        patientProgram.setVoided(true);
+        patientProgram.setVoidedBy(1L);
+        patientProgram.setVoidedAt(LocalDateTime.now());
+        patientProgram.setVoidReason("Enrolled by mistake");
+
+        // Act
+        PatientProgram saved = patientProgramRepository.save(patientProgram);
+        PatientProgram found = patientProgramRepository.findById(saved.getPatientProgramId()).orElseThrow();
+
+        // Assert
+        assertTrue(found.isVoided());
+        assertEquals("Enrolled by mistake", found.getVoidReason());
+        assertNotNull(found.getVoidedAt());
+        assertNotNull(found.getCreatedAt());
+        assertNotNull(found.getUuid());
+    }
+
+    @Test
+    @DisplayName("Test Change Feed - Finds enrollments changed in the window in id order")
+    void testFindChangedAfter() {
+        // Arrange
+        List<PatientProgram> saved = saveEnrollments();
+        LocalDateTime since = LocalDateTime.now().minusHours(1);
+        LocalDateTime until = LocalDateTime.now().plusHours(1);
+
+        // Act
+        List<PatientProgram> all = patientProgramRepository.findChangedAfter(since, until, 0, Limit.of(10));
+        List<PatientProgram> firstTwo = patientProgramRepository.findChangedAfter(since, until, 0, Limit.of(2));
+        List<PatientProgram> rest = patientProgramRepository.findChangedAfter(since, until,
+                firstTwo.get(1).getPatientProgramId(), Limit.of(10));
+        List<PatientProgram> outside = patientProgramRepository.findChangedAfter(until, until.plusHours(1), 0,
+                Limit.of(10));
+
+        // Assert
+        assertEquals(saved.stream().map(PatientProgram::getPatientProgramId).sorted().toList(),
+                all.stream().map(PatientProgram::getPatientProgramId).toList());
+        assertEquals(2, firstTwo.size());
+        assertEquals(1, rest.size());
+        assertTrue(outside.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Enrollment Counts - Voided enrollments are not counted")
+    void testCountEnrollments() {
+        // Arrange
+        saveEnrollments();
+
+        // Act
+        List<EnrollmentCounts> byProgram = patientProgramRepository.countEnrollmentsByProgram();
+        EnrollmentCounts ofProgram = patientProgramRepository.countEnrollmentsOfProgram(testProgram.getProgramId())
+                .orElseThrow();
+
+        // Assert
+        assertEquals(1, byProgram.size());
+        assertEquals(1L, ofProgram.getActive());
+        assertEquals(1L, ofProgram.getCompleted());
+        assertEquals(2L, ofProgram.getTotal());
+    }
+
+    @Test
+    @DisplayName("Test Memberships - Voided enrollments are skipped")
+    void testFindMemberships() {
+        // Arrange
+        List<Long> patientIds = saveEnrollments().stream().map(p -> p.getPatient().getPatientId()).toList();
+
+        // Act
+        List<EnrollmentMembership> byIds = patientProgramRepository.findMemberships(patientIds);
+        List<EnrollmentMembership> byRange = patientProgramRepository.findMembershipsBetween(0, Long.MAX_VALUE);
+
+        // Assert
+        assertEquals(2, byIds.size());
+        assertEquals(2, byRange.size());
+    }
+
+    @Test
+    @DisplayName("Test Active On - Counts and pages the enrollments active on a date")
+    void testActiveOn() {
+        // Arrange
+        List<PatientProgram> saved = saveEnrollments();
+        LocalDate on = LocalDate.of(2024, 2, 10);
+
+        // Act
+        long count = patientProgramRepository.countActiveOn(testProgram.getProgramId(), on);
+        List<EnrollmentInterval> page = patientProgramRepository.findActiveOn(testProgram.getProgramId(), on,
+                LocalDate.of(1000, 1, 1), 0, Limit.of(10));
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(List.of(saved.get(0).getPatient().getPatientId(), saved.get(2).getPatient().getPatientId()),
+                page.stream().map(EnrollmentInterval::getPatientId).toList());
+    }
+
+    @Test
+    @DisplayName("Test Monthly Counts - Counts enrollments and completions per month")
+    void testCountByMonth() {
+        // Arrange
+        saveEnrollments();
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+
+        // Act
+        List<MonthlyCount> enrolled = patientProgramRepository.countEnrolledByMonth(testProgram.getProgramId(),
+                from, to);
+        List<MonthlyCount> completed = patientProgramRepository.countCompletedByMonth(testProgram.getProgramId(),
+                from, to);
+
+        // Assert
+        assertEquals(2, enrolled.size());
+        assertEquals(1, completed.size());
+        assertEquals(2, completed.get(0).getCalendarMonth());
+    }
+
+    @Test
+    @DisplayName("Test Stream Program Cohort - Streams the enrollments that are not voided")
+    void testStreamProgramCohort() {
+        // Arrange
+        saveEnrollments();
+
+        // Act
+        List<CohortExportTuple> rows = transactionTemplate.execute(status -> {
+            try (Stream<CohortExportTuple> stream =
+                         patientProgramRepository.streamProgramCohort(testProgram.getProgramId())) {
+                return stream.toList();
+            }
+        });
+
+        // Assert
+        assertNotNull(rows);
+        assertEquals(2, rows.size());
+        assertNotNull(rows.get(0).getPatientUuid());
+    }
+
+    @Test
+    @DisplayName("Test Location Queries - Voided enrollments and patients are skipped")
+    void testLocationQueriesSkipVoided() {
+        // Arrange
+        List<PatientProgram> saved = saveEnrollments();
+        Patient voidedPatient = saved.get(2).getPatient();
+        voidedPatient.setVoided(true);
+        patientRepository.save(voidedPatient);
+
+        // Act
+        long count = patientProgramRepository.countPatientsByLocationIds(List.of(1));
+        List<Patient> page = patientRepository.findByLocationsAfter(List.of(1), 0, Limit.of(10));
+
+        // Assert
+        assertEquals(1, count);
+        assertEquals(List.of(testPatient.getPatientId()), page.stream().map(Patient::getPatientId).toList());
+    }
+
     @Test
     @DisplayName("Test Patient Program Not Found")
     void testPatientProgramNotFound() {
@@ -125,4 +305,24 @@ class PatientProgramRepositoryIntegrationTest extends AbstractionContainerBaseTe
         // Assert
         assertTrue(result.isEmpty());
     }
+
+    /**
+     * Saves an active enrollment of the test patient, a voided one and a completed one, in that order.
+     */
+    private List<PatientProgram> saveEnrollments() {
+        PatientProgram active = patientProgramBuilder.dateEnrolled(LocalDate.of(2024, 1, 10)).build();
+        PatientProgram voided = patientProgramBuilder
+                .patient(patientRepository.save(Patient.builder().allergies("None").build()))
+                .dateEnrolled(LocalDate.of(2024, 1, 20))
+                .dateCompleted(LocalDate.of(2024, 3, 5))
+                .build();
+        voided.setVoided(true);
+        voided.setVoidedAt(LocalDateTime.now());
+        PatientProgram completed = patientProgramBuilder
+                .patient(patientRepository.save(Patient.builder().allergies("None").build()))
+                .dateEnrolled(LocalDate.of(2024, 2, 1))
+                .dateCompleted(LocalDate.of(2024, 2, 15))
+                .build();
+        return patientProgramRepository.saveAll(List.of(active, voided, completed));
+    }
 } 
\ No newline at end of file
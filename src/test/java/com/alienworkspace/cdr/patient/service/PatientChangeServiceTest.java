@@ -0,0 +1,140 @@
+package com.alienworkspace.cdr.patient.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
+import com.alienworkspace.cdr.patient.config.ChangeFeedProperties;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.PatientProgram;
+import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierMapper;
+import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.ChangeFeedCursor.Section;
+import com.alienworkspace.cdr.patient.service.impl.PatientChangeServiceImpl;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+@ExtendWith(MockitoExtension.class)
+class PatientChangeServiceTest {
+
+    private static final LocalDateTime SINCE = LocalDateTime.of(2025, 1, 1, 0, 0);
+    private static final LocalDateTime UNTIL = LocalDateTime.of(2025, 1, 2, 0, 0);
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientIdentifierRepository patientIdentifierRepository;
+
+    @Mock
+    private PatientProgramRepository patientProgramRepository;
+
+    @Mock
+    private PatientMapper patientMapper;
+
+    @Mock
+    private PatientIdentifierMapper patientIdentifierMapper;
+
+    @Spy
+    private ChangeFeedProperties changeFeedProperties = new ChangeFeedProperties();
+
+    @InjectMocks
+    private PatientChangeServiceImpl patientChangeService;
+
+    @Test
+    @DisplayName("Test Get Changes - Without a cursor reads every section from the beginning and completes")
+    void testGetChangesFromTheBeginning() {
+        Patient patient = Patient.builder().patientId(1L).build();
+        PatientIdentifier identifier = PatientIdentifier.builder().patientIdentifierId(3L).patient(patient).build();
+        when(patientRepository.findChangedAfter(any(), any(), eq(0L), eq(Limit.of(10)))).thenReturn(List.of(patient));
+        when(patientIdentifierRepository.findChangedAfter(any(), any(), eq(0L), eq(Limit.of(9))))
+                .thenReturn(List.of(identifier));
+        when(patientProgramRepository.findChangedAfter(any(), any(), eq(0L), eq(Limit.of(8))))
+                .thenReturn(List.of(enrollment()));
+        when(patientMapper.toPatientDto(patient)).thenReturn(PatientDto.builder().patientId(1L).build());
+        when(patientIdentifierMapper.toPatientIdentifierDto(identifier))
+                .thenReturn(PatientIdentifierDto.builder().patientIdentifierId(3L).build());
+
+        PatientChanges changes = patientChangeService.getChanges(null, 10);
+
+        assertTrue(changes.complete());
+        assertEquals(1, changes.patients().size());
+        assertEquals(1, changes.identifiers().size());
+        assertEquals(new EnrollmentChange(7L, 1L, 2, 4, LocalDate.of(2025, 1, 1), null, null, null, false),
+                changes.enrollments().get(0));
+        ChangeFeedCursor next = ChangeFeedCursor.decode(changes.cursor());
+        assertFalse(next.started());
+        assertEquals(Section.PATIENTS, next.section());
+        assertTrue(next.since().isBefore(LocalDateTime.now()));
+    }
+
+    @Test
+    @DisplayName("Test Get Changes - A full page stops in its section and returns the last id")
+    void testGetChangesFullPage() {
+        Patient first = Patient.builder().patientId(4L).build();
+        Patient second = Patient.builder().patientId(9L).build();
+        String cursor = new ChangeFeedCursor(SINCE, UNTIL, Section.PATIENTS, 2L).encode();
+        when(patientRepository.findChangedAfter(SINCE, UNTIL, 2L, Limit.of(2))).thenReturn(List.of(first, second));
+
+        PatientChanges changes = patientChangeService.getChanges(cursor, 2);
+
+        assertFalse(changes.complete());
+        assertEquals(2, changes.patients().size());
+        assertEquals(new ChangeFeedCursor(SINCE, UNTIL, Section.PATIENTS, 9L),
+                ChangeFeedCursor.decode(changes.cursor()));
+        verifyNoInteractions(patientIdentifierRepository, patientProgramRepository);
+    }
+
+    @Test
+    @DisplayName("Test Get Changes - A cursor resumes in its section and the last page starts the next run")
+    void testGetChangesResumesSection() {
+        String cursor = new ChangeFeedCursor(SINCE, UNTIL, Section.IDENTIFIERS, 5L).encode();
+        when(patientIdentifierRepository.findChangedAfter(SINCE, UNTIL, 5L, Limit.of(3))).thenReturn(List.of());
+        when(patientProgramRepository.findChangedAfter(SINCE, UNTIL, 0L, Limit.of(3))).thenReturn(List.of());
+
+        PatientChanges changes = patientChangeService.getChanges(cursor, 3);
+
+        assertTrue(changes.complete());
+        assertEquals(new ChangeFeedCursor(UNTIL, null, Section.PATIENTS, 0L),
+                ChangeFeedCursor.decode(changes.cursor()));
+        verify(patientRepository, never()).findChangedAfter(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Test Get Changes - A malformed cursor is rejected")
+    void testGetChangesMalformedCursor() {
+        assertThrows(BadRequestException.class, () -> patientChangeService.getChanges("not a cursor", 10));
+        verifyNoInteractions(patientRepository);
+    }
+
+    private static PatientProgram enrollment() {
+        PatientProgram patientProgram = PatientProgram.builder()
+                .patientProgramId(7L)
+                .patient(Patient.builder().patientId(1L).build())
+                .program(Program.builder().programId(2).build())
+                .locationId(4)
+                .dateEnrolled(LocalDate.of(2025, 1, 1))
+                .build();
+        patientProgram.setVoided(false);
+        return patientProgram;
+    }
+}
@@ -1,10 +1,13 @@
 package com.alienworkspace.cdr.patient.service;
 
 import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierTypeDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
 import com.alienworkspace.cdr.patient.exception.AlreadyExistException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
 import com.alienworkspace.cdr.patient.helpers.CurrentUser;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
 import com.alienworkspace.cdr.patient.model.PatientIdentifierType;
 import com.alienworkspace.cdr.patient.model.Patient;
 import com.alienworkspace.cdr.patient.model.PatientIdentifier;
@@ -12,7 +15,11 @@ import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierMapper;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
 import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshot;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import com.alienworkspace.cdr.patient.service.cache.UnknownIdentifierCache;
 import com.alienworkspace.cdr.patient.service.impl.PatientIdentifierServiceImpl;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -23,6 +30,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,6 +58,15 @@ class PatientIdentifierServiceTest {
     @Mock
     private CurrentUser currentUser;
 
+    @Mock
+    private UnknownIdentifierCache unknownIdentifierCache;
+
+    @Mock
+    private MetadataSnapshotHolder metadataSnapshotHolder;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
     @InjectMocks
     private PatientIdentifierServiceImpl patientIdentifierService;
 
@@ -81,6 +98,7 @@ class PatientIdentifierServiceTest {
 
 
         testPatientIdentifier = PatientIdentifier.builder()
+                .patientIdentifierId(1L)
                 .identifier("1234567890")
                 .preferred(true)
                 .patient(testPatient)
@@ -89,6 +107,7 @@ class PatientIdentifierServiceTest {
 
 
         testNotPreferredPatientIdentifier = PatientIdentifier.builder()
+                .patientIdentifierId(2L)
                 .identifier("1234567890")
                 .preferred(false)
                 .patient(testPatient)
@@ -115,7 +134,11 @@ class PatientIdentifierServiceTest {
     void testSavePatientIdentifier() {
         // Arrange
         when(patientRepository.findById(anyLong())).thenReturn(Optional.of(testPatient));
-        when(patientIdentifierTypeRepository.findById(anyInt())).thenReturn(Optional.of(testPatientIdentifierType));
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), List.of(
+                PatientIdentifierTypeDto.builder()
+                        .patientIdentifierTypeId(testPatientIdentifierDto.getIdentifierTypeId())
+                        .build())));
+        when(patientIdentifierTypeRepository.getReferenceById(anyInt())).thenReturn(testPatientIdentifierType);
         when(patientIdentifierMapper.toPatientIdentifier(any(PatientIdentifierDto.class)))
                 .thenReturn(testPatientIdentifier);
         when(patientIdentifierRepository.save(any(PatientIdentifier.class)))
@@ -131,6 +154,7 @@ class PatientIdentifierServiceTest {
         assertEquals(testPatientIdentifierDto.getIdentifier(), result.getIdentifier());
         assertEquals(testPatientIdentifierDto.isPreferred(), result.isPreferred());
         verify(patientIdentifierRepository).save(any(PatientIdentifier.class));
+        verify(unknownIdentifierCache).forget(testPatientIdentifier.getIdentifier());
     }
 
     @Test
@@ -150,7 +174,7 @@ class PatientIdentifierServiceTest {
     void testSavePatientIdentifierIdentifierTypeNotFound() {
         // Arrange
         when(patientRepository.findById(anyLong())).thenReturn(Optional.of(testPatient));
-        when(patientIdentifierTypeRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), List.of()));
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
@@ -7,6 +7,8 @@ import com.alienworkspace.cdr.patient.helpers.CurrentUser;
 import com.alienworkspace.cdr.patient.model.PatientIdentifierType;
 import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierTypeMapper;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshot;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
 import com.alienworkspace.cdr.patient.service.impl.PatientIdentifierTypeServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -39,6 +41,9 @@ class PatientPatientIdentifierTypeServiceTest {
     @Mock
     private CurrentUser currentUser;
 
+    @Mock
+    private MetadataSnapshotHolder metadataSnapshotHolder;
+
     @InjectMocks
     private PatientIdentifierTypeServiceImpl patientIdentifierTypeService;
 
@@ -99,6 +104,7 @@ class PatientPatientIdentifierTypeServiceTest {
         assertEquals(testIdentifierTypeDto.getFormatHint(), result.getFormatHint());
         assertEquals(testIdentifierTypeDto.getValidator(), result.getValidator());
         verify(patientIdentifierTypeRepository).save(any(PatientIdentifierType.class));
+        verify(metadataSnapshotHolder).refreshAfterCommit();
     }
 
     @Test
@@ -131,6 +137,7 @@ class PatientPatientIdentifierTypeServiceTest {
         assertEquals(updateDto.isUnique(), capturedType.isUnique());
         assertEquals(updateDto.getFormatHint(), capturedType.getFormatHint());
         assertEquals(updateDto.getValidator(), capturedType.getValidator());
+        verify(metadataSnapshotHolder).refreshAfterCommit();
     }
 
     @Test
@@ -168,6 +175,7 @@ class PatientPatientIdentifierTypeServiceTest {
         assertEquals("Test reason", capturedType.getVoidReason());
         assertNotNull(capturedType.getVoidedAt());
         assertEquals(1L, capturedType.getVoidedBy());
+        verify(metadataSnapshotHolder).refreshAfterCommit();
     }
 
     @Test
@@ -189,9 +197,8 @@ class PatientPatientIdentifierTypeServiceTest {
     @DisplayName("Test Get Patient Identifier Type - Success")
     void testGetPatientIdentifierType() {
         // Arrange
-        when(patientIdentifierTypeRepository.findById(anyInt())).thenReturn(Optional.of(testPatientIdentifierType));
-        when(patientIdentifierTypeMapper.toPatientIdentifierTypeDto(any(PatientIdentifierType.class)))
-                .thenReturn(testIdentifierTypeDto);
+        when(metadataSnapshotHolder.current())
+                .thenReturn(new MetadataSnapshot(1L, List.of(), List.of(testIdentifierTypeDto)));
 
         // Act
         PatientIdentifierTypeDto result = patientIdentifierTypeService.getPatientIdentifierType(1);
@@ -201,13 +208,14 @@ class PatientPatientIdentifierTypeServiceTest {
         assertEquals(testIdentifierTypeDto.getPatientIdentifierTypeId(), result.getPatientIdentifierTypeId());
         assertEquals(testIdentifierTypeDto.getName(), result.getName());
         assertEquals(testIdentifierTypeDto.getDescription(), result.getDescription());
+        verifyNoInteractions(patientIdentifierTypeRepository);
     }
 
     @Test
     @DisplayName("Test Get Patient Identifier Type - Not Found")
     void testGetPatientIdentifierTypeNotFound() {
         // Arrange
-        when(patientIdentifierTypeRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), List.of()));
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
@@ -218,14 +226,11 @@ class PatientPatientIdentifierTypeServiceTest {
     @DisplayName("Test Get All Patient Identifier Types")
     void testGetAllPatientIdentifierTypes() {
         // Arrange
-        List<PatientIdentifierType> types = Arrays.asList(
-                testPatientIdentifierType,
-                PatientIdentifierType.builder()
-                        .patientIdentifierTypeId(2)
-                        .name("Passport")
-                        .description("Passport Number")
-                        .build()
-        );
+        PatientIdentifierTypeDto voidedTypeDto = PatientIdentifierTypeDto.builder()
+                .patientIdentifierTypeId(3)
+                .name("Driver Licence")
+                .build();
+        voidedTypeDto.setVoided(true);
 
         List<PatientIdentifierTypeDto> typeDtos = Arrays.asList(
                 testIdentifierTypeDto,
@@ -233,12 +238,11 @@ class PatientPatientIdentifierTypeServiceTest {
                         .patientIdentifierTypeId(2)
                         .name("Passport")
                         .description("Passport Number")
-                        .build()
+                        .build(),
+                voidedTypeDto
         );
 
-        when(patientIdentifierTypeRepository.findAllByVoided(false)).thenReturn(types);
-        when(patientIdentifierTypeMapper.toPatientIdentifierTypeDto(any(PatientIdentifierType.class)))
-                .thenReturn(typeDtos.get(0), typeDtos.get(1));
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), typeDtos));
 
         // Act
         List<PatientIdentifierTypeDto> results = patientIdentifierTypeService.getAllPatientIdentifierTypes();
@@ -246,23 +250,14 @@ class PatientPatientIdentifierTypeServiceTest {
         // Assert
         assertNotNull(results);
         assertEquals(2, results.size());
-        verify(patientIdentifierTypeRepository).findAllByVoided(false);
-        verify(patientIdentifierTypeMapper, times(2)).toPatientIdentifierTypeDto(any(PatientIdentifierType.class));
+        assertFalse(results.contains(voidedTypeDto));
+        verifyNoInteractions(patientIdentifierTypeRepository);
     }
 
     @Test
     @DisplayName("Test Get All Patient Identifier Types Both Voided")
     void testGetAllPatientIdentifierTypesBothVoided() {
         // Arrange
-        PatientIdentifierType voidedType = PatientIdentifierType.builder()
-                .patientIdentifierTypeId(2)
-                .name("Passport")
-                .description("Passport Number")
-                .build();
-        voidedType.setVoided(true);
-
-        List<PatientIdentifierType> types = Arrays.asList(testPatientIdentifierType, voidedType);
-
         PatientIdentifierTypeDto voidedTypeDto = PatientIdentifierTypeDto.builder()
                 .patientIdentifierTypeId(2)
                 .name("Passport")
@@ -272,9 +267,7 @@ class PatientPatientIdentifierTypeServiceTest {
 
         List<PatientIdentifierTypeDto> typeDtos = Arrays.asList(testIdentifierTypeDto, voidedTypeDto);
 
-        when(patientIdentifierTypeRepository.findAll()).thenReturn(types);
-        when(patientIdentifierTypeMapper.toPatientIdentifierTypeDto(any(PatientIdentifierType.class)))
-                .thenReturn(typeDtos.get(0), typeDtos.get(1));
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), typeDtos));
 
         // Act
         List<PatientIdentifierTypeDto> results = patientIdentifierTypeService.getAllPatientIdentifierTypesBothVoided();
@@ -282,7 +275,6 @@ class PatientPatientIdentifierTypeServiceTest {
         // Assert
         assertNotNull(results);
         assertEquals(2, results.size());
-        verify(patientIdentifierTypeRepository).findAll();
-        verify(patientIdentifierTypeMapper, times(2)).toPatientIdentifierTypeDto(any(PatientIdentifierType.class));
+        verifyNoInteractions(patientIdentifierTypeRepository);
     }
 } 
\ No newline at end of file
@@ -1,15 +1,25 @@
 package com.alienworkspace.cdr.patient.service;
 
 import com.alienworkspace.cdr.model.dto.patient.PatientProgramDto;
+import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
+import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.config.BulkEnrollmentProperties;
 import com.alienworkspace.cdr.patient.exception.AlreadyExistException;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
 import com.alienworkspace.cdr.patient.model.Patient;
 import com.alienworkspace.cdr.patient.model.PatientProgram;
 import com.alienworkspace.cdr.patient.model.Program;
 import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
 import com.alienworkspace.cdr.patient.repository.PatientRepository;
 import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshot;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import com.alienworkspace.cdr.patient.service.counter.ProgramEnrollmentCounters;
 import com.alienworkspace.cdr.patient.service.impl.PatientProgramServiceImpl;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -18,13 +28,19 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -41,6 +57,21 @@ class PatientProgramServiceTest {
     @Mock
     private ProgramRepository programRepository;
 
+    @Mock
+    private MetadataSnapshotHolder metadataSnapshotHolder;
+
+    @Spy
+    private BulkEnrollmentProperties bulkEnrollmentProperties = new BulkEnrollmentProperties();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private ProgramEnrollmentCounters programEnrollmentCounters;
+
     @InjectMocks
     private PatientProgramServiceImpl patientProgramService;
 
@@ -67,6 +98,7 @@ class PatientProgramServiceTest {
                 .build();
 
         testPatientProgram = PatientProgram.builder()
+                .patientProgramId(1L)
                 .patient(testPatient)
                 .program(testProgram)
                 .dateEnrolled(LocalDate.now())
@@ -86,7 +118,9 @@ class PatientProgramServiceTest {
         when(patientProgramRepository.findByPatientIdAndProgramId(anyLong(), anyInt()))
                 .thenReturn(Optional.empty());
         when(patientRepository.findById(anyLong())).thenReturn(Optional.of(testPatient));
-        when(programRepository.findById(anyInt())).thenReturn(Optional.of(testProgram));
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L,
+                List.of(ProgramDto.builder().programId(1).build()), List.of()));
+        when(programRepository.getReferenceById(1)).thenReturn(testProgram);
         when(patientProgramRepository.save(any(PatientProgram.class))).thenReturn(testPatientProgram);
 
         // Act
@@ -99,6 +133,8 @@ class PatientProgramServiceTest {
         assertEquals(testProgram, capturedProgram.getProgram());
         assertEquals(testPatientProgramDto.getDateEnrolled(), capturedProgram.getDateEnrolled());
         assertEquals(testPatientProgramDto.getLocationId(), capturedProgram.getLocationId());
+        verify(outboxWriter).record(AggregateType.PATIENT_PROGRAM, 1L, 1L, ChangeType.CREATED);
+        verify(programEnrollmentCounters).add(1, 1, 0);
     }
 
     @Test
@@ -135,7 +171,7 @@ class PatientProgramServiceTest {
         when(patientProgramRepository.findByPatientIdAndProgramId(anyLong(), anyInt()))
                 .thenReturn(Optional.empty());
         when(patientRepository.findById(anyLong())).thenReturn(Optional.of(testPatient));
-        when(programRepository.findById(anyInt())).thenReturn(Optional.empty());
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), List.of()));
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
@@ -143,6 +179,110 @@ class PatientProgramServiceTest {
         verify(patientProgramRepository, never()).save(any(PatientProgram.class));
     }
 
+    @Test
+    @DisplayName("Test Enroll Patients in Program - Skips enrolled and unknown patients, one transaction per chunk")
+    @SuppressWarnings("unchecked")
+    void testEnrollPatientsInProgram() {
+        // Arrange
+        bulkEnrollmentProperties.setChunkSize(2);
+        LocalDate dateEnrolled = LocalDate.now();
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L,
+                List.of(ProgramDto.builder().programId(1).build()), List.of()));
+        when(patientRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L), List.of(4L));
+        when(patientProgramRepository.findEnrolledPatientIds(eq(1), anyCollection()))
+                .thenReturn(List.of(2L), List.of());
+        when(programRepository.getReferenceById(1)).thenReturn(testProgram);
+        when(patientRepository.getReferenceById(anyLong())).thenAnswer(invocation ->
+                Patient.builder().patientId(invocation.getArgument(0)).build());
+
+        // Act
+        BulkEnrollmentResult result = patientProgramService.enrollPatientsInProgram(1,
+                new BulkEnrollmentRequest(List.of(1L, 2L, 3L, 4L, 1L), dateEnrolled, 5));
+
+        // Assert
+        assertEquals(2, result.enrolled());
+        assertEquals(1, result.alreadyEnrolled());
+        assertEquals(List.of(3L), result.unknownPatientIds());
+        ArgumentCaptor<List<PatientProgram>> enrollments = ArgumentCaptor.forClass(List.class);
+        verify(patientProgramRepository, times(2)).saveAll(enrollments.capture());
+        PatientProgram enrollment = enrollments.getAllValues().get(0).get(0);
+        assertEquals(1L, enrollment.getPatient().getPatientId());
+        assertEquals(testProgram, enrollment.getProgram());
+        assertEquals(dateEnrolled, enrollment.getDateEnrolled());
+        assertEquals(5, enrollment.getLocationId());
+        assertEquals(4L, enrollments.getAllValues().get(1).get(0).getPatient().getPatientId());
+    }
+
+    @Test
+    @DisplayName("Test Enroll Patients in Program - A patient enrolled on another date is skipped")
+    void testEnrollPatientsInProgramEnrolledOnAnotherDate() {
+        // Arrange
+        LocalDate dateEnrolled = LocalDate.now();
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L,
+                List.of(ProgramDto.builder().programId(1).build()), List.of()));
+        when(patientRepository.findExistingIds(List.of(1L))).thenReturn(List.of(1L));
+        when(patientProgramRepository.findEnrolledPatientIds(1, List.of(1L))).thenReturn(List.of(1L));
+
+        // Act
+        BulkEnrollmentResult result = patientProgramService.enrollPatientsInProgram(1,
+                new BulkEnrollmentRequest(List.of(1L), dateEnrolled.plusDays(30), 5));
+
+        // Assert
+        assertEquals(0, result.enrolled());
+        assertEquals(1, result.alreadyEnrolled());
+        verify(patientProgramRepository).saveAll(List.of());
+        verify(programEnrollmentCounters).add(1, 0, 0);
+    }
+
+    @Test
+    @DisplayName("Test Enroll Patients in Program - A chunk losing a race is enrolled one patient at a time")
+    void testEnrollPatientsInProgramConcurrently() {
+        // Arrange
+        LocalDate dateEnrolled = LocalDate.now();
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L,
+                List.of(ProgramDto.builder().programId(1).build()), List.of()));
+        when(patientRepository.findExistingIds(anyCollection()))
+                .thenReturn(List.of(1L, 2L), List.of(1L), List.of(2L));
+        when(patientProgramRepository.findEnrolledPatientIds(eq(1), anyCollection()))
+                .thenReturn(List.of());
+        when(programRepository.getReferenceById(1)).thenReturn(testProgram);
+        when(patientRepository.getReferenceById(anyLong())).thenAnswer(invocation ->
+                Patient.builder().patientId(invocation.getArgument(0)).build());
+        when(patientProgramRepository.saveAll(any()))
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"))
+                .thenReturn(List.of())
+                .thenThrow(new DataIntegrityViolationException("Duplicate entry"));
+
+        // Act
+        BulkEnrollmentResult result = patientProgramService.enrollPatientsInProgram(1,
+                new BulkEnrollmentRequest(List.of(1L, 2L), dateEnrolled, 5));
+
+        // Assert
+        assertEquals(1, result.enrolled());
+        assertEquals(1, result.alreadyEnrolled());
+        assertEquals(List.of(), result.unknownPatientIds());
+        verify(patientProgramRepository, times(3)).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Test Enroll Patients in Program - Program Not Found")
+    void testEnrollPatientsInProgramProgramNotFound() {
+        // Arrange
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), List.of()));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> patientProgramService.enrollPatientsInProgram(1,
+                new BulkEnrollmentRequest(List.of(1L), LocalDate.now(), 1)));
+        verify(patientProgramRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Test Enroll Patients in Program - Enrollment date required")
+    void testEnrollPatientsInProgramWithoutDate() {
+        assertThrows(BadRequestException.class, () -> patientProgramService.enrollPatientsInProgram(1,
+                new BulkEnrollmentRequest(List.of(1L), null, 1)));
+    }
+
     @Test
     @DisplayName("Test Update Program Enrollment - Success")
     void testUpdateProgramEnrollment() {
@@ -168,6 +308,23 @@ class PatientProgramServiceTest {
         assertEquals(completionDate, capturedProgram.getDateCompleted());
         assertEquals(1, capturedProgram.getOutcomeConceptId());
         assertEquals("Successfully completed", capturedProgram.getOutcomeComment());
+        verify(programEnrollmentCounters).add(1, -1, 1);
+    }
+
+    @Test
+    @DisplayName("Test Update Program Enrollment - Unchanged completion leaves the counts alone")
+    void testUpdateProgramEnrollmentSameStatus() {
+        // Arrange
+        when(patientRepository.findById(anyLong())).thenReturn(Optional.of(testPatient));
+        when(patientProgramRepository.findByPatientIdAndProgramId(anyLong(), anyInt()))
+                .thenReturn(Optional.of(testPatientProgram));
+        when(patientProgramRepository.save(any(PatientProgram.class))).thenReturn(testPatientProgram);
+
+        // Act
+        patientProgramService.updateProgramEnrollment(1L, 1, testPatientProgramDto);
+
+        // Assert
+        verifyNoInteractions(programEnrollmentCounters);
     }
 
     @Test
@@ -195,4 +352,55 @@ class PatientProgramServiceTest {
                 () -> patientProgramService.updateProgramEnrollment(1L, 1, testPatientProgramDto));
         verify(patientProgramRepository, never()).save(any(PatientProgram.class));
     }
-} 
\ No newline at end of file
+
+    @Test
+    @DisplayName("Test Void Program Enrollment - Success")
+    void testVoidProgramEnrollment() {
+        // Arrange
+        testPatientProgram.setDateCompleted(LocalDate.now());
+        RecordVoidRequest voidRequest = RecordVoidRequest.builder()
+                .voidReason("Entered in error")
+                .build();
+        when(patientProgramRepository.findByPatientIdAndProgramId(1L, 1)).thenReturn(Optional.of(testPatientProgram));
+        when(patientProgramRepository.save(any(PatientProgram.class))).thenReturn(testPatientProgram);
+
+        // Act
+        patientProgramService.voidProgramEnrollment(1L, 1, voidRequest);
+
+        // Assert
+        verify(patientProgramRepository).save(patientProgramCaptor.capture());
+        PatientProgram capturedProgram = patientProgramCaptor.getValue();
+        assertTrue(capturedProgram.isVoided());
+        assertNotNull(capturedProgram.getVoidedAt());
+        assertEquals("Entered in error", capturedProgram.getVoidReason());
+        verify(outboxWriter).record(AggregateType.PATIENT_PROGRAM, 1L, 1L, ChangeType.VOIDED);
+        verify(programEnrollmentCounters).add(1, 0, -1);
+    }
+
+    @Test
+    @DisplayName("Test Void Program Enrollment - Already voided changes nothing")
+    void testVoidProgramEnrollmentAlreadyVoided() {
+        // Arrange
+        testPatientProgram.setVoided(true);
+        when(patientProgramRepository.findByPatientIdAndProgramId(1L, 1)).thenReturn(Optional.of(testPatientProgram));
+
+        // Act
+        patientProgramService.voidProgramEnrollment(1L, 1, new RecordVoidRequest());
+
+        // Assert
+        verify(patientProgramRepository, never()).save(any(PatientProgram.class));
+        verifyNoInteractions(outboxWriter, programEnrollmentCounters);
+    }
+
+    @Test
+    @DisplayName("Test Void Program Enrollment - Enrollment Not Found")
+    void testVoidProgramEnrollmentNotFound() {
+        // Arrange
+        when(patientProgramRepository.findByPatientIdAndProgramId(1L, 1)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> patientProgramService.voidProgramEnrollment(1L, 1, new RecordVoidRequest()));
+        verifyNoInteractions(programEnrollmentCounters);
+    }
+}
@@ -0,0 +1,117 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.config.BulkRegistrationProperties;
+import com.alienworkspace.cdr.patient.model.Patient;
+import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.client.StubDemographicFeignClient;
+import com.alienworkspace.cdr.patient.service.impl.PatientRegistrationPipeline;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PatientRegistrationPipelineTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientMapper patientMapper;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    private StubDemographicFeignClient demographicFeignClient;
+    private PatientRegistrationPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        BulkRegistrationProperties properties = new BulkRegistrationProperties();
+        properties.setBatchSize(2);
+        properties.setConcurrency(2);
+        demographicFeignClient = new StubDemographicFeignClient();
+        pipeline = new PatientRegistrationPipeline(demographicFeignClient, patientRepository, patientMapper,
+                properties, Runnable::run, outboxWriter,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        lenient().when(patientMapper.toPatient(any(PatientDto.class))).thenAnswer(invocation ->
+                Patient.builder().patientId(invocation.<PatientDto>getArgument(0).getPatientId()).build());
+    }
+
+    @Test
+    @DisplayName("Test Register - Persons created and patients inserted once per batch, results in order")
+    void testRegisterInBatches() {
+        List<PatientRegistrationResult> results = register(patient(), patient(), patient());
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(PatientRegistrationResult::index).toList());
+        assertTrue(results.stream().allMatch(result -> result.status() == PatientRegistrationResult.Status.REGISTERED));
+        assertEquals(List.of(1L, 2L, 3L), results.stream().map(PatientRegistrationResult::patientId).toList());
+        assertEquals(2, demographicFeignClient.getBulkRegistrations());
+        assertEquals(0, demographicFeignClient.getSingleRegistrations());
+        verify(patientRepository, times(2)).persistAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Test Register - Falls back to single registrations when the bulk call is unavailable")
+    void testRegisterFallsBackToSingleRegistrations() {
+        demographicFeignClient.withBulkAvailable(false);
+
+        List<PatientRegistrationResult> results = register(patient(), patient(), patient());
+
+        assertTrue(results.stream().allMatch(result -> result.status() == PatientRegistrationResult.Status.REGISTERED));
+        assertEquals(3, demographicFeignClient.getSingleRegistrations());
+    }
+
+    @Test
+    @DisplayName("Test Register - Patient without a person fails alone")
+    void testRegisterWithoutPerson() {
+        List<PatientRegistrationResult> results = register(patient(), new PatientDto(), patient());
+
+        assertEquals(PatientRegistrationResult.Status.REGISTERED, results.get(0).status());
+        assertEquals(PatientRegistrationResult.Status.FAILED, results.get(1).status());
+        assertNull(results.get(1).patientId());
+        assertEquals(PatientRegistrationResult.Status.REGISTERED, results.get(2).status());
+    }
+
+    @Test
+    @DisplayName("Test Register - Failed batch insert is retried per patient")
+    void testRegisterRetriesFailedInsert() {
+        doThrow(new IllegalStateException("Duplicate")).when(patientRepository).persistAll(argThat(patients ->
+                patients.stream().anyMatch(patient -> patient.getPatientId() == 2L)));
+
+        List<PatientRegistrationResult> results = register(patient(), patient());
+
+        assertEquals(PatientRegistrationResult.Status.REGISTERED, results.get(0).status());
+        assertEquals(PatientRegistrationResult.Status.FAILED, results.get(1).status());
+        assertEquals(2L, results.get(1).patientId());
+        assertEquals("Duplicate", results.get(1).error());
+        verify(patientRepository, times(3)).persistAll(anyList());
+    }
+
+    private List<PatientRegistrationResult> register(PatientDto... patients) {
+        List<PatientRegistrationResult> results = new ArrayList<>();
+        pipeline.register(Arrays.asList(patients).iterator(), "CORRELATION_ID", results::add);
+        return results;
+    }
+
+    private static PatientDto patient() {
+        return PatientDto.builder().person(new PersonDto()).build();
+    }
+}
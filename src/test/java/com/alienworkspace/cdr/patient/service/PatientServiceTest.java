@@ -6,25 +6,57 @@ import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 import com.alienworkspace.cdr.model.dto.patient.PatientDto;
+import com.alienworkspace.cdr.model.dto.patient.PatientIdentifierDto;
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.patient.config.DemographicClientProperties;
+import com.alienworkspace.cdr.patient.config.PagingProperties;
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
 import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
 import com.alienworkspace.cdr.patient.model.Patient;
 import com.alienworkspace.cdr.patient.model.PatientIdentifier;
+import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierMapper;
 import com.alienworkspace.cdr.patient.model.mapper.PatientMapper;
 import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.AuditVersion;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
 import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.cache.LocationLevel;
+import com.alienworkspace.cdr.patient.service.cache.LocationTree;
+import com.alienworkspace.cdr.patient.service.cache.LocationTreeHolder;
+import com.alienworkspace.cdr.patient.service.cache.PersonCache;
+import com.alienworkspace.cdr.patient.service.cache.SingleFlight;
+import com.alienworkspace.cdr.patient.service.cache.UnknownIdentifierCache;
+import com.alienworkspace.cdr.patient.service.client.DemographicFeignClient;
+import com.alienworkspace.cdr.patient.service.impl.PatientRegistrationPipeline;
 import com.alienworkspace.cdr.patient.service.impl.PatientServiceImpl;
+import com.alienworkspace.cdr.patient.service.outbox.OutboxWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Limit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @ExtendWith(MockitoExtension.class)
 class PatientServiceTest {
@@ -33,17 +65,56 @@ class PatientServiceTest {
     private PatientRepository patientRepository;
 
     @Mock
-    private PatientIdentifierRepository patientIdentifierRepository;
+    private UnknownIdentifierCache unknownIdentifierCache;
 
     @Mock
     private PatientMapper patientMapper;
 
+    @Mock
+    private PatientIdentifierMapper patientIdentifierMapper;
+
+    @Mock
+    private DemographicFeignClient demographicFeignClient;
+
+    @Mock
+    private PersonCache personCache;
+
+    @Mock
+    private PatientRegistrationPipeline patientRegistrationPipeline;
+
+    @Mock
+    private LocationTreeHolder locationTreeHolder;
+
+    @Mock
+    private PatientProgramRepository patientProgramRepository;
+
+    @Mock
+    private PatientIdentifierRepository patientIdentifierRepository;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private DemographicClientProperties demographicClientProperties = new DemographicClientProperties();
+
+    @Spy
+    private PagingProperties pagingProperties = new PagingProperties();
+
+    @Spy
+    private SingleFlight<Long, PatientDto> patientReadFlight = new SingleFlight<>("patient.reads",
+            new SimpleMeterRegistry());
+
     @InjectMocks
     private PatientServiceImpl patientService;
 
     private Patient testPatient;
     private PatientDto testPatientDto;
-    private PatientIdentifier testPatientIdentifier;
 
     @BeforeEach
     void setUp() {
@@ -56,17 +127,14 @@ class PatientServiceTest {
                 .patientId(1L)
                 .allergies("None")
                 .build();
-
-        testPatientIdentifier = PatientIdentifier.builder()
-                .patient(testPatient)
-                .identifier("12345")
-                .build();
     }
 
     @Test
     @DisplayName("Test Create Patient - Success")
     void testCreatePatient() {
         // Arrange
+        when(demographicFeignClient.addPerson(anyString(), any()))
+                .thenReturn(ResponseEntity.ok(PersonDto.builder().personId(1L).build()));
         when(patientMapper.toPatient(any(PatientDto.class))).thenReturn(testPatient);
         when(patientRepository.save(any(Patient.class))).thenReturn(testPatient);
         when(patientMapper.toPatientDto(any(Patient.class))).thenReturn(testPatientDto);
@@ -79,6 +147,18 @@ class PatientServiceTest {
         assertEquals(testPatientDto.getPatientId(), result.getPatientId());
         assertEquals(testPatientDto.getAllergies(), result.getAllergies());
         verify(patientRepository).save(any(Patient.class));
+        verify(outboxWriter).record(AggregateType.PATIENT, 1L, 1L, ChangeType.CREATED);
+    }
+
+    @Test
+    @DisplayName("Test Register Patients - Delegates to the registration pipeline")
+    void testRegisterPatients() {
+        List<PatientRegistrationResult> results = new ArrayList<>();
+        var patients = List.of(testPatientDto).iterator();
+
+        patientService.registerPatients(patients, "CORRELATION_ID", results::add);
+
+        verify(patientRegistrationPipeline).register(eq(patients), eq("CORRELATION_ID"), any());
     }
 
     @Test
@@ -100,6 +180,7 @@ class PatientServiceTest {
         assertNotNull(result);
         verify(patientRepository).findById(1L);
         verify(patientRepository).save(testPatient);
+        verify(outboxWriter).record(AggregateType.PATIENT, 1L, 1L, ChangeType.UPDATED);
     }
 
     @Test
@@ -131,6 +212,7 @@ class PatientServiceTest {
         patientService.deletePatient(1L, voidRequest);
 
         // Assert
+        verify(personCache).invalidate(1L);
         verify(patientRepository).findById(1L);
         verify(patientRepository).save(argThat(patient -> {
             assertTrue(patient.isVoided());
@@ -171,6 +253,7 @@ class PatientServiceTest {
         assertNotNull(result);
         assertEquals(testPatientDto.getPatientId(), result.getPatientId());
         verify(patientRepository).findById(1L);
+        verify(personCache).get(1L, false, "Correlation ID");
     }
 
     @Test
@@ -185,12 +268,163 @@ class PatientServiceTest {
         verify(patientRepository).findById(1L);
     }
 
+    @Test
+    @DisplayName("Test Get Patients - Batch")
+    void testGetPatients() {
+        // Arrange
+        Patient otherPatient = Patient.builder().patientId(2L).build();
+        PersonDto person = PersonDto.builder().personId(1L).build();
+        when(patientRepository.findAllById(any())).thenReturn(List.of(otherPatient, testPatient));
+        when(personCache.getAll(any(), eq(false), eq("Correlation ID"))).thenReturn(Map.of(1L, person));
+        when(patientMapper.toPatientDto(any(Patient.class)))
+                .thenAnswer(invocation -> PatientDto.builder()
+                        .patientId(invocation.<Patient>getArgument(0).getPatientId())
+                        .build());
+
+        // Act
+        List<PatientDto> results = patientService.getPatients(List.of(1L, 2L, 3L, 1L), "Correlation ID");
+
+        // Assert
+        assertEquals(2, results.size());
+        assertEquals(1L, results.get(0).getPatientId());
+        assertEquals(person, results.get(0).getPerson());
+        assertEquals(2L, results.get(1).getPatientId());
+        assertNull(results.get(1).getPerson());
+        verify(patientRepository).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Test Get Patients - Batch too large")
+    void testGetPatientsTooMany() {
+        // Arrange
+        demographicClientProperties.getBatch().setMaxIds(2);
+
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> patientService.getPatients(List.of(1L, 2L, 3L), "Correlation ID"));
+        verify(patientRepository, never()).findAllById(any());
+    }
+
+    @Test
+    @DisplayName("Test Get Patient ETag - Matches the tag of the read patient and follows its timestamps")
+    void testGetPatientETag() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 0, 0);
+        AuditVersion version = mock(AuditVersion.class);
+        when(version.getCreatedAt()).thenReturn(createdAt);
+        when(patientRepository.findVersionByPatientId(1L)).thenReturn(Optional.of(version));
+        PatientDto read = PatientDto.builder().patientId(1L).build();
+        read.setCreatedAt(createdAt);
+
+        // Act
+        String etag = patientService.getPatientETag(1L);
+        String readETag = patientService.getPatientETag(read);
+        read.setLastModifiedAt(createdAt.plusDays(1));
+
+        // Assert
+        assertEquals(etag, readETag);
+        assertNotEquals(etag, patientService.getPatientETag(read));
+        verify(patientRepository, never()).findById(anyLong());
+        verifyNoInteractions(demographicFeignClient);
+    }
+
+    @Test
+    @DisplayName("Test Get Patient ETag - Not Found")
+    void testGetPatientETagNotFound() {
+        // Arrange
+        when(patientRepository.findVersionByPatientId(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> patientService.getPatientETag(1L));
+    }
+
+    @Test
+    @DisplayName("Test Get Patient With Fields - Identifiers only skip the demographic service")
+    void testGetPatientWithIdentifiersOnly() {
+        // Arrange
+        PatientIdentifier identifier = PatientIdentifier.builder().patientIdentifierId(5L).patient(testPatient).build();
+        Patient patient = Patient.builder()
+                .patientId(1L)
+                .patientIdentifiers(new HashSet<>(List.of(identifier)))
+                .build();
+        PatientIdentifierDto identifierDto = PatientIdentifierDto.builder().patientIdentifierId(5L).build();
+        when(patientRepository.findWithIdentifiersByPatientId(1L)).thenReturn(Optional.of(patient));
+        when(patientIdentifierMapper.toPatientIdentifierDto(identifier)).thenReturn(identifierDto);
+
+        // Act
+        PatientView result = patientService.getPatient(1L, EnumSet.of(PatientField.IDENTIFIERS), "Correlation ID");
+
+        // Assert
+        assertEquals(List.of(identifierDto), result.identifiers());
+        assertNull(result.person());
+        assertNull(result.programs());
+        assertNull(result.audit());
+        verifyNoInteractions(personCache, demographicFeignClient);
+        verify(patientRepository, never()).findWithDetailsByPatientId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test Get Patient With Fields - Person and audit load the patient row only")
+    void testGetPatientWithPersonAndAudit() {
+        // Arrange
+        PersonDto person = PersonDto.builder().personId(1L).build();
+        when(patientRepository.findById(1L)).thenReturn(Optional.of(testPatient));
+        when(personCache.get(1L, false, "Correlation ID")).thenReturn(person);
+
+        // Act
+        PatientView result = patientService.getPatient(1L, EnumSet.of(PatientField.PERSON, PatientField.AUDIT),
+                "Correlation ID");
+
+        // Assert
+        assertEquals(person, result.person());
+        assertEquals("None", result.allergies());
+        assertNotNull(result.audit());
+        assertNull(result.identifiers());
+        verify(patientRepository, never()).findWithIdentifiersByPatientId(anyLong());
+    }
+
+    @Test
+    @DisplayName("Test Get Patients With Fields - Batch without person skips the person cache")
+    void testGetPatientsWithoutPerson() {
+        // Arrange
+        when(patientRepository.findWithProgramsByPatientIdIn(any())).thenReturn(List.of(testPatient));
+
+        // Act
+        List<PatientView> results = patientService.getPatients(List.of(1L, 2L),
+                EnumSet.of(PatientField.PROGRAMS), "Correlation ID");
+
+        // Assert
+        assertEquals(1, results.size());
+        assertEquals(List.of(), results.get(0).programs());
+        verifyNoInteractions(personCache);
+        verify(patientRepository, never()).findAllById(any());
+        verify(patientRepository, never()).findWithIdentifiersByPatientIdIn(any());
+    }
+
+    @Test
+    @DisplayName("Test Get Patients With Fields - Batch with both collections reads them in separate queries")
+    void testGetPatientsWithIdentifiersAndPrograms() {
+        // Arrange
+        when(patientRepository.findWithIdentifiersByPatientIdIn(any())).thenReturn(List.of(testPatient));
+        when(patientRepository.findWithProgramsByPatientIdIn(any())).thenReturn(List.of(testPatient));
+
+        // Act
+        List<PatientView> results = patientService.getPatients(List.of(1L, 2L),
+                EnumSet.of(PatientField.IDENTIFIERS, PatientField.PROGRAMS), "Correlation ID");
+
+        // Assert
+        assertEquals(1, results.size());
+        assertEquals(List.of(), results.get(0).identifiers());
+        assertEquals(List.of(), results.get(0).programs());
+        verify(patientRepository).findWithIdentifiersByPatientIdIn(any());
+        verify(patientRepository).findWithProgramsByPatientIdIn(Set.of(1L));
+    }
+
     @Test
     @DisplayName("Test Get Patient By Identifier - Success")
     void testGetPatientByIdentifier() {
         // Arrange
-        when(patientIdentifierRepository.findPatientIdentifierByIdentifier(anyString()))
-                .thenReturn(Optional.of(testPatientIdentifier));
+        when(patientRepository.findWithDetailsByIdentifier(anyString())).thenReturn(Optional.of(testPatient));
         when(patientMapper.toPatientDto(any(Patient.class))).thenReturn(testPatientDto);
 
         // Act
@@ -199,20 +433,33 @@ class PatientServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(testPatientDto.getPatientId(), result.getPatientId());
-        verify(patientIdentifierRepository).findPatientIdentifierByIdentifier("12345");
+        verify(patientRepository).findWithDetailsByIdentifier("12345");
+        verify(unknownIdentifierCache, never()).markUnknown(anyString());
     }
 
     @Test
     @DisplayName("Test Get Patient By Identifier - Not Found")
     void testGetPatientByIdentifierNotFound() {
         // Arrange
-        when(patientIdentifierRepository.findPatientIdentifierByIdentifier(anyString()))
-                .thenReturn(Optional.empty());
+        when(patientRepository.findWithDetailsByIdentifier(anyString())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> patientService.getPatientByIdentifier("12345"));
+        verify(patientRepository).findWithDetailsByIdentifier("12345");
+        verify(unknownIdentifierCache).markUnknown("12345");
+    }
+
+    @Test
+    @DisplayName("Test Get Patient By Identifier - Known Unknown Identifier Skips The Database")
+    void testGetPatientByIdentifierKnownUnknown() {
+        // Arrange
+        when(unknownIdentifierCache.isUnknown("12345")).thenReturn(true);
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
                 () -> patientService.getPatientByIdentifier("12345"));
-        verify(patientIdentifierRepository).findPatientIdentifierByIdentifier("12345");
+        verify(patientRepository, never()).findWithDetailsByIdentifier(anyString());
     }
 
     @Test
@@ -242,6 +489,86 @@ class PatientServiceTest {
         verify(patientMapper, times(2)).toPatientDto(any(Patient.class));
     }
 
+    @Test
+    @DisplayName("Test Get Patient Page - Keyset page capped at the maximum size")
+    void testGetPatientPage() {
+        // Arrange
+        pagingProperties.setMaxSize(2);
+        when(patientRepository.findByProgramAfter(1, 10L, Limit.of(2))).thenReturn(List.of(testPatient));
+        when(patientMapper.toPatientDto(testPatient)).thenReturn(testPatientDto);
+
+        // Act
+        List<PatientDto> results = patientService.getPatientPage(PatientListQuery.program(1), 10L, 50);
+
+        // Assert
+        assertEquals(List.of(testPatientDto), results);
+    }
+
+    @Test
+    @DisplayName("Test Get Patient Page - Expands a location node to its locations")
+    void testGetPatientPageByLocation() {
+        // Arrange
+        when(locationTreeHolder.current()).thenReturn(locationTree());
+        when(patientRepository.findByLocationsAfter(List.of(4, 5), 0L, Limit.of(10))).thenReturn(List.of(testPatient));
+        when(patientMapper.toPatientDto(testPatient)).thenReturn(testPatientDto);
+
+        // Act
+        List<PatientDto> results = patientService.getPatientPage(PatientListQuery.location(LocationLevel.STATE, 2), 0L,
+                10);
+
+        // Assert
+        assertEquals(List.of(testPatientDto), results);
+    }
+
+    @Test
+    @DisplayName("Test Count Patients By Location - Counts patients of every location below the node")
+    void testCountPatientsByLocation() {
+        // Arrange
+        when(locationTreeHolder.current()).thenReturn(locationTree());
+        when(patientProgramRepository.countPatientsByLocationIds(List.of(4, 5))).thenReturn(12L);
+        when(patientIdentifierRepository.countPatientsByLocationIds(List.of(4, 5))).thenReturn(15L);
+
+        // Act
+        LocationPatientCount count = patientService.countPatientsByLocation(LocationLevel.STATE, 2);
+
+        // Assert
+        assertEquals(new LocationPatientCount(LocationLevel.STATE, 2, "Lagos", 2, 12L, 15L), count);
+    }
+
+    @Test
+    @DisplayName("Test Count Patients By Location - Unknown node")
+    void testCountPatientsByUnknownLocation() {
+        // Arrange
+        when(locationTreeHolder.current()).thenReturn(locationTree());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> patientService.countPatientsByLocation(LocationLevel.STATE, 99));
+        verify(patientProgramRepository, never()).countPatientsByLocationIds(any());
+    }
+
+    @Test
+    @DisplayName("Test Stream Patients - Walks the listing chunk by chunk")
+    void testStreamPatients() {
+        // Arrange
+        pagingProperties.setStreamChunkSize(2);
+        Patient second = Patient.builder().patientId(2L).build();
+        Patient third = Patient.builder().patientId(3L).build();
+        when(patientRepository.findAllAfter(0L, Limit.of(2))).thenReturn(List.of(testPatient, second));
+        when(patientRepository.findAllAfter(2L, Limit.of(2))).thenReturn(List.of(third));
+        when(patientMapper.toPatientDto(any(Patient.class))).thenAnswer(invocation ->
+                PatientDto.builder().patientId(invocation.<Patient>getArgument(0).getPatientId()).build());
+
+        // Act
+        List<Long> streamed = new ArrayList<>();
+        patientService.streamPatients(PatientListQuery.all(), patient -> streamed.add(patient.getPatientId()));
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), streamed);
+        verify(patientRepository, times(2)).findAllAfter(anyLong(), any(Limit.class));
+        verify(entityManager, times(2)).clear();
+    }
+
     @Test
     @DisplayName("Test Get All Patients Both Voided")
     void testGetAllPatientsBothVoided() {
@@ -335,4 +662,16 @@ class PatientServiceTest {
         verify(patientRepository).findByProgramAndStatus(1, true);
         verify(patientMapper).toPatientDto(any(Patient.class));
     }
-} 
\ No newline at end of file
+
+    private static LocationTree locationTree() {
+        return LocationTree.builder()
+                .add(LocationLevel.COUNTRY, 1, "Nigeria", null)
+                .add(LocationLevel.STATE, 2, "Lagos", 1)
+                .add(LocationLevel.COUNTY, 3, "Ikeja", 2)
+                .add(LocationLevel.CITY, 6, "Alausa", 3)
+                .add(LocationLevel.COMMUNITY, 7, "Obafemi", 6)
+                .add(LocationLevel.LOCATION, 5, "Health Centre", 7)
+                .add(LocationLevel.LOCATION, 4, "General Hospital", 7)
+                .build(1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.alienworkspace.cdr.patient.service;
+
+import com.alienworkspace.cdr.patient.repository.CohortExportTuple;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.service.impl.ProgramExportServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProgramExportServiceTest {
+
+    private static final LocalDate JANUARY = LocalDate.of(2024, 1, 1);
+    private static final LocalDate MARCH = LocalDate.of(2024, 3, 1);
+
+    @Mock
+    private PatientProgramRepository patientProgramRepository;
+
+    private MeterRegistry meterRegistry;
+    private ProgramExportServiceImpl programExportService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        programExportService = new ProgramExportServiceImpl(patientProgramRepository, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Test Export Program - The identifiers of an enrollment are gathered into one row")
+    void testExportProgram() {
+        // Arrange
+        List<CohortExportTuple> tuples = List.of(
+                tuple(1L, MARCH, 2, "NIN-1"),
+                tuple(1L, MARCH, 3, "HOS-1"),
+                tuple(1L, JANUARY, 2, "NIN-1"),
+                tuple(1L, JANUARY, 3, "HOS-1"),
+                tuple(2L, JANUARY, null, null));
+        AtomicBoolean closed = new AtomicBoolean();
+        when(patientProgramRepository.streamProgramCohort(7))
+                .thenReturn(tuples.stream().onClose(() -> closed.set(true)));
+        List<CohortExportRow> rows = new ArrayList<>();
+
+        // Act
+        long exported = programExportService.exportProgram(7, rows::add);
+
+        // Assert
+        List<CohortExportRow.Identifier> identifiers = List.of(new CohortExportRow.Identifier(2, "NIN-1"),
+                new CohortExportRow.Identifier(3, "HOS-1"));
+        assertEquals(3, exported);
+        assertEquals(List.of(
+                new CohortExportRow(1L, "uuid-1", MARCH, null, 4, null, identifiers),
+                new CohortExportRow(1L, "uuid-1", JANUARY, null, 4, null, identifiers),
+                new CohortExportRow(2L, "uuid-2", JANUARY, null, 4, null, List.of())), rows);
+        assertTrue(closed.get());
+        assertEquals(3, meterRegistry.get("program.export.rows").counter().count());
+        assertEquals(1, meterRegistry.get("program.export").timer().count());
+    }
+
+    @Test
+    @DisplayName("Test Export Program - An empty cohort exports nothing")
+    void testExportProgramEmpty() {
+        // Arrange
+        when(patientProgramRepository.streamProgramCohort(7)).thenReturn(Stream.empty());
+        List<CohortExportRow> rows = new ArrayList<>();
+
+        // Act & Assert
+        assertEquals(0, programExportService.exportProgram(7, rows::add));
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Export Program - The stream is closed when writing fails")
+    void testExportProgramWriteFails() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        List<CohortExportTuple> tuples = List.of(tuple(1L, JANUARY, null, null));
+        when(patientProgramRepository.streamProgramCohort(7))
+                .thenReturn(tuples.stream().onClose(() -> closed.set(true)));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> programExportService.exportProgram(7, row -> {
+            throw new IllegalStateException("Client went away");
+        }));
+        assertTrue(closed.get());
+    }
+
+    private static CohortExportTuple tuple(long patientId, LocalDate dateEnrolled, Integer identifierTypeId,
+                                           String identifier) {
+        CohortExportTuple tuple = mock(CohortExportTuple.class);
+        lenient().when(tuple.getPatientId()).thenReturn(patientId);
+        lenient().when(tuple.getPatientUuid()).thenReturn("uuid-" + patientId);
+        lenient().when(tuple.getDateEnrolled()).thenReturn(dateEnrolled);
+        lenient().when(tuple.getLocationId()).thenReturn(4);
+        lenient().when(tuple.getOutcomeConceptId()).thenReturn(null);
+        lenient().when(tuple.getIdentifierTypeId()).thenReturn(identifierTypeId);
+        lenient().when(tuple.getIdentifier()).thenReturn(identifier);
+        return tuple;
+    }
+}
@@ -1,8 +1,18 @@
 package com.alienworkspace.cdr.patient.service;
 
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import com.alienworkspace.cdr.patient.exception.ResourceNotFoundException;
 import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.model.ProgramEnrollmentCounter;
 import com.alienworkspace.cdr.patient.model.mapper.ProgramMapper;
+import com.alienworkspace.cdr.patient.repository.EnrollmentInterval;
+import com.alienworkspace.cdr.patient.repository.MonthlyCount;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramEnrollmentCounterRepository;
 import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshot;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import com.alienworkspace.cdr.patient.service.counter.ProgramEnrollmentCounters;
 import com.alienworkspace.cdr.patient.service.impl.ProgramServiceImpl;
 import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
 import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
@@ -13,13 +23,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -31,6 +46,14 @@ public class ProgramServiceTest {
     ProgramRepository programRepository;
     @Mock
     ProgramMapper programMapper;
+    @Mock
+    MetadataSnapshotHolder metadataSnapshotHolder;
+    @Mock
+    ProgramEnrollmentCounterRepository programEnrollmentCounterRepository;
+    @Mock
+    ProgramEnrollmentCounters programEnrollmentCounters;
+    @Mock
+    PatientProgramRepository patientProgramRepository;
 
     @InjectMocks
     ProgramServiceImpl programService;
@@ -79,11 +102,13 @@ public class ProgramServiceTest {
 
         // Assert
         assertNotNull(actualProgramDto);
+        verify(programEnrollmentCounters).create(1);
         assertEquals(programDto.getProgramId(), actualProgramDto.getProgramId());
         assertNotNull(actualProgramDto.getCreatedAt());
         assertNotNull(actualProgramDto.getCreatedBy());
         verify(programRepository).save(programMapper.toProgram(programDto));
         verifyNoMoreInteractions(programRepository);
+        verify(metadataSnapshotHolder).refreshAfterCommit();
     }
 
     @DisplayName("Test Update Program")
@@ -118,6 +143,7 @@ public class ProgramServiceTest {
         assertEquals(expectedProgramDto.getLastModifiedAt(), actualProgramDto.getLastModifiedAt());
         verify(programRepository).save(existingProgram);
         verifyNoMoreInteractions(programRepository);
+        verify(metadataSnapshotHolder).refreshAfterCommit();
     }
 
     @DisplayName("Test Delete Program")
@@ -152,6 +178,7 @@ public class ProgramServiceTest {
         // Assert
         verify(programRepository).save(existingProgram);
         verifyNoMoreInteractions(programRepository);
+        verify(metadataSnapshotHolder).refreshAfterCommit();
         assertTrue(existingProgram.isVoided());
         assertNotNull(existingProgram.getVoidedAt());
     }
@@ -161,11 +188,10 @@ public class ProgramServiceTest {
     public void testGetProgram() {
         // Arrange
         int programId = 1;
-        Program existingProgram = programBuilder.build();
         ProgramDto expectedProgramDto = programDtoBuilder.build();
 
-        when(programRepository.findById(programId)).thenReturn(Optional.of(existingProgram));
-        when(programMapper.toProgramDto(existingProgram)).thenReturn(expectedProgramDto);
+        when(metadataSnapshotHolder.current())
+                .thenReturn(new MetadataSnapshot(1L, List.of(expectedProgramDto), List.of()));
 
         // Act
         ProgramDto actualProgramDto = programService.getProgram(programId);
@@ -173,19 +199,16 @@ public class ProgramServiceTest {
         // Assert
         assertNotNull(actualProgramDto);
         assertEquals(expectedProgramDto, actualProgramDto);
-        verify(programRepository).findById(programId);
-        verifyNoMoreInteractions(programRepository);
+        verifyNoInteractions(programRepository);
     }
 
     @DisplayName("Test Get All Programs")
     @Test
     public void testGetAllPrograms() {
         // Arrange
-        List<Program> programs = List.of(programBuilder.build());
         List<ProgramDto> expectedProgramDtos = List.of(programDtoBuilder.build());
 
-        when(programRepository.findAll()).thenReturn(programs);
-        when(programMapper.toProgramDto(any(Program.class))).thenReturn(programDtoBuilder.build());
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, expectedProgramDtos, List.of()));
 
         // Act
         List<ProgramDto> actualProgramDtos = programService.getAllPrograms();
@@ -193,7 +216,178 @@ public class ProgramServiceTest {
         // Assert
         assertNotNull(actualProgramDtos);
         assertEquals(expectedProgramDtos.size(), actualProgramDtos.size());
-        verify(programRepository).findAll();
-        verifyNoMoreInteractions(programRepository);
+        verifyNoInteractions(programRepository);
+    }
+
+    @DisplayName("Test Get Program Summaries - Counts come from the enrollment counters")
+    @Test
+    public void testGetProgramSummaries() {
+        // Arrange
+        ProgramDto hiv = programDtoBuilder.programId(1).build();
+        ProgramDto tb = programDtoBuilder.programId(2).build();
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(hiv, tb), List.of()));
+        when(programEnrollmentCounterRepository.findAll())
+                .thenReturn(List.of(new ProgramEnrollmentCounter(1, 3, 2, 5)));
+
+        // Act
+        List<ProgramSummary> summaries = programService.getProgramSummaries();
+
+        // Assert
+        assertEquals(List.of(new ProgramSummary(hiv, 3, 2, 5), new ProgramSummary(tb, 0, 0, 0)), summaries);
+        verifyNoInteractions(programRepository);
+    }
+
+    @DisplayName("Test Get Program Stats - Counts come from the counter of the program")
+    @Test
+    public void testGetProgramStats() {
+        // Arrange
+        ProgramDto hiv = programDtoBuilder.programId(1).build();
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(hiv), List.of()));
+        when(programEnrollmentCounterRepository.findById(1))
+                .thenReturn(Optional.of(new ProgramEnrollmentCounter(1, 4, 6, 10)));
+
+        // Act
+        ProgramSummary stats = programService.getProgramStats(1);
+
+        // Assert
+        assertEquals(new ProgramSummary(hiv, 4, 6, 10), stats);
+        verifyNoInteractions(programRepository);
+    }
+
+    @DisplayName("Test Get Program Stats - Unknown program is not found")
+    @Test
+    public void testGetProgramStatsNotFound() {
+        // Arrange
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), List.of()));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> programService.getProgramStats(9));
+        verifyNoInteractions(programEnrollmentCounterRepository);
+    }
+
+    @DisplayName("Test Get Programs ETag - Follows the audit timestamps, not the snapshot version")
+    @Test
+    public void testGetProgramsETag() {
+        // Arrange
+        ProgramDto program = programDtoBuilder.programId(1).build();
+        ProgramDto modified = programDtoBuilder.programId(1).build();
+        modified.setLastModifiedAt(LocalDateTime.of(2025, 1, 1, 0, 0));
+
+        when(metadataSnapshotHolder.current())
+                .thenReturn(new MetadataSnapshot(1L, List.of(program), List.of()))
+                .thenReturn(new MetadataSnapshot(2L, List.of(program), List.of()))
+                .thenReturn(new MetadataSnapshot(3L, List.of(modified), List.of()));
+
+        // Act
+        String first = programService.getProgramsETag();
+        String rebuilt = programService.getProgramsETag();
+        String changed = programService.getProgramsETag();
+
+        // Assert
+        assertEquals(first, rebuilt);
+        assertNotEquals(first, changed);
+        assertTrue(first.startsWith("\"") && first.endsWith("\""));
+        verifyNoInteractions(programRepository);
+    }
+
+    @DisplayName("Test Count Active Enrollments - Counted on the requested date")
+    @Test
+    public void testCountActiveEnrollments() {
+        // Arrange
+        LocalDate on = LocalDate.of(2024, 3, 31);
+        when(metadataSnapshotHolder.current())
+                .thenReturn(new MetadataSnapshot(1L, List.of(programDtoBuilder.build()), List.of()));
+        when(patientProgramRepository.countActiveOn(1, on)).thenReturn(42L);
+
+        // Act & Assert
+        assertEquals(42L, programService.countActiveEnrollments(1, on));
+    }
+
+    @DisplayName("Test Get Active Enrollments - Pages continue after the cursor")
+    @Test
+    public void testGetActiveEnrollments() {
+        // Arrange
+        LocalDate on = LocalDate.of(2024, 3, 31);
+        EnrollmentInterval interval = mock(EnrollmentInterval.class);
+        when(interval.getPatientId()).thenReturn(8L);
+        when(interval.getDateEnrolled()).thenReturn(LocalDate.of(2024, 2, 1));
+        when(interval.getDateCompleted()).thenReturn(LocalDate.of(2024, 5, 1));
+        when(metadataSnapshotHolder.current())
+                .thenReturn(new MetadataSnapshot(1L, List.of(programDtoBuilder.build()), List.of()));
+        when(patientProgramRepository.findActiveOn(1, on, LocalDate.of(2024, 1, 15), 3L, Limit.of(2)))
+                .thenReturn(List.of(interval));
+        String after = new EnrollmentCursor(LocalDate.of(2024, 1, 15), 3L).encode();
+
+        // Act
+        List<ActiveEnrollment> enrollments = programService.getActiveEnrollments(1, on, after, 2);
+
+        // Assert
+        assertEquals(List.of(new ActiveEnrollment(8L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 5, 1))),
+                enrollments);
+    }
+
+    @DisplayName("Test Get Active Enrollments - Malformed cursors are rejected")
+    @Test
+    public void testGetActiveEnrollmentsInvalidCursor() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> programService.getActiveEnrollments(1, LocalDate.of(2024, 3, 31), "not-a-cursor", 2));
+        verifyNoInteractions(patientProgramRepository);
+    }
+
+    @DisplayName("Test Get Monthly Enrollments - Active counts carry over from month to month")
+    @Test
+    public void testGetMonthlyEnrollments() {
+        // Arrange
+        List<MonthlyCount> enrolled = List.of(monthlyCount(2024, 1, 5), monthlyCount(2024, 3, 2));
+        List<MonthlyCount> completed = List.of(monthlyCount(2024, 2, 4));
+        when(metadataSnapshotHolder.current())
+                .thenReturn(new MetadataSnapshot(1L, List.of(programDtoBuilder.build()), List.of()));
+        when(patientProgramRepository.countEnrolledByMonth(1, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31)))
+                .thenReturn(enrolled);
+        when(patientProgramRepository.countCompletedByMonth(1, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31)))
+                .thenReturn(completed);
+        when(patientProgramRepository.countActiveOn(1, LocalDate.of(2023, 12, 31))).thenReturn(10L);
+
+        // Act
+        List<MonthlyEnrollment> months = programService.getMonthlyEnrollments(1, YearMonth.of(2024, 1),
+                YearMonth.of(2024, 3));
+
+        // Assert
+        assertEquals(List.of(
+                new MonthlyEnrollment(YearMonth.of(2024, 1), 5, 0, 15),
+                new MonthlyEnrollment(YearMonth.of(2024, 2), 0, 4, 11),
+                new MonthlyEnrollment(YearMonth.of(2024, 3), 2, 0, 13)), months);
+    }
+
+    @DisplayName("Test Get Monthly Enrollments - Reversed and too long ranges are rejected")
+    @Test
+    public void testGetMonthlyEnrollmentsInvalidRange() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> programService.getMonthlyEnrollments(1, YearMonth.of(2024, 3), YearMonth.of(2024, 1)));
+        assertThrows(BadRequestException.class,
+                () -> programService.getMonthlyEnrollments(1, YearMonth.of(2000, 1), YearMonth.of(2024, 1)));
+        verifyNoInteractions(patientProgramRepository);
+    }
+
+    @DisplayName("Test Get Monthly Enrollments - Unknown program is not found")
+    @Test
+    public void testGetMonthlyEnrollmentsNotFound() {
+        // Arrange
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L, List.of(), List.of()));
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> programService.getMonthlyEnrollments(9, YearMonth.of(2024, 1), YearMonth.of(2024, 3)));
+        verifyNoInteractions(patientProgramRepository);
+    }
+
+    private static MonthlyCount monthlyCount(int year, int month, long total) {
+        MonthlyCount count = mock(MonthlyCount.class);
+        when(count.getCalendarYear()).thenReturn(year);
+        when(count.getCalendarMonth()).thenReturn(month);
+        when(count.getTotal()).thenReturn(total);
+        return count;
     }
 }
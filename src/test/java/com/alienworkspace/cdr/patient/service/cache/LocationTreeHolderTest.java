@@ -0,0 +1,128 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.model.dto.metadata.CityDto;
+import com.alienworkspace.cdr.model.dto.metadata.CommunityDto;
+import com.alienworkspace.cdr.model.dto.metadata.CountryDto;
+import com.alienworkspace.cdr.model.dto.metadata.CountyDto;
+import com.alienworkspace.cdr.model.dto.metadata.LocationDto;
+import com.alienworkspace.cdr.model.dto.metadata.StateDto;
+import com.alienworkspace.cdr.patient.service.client.MetadataFeignClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LocationTreeHolderTest {
+
+    @Mock
+    private MetadataFeignClient metadataFeignClient;
+
+    private MeterRegistry meterRegistry;
+    private LocationTreeHolder locationTreeHolder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        locationTreeHolder = new LocationTreeHolder(metadataFeignClient, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Test Refresh - Loads the whole hierarchy and links every node to its parent")
+    void testRefreshLinksHierarchy() {
+        stubHierarchy();
+
+        assertTrue(locationTreeHolder.refresh());
+
+        LocationTree tree = locationTreeHolder.current();
+        assertEquals(7, tree.size());
+        assertEquals(1, tree.getOrphans());
+        LocationNode location = tree.find(LocationLevel.LOCATION, 6).orElseThrow();
+        assertEquals(List.of("Nigeria", "Lagos", "Ikeja", "Alausa", "Obafemi", "General Hospital"),
+                location.path().stream().map(LocationNode::name).toList());
+        assertEquals(7.0, meterRegistry.get("location.tree.size").gauge().value());
+        assertEquals(1, meterRegistry.get("location.tree.refresh").tag("result", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Test Resolve - Answers person location lookups from memory")
+    void testResolve() {
+        stubHierarchy();
+        locationTreeHolder.refresh();
+        LocationTree tree = locationTreeHolder.current();
+
+        assertEquals(6, tree.resolve(1, 2, 3, 4, 5, 6).orElseThrow().id());
+        assertEquals(LocationLevel.COUNTY, tree.resolve(1, 2, 3, null, null, null).orElseThrow().level());
+        assertTrue(tree.resolve(1, 2, 3, 4, 5, 99).isEmpty());
+        assertTrue(tree.resolve(1, 7, null, null, null, null).isEmpty());
+        verify(metadataFeignClient, never()).getPersonLocation(anyInt(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Test Location Ids - Expands a node to the locations below it")
+    void testLocationIds() {
+        stubHierarchy();
+        when(metadataFeignClient.getAllLocations()).thenReturn(ResponseEntity.ok(List.of(
+                LocationDto.builder().locationId(9).name("Health Centre").communityId(5).build(),
+                LocationDto.builder().locationId(6).name("General Hospital").communityId(5).build())));
+        locationTreeHolder.refresh();
+        LocationTree tree = locationTreeHolder.current();
+
+        assertEquals(List.of(6, 9), tree.locationIds(LocationLevel.STATE, 2));
+        assertEquals(List.of(6, 9), tree.locationIds(LocationLevel.COUNTRY, 1));
+        assertEquals(List.of(6), tree.locationIds(LocationLevel.LOCATION, 6));
+        assertTrue(tree.locationIds(LocationLevel.STATE, 7).isEmpty());
+        assertTrue(tree.locationIds(LocationLevel.STATE, 99).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test Refresh - Keeps the current tree when a level cannot be loaded")
+    void testRefreshKeepsTreeOnFailure() {
+        stubHierarchy();
+        locationTreeHolder.refresh();
+        LocationTree loaded = locationTreeHolder.current();
+        when(metadataFeignClient.getAllCities()).thenReturn(ResponseEntity.ok(null));
+
+        assertFalse(locationTreeHolder.refresh());
+
+        assertSame(loaded, locationTreeHolder.current());
+        assertEquals(1, meterRegistry.get("location.tree.refresh").tag("result", "failure").timer().count());
+    }
+
+    @Test
+    @DisplayName("Test On Locations Changed - Reloads the tree")
+    void testOnLocationsChanged() {
+        stubHierarchy();
+
+        locationTreeHolder.onLocationsChanged(new LocationsChangedEvent(this, "metadata"));
+
+        assertEquals(1, locationTreeHolder.current().getVersion());
+        verify(metadataFeignClient).getAllLocations();
+    }
+
+    private void stubHierarchy() {
+        when(metadataFeignClient.getAllCountries()).thenReturn(ResponseEntity.ok(List.of(
+                CountryDto.builder().countryId(1).name("Nigeria").build())));
+        when(metadataFeignClient.getAllStates()).thenReturn(ResponseEntity.ok(List.of(
+                StateDto.builder().stateId(2).name("Lagos").countryId(1).build(),
+                StateDto.builder().stateId(7).name("Unknown").countryId(42).build())));
+        when(metadataFeignClient.getAllCounties()).thenReturn(ResponseEntity.ok(List.of(
+                CountyDto.builder().countyId(3).name("Ikeja").stateId(2).build())));
+        when(metadataFeignClient.getAllCities()).thenReturn(ResponseEntity.ok(List.of(
+                CityDto.builder().cityId(4).name("Alausa").countyId(3).build())));
+        when(metadataFeignClient.getAllCommunities()).thenReturn(ResponseEntity.ok(List.of(
+                CommunityDto.builder().communityId(5).name("Obafemi").cityId(4).build())));
+        when(metadataFeignClient.getAllLocations()).thenReturn(ResponseEntity.ok(List.of(
+                LocationDto.builder().locationId(6).name("General Hospital").communityId(5).build())));
+    }
+}
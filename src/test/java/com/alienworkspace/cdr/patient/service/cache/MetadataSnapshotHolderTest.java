@@ -0,0 +1,93 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
+import com.alienworkspace.cdr.patient.model.Program;
+import com.alienworkspace.cdr.patient.model.mapper.PatientIdentifierTypeMapper;
+import com.alienworkspace.cdr.patient.model.mapper.ProgramMapper;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierTypeRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.bus.BusProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetadataSnapshotHolderTest {
+
+    @Mock
+    private ProgramRepository programRepository;
+
+    @Mock
+    private PatientIdentifierTypeRepository patientIdentifierTypeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObjectProvider<BusProperties> busPropertiesProvider;
+
+    private MetadataSnapshotHolder metadataSnapshotHolder;
+
+    @BeforeEach
+    void setUp() {
+        metadataSnapshotHolder = new MetadataSnapshotHolder(programRepository, patientIdentifierTypeRepository,
+                ProgramMapper.INSTANCE, PatientIdentifierTypeMapper.INSTANCE, transactionManager, eventPublisher,
+                busPropertiesProvider);
+        when(programRepository.findAll()).thenReturn(List.of(Program.builder().programId(1).name("HIV").build()));
+    }
+
+    @Test
+    @DisplayName("Test Current - Built once and served from memory")
+    void testCurrentBuiltOnce() {
+        MetadataSnapshot first = metadataSnapshotHolder.current();
+        MetadataSnapshot second = metadataSnapshotHolder.current();
+
+        assertSame(first, second);
+        assertEquals("HIV", first.findProgram(1).map(ProgramDto::getName).orElseThrow());
+        verify(programRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Test Refresh - Rebuilds with a higher version and broadcasts the change")
+    void testRefreshAfterCommit() {
+        BusProperties busProperties = new BusProperties();
+        busProperties.setId("patient:8030:a");
+        when(busPropertiesProvider.getIfAvailable()).thenReturn(busProperties);
+        long version = metadataSnapshotHolder.current().getVersion();
+
+        metadataSnapshotHolder.refreshAfterCommit();
+
+        assertTrue(metadataSnapshotHolder.current().getVersion() > version);
+        verify(eventPublisher).publishEvent(any(MetadataChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Test Metadata Changed - Rebuilds only for events from other instances")
+    void testOnMetadataChanged() {
+        BusProperties busProperties = new BusProperties();
+        busProperties.setId("patient:8030:a");
+        when(busPropertiesProvider.getIfAvailable()).thenReturn(busProperties);
+        metadataSnapshotHolder.current();
+
+        metadataSnapshotHolder.onMetadataChanged(new MetadataChangedEvent(this, "patient:8030:a"));
+        verify(programRepository, times(1)).findAll();
+
+        metadataSnapshotHolder.onMetadataChanged(new MetadataChangedEvent(this, "patient:8031:b"));
+        verify(programRepository, times(2)).findAll();
+    }
+}
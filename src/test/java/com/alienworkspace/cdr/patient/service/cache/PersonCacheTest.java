@@ -0,0 +1,242 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.patient.config.DemographicClientProperties;
+import com.alienworkspace.cdr.patient.service.client.DemographicFallback;
+import com.alienworkspace.cdr.patient.service.client.DemographicFeignClient;
+import com.alienworkspace.cdr.patient.service.client.StubDemographicFeignClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersonCacheTest {
+
+    @Mock
+    private DemographicFeignClient demographicFeignClient;
+
+    private MeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+    private LastKnownPersonStore lastKnownPersonStore;
+    private PersonCache personCache;
+    private PersonDto testPerson;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        lastKnownPersonStore = new LastKnownPersonStore(new DemographicClientProperties(), objectMapper,
+                meterRegistry);
+        personCache = new PersonCache(demographicFeignClient, lastKnownPersonStore, new DemographicClientProperties(),
+                objectMapper, Runnable::run, meterRegistry);
+        testPerson = PersonDto.builder().personId(1L).build();
+    }
+
+    @Test
+    @DisplayName("Test Get Person - Loads once and serves repeated reads from cache")
+    void testGetPersonCached() {
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), eq(false)))
+                .thenReturn(ResponseEntity.ok(testPerson));
+
+        assertEquals(testPerson, personCache.get(1L, false, "CORRELATION_ID"));
+        assertEquals(testPerson, personCache.get(1L, false, "CORRELATION_ID"));
+
+        verify(demographicFeignClient, times(1)).getPerson("CORRELATION_ID", 1L, false);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", PersonCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", PersonCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Test Get Person - Keyed by includeVoided")
+    void testGetPersonKeyedByIncludeVoided() {
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), anyBoolean()))
+                .thenReturn(ResponseEntity.ok(testPerson));
+
+        personCache.get(1L, false, "CORRELATION_ID");
+        personCache.get(1L, true, "CORRELATION_ID");
+
+        verify(demographicFeignClient).getPerson("CORRELATION_ID", 1L, false);
+        verify(demographicFeignClient).getPerson("CORRELATION_ID", 1L, true);
+    }
+
+    @Test
+    @DisplayName("Test Get Person - Unavailable person is returned as null and not cached")
+    void testGetPersonUnavailable() {
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), eq(false)))
+                .thenReturn(ResponseEntity.ok(null), ResponseEntity.ok(testPerson));
+
+        assertNull(personCache.get(1L, false, "CORRELATION_ID"));
+        assertEquals(testPerson, personCache.get(1L, false, "CORRELATION_ID"));
+
+        verify(demographicFeignClient, times(2)).getPerson("CORRELATION_ID", 1L, false);
+    }
+
+    @Test
+    @DisplayName("Test Invalidate - Evicts both voided and non voided entries")
+    void testInvalidate() {
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), anyBoolean()))
+                .thenReturn(ResponseEntity.ok(testPerson));
+        personCache.get(1L, false, "CORRELATION_ID");
+        personCache.get(1L, true, "CORRELATION_ID");
+
+        personCache.invalidate(1L);
+        personCache.get(1L, false, "CORRELATION_ID");
+        personCache.get(1L, true, "CORRELATION_ID");
+
+        verify(demographicFeignClient, times(2)).getPerson("CORRELATION_ID", 1L, false);
+        verify(demographicFeignClient, times(2)).getPerson("CORRELATION_ID", 1L, true);
+    }
+
+    @Test
+    @DisplayName("Test Get All - Resolves misses with one bulk call and caches them")
+    void testGetAllUsesBulkLookup() {
+        StubDemographicFeignClient stub = new StubDemographicFeignClient().withPerson(1L).withPerson(2L);
+        PersonCache cache = new PersonCache(stub, lastKnownPersonStore, new DemographicClientProperties(),
+                objectMapper, Runnable::run, new SimpleMeterRegistry());
+
+        Map<Long, PersonDto> people = cache.getAll(List.of(1L, 2L, 3L), false, "CORRELATION_ID");
+        cache.get(1L, false, "CORRELATION_ID");
+
+        assertEquals(2, people.size());
+        assertEquals(1, stub.getBulkLookups());
+        assertEquals(0, stub.getSingleLookups());
+    }
+
+    @Test
+    @DisplayName("Test Get All - Falls back to single lookups when the bulk call is unavailable")
+    void testGetAllFallsBackToFanOut() {
+        StubDemographicFeignClient stub = new StubDemographicFeignClient().withPerson(1L).withPerson(2L)
+                .withBulkAvailable(false);
+        PersonCache cache = new PersonCache(stub, lastKnownPersonStore, new DemographicClientProperties(),
+                objectMapper, Runnable::run, new SimpleMeterRegistry());
+
+        Map<Long, PersonDto> people = cache.getAll(List.of(1L, 2L, 3L), false, "CORRELATION_ID");
+
+        assertEquals(2, people.size());
+        assertEquals(1, stub.getBulkLookups());
+        assertEquals(3, stub.getSingleLookups());
+    }
+
+    @Test
+    @DisplayName("Test Get Person - Outage serves a stale copy without caching it")
+    void testGetPersonServesLastKnownDuringOutage() {
+        DemographicFallback fallback = new DemographicFallback(lastKnownPersonStore, new TimeoutException());
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), eq(false)))
+                .thenReturn(ResponseEntity.ok(testPerson))
+                .thenAnswer(invocation -> fallback.getPerson("CORRELATION_ID", 1L, false))
+                .thenReturn(ResponseEntity.ok(testPerson));
+        PersonDto fresh = personCache.get(1L, false, "CORRELATION_ID");
+        personCache.invalidate(1L);
+
+        PersonDto stale = personCache.get(1L, false, "CORRELATION_ID");
+        PersonDto reloaded = personCache.get(1L, false, "CORRELATION_ID");
+
+        assertEquals(testPerson.getPersonId(), stale.getPersonId());
+        assertNotSame(testPerson, stale);
+        assertTrue(lastKnownPersonStore.isStale(stale));
+        assertFalse(lastKnownPersonStore.isStale(fresh));
+        assertFalse(lastKnownPersonStore.isStale(reloaded));
+        verify(demographicFeignClient, times(3)).getPerson(anyString(), eq(1L), eq(false));
+    }
+
+    @Test
+    @DisplayName("Test Get Person - Stale copies never mark the cached person")
+    void testStaleCopyLeavesCachedPersonFresh() {
+        DemographicFallback fallback = new DemographicFallback(lastKnownPersonStore, new TimeoutException());
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), eq(false)))
+                .thenReturn(ResponseEntity.ok(testPerson));
+        personCache.get(1L, false, "CORRELATION_ID");
+
+        PersonDto stale = fallback.getPerson("CORRELATION_ID", 1L, false).getBody();
+        PersonDto cached = personCache.get(1L, false, "CORRELATION_ID");
+
+        assertTrue(lastKnownPersonStore.isStale(stale));
+        assertSame(testPerson, cached);
+        assertFalse(lastKnownPersonStore.isStale(cached));
+    }
+
+    @Test
+    @DisplayName("Test Get Person - Outage without a last known copy returns null")
+    void testGetPersonOutageWithoutLastKnown() {
+        DemographicFallback fallback = new DemographicFallback(lastKnownPersonStore, new TimeoutException());
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), eq(false)))
+                .thenAnswer(invocation -> fallback.getPerson("CORRELATION_ID", 1L, false));
+
+        assertNull(personCache.get(1L, false, "CORRELATION_ID"));
+        assertEquals(0.0, meterRegistry.get("demographic.person.stale").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test Get Person - A person not found upstream is missing and forgotten, not served stale")
+    void testGetPersonNotFoundForgetsLastKnown() {
+        DemographicFallback fallback = new DemographicFallback(lastKnownPersonStore,
+                mock(FeignException.NotFound.class));
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), eq(false)))
+                .thenReturn(ResponseEntity.ok(testPerson))
+                .thenAnswer(invocation -> fallback.getPerson("CORRELATION_ID", 1L, false));
+        personCache.get(1L, false, "CORRELATION_ID");
+        personCache.invalidate(1L);
+
+        assertNull(personCache.get(1L, false, "CORRELATION_ID"));
+        assertNull(lastKnownPersonStore.serveStale(1L, false));
+    }
+
+    @Test
+    @DisplayName("Test Get Person - Only outages serve a stale copy")
+    void testGetPersonClientErrorServesNoStaleCopy() {
+        lastKnownPersonStore.remember(testPerson, false);
+
+        assertNull(new DemographicFallback(lastKnownPersonStore, mock(FeignException.BadRequest.class))
+                .getPerson("CORRELATION_ID", 1L, false).getBody());
+        assertNotNull(new DemographicFallback(lastKnownPersonStore, mock(FeignException.ServiceUnavailable.class))
+                .getPerson("CORRELATION_ID", 1L, false).getBody());
+        assertNotNull(new DemographicFallback(lastKnownPersonStore, mock(CallNotPermittedException.class))
+                .getPerson("CORRELATION_ID", 1L, false).getBody());
+        assertEquals(2.0, meterRegistry.get("demographic.person.stale").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test Version - Follows the content of the cached person, not its identity")
+    void testVersion() {
+        when(demographicFeignClient.getPerson(anyString(), eq(1L), eq(false)))
+                .thenReturn(ResponseEntity.ok(testPerson));
+
+        assertNull(personCache.version(1L, false));
+        personCache.get(1L, false, "CORRELATION_ID");
+
+        assertEquals(personCache.version(PersonDto.builder().personId(1L).build()), personCache.version(1L, false));
+        assertNotEquals(personCache.version(PersonDto.builder().personId(2L).build()),
+                personCache.version(1L, false));
+    }
+
+    @Test
+    @DisplayName("Test Get All - Remembers persons from the bulk call as last known")
+    void testGetAllRemembersLastKnown() {
+        StubDemographicFeignClient stub = new StubDemographicFeignClient().withPerson(1L);
+        PersonCache cache = new PersonCache(stub, lastKnownPersonStore, new DemographicClientProperties(),
+                objectMapper, Runnable::run, new SimpleMeterRegistry());
+
+        cache.getAll(List.of(1L), false, "CORRELATION_ID");
+
+        assertNotNull(lastKnownPersonStore.serveStale(1L, false));
+    }
+}
@@ -0,0 +1,193 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private MeterRegistry meterRegistry;
+    private SingleFlight<Long, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Test Load - Concurrent callers of the same key share one load")
+    void testConcurrentLoadsCoalesced() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.load(1L, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "value";
+            }), executor);
+            awaitInFlight(1);
+            List<CompletableFuture<String>> followers = new ArrayList<>();
+            for (int i = 1; i < CALLERS; i++) {
+                followers.add(CompletableFuture.supplyAsync(() -> singleFlight.load(1L, () -> {
+                    loads.incrementAndGet();
+                    return "other";
+                }), executor));
+            }
+            while (count("coalesced") < CALLERS - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertEquals("value", leader.get(5, TimeUnit.SECONDS));
+            for (CompletableFuture<String> follower : followers) {
+                assertEquals("value", follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, count("loaded"));
+        assertEquals(CALLERS - 1.0, count("coalesced"));
+        assertEquals(0.0, meterRegistry.get("single.flight.in.flight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Test Load - Sequential calls load again")
+    void testSequentialLoadsNotShared() {
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.load(1L, () -> "value" + loads.incrementAndGet());
+        String second = singleFlight.load(1L, () -> "value" + loads.incrementAndGet());
+
+        assertEquals("value2", second);
+        assertEquals(2.0, count("loaded"));
+        assertEquals(0.0, count("coalesced"));
+    }
+
+    @Test
+    @DisplayName("Test Load - Failure is rethrown to every waiting caller and not remembered")
+    void testFailureSharedAndForgotten() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> singleFlight.load(1L, () -> {
+                await(release);
+                throw new IllegalStateException("boom");
+            }), executor);
+            awaitInFlight(1);
+            CompletableFuture<String> follower = CompletableFuture.supplyAsync(
+                    () -> singleFlight.load(1L, () -> "other"), executor);
+            while (count("coalesced") < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+            assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("value", singleFlight.load(1L, () -> "value"));
+    }
+
+    @Test
+    @DisplayName("Test Load - Waiting callers receive their own copy and their own exception")
+    void testWaitersReceiveCopies() throws Exception {
+        SingleFlight<Long, List<String>> copyingFlight = new SingleFlight<>("copies", meterRegistry,
+                ArrayList::new, failure -> new IllegalStateException("copy", failure));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<String> loaded = new ArrayList<>(List.of("value"));
+            CompletableFuture<List<String>> leader = CompletableFuture.supplyAsync(
+                    () -> copyingFlight.load(1L, () -> {
+                        await(release);
+                        return loaded;
+                    }), executor);
+            awaitInFlight("copies", 1);
+            CompletableFuture<List<String>> follower = CompletableFuture.supplyAsync(
+                    () -> copyingFlight.load(1L, List::of), executor);
+            while (count("copies", "coalesced") < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(loaded, leader.get(5, TimeUnit.SECONDS));
+            List<String> copy = follower.get(5, TimeUnit.SECONDS);
+            assertEquals(loaded, copy);
+            assertNotSame(loaded, copy);
+
+            CountDownLatch fail = new CountDownLatch(1);
+            IllegalArgumentException failure = new IllegalArgumentException("boom");
+            CompletableFuture<List<String>> failingLeader = CompletableFuture.supplyAsync(
+                    () -> copyingFlight.load(2L, () -> {
+                        await(fail);
+                        throw failure;
+                    }), executor);
+            awaitInFlight("copies", 1);
+            CompletableFuture<List<String>> failingFollower = CompletableFuture.supplyAsync(
+                    () -> copyingFlight.load(2L, List::of), executor);
+            while (count("copies", "coalesced") < 2) {
+                Thread.onSpinWait();
+            }
+            fail.countDown();
+
+            Exception leaderFailure = assertThrows(Exception.class, () -> failingLeader.get(5, TimeUnit.SECONDS));
+            Exception followerFailure = assertThrows(Exception.class,
+                    () -> failingFollower.get(5, TimeUnit.SECONDS));
+            assertSame(failure, leaderFailure.getCause());
+            assertEquals("copy", followerFailure.getCause().getMessage());
+            assertSame(failure, followerFailure.getCause().getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double count(String result) {
+        return count("test", result);
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.get(SingleFlight.METER_NAME).tag("name", name).tag("result", result).counter().count();
+    }
+
+    private void awaitInFlight(int keys) {
+        awaitInFlight("test", keys);
+    }
+
+    private void awaitInFlight(String name, int keys) {
+        while (meterRegistry.get("single.flight.in.flight").tag("name", name).gauge().value() < keys) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.alienworkspace.cdr.patient.service.cache;
+
+import com.alienworkspace.cdr.patient.config.IdentifierLookupProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnknownIdentifierCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private UnknownIdentifierCache unknownIdentifierCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        unknownIdentifierCache = new UnknownIdentifierCache(new IdentifierLookupProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Test Mark Unknown - Remembered and counted as a hit")
+    void testMarkUnknown() {
+        assertFalse(unknownIdentifierCache.isUnknown("12345"));
+
+        unknownIdentifierCache.markUnknown("12345");
+
+        assertTrue(unknownIdentifierCache.isUnknown("12345"));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Test Forget - Removed now and again after the transaction commits")
+    void testForgetAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        unknownIdentifierCache.markUnknown("12345");
+
+        unknownIdentifierCache.forget("12345");
+        unknownIdentifierCache.markUnknown("12345");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertFalse(unknownIdentifierCache.isUnknown("12345"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.alienworkspace.cdr.patient.service.client;
+
+import com.alienworkspace.cdr.model.dto.person.PersonDto;
+import com.alienworkspace.cdr.model.helper.RecordVoidRequest;
+import com.alienworkspace.cdr.model.helper.ResponseDto;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * In-memory stand-in for the demographic service, used by tests instead of a running service.
+ */
+public class StubDemographicFeignClient implements DemographicFeignClient {
+
+    private final Map<Long, PersonDto> people = new ConcurrentHashMap<>();
+    private final AtomicLong nextPersonId = new AtomicLong(1);
+    private final AtomicInteger singleLookups = new AtomicInteger();
+    private final AtomicInteger bulkLookups = new AtomicInteger();
+    private final AtomicInteger singleRegistrations = new AtomicInteger();
+    private final AtomicInteger bulkRegistrations = new AtomicInteger();
+    private volatile boolean bulkAvailable = true;
+
+    public StubDemographicFeignClient withPerson(long personId) {
+        people.put(personId, PersonDto.builder().personId(personId).build());
+        return this;
+    }
+
+    public StubDemographicFeignClient withBulkAvailable(boolean bulkAvailable) {
+        this.bulkAvailable = bulkAvailable;
+        return this;
+    }
+
+    public int getSingleLookups() {
+        return singleLookups.get();
+    }
+
+    public int getBulkLookups() {
+        return bulkLookups.get();
+    }
+
+    public int getSingleRegistrations() {
+        return singleRegistrations.get();
+    }
+
+    public int getBulkRegistrations() {
+        return bulkRegistrations.get();
+    }
+
+    @Override
+    public ResponseEntity<PersonDto> getPerson(String correlationId, long id, boolean includeVoided) {
+        singleLookups.incrementAndGet();
+        return ResponseEntity.ok(people.get(id));
+    }
+
+    @Override
+    public ResponseEntity<List<PersonDto>> getPeople(String correlationId, boolean includeVoided, List<Long> ids) {
+        bulkLookups.incrementAndGet();
+        if (!bulkAvailable) {
+            return ResponseEntity.ok(null);
+        }
+        return ResponseEntity.ok(ids.stream().map(people::get).filter(Objects::nonNull).toList());
+    }
+
+    @Override
+    public ResponseEntity<PersonDto> addPerson(String correlationId, PersonDto personDto) {
+        singleRegistrations.incrementAndGet();
+        long personId = nextPersonId.getAndIncrement();
+        withPerson(personId);
+        return ResponseEntity.ok(people.get(personId));
+    }
+
+    @Override
+    public ResponseEntity<List<PersonDto>> addPeople(String correlationId, List<PersonDto> personDtos) {
+        bulkRegistrations.incrementAndGet();
+        if (!bulkAvailable) {
+            return ResponseEntity.ok(null);
+        }
+        return ResponseEntity.ok(personDtos.stream().map(personDto -> {
+            long personId = nextPersonId.getAndIncrement();
+            withPerson(personId);
+            return people.get(personId);
+        }).toList());
+    }
+
+    @Override
+    public ResponseEntity<ResponseDto> deletePerson(long id, RecordVoidRequest voidRequest) {
+        people.remove(id);
+        return ResponseEntity.ok(null);
+    }
+}
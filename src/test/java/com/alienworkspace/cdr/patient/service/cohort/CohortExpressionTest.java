@@ -0,0 +1,57 @@
+package com.alienworkspace.cdr.patient.service.cohort;
+
+import com.alienworkspace.cdr.patient.exception.BadRequestException;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression.All;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression.And;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression.Kind;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression.Member;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression.Not;
+import com.alienworkspace.cdr.patient.service.cohort.CohortExpression.Or;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CohortExpressionTest {
+
+    @Test
+    @DisplayName("Test Parse - Terms are case-insensitive")
+    void testParseTerms() {
+        assertEquals(new All(), CohortExpression.parse(" ALL "));
+        assertEquals(new Member(Kind.PROGRAM, 1), CohortExpression.parse("program:1"));
+        assertEquals(new Member(Kind.ACTIVE, 2), CohortExpression.parse("Active:2"));
+        assertEquals(new Member(Kind.COMPLETED, 3), CohortExpression.parse("completed:3"));
+        assertEquals(new Member(Kind.IDENTIFIER, 4), CohortExpression.parse("IDENTIFIER:4"));
+    }
+
+    @Test
+    @DisplayName("Test Parse - NOT binds tighter than AND, which binds tighter than OR")
+    void testParsePrecedence() {
+        assertEquals(new Or(new Member(Kind.PROGRAM, 1),
+                        new And(new Not(new Member(Kind.PROGRAM, 2)), new Member(Kind.IDENTIFIER, 3))),
+                CohortExpression.parse("program:1 or not program:2 and identifier:3"));
+    }
+
+    @Test
+    @DisplayName("Test Parse - Parentheses group operands")
+    void testParseParentheses() {
+        assertEquals(new And(new Or(new Member(Kind.PROGRAM, 1), new Member(Kind.PROGRAM, 2)),
+                        new Not(new Member(Kind.COMPLETED, 1))),
+                CohortExpression.parse("(program:1 OR program:2) AND NOT(completed:1)"));
+    }
+
+    @Test
+    @DisplayName("Test Parse - Malformed expressions are rejected")
+    void testParseInvalid() {
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse(null));
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse(" "));
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse("program:1 AND"));
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse("(program:1"));
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse("program:1)"));
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse("location:1"));
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse("program:x"));
+        assertThrows(BadRequestException.class, () -> CohortExpression.parse("program:1 program:2"));
+        assertThrows(BadRequestException.class,
+                () -> CohortExpression.parse("all ".repeat(CohortExpression.MAX_LENGTH)));
+    }
+}
@@ -0,0 +1,214 @@
+package com.alienworkspace.cdr.patient.service.cohort;
+
+import com.alienworkspace.cdr.patient.config.CohortIndexProperties;
+import com.alienworkspace.cdr.patient.repository.EnrollmentMembership;
+import com.alienworkspace.cdr.patient.repository.IdentifierMembership;
+import com.alienworkspace.cdr.patient.repository.PatientIdentifierRepository;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.PatientRepository;
+import com.alienworkspace.cdr.patient.service.CohortPage;
+import com.alienworkspace.cdr.patient.service.outbox.PatientsChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CohortIndexTest {
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private PatientProgramRepository patientProgramRepository;
+
+    @Mock
+    private PatientIdentifierRepository patientIdentifierRepository;
+
+    private MeterRegistry meterRegistry;
+    private CohortIndex cohortIndex;
+
+    @BeforeEach
+    void setUp() {
+        CohortIndexProperties properties = new CohortIndexProperties();
+        properties.setChunkSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        cohortIndex = new CohortIndex(patientRepository, patientProgramRepository, patientIdentifierRepository,
+                properties, mock(PlatformTransactionManager.class), Runnable::run, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Test Rebuild - Patients are loaded in chunks")
+    void testRebuild() {
+        givenPatients();
+
+        assertTrue(cohortIndex.rebuild());
+
+        verify(patientRepository).findActiveIdsAfter(0L, Limit.of(2));
+        verify(patientRepository).findActiveIdsAfter(2L, Limit.of(2));
+        verifyNoMoreInteractions(patientRepository);
+        assertEquals(3, meterRegistry.get("cohort.index.patients").gauge().value());
+        assertEquals(1, meterRegistry.get("cohort.index.rebuild").tag("result", "success").timer().count());
+    }
+
+    @Test
+    @DisplayName("Test Query - Expressions are evaluated over the patients that are not voided")
+    void testQuery() {
+        givenPatients();
+
+        assertEquals(List.of(1L, 2L), ids("program:1"));
+        assertEquals(List.of(2L), ids("program:1 AND NOT completed:1"));
+        assertEquals(List.of(1L, 4L), ids("completed:1 OR identifier:5"));
+        assertEquals(List.of(4L), ids("NOT program:1"));
+        assertEquals(List.of(1L, 4L), ids("NOT (active:1 OR program:2)"));
+        assertEquals(List.of(), ids("program:9"));
+        assertEquals(List.of(1L, 2L, 4L), ids("all"));
+    }
+
+    @Test
+    @DisplayName("Test Query - Pages follow the cursor and report the total")
+    void testQueryPages() {
+        givenPatients();
+
+        CohortPage first = cohortIndex.query(CohortExpression.parse("all"), 0, 2);
+        CohortPage second = cohortIndex.query(CohortExpression.parse("all"), 2, 2);
+
+        assertEquals(List.of(1L, 2L), first.patientIds());
+        assertEquals(3, first.total());
+        assertEquals(List.of(4L), second.patientIds());
+        assertEquals(3, second.total());
+    }
+
+    @Test
+    @DisplayName("Test Query - A failed first build is reported")
+    void testQueryBuildFailed() {
+        when(patientRepository.findActiveIdsAfter(anyLong(), any(Limit.class)))
+                .thenThrow(new IllegalStateException("Database down"));
+
+        CohortExpression expression = CohortExpression.parse("all");
+        assertThrows(IllegalStateException.class, () -> cohortIndex.query(expression, 0, 10));
+        assertEquals(1, meterRegistry.get("cohort.index.rebuild").tag("result", "failure").timer().count());
+    }
+
+    @Test
+    @DisplayName("Test Patients Changed - Changed patients are reloaded into the index")
+    void testOnPatientsChanged() {
+        givenPatients();
+        cohortIndex.rebuild();
+        when(patientRepository.findActiveIds(List.of(2L, 4L))).thenReturn(List.of(4L));
+        when(patientProgramRepository.findMemberships(List.of(2L, 4L)))
+                .thenReturn(List.of(enrollment(4L, 1, LocalDate.of(2024, 1, 1))));
+        when(patientIdentifierRepository.findMemberships(List.of(2L, 4L))).thenReturn(List.of());
+
+        cohortIndex.onPatientsChanged(new PatientsChangedEvent(List.of(2L, 4L)));
+
+        assertEquals(List.of(1L, 4L), ids("completed:1"));
+        assertEquals(List.of(), ids("identifier:5"));
+        assertEquals(List.of(1L, 4L), ids("all"));
+        assertEquals(2, meterRegistry.get("cohort.index.patients").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Test Refresh - A reload waits for the one in progress, so an older read never wins")
+    void testRefreshOrdered() throws Exception {
+        givenPatients();
+        cohortIndex.rebuild();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(patientRepository.findActiveIds(List.of(2L))).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return List.of(2L);
+        }).thenReturn(List.of());
+
+        Thread first = new Thread(() -> cohortIndex.refresh(List.of(2L)));
+        first.start();
+        loading.await();
+        Thread second = new Thread(() -> cohortIndex.refresh(List.of(2L)));
+        second.start();
+        verify(patientRepository, after(200).times(1)).findActiveIds(List.of(2L));
+        release.countDown();
+        first.join();
+        second.join();
+
+        verify(patientRepository, times(2)).findActiveIds(List.of(2L));
+        assertEquals(List.of(1L, 4L), ids("all"));
+    }
+
+    @Test
+    @DisplayName("Test Patients Changed - Reloads run in the background and coalesce pending patients")
+    void testOnPatientsChangedInBackground() {
+        List<Runnable> tasks = new ArrayList<>();
+        CohortIndex background = new CohortIndex(patientRepository, patientProgramRepository,
+                patientIdentifierRepository, new CohortIndexProperties(), mock(PlatformTransactionManager.class),
+                tasks::add, new SimpleMeterRegistry());
+        when(patientRepository.findActiveIdsAfter(0L, Limit.of(10000))).thenReturn(List.of(1L, 2L, 4L));
+        background.rebuild();
+        when(patientRepository.findActiveIds(List.of(2L, 4L))).thenReturn(List.of(4L));
+
+        background.onPatientsChanged(new PatientsChangedEvent(List.of(2L)));
+        background.onPatientsChanged(new PatientsChangedEvent(List.of(4L)));
+
+        verify(patientRepository, never()).findActiveIds(any());
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        verify(patientRepository).findActiveIds(List.of(2L, 4L));
+        assertEquals(List.of(1L, 4L), background.query(CohortExpression.parse("all"), 0, 10).patientIds());
+    }
+
+    @Test
+    @DisplayName("Test Patients Changed - Nothing is loaded before the first build")
+    void testOnPatientsChangedNotBuilt() {
+        cohortIndex.onPatientsChanged(new PatientsChangedEvent(List.of(2L)));
+
+        verifyNoInteractions(patientRepository, patientProgramRepository, patientIdentifierRepository);
+    }
+
+    private List<Long> ids(String expression) {
+        return cohortIndex.query(CohortExpression.parse(expression), 0, 10).patientIds();
+    }
+
+    /**
+     * Patients 1, 2 and 4 are not voided. Patient 1 completed program 1, patient 2 is active in program 1
+     * and patient 4 holds an identifier of type 5.
+     */
+    private void givenPatients() {
+        when(patientRepository.findActiveIdsAfter(0L, Limit.of(2))).thenReturn(List.of(1L, 2L));
+        when(patientRepository.findActiveIdsAfter(2L, Limit.of(2))).thenReturn(List.of(4L));
+        when(patientProgramRepository.findMembershipsBetween(0L, 2L)).thenReturn(List.of(
+                enrollment(1L, 1, LocalDate.of(2024, 1, 1)), enrollment(2L, 1, null)));
+        when(patientProgramRepository.findMembershipsBetween(2L, 4L)).thenReturn(List.of());
+        when(patientIdentifierRepository.findMembershipsBetween(0L, 2L)).thenReturn(List.of());
+        when(patientIdentifierRepository.findMembershipsBetween(2L, 4L)).thenReturn(List.of(identifier(4L, 5)));
+    }
+
+    private static EnrollmentMembership enrollment(long patientId, int programId, LocalDate dateCompleted) {
+        EnrollmentMembership enrollment = mock(EnrollmentMembership.class);
+        lenient().when(enrollment.getPatientId()).thenReturn(patientId);
+        lenient().when(enrollment.getProgramId()).thenReturn(programId);
+        lenient().when(enrollment.getDateCompleted()).thenReturn(dateCompleted);
+        return enrollment;
+    }
+
+    private static IdentifierMembership identifier(long patientId, int identifierTypeId) {
+        IdentifierMembership identifier = mock(IdentifierMembership.class);
+        lenient().when(identifier.getPatientId()).thenReturn(patientId);
+        lenient().when(identifier.getIdentifierTypeId()).thenReturn(identifierTypeId);
+        return identifier;
+    }
+}
@@ -0,0 +1,122 @@
+package com.alienworkspace.cdr.patient.service.counter;
+
+import com.alienworkspace.cdr.model.dto.patient.ProgramDto;
+import com.alienworkspace.cdr.patient.model.ProgramEnrollmentCounter;
+import com.alienworkspace.cdr.patient.repository.EnrollmentCounts;
+import com.alienworkspace.cdr.patient.repository.PatientProgramRepository;
+import com.alienworkspace.cdr.patient.repository.ProgramEnrollmentCounterRepository;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshot;
+import com.alienworkspace.cdr.patient.service.cache.MetadataSnapshotHolder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProgramEnrollmentCounterReconcilerTest {
+
+    @Mock
+    private ProgramEnrollmentCounterRepository programEnrollmentCounterRepository;
+
+    @Mock
+    private PatientProgramRepository patientProgramRepository;
+
+    @Mock
+    private MetadataSnapshotHolder metadataSnapshotHolder;
+
+    private MeterRegistry meterRegistry;
+    private ProgramEnrollmentCounterReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new ProgramEnrollmentCounterReconciler(programEnrollmentCounterRepository,
+                patientProgramRepository, metadataSnapshotHolder,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+        when(metadataSnapshotHolder.current()).thenReturn(new MetadataSnapshot(1L,
+                List.of(ProgramDto.builder().programId(1).build(), ProgramDto.builder().programId(2).build()),
+                List.of()));
+    }
+
+    @Test
+    @DisplayName("Test Reconcile - Matching counters are left alone")
+    void testReconcileNothingDrifted() {
+        EnrollmentCounts counts = counts(1, 3L, 2L);
+        when(patientProgramRepository.countEnrollmentsByProgram()).thenReturn(List.of(counts));
+        when(programEnrollmentCounterRepository.findAll()).thenReturn(List.of(
+                new ProgramEnrollmentCounter(1, 3, 2, 5), new ProgramEnrollmentCounter(2, 0, 0, 0)));
+
+        assertEquals(0, reconciler.reconcile());
+
+        verify(programEnrollmentCounterRepository, never()).findForUpdate(anyInt());
+        verify(programEnrollmentCounterRepository, never()).save(any());
+        assertEquals(0.0, meterRegistry.get("program.counters.repaired").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test Reconcile - Drifted counters are recounted under lock and missing ones created")
+    void testReconcileRepairsDrift() {
+        EnrollmentCounts counts = counts(1, 3L, 2L);
+        when(patientProgramRepository.countEnrollmentsByProgram()).thenReturn(List.of(counts));
+        when(programEnrollmentCounterRepository.findAll())
+                .thenReturn(List.of(new ProgramEnrollmentCounter(1, 4, 2, 6)));
+        when(programEnrollmentCounterRepository.findForUpdate(1))
+                .thenReturn(Optional.of(new ProgramEnrollmentCounter(1, 4, 2, 6)));
+        when(programEnrollmentCounterRepository.findForUpdate(2)).thenReturn(Optional.empty());
+        when(patientProgramRepository.countEnrollmentsOfProgram(1)).thenReturn(Optional.of(counts));
+        when(patientProgramRepository.countEnrollmentsOfProgram(2)).thenReturn(Optional.empty());
+
+        assertEquals(2, reconciler.reconcile());
+
+        ArgumentCaptor<ProgramEnrollmentCounter> saved = ArgumentCaptor.forClass(ProgramEnrollmentCounter.class);
+        verify(programEnrollmentCounterRepository, times(2)).save(saved.capture());
+        ProgramEnrollmentCounter repaired = saved.getAllValues().get(0);
+        assertEquals(1, repaired.getProgramId());
+        assertEquals(3, repaired.getActive());
+        assertEquals(2, repaired.getCompleted());
+        assertEquals(5, repaired.getTotal());
+        ProgramEnrollmentCounter created = saved.getAllValues().get(1);
+        assertEquals(2, created.getProgramId());
+        assertEquals(0, created.getTotal());
+        assertEquals(2.0, meterRegistry.get("program.counters.repaired").counter().count());
+    }
+
+    @Test
+    @DisplayName("Test Reconcile - A counter fixed by the time it is locked is not counted")
+    void testReconcileAlreadyFixed() {
+        EnrollmentCounts counts = counts(1, 3L, 2L);
+        when(patientProgramRepository.countEnrollmentsByProgram()).thenReturn(List.of(counts));
+        when(programEnrollmentCounterRepository.findAll()).thenReturn(List.of(
+                new ProgramEnrollmentCounter(1, 2, 2, 4), new ProgramEnrollmentCounter(2, 0, 0, 0)));
+        when(programEnrollmentCounterRepository.findForUpdate(1))
+                .thenReturn(Optional.of(new ProgramEnrollmentCounter(1, 3, 2, 5)));
+        when(patientProgramRepository.countEnrollmentsOfProgram(1)).thenReturn(Optional.of(counts));
+
+        assertEquals(0, reconciler.reconcile());
+
+        verify(programEnrollmentCounterRepository, never()).save(any());
+    }
+
+    private static EnrollmentCounts counts(int programId, long active, long completed) {
+        EnrollmentCounts counts = mock(EnrollmentCounts.class);
+        lenient().when(counts.getProgramId()).thenReturn(programId);
+        lenient().when(counts.getActive()).thenReturn(active);
+        lenient().when(counts.getCompleted()).thenReturn(completed);
+        lenient().when(counts.getTotal()).thenReturn(active + completed);
+        return counts;
+    }
+}
@@ -0,0 +1,158 @@
+package com.alienworkspace.cdr.patient.service.outbox;
+
+import com.alienworkspace.cdr.patient.config.OutboxProperties;
+import com.alienworkspace.cdr.patient.model.OutboxEvent;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.AggregateType;
+import com.alienworkspace.cdr.patient.model.OutboxEvent.ChangeType;
+import com.alienworkspace.cdr.patient.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.cloud.stream.function.StreamBridge;
+import org.springframework.data.domain.Limit;
+import org.springframework.messaging.Message;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private StreamBridge streamBridge;
+
+    private final List<Message<?>> broker = new ArrayList<>();
+    private MeterRegistry meterRegistry;
+    private OutboxProperties properties;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new OutboxProperties();
+        properties.setBatchSize(2);
+        properties.setConfirmTimeout(Duration.ofMillis(100));
+        outboxRelay = new OutboxRelay(outboxEventRepository, streamBridge,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Test Publish Pending - Sends every pending event in order, batch by batch")
+    void testPublishPending() {
+        acceptAll();
+        when(outboxEventRepository.claimPending(Limit.of(2)))
+                .thenReturn(List.of(event(1L), event(2L)), List.of(event(3L)));
+
+        assertEquals(3, outboxRelay.publishPending());
+
+        assertEquals(List.of(1L, 2L, 3L), broker.stream()
+                .map(message -> message.getHeaders().get(OutboxRelay.EVENT_ID_HEADER)).toList());
+        PatientChangeEvent first = (PatientChangeEvent) broker.get(0).getPayload();
+        assertEquals(AggregateType.PATIENT_PROGRAM, first.aggregateType());
+        assertEquals(7L, first.patientId());
+        verify(outboxEventRepository).markPublished(eq(List.of(1L, 2L)), any(Instant.class));
+        verify(outboxEventRepository).markPublished(eq(List.of(3L)), any(Instant.class));
+        assertEquals(3.0, meterRegistry.get("outbox.events.published").counter().count());
+        assertEquals(2, meterRegistry.get("outbox.relay.batch").timer().count());
+        assertTrue(meterRegistry.get("outbox.lag").gauge().value() >= 60);
+    }
+
+    @Test
+    @DisplayName("Test Publish Pending - Stops at the first event the binder rejects")
+    void testPublishPendingStopsAtRejectedEvent() {
+        when(streamBridge.send(eq(properties.getBinding()), any(Message.class))).thenAnswer(invocation -> {
+            confirm(invocation.getArgument(1), true);
+            return true;
+        }).thenReturn(false);
+        when(outboxEventRepository.claimPending(Limit.of(2))).thenReturn(List.of(event(1L), event(2L)));
+
+        assertEquals(1, outboxRelay.publishPending());
+
+        verify(outboxEventRepository).markPublished(eq(List.of(1L)), any(Instant.class));
+        verify(outboxEventRepository, times(1)).claimPending(any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Test Publish Pending - Only events the broker confirmed are marked published")
+    void testPublishPendingMarksOnlyConfirmedEvents() {
+        when(streamBridge.send(eq(properties.getBinding()), any(Message.class))).thenAnswer(invocation -> {
+            Message<?> message = invocation.getArgument(1);
+            boolean ack = !Long.valueOf(1L).equals(message.getHeaders().get(OutboxRelay.EVENT_ID_HEADER));
+            confirm(message, ack);
+            return true;
+        });
+        when(outboxEventRepository.claimPending(Limit.of(2))).thenReturn(List.of(event(1L), event(2L)));
+
+        assertEquals(1, outboxRelay.publishPending());
+
+        verify(outboxEventRepository).markPublished(eq(List.of(2L)), any(Instant.class));
+        verify(outboxEventRepository, times(1)).claimPending(any(Limit.class));
+    }
+
+    @Test
+    @DisplayName("Test Publish Pending - Events the broker does not confirm in time stay pending")
+    void testPublishPendingWithoutConfirm() {
+        when(streamBridge.send(eq(properties.getBinding()), any(Message.class))).thenReturn(true);
+        when(outboxEventRepository.claimPending(Limit.of(2))).thenReturn(List.of(event(1L), event(2L)));
+
+        assertEquals(0, outboxRelay.publishPending());
+
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Test Publish Pending - Nothing pending")
+    void testPublishPendingNothingPending() {
+        when(outboxEventRepository.claimPending(Limit.of(2))).thenReturn(List.of());
+
+        assertEquals(0, outboxRelay.publishPending());
+
+        verifyNoInteractions(streamBridge);
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any(Instant.class));
+        assertEquals(0.0, meterRegistry.get("outbox.lag").gauge().value());
+    }
+
+    private void acceptAll() {
+        when(streamBridge.send(eq(properties.getBinding()), any(Message.class))).thenAnswer(invocation -> {
+            Message<?> message = invocation.getArgument(1);
+            broker.add(message);
+            confirm(message, true);
+            return true;
+        });
+    }
+
+    private static void confirm(Message<?> message, boolean ack) {
+        CorrelationData correlation = (CorrelationData) message.getHeaders()
+                .get(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION);
+        correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .outboxEventId(id)
+                .aggregateType(AggregateType.PATIENT_PROGRAM)
+                .aggregateId(id * 10)
+                .patientId(7L)
+                .changeType(ChangeType.CREATED)
+                .occurredAt(Instant.now().minusSeconds(60))
+                .build();
+    }
+}